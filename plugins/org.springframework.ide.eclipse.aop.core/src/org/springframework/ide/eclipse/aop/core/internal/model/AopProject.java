@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2006, 2010 Spring IDE Developers
+ * Copyright (c) 2006, 2017 Spring IDE Developers
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -11,6 +11,7 @@
 package org.springframework.ide.eclipse.aop.core.internal.model;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.LinkedHashSet;
 import java.util.List;
@@ -41,6 +42,9 @@ public class AopProject implements IAopProject {
 
 	protected final Lock w = rwl.writeLock();
 
+	/** <code>true</code> if the references changed since the project was last persisted */
+	private volatile boolean dirty = false;
+
 	public AopProject(IJavaProject project) {
 		this.project = project;
 	}
@@ -49,7 +53,27 @@ public class AopProject implements IAopProject {
 		AopLog.log(AopLog.BUILDER_MESSAGES, "Created AOP reference '" + reference + "'");
 		try {
 			w.lock();
-			this.references.add(reference);
+			if (this.references.add(reference)) {
+				dirty = true;
+			}
+		}
+		finally {
+			w.unlock();
+		}
+	}
+
+	/**
+	 * Adds all given references at once, so that the reference set is only copied once.
+	 */
+	public void addAopReferences(Collection<IAopReference> references) {
+		for (IAopReference reference : references) {
+			AopLog.log(AopLog.BUILDER_MESSAGES, "Created AOP reference '" + reference + "'");
+		}
+		try {
+			w.lock();
+			if (this.references.addAll(references)) {
+				dirty = true;
+			}
 		}
 		finally {
 			w.unlock();
@@ -65,7 +89,9 @@ public class AopProject implements IAopProject {
 					toRemove.add(reference);
 				}
 			}
-			this.references.removeAll(toRemove);
+			if (this.references.removeAll(toRemove)) {
+				dirty = true;
+			}
 		}
 		finally {
 			w.unlock();
@@ -76,6 +102,22 @@ public class AopProject implements IAopProject {
 		return Collections.unmodifiableSet(this.references);
 	}
 
+	/**
+	 * @return <code>true</code> if references were added or removed since the last call to {@link #setDirty(boolean)
+	 * setDirty(false)}
+	 * @since 3.9.4
+	 */
+	public boolean isDirty() {
+		return dirty;
+	}
+
+	/**
+	 * @since 3.9.4
+	 */
+	public void setDirty(boolean dirty) {
+		this.dirty = dirty;
+	}
+
 	public IJavaProject getProject() {
 		return this.project;
 	}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2006, 2010 Spring IDE Developers
+ * Copyright (c) 2006, 2017 Spring IDE Developers
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -12,17 +12,26 @@ package org.springframework.ide.eclipse.aop.core.internal.model;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
+import org.eclipse.core.resources.IProject;
 import org.eclipse.core.resources.IResource;
 import org.eclipse.core.resources.IResourceChangeListener;
 import org.eclipse.core.resources.IWorkspace;
 import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
 import org.eclipse.jdt.core.IJavaElement;
 import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.JavaCore;
 import org.springframework.ide.eclipse.aop.core.model.IAopModelChangedListener;
 import org.springframework.ide.eclipse.aop.core.model.IAopProject;
 import org.springframework.ide.eclipse.aop.core.model.IAopReference;
@@ -45,6 +54,11 @@ public class AopReferenceModel implements IAopReferenceModel {
 
 	private IResourceChangeListener workspaceListener;
 
+	/** Names of the projects that have been persisted but not yet loaded in this session */
+	private final Set<String> unloadedProjects = Collections.synchronizedSet(new HashSet<String>());
+
+	private final Object loadLock = new Object();
+
 	// private IModelChangeListener modelChangeListener;
 
 	public void addProject(IJavaProject project, IAopProject aopProject) {
@@ -67,6 +81,11 @@ public class AopReferenceModel implements IAopReferenceModel {
 		return advices;
 	}
 
+	/**
+	 * Returns the references of all projects loaded so far. Persisted projects that haven't been loaded yet are
+	 * left to the background job started by {@link #start()}, as this is called by decorators on the UI thread.
+	 * Listeners are notified once that job has loaded them.
+	 */
 	public List<IAopReference> getAllReferences() {
 		List<IAopReference> refs = new ArrayList<IAopReference>();
 		for (Map.Entry<IJavaProject, IAopProject> e : projects.entrySet()) {
@@ -96,10 +115,12 @@ public class AopReferenceModel implements IAopReferenceModel {
 	}
 
 	public Collection<IAopProject> getProjects() {
+		loadPersistedProjects();
 		return this.projects.values();
 	}
 
 	public IAopProject getProjectWithInitialization(IJavaProject project) {
+		loadPersistedProject(project);
 		if (this.projects.containsKey(project)) {
 			return this.projects.get(project);
 		}
@@ -110,6 +131,50 @@ public class AopReferenceModel implements IAopReferenceModel {
 		}
 	}
 
+	/**
+	 * Loads the persisted references of the given project, unless that already happened.
+	 */
+	private boolean loadPersistedProject(IJavaProject project) {
+		if (unloadedProjects.isEmpty()) {
+			return false;
+		}
+		IAopProject loaded = null;
+		synchronized (loadLock) {
+			if (unloadedProjects.remove(project.getElementName())) {
+				loaded = persistence.loadProject(this, project);
+			}
+		}
+		// Markers are created outside of the lock as that requires access to the workspace
+		if (loaded != null) {
+			persistence.createMarkers(loaded);
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * @return <code>true</code> if any project was loaded
+	 */
+	private boolean loadPersistedProjects() {
+		boolean loaded = false;
+		String[] names;
+		synchronized (unloadedProjects) {
+			names = unloadedProjects.toArray(new String[unloadedProjects.size()]);
+		}
+		for (String name : names) {
+			IProject project = ResourcesPlugin.getWorkspace().getRoot().getProject(name);
+			if (project.isAccessible()) {
+				loaded |= loadPersistedProject(JavaCore.create(project));
+			}
+			else if (!project.exists()) {
+				// Project deleted since the last session. Closed projects are kept, so that their
+				// persisted references survive until they are opened again.
+				unloadedProjects.remove(name);
+			}
+		}
+		return loaded;
+	}
+
 	public boolean isAdvice(IJavaElement je) {
 		return getAdviceDefinition(je).size() > 0;
 	}
@@ -145,6 +210,7 @@ public class AopReferenceModel implements IAopReferenceModel {
 	}
 
 	public synchronized void removeProject(IJavaProject project) {
+		unloadedProjects.remove(project.getElementName());
 		for (IJavaProject jp : projects.keySet()) {
 			if (jp.equals(project)) {
 				projects.remove(jp);
@@ -155,6 +221,7 @@ public class AopReferenceModel implements IAopReferenceModel {
 	}
 
 	public synchronized void clearProjects() {
+		this.unloadedProjects.clear();
 		this.projects.clear();
 	}
 
@@ -164,10 +231,17 @@ public class AopReferenceModel implements IAopReferenceModel {
 		workspace.removeResourceChangeListener(workspaceListener);
 		workspaceListener = null;
 
-		// Persist model
-		persistence.saveReferenceModel();
+		// Persist model; holding the load lock so that no project is half-loaded
+		synchronized (loadLock) {
+			Set<String> unloaded;
+			synchronized (unloadedProjects) {
+				unloaded = new HashSet<String>(unloadedProjects);
+			}
+			persistence.saveReferenceModel(projects.values(), unloaded);
+		}
 
 		// Remove all projects
+		unloadedProjects.clear();
 		projects.clear();
 
 		// BeansCorePlugin.getModel().removeChangeListener(modelChangeListener);
@@ -180,7 +254,29 @@ public class AopReferenceModel implements IAopReferenceModel {
 		workspace.addResourceChangeListener(workspaceListener, SpringResourceChangeListener.LISTENER_FLAGS);
 
 		persistence = new AopReferenceModelPeristence();
-		persistence.loadReferenceModel();
+		persistence.loadReferenceModel(this);
+
+		// Persisted projects are loaded on first access, or by a background job to restore their markers
+		for (String name : persistence.getPersistedProjectNames()) {
+			if (!projects.containsKey(JavaCore.create(ResourcesPlugin.getWorkspace().getRoot().getProject(name)))) {
+				unloadedProjects.add(name);
+			}
+		}
+		if (!unloadedProjects.isEmpty()) {
+			Job loadJob = new Job("Loading Spring Aop Model") {
+
+				@Override
+				protected IStatus run(IProgressMonitor monitor) {
+					if (loadPersistedProjects()) {
+						fireModelChanged();
+					}
+					return Status.OK_STATUS;
+				}
+			};
+			loadJob.setSystem(true);
+			loadJob.setPriority(Job.DECORATE);
+			loadJob.schedule();
+		}
 
 		// modelChangeListener = new AopBeansModelListener();
 		// BeansCorePlugin.getModel().addChangeListener(modelChangeListener);
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2008 Spring IDE Developers
+ * Copyright (c) 2007, 2017 Spring IDE Developers
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -10,14 +10,29 @@
  *******************************************************************************/
 package org.springframework.ide.eclipse.aop.core.internal.model;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
 import java.io.FileReader;
-import java.io.FileWriter;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.io.Reader;
-import java.io.Writer;
+import java.io.UnsupportedEncodingException;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -45,6 +60,15 @@ import org.springframework.ide.eclipse.aop.core.model.IAspectDefinition;
 import org.springframework.ide.eclipse.aop.core.util.AopReferenceModelMarkerUtils;
 
 /**
+ * Persists the {@link AopReferenceModel} across sessions.
+ * <p>
+ * Every project is stored in a file of its own in the <code>aop-model</code> folder of the plugin's state location.
+ * The files use a compact, versioned binary format: a table of all strings used in the file (so that the many
+ * repeated element handles are stored only once) followed by the tree of mementos produced by the model elements'
+ * {@link IPersistableElement}s. Only projects that changed since they were loaded or last saved are written, each to a
+ * temporary file that then replaces the previous version.
+ * <p>
+ * The <code>.state</code> XML file written by earlier versions is read once and replaced by the new format.
  * @author Christian Dupuis
  * @since 2.0
  */
@@ -72,18 +96,34 @@ public class AopReferenceModelPeristence {
 
 	private static final String AOP_REFERENCE_ELEMENT = "aop-reference";
 
-	private static final String AOP_REFERENCE_MODEL_ELEMENT = "aop-reference-model";
-
 	private static final String ASPECT_DEFINITION_ELEMENT = "aspect-definition";
 
 	private static final String FACTORY_ID = "factory-id";
 
 	private static final String NAME_ATTRIBUTE = "name";
 
-	private IPath defaultFile = null;
+	private static final String MODEL_FOLDER = "aop-model";
+
+	private static final String FILE_EXTENSION = ".aopmodel";
+
+	private static final String TEMP_FILE_EXTENSION = ".tmp";
+
+	/** Marks a file as a persisted AOP project: 'AOPM' */
+	private static final int MAGIC = 0x414F504D;
+
+	/** Must be incremented whenever the format of the files changes; files of other versions are discarded */
+	private static final int VERSION = 1;
+
+	private static final int NO_TEXT = -1;
+
+	private IPath legacyFile = null;
+
+	private File modelFolder = null;
 
 	public AopReferenceModelPeristence() {
-		this.defaultFile = Activator.getDefault().getStateLocation().append(".state");
+		IPath stateLocation = Activator.getDefault().getStateLocation();
+		this.legacyFile = stateLocation.append(".state");
+		this.modelFolder = stateLocation.append(MODEL_FOLDER).toFile();
 	}
 
 	private IMemento appendNewChild(IMemento memento, String type) {
@@ -100,30 +140,31 @@ public class AopReferenceModelPeristence {
 		if (projects != null && projects.length > 0) {
 			for (IMemento project : projects) {
 				String projectName = project.getString(NAME_ATTRIBUTE);
-				IWorkspaceRoot root = ResourcesPlugin.getWorkspace().getRoot();
-				IResource member = root.findMember(projectName);
-				if (member instanceof IProject) {
-					IJavaProject javaProject = JavaCore.create((IProject) member);
+				IJavaProject javaProject = getJavaProject(projectName);
+				if (javaProject != null) {
 					IAopProject aopProject = model.getProject(javaProject);
-
-					createAspectDefinitions(projects, project, aopProject);
-
-					// recreate the marker
-					Set<IAopReference> references = aopProject.getAllReferences();
-					for (IAopReference reference : references) {
-						AopReferenceModelMarkerUtils.createMarker(reference, reference
-								.getResource());
-					}
+					createAspectDefinitions(project, aopProject);
+					createMarkers(aopProject);
 				}
 			}
 		}
 	}
 
+	private IJavaProject getJavaProject(String projectName) {
+		IWorkspaceRoot root = ResourcesPlugin.getWorkspace().getRoot();
+		IResource member = root.findMember(projectName);
+		if (member instanceof IProject) {
+			return JavaCore.create((IProject) member);
+		}
+		return null;
+	}
+
 	private void createAopReferences(IAopProject aopProject, IMemento aspectDefinitionM,
 			IAspectDefinition aspectDefinition) {
 		String factoryId;
 		IMemento[] aopReferences = aspectDefinitionM.getChildren(AOP_REFERENCE_ELEMENT);
 		if (aopReferences != null && aopReferences.length > 0) {
+			List<IAopReference> references = new ArrayList<IAopReference>(aopReferences.length);
 			for (IMemento aopReferenceM : aopReferences) {
 				factoryId = aopReferenceM.getString(FACTORY_ID);
 				IAopReference aopReference = (IAopReference) ELEMENT_FACTORIES.get(factoryId)
@@ -131,45 +172,59 @@ public class AopReferenceModelPeristence {
 				// The aopReference can be null if the resource has been deleted or is an external
 				if (aopReference != null) {
 					aopReference.setDefinition(aspectDefinition);
-					aopProject.addAopReference(aopReference);
+					references.add(aopReference);
 				}
 			}
+			((AopProject) aopProject).addAopReferences(references);
 		}
 	}
 
-	private void createAspectDefinitions(IMemento[] projects, IMemento project,
-			IAopProject aopProject) {
+	private void createAspectDefinitions(IMemento project, IAopProject aopProject) {
 		IMemento[] aspectDefinitions = project.getChildren(ASPECT_DEFINITION_ELEMENT);
-		if (projects != null && projects.length > 0) {
+		if (aspectDefinitions != null) {
 			for (IMemento aspectDefinitionM : aspectDefinitions) {
 				String factoryId = aspectDefinitionM.getString(FACTORY_ID);
-				IAspectDefinition aspectDefinition = (IAspectDefinition) ELEMENT_FACTORIES.get(
-						factoryId).createElement(aspectDefinitionM);
-				createAopReferences(aopProject, aspectDefinitionM, aspectDefinition);
+				IElementFactory factory = factoryId != null ? ELEMENT_FACTORIES.get(factoryId) : null;
+				if (factory != null) {
+					IAspectDefinition aspectDefinition = (IAspectDefinition) factory.createElement(aspectDefinitionM);
+					createAopReferences(aopProject, aspectDefinitionM, aspectDefinition);
+				}
 			}
 		}
 	}
 
+	/**
+	 * Recreates the (non-persistent) markers for all references of the given project.
+	 */
+	protected void createMarkers(IAopProject aopProject) {
+		for (IAopReference reference : aopProject.getAllReferences()) {
+			AopReferenceModelMarkerUtils.createMarker(reference, reference.getResource());
+		}
+	}
+
 	protected boolean isPersisted() {
-		return defaultFile.toFile().exists();
+		return legacyFile.toFile().exists();
 	}
 
-	protected synchronized void loadReferenceModel() {
+	/**
+	 * Migrates the model persisted by earlier versions into the given model. Projects persisted in the current format
+	 * are not loaded here; see {@link #getPersistedProjectNames()} and {@link #loadProject(IAopReferenceModel, IJavaProject)}.
+	 */
+	protected synchronized void loadReferenceModel(IAopReferenceModel model) {
 		if (!shouldModelByPersisted() || !isPersisted()) {
 			return;
 		}
 
-		IAopReferenceModel model = Activator.getModel();
 		Reader reader = null;
 		try {
-			reader = new FileReader(defaultFile.toFile());
+			reader = new FileReader(legacyFile.toFile());
 			XMLMemento memento = XMLMemento.createReadRoot(reader);
 			createAopProjects(model, memento);
 		}
 		catch (Exception e) {
 			Activator.log("Cannot load .state model file", e);
 			// re-init aop reference model
-			Activator.getModel().clearProjects();
+			model.clearProjects();
 		}
 		finally {
 			if (reader != null) {
@@ -182,80 +237,306 @@ public class AopReferenceModelPeristence {
 		}
 	}
 
+	/**
+	 * @return the names of all projects that have been persisted in the current format
+	 */
+	protected Set<String> getPersistedProjectNames() {
+		Set<String> names = new HashSet<String>();
+		if (shouldModelByPersisted()) {
+			File[] files = modelFolder.listFiles();
+			if (files != null) {
+				for (File file : files) {
+					String projectName = getProjectName(file);
+					if (projectName != null) {
+						names.add(projectName);
+					}
+				}
+			}
+		}
+		return names;
+	}
+
+	/**
+	 * Reads the persisted references of a single project into the model. Doesn't create markers for the loaded
+	 * references; that is left to the caller, as it requires access to the workspace.
+	 * @return the loaded project or <code>null</code> if nothing was loaded
+	 */
+	protected IAopProject loadProject(IAopReferenceModel model, IJavaProject javaProject) {
+		File file = getProjectFile(javaProject.getElementName());
+		if (!file.exists()) {
+			return null;
+		}
+		AttributeMemento projectM;
+		try {
+			projectM = read(file);
+		}
+		catch (Exception e) {
+			Activator.log("Cannot load persisted AOP model of project '" + javaProject.getElementName() + "'", e);
+			file.delete();
+			return null;
+		}
+		IAopProject aopProject = model.getProject(javaProject);
+		createAspectDefinitions(projectM, aopProject);
+		if (aopProject instanceof AopProject) {
+			// What was just read is what is on disk
+			((AopProject) aopProject).setDirty(false);
+		}
+		return aopProject;
+	}
+
 	private boolean shouldModelByPersisted() {
 		IScopeContext context = new InstanceScope();
 		IEclipsePreferences node = context.getNode(Activator.PLUGIN_ID);
 		return node.getBoolean(Activator.PERSIST_AOP_MODEL_PREFERENCE, true);
 	}
 
-	protected synchronized void saveReferenceModel() {
+	/**
+	 * Writes all changed projects, and removes the files of projects that are no longer part of the model.
+	 * @param projects the projects of the model
+	 * @param unloadedProjectNames the names of persisted projects that haven't been loaded in this session, and whose
+	 * files are therefore still up-to-date
+	 */
+	protected synchronized void saveReferenceModel(Collection<IAopProject> projects, Set<String> unloadedProjectNames) {
+		if (isPersisted()) {
+			// replaced by the per-project files
+			legacyFile.toFile().delete();
+		}
 		if (!shouldModelByPersisted()) {
-			if (isPersisted()) {
-				defaultFile.toFile().delete();
-			}
+			deleteProjectFiles(new HashSet<String>());
 			return;
 		}
 
-		XMLMemento memento = XMLMemento.createWriteRoot(AOP_REFERENCE_MODEL_ELEMENT);
-		Collection<IAopProject> projects = Activator.getModel().getProjects();
+		Set<String> keep = new HashSet<String>(unloadedProjectNames);
 		for (IAopProject project : projects) {
-			IMemento projectM = appendNewChild(memento, AOP_PROJECT_ELEMENT);
-			projectM.putString(NAME_ATTRIBUTE, project.getProject().getElementName());
-
-			Set<IAopReference> refs = project.getAllReferences();
-			Map<IAspectDefinition, List<IAopReference>> maps = new HashMap<IAspectDefinition, List<IAopReference>>();
-			for (IAopReference ref : refs) {
-				if (maps.containsKey(ref.getDefinition())) {
-					maps.get(ref.getDefinition()).add(ref);
+			String projectName = project.getProject().getElementName();
+			keep.add(projectName);
+			File file = getProjectFile(projectName);
+			if (project instanceof AopProject && !((AopProject) project).isDirty() && file.exists()) {
+				continue;
+			}
+			try {
+				write(file, createProjectMemento(project));
+				if (project instanceof AopProject) {
+					((AopProject) project).setDirty(false);
 				}
-				else {
-					List<IAopReference> r = new ArrayList<IAopReference>();
-					r.add(ref);
-					maps.put(ref.getDefinition(), r);
+			}
+			catch (IOException e) {
+				Activator.log("Cannot save AOP model of project '" + projectName + "'", e);
+			}
+		}
+		deleteProjectFiles(keep);
+	}
+
+	private void deleteProjectFiles(Set<String> keep) {
+		File[] files = modelFolder.listFiles();
+		if (files != null) {
+			for (File file : files) {
+				String projectName = getProjectName(file);
+				if (projectName == null || !keep.contains(projectName)) {
+					file.delete();
 				}
 			}
+		}
+	}
 
-			for (Map.Entry<IAspectDefinition, List<IAopReference>> entry : maps.entrySet()) {
-				IMemento definitionM = appendNewChild(projectM, ASPECT_DEFINITION_ELEMENT);
-				if (entry.getKey() instanceof IAdaptable) {
-					IPersistableElement pers = (IPersistableElement) ((IAdaptable) entry.getKey())
-							.getAdapter(IPersistableElement.class);
-					if (pers != null) {
-						pers.saveState(definitionM);
-						definitionM.putString(FACTORY_ID, pers.getFactoryId());
-					}
-					for (IAopReference ref : entry.getValue()) {
-						if (ref instanceof IAdaptable) {
-							IPersistableElement pers2 = (IPersistableElement) ((IAdaptable) ref)
-									.getAdapter(IPersistableElement.class);
-							if (pers2 != null) {
-								IMemento refM = appendNewChild(definitionM, AOP_REFERENCE_ELEMENT);
-								pers2.saveState(refM);
-								refM.putString(FACTORY_ID, pers2.getFactoryId());
-							}
+	private AttributeMemento createProjectMemento(IAopProject project) {
+		AttributeMemento projectM = new AttributeMemento(AOP_PROJECT_ELEMENT);
+		projectM.putString(NAME_ATTRIBUTE, project.getProject().getElementName());
+
+		Set<IAopReference> refs = project.getAllReferences();
+		Map<IAspectDefinition, List<IAopReference>> maps = new LinkedHashMap<IAspectDefinition, List<IAopReference>>();
+		for (IAopReference ref : refs) {
+			if (maps.containsKey(ref.getDefinition())) {
+				maps.get(ref.getDefinition()).add(ref);
+			}
+			else {
+				List<IAopReference> r = new ArrayList<IAopReference>();
+				r.add(ref);
+				maps.put(ref.getDefinition(), r);
+			}
+		}
+
+		for (Map.Entry<IAspectDefinition, List<IAopReference>> entry : maps.entrySet()) {
+			IMemento definitionM = appendNewChild(projectM, ASPECT_DEFINITION_ELEMENT);
+			if (entry.getKey() instanceof IAdaptable) {
+				IPersistableElement pers = (IPersistableElement) ((IAdaptable) entry.getKey())
+						.getAdapter(IPersistableElement.class);
+				if (pers != null) {
+					pers.saveState(definitionM);
+					definitionM.putString(FACTORY_ID, pers.getFactoryId());
+				}
+				for (IAopReference ref : entry.getValue()) {
+					if (ref instanceof IAdaptable) {
+						IPersistableElement pers2 = (IPersistableElement) ((IAdaptable) ref)
+								.getAdapter(IPersistableElement.class);
+						if (pers2 != null) {
+							IMemento refM = appendNewChild(definitionM, AOP_REFERENCE_ELEMENT);
+							pers2.saveState(refM);
+							refM.putString(FACTORY_ID, pers2.getFactoryId());
 						}
 					}
 				}
 			}
 		}
+		return projectM;
+	}
 
-		// save memento to default map file
-		Writer writer = null;
+	private File getProjectFile(String projectName) {
 		try {
-			writer = new FileWriter(defaultFile.toFile());
-			memento.save(writer);
+			return new File(modelFolder, URLEncoder.encode(projectName, "UTF-8") + FILE_EXTENSION);
 		}
-		catch (IOException e) {
+		catch (UnsupportedEncodingException e) {
+			// UTF-8 is always supported
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private String getProjectName(File file) {
+		String fileName = file.getName();
+		if (!fileName.endsWith(FILE_EXTENSION)) {
+			return null;
+		}
+		try {
+			return URLDecoder.decode(fileName.substring(0, fileName.length() - FILE_EXTENSION.length()), "UTF-8");
+		}
+		catch (Exception e) {
+			return null;
+		}
+	}
+
+	private void write(File file, AttributeMemento projectM) throws IOException {
+		if (!modelFolder.isDirectory() && !modelFolder.mkdirs()) {
+			throw new IOException("Cannot create folder " + modelFolder);
+		}
+		Map<String, Integer> strings = new LinkedHashMap<String, Integer>();
+		internStrings(projectM, strings);
+
+		Path target = file.toPath();
+		Path temp = target.resolveSibling(file.getName() + TEMP_FILE_EXTENSION);
+		OutputStream stream = Files.newOutputStream(temp);
+		try {
+			DataOutputStream out = new DataOutputStream(new BufferedOutputStream(stream));
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			out.writeInt(strings.size());
+			for (String string : strings.keySet()) {
+				byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+				out.writeInt(bytes.length);
+				out.write(bytes);
+			}
+			writeMemento(out, projectM, strings);
+			out.flush();
 		}
 		finally {
-			if (writer != null) {
-				try {
-					writer.flush();
-					writer.close();
-				}
-				catch (IOException e) {
-				}
+			stream.close();
+		}
+		try {
+			Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+		}
+		catch (AtomicMoveNotSupportedException e) {
+			Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+		}
+	}
+
+	private void internStrings(AttributeMemento memento, Map<String, Integer> strings) {
+		intern(memento.getType(), strings);
+		for (Map.Entry<String, String> attribute : memento.getAttributes().entrySet()) {
+			intern(attribute.getKey(), strings);
+			intern(attribute.getValue(), strings);
+		}
+		if (memento.getTextData() != null) {
+			intern(memento.getTextData(), strings);
+		}
+		for (AttributeMemento child : memento.getChildMementos()) {
+			internStrings(child, strings);
+		}
+	}
+
+	private void intern(String string, Map<String, Integer> strings) {
+		if (!strings.containsKey(string)) {
+			strings.put(string, strings.size());
+		}
+	}
+
+	private void writeMemento(DataOutputStream out, AttributeMemento memento, Map<String, Integer> strings)
+			throws IOException {
+		out.writeInt(strings.get(memento.getType()));
+		out.writeInt(memento.getAttributes().size());
+		for (Map.Entry<String, String> attribute : memento.getAttributes().entrySet()) {
+			out.writeInt(strings.get(attribute.getKey()));
+			out.writeInt(strings.get(attribute.getValue()));
+		}
+		out.writeInt(memento.getTextData() != null ? strings.get(memento.getTextData()) : NO_TEXT);
+		out.writeInt(memento.getChildMementos().size());
+		for (AttributeMemento child : memento.getChildMementos()) {
+			writeMemento(out, child, strings);
+		}
+	}
+
+	private AttributeMemento read(File file) throws IOException {
+		InputStream stream = Files.newInputStream(file.toPath());
+		try {
+			DataInputStream in = new DataInputStream(new BufferedInputStream(stream));
+			if (in.readInt() != MAGIC) {
+				throw new IOException("Not a persisted AOP model: " + file);
 			}
+			int version = in.readInt();
+			if (version != VERSION) {
+				throw new IOException("Unsupported version " + version + " of persisted AOP model: " + file);
+			}
+			// Counts and lengths can't exceed the size of the file; don't trust them any further than that
+			long length = file.length();
+			String[] strings = new String[readCount(in, length)];
+			for (int i = 0; i < strings.length; i++) {
+				byte[] bytes = new byte[readCount(in, length)];
+				in.readFully(bytes);
+				strings[i] = new String(bytes, StandardCharsets.UTF_8);
+			}
+			AttributeMemento projectM = readMemento(in, strings, length);
+			if (!AOP_PROJECT_ELEMENT.equals(projectM.getType())) {
+				throw new IOException("Not a persisted AOP project: " + file);
+			}
+			return projectM;
+		}
+		finally {
+			stream.close();
+		}
+	}
+
+	private AttributeMemento readMemento(DataInputStream in, String[] strings, long length) throws IOException {
+		AttributeMemento memento = new AttributeMemento(readString(in, strings));
+		int attributeCount = readCount(in, length);
+		for (int i = 0; i < attributeCount; i++) {
+			String key = readString(in, strings);
+			memento.putString(key, readString(in, strings));
+		}
+		int text = in.readInt();
+		if (text != NO_TEXT) {
+			memento.putTextData(stringAt(strings, text));
+		}
+		int childCount = readCount(in, length);
+		for (int i = 0; i < childCount; i++) {
+			memento.getChildMementos().add(readMemento(in, strings, length));
+		}
+		return memento;
+	}
+
+	private static int readCount(DataInputStream in, long length) throws IOException {
+		int count = in.readInt();
+		if (count < 0 || count > length) {
+			throw new IOException("Invalid count or length " + count + " in persisted AOP model");
+		}
+		return count;
+	}
+
+	private static String readString(DataInputStream in, String[] strings) throws IOException {
+		return stringAt(strings, in.readInt());
+	}
+
+	private static String stringAt(String[] strings, int index) throws IOException {
+		if (index < 0 || index >= strings.length) {
+			throw new IOException("Invalid string index " + index + " in persisted AOP model");
 		}
+		return strings[index];
 	}
 }
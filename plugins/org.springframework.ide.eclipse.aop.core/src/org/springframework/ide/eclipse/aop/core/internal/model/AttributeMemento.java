@@ -0,0 +1,177 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Spring IDE Developers
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Spring IDE Developers - initial API and implementation
+ *******************************************************************************/
+package org.springframework.ide.eclipse.aop.core.internal.model;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.ui.IMemento;
+
+/**
+ * Simple in-memory {@link IMemento}. Allows the existing {@link org.eclipse.ui.IPersistableElement}s and
+ * {@link org.eclipse.ui.IElementFactory}s of the AOP model to be used with the binary store of
+ * {@link AopReferenceModelPeristence}, rather than only with {@link org.eclipse.ui.XMLMemento}.
+ * <p>
+ * Like {@link org.eclipse.ui.XMLMemento}, all attribute values are kept as strings.
+ * @since 3.9.4
+ */
+public class AttributeMemento implements IMemento {
+
+	private final String type;
+
+	private final Map<String, String> attributes = new LinkedHashMap<String, String>();
+
+	private final List<AttributeMemento> children = new ArrayList<AttributeMemento>();
+
+	private String textData;
+
+	public AttributeMemento(String type) {
+		this.type = type;
+	}
+
+	public IMemento createChild(String type) {
+		AttributeMemento child = new AttributeMemento(type);
+		children.add(child);
+		return child;
+	}
+
+	public IMemento createChild(String type, String id) {
+		IMemento child = createChild(type);
+		child.putString(TAG_ID, id);
+		return child;
+	}
+
+	public IMemento getChild(String type) {
+		for (AttributeMemento child : children) {
+			if (child.type.equals(type)) {
+				return child;
+			}
+		}
+		return null;
+	}
+
+	public IMemento[] getChildren() {
+		return children.toArray(new IMemento[children.size()]);
+	}
+
+	public IMemento[] getChildren(String type) {
+		List<IMemento> found = new ArrayList<IMemento>();
+		for (AttributeMemento child : children) {
+			if (child.type.equals(type)) {
+				found.add(child);
+			}
+		}
+		return found.toArray(new IMemento[found.size()]);
+	}
+
+	/**
+	 * @return the children of this memento, in the order they were created
+	 */
+	public List<AttributeMemento> getChildMementos() {
+		return children;
+	}
+
+	public Map<String, String> getAttributes() {
+		return attributes;
+	}
+
+	public Float getFloat(String key) {
+		String value = attributes.get(key);
+		if (value == null) {
+			return null;
+		}
+		try {
+			return new Float(value);
+		}
+		catch (NumberFormatException e) {
+			return null;
+		}
+	}
+
+	public String getType() {
+		return type;
+	}
+
+	public String getID() {
+		return attributes.get(TAG_ID);
+	}
+
+	public Integer getInteger(String key) {
+		String value = attributes.get(key);
+		if (value == null) {
+			return null;
+		}
+		try {
+			return new Integer(value);
+		}
+		catch (NumberFormatException e) {
+			return null;
+		}
+	}
+
+	public String getString(String key) {
+		return attributes.get(key);
+	}
+
+	public Boolean getBoolean(String key) {
+		String value = attributes.get(key);
+		if (value == null) {
+			return null;
+		}
+		return Boolean.valueOf(value);
+	}
+
+	public String getTextData() {
+		return textData;
+	}
+
+	public String[] getAttributeKeys() {
+		return attributes.keySet().toArray(new String[attributes.size()]);
+	}
+
+	public void putFloat(String key, float value) {
+		attributes.put(key, String.valueOf(value));
+	}
+
+	public void putInteger(String key, int value) {
+		attributes.put(key, String.valueOf(value));
+	}
+
+	public void putMemento(IMemento memento) {
+		for (String key : memento.getAttributeKeys()) {
+			attributes.put(key, memento.getString(key));
+		}
+		if (memento.getTextData() != null) {
+			textData = memento.getTextData();
+		}
+		for (IMemento child : memento.getChildren()) {
+			((AttributeMemento) createChild(child.getType())).putMemento(child);
+		}
+	}
+
+	public void putString(String key, String value) {
+		if (value == null) {
+			return;
+		}
+		attributes.put(key, value);
+	}
+
+	public void putBoolean(String key, boolean value) {
+		attributes.put(key, String.valueOf(value));
+	}
+
+	public void putTextData(String data) {
+		this.textData = data;
+	}
+
+}
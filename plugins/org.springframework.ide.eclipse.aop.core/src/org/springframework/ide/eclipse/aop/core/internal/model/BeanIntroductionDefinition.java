@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2008 Spring IDE Developers
+ * Copyright (c) 2007, 2017 Spring IDE Developers
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -61,29 +61,36 @@ public class BeanIntroductionDefinition extends BeanAspectDefinition implements
 
 	public ClassFilter getTypeMatcher() {
 		if (this.typePatternClassFilter == null) {
-			ClassFilter typePatternFilter = new TypePatternClassFilter(
-					typePattern);
-
-			// Excludes methods implemented.
-			ClassFilter exclusion = new ClassFilter() {
-				public boolean matches(Class clazz) {
-					try {
-						Class<?> implInterfaceClass = Thread.currentThread()
-								.getContextClassLoader().loadClass(
-										introducedInterfaceName);
-						return !(implInterfaceClass.isAssignableFrom(clazz));
-					}
-					catch (ClassNotFoundException e) {
-						return false;
-					}
-				}
-			};
-			this.typePatternClassFilter = ClassFilters.intersection(
-					typePatternFilter, exclusion);
+			this.typePatternClassFilter = createTypeMatcher();
 		}
 		return this.typePatternClassFilter;
 	}
 
+	/**
+	 * Creates a new type matcher for this introduction. The returned filter is backed by AspectJ's type world and
+	 * must not be shared between threads.
+	 */
+	public ClassFilter createTypeMatcher() {
+		ClassFilter typePatternFilter = new TypePatternClassFilter(
+				typePattern);
+
+		// Excludes methods implemented.
+		ClassFilter exclusion = new ClassFilter() {
+			public boolean matches(Class clazz) {
+				try {
+					Class<?> implInterfaceClass = Thread.currentThread()
+							.getContextClassLoader().loadClass(
+									introducedInterfaceName);
+					return !(implInterfaceClass.isAssignableFrom(clazz));
+				}
+				catch (ClassNotFoundException e) {
+					return false;
+				}
+			}
+		};
+		return ClassFilters.intersection(typePatternFilter, exclusion);
+	}
+
 	public String getTypePattern() {
 		return this.typePattern;
 	}
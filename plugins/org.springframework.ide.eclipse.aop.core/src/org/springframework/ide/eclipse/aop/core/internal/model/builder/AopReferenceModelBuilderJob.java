@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007 - 2013 Spring IDE Developers
+ * Copyright (c) 2007 - 2017 Spring IDE Developers
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -14,10 +14,17 @@ import java.lang.reflect.InvocationTargetException;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IMarker;
@@ -39,6 +46,7 @@ import org.eclipse.ui.progress.IProgressConstants;
 import org.springframework.ide.eclipse.aop.core.Activator;
 import org.springframework.ide.eclipse.aop.core.AopCoreImages;
 import org.springframework.ide.eclipse.aop.core.internal.model.AnnotationIntroductionDefinition;
+import org.springframework.ide.eclipse.aop.core.internal.model.AopProject;
 import org.springframework.ide.eclipse.aop.core.internal.model.AopReference;
 import org.springframework.ide.eclipse.aop.core.internal.model.AopReferenceModel;
 import org.springframework.ide.eclipse.aop.core.internal.model.BeanAspectDefinition;
@@ -85,6 +93,14 @@ public class AopReferenceModelBuilderJob extends Job {
 
 	private static final String PROCESSING_TOOK_MSG = "Processing took";
 
+	/**
+	 * Number of threads used to match aspect definitions against beans. Use 1 to do all matching on the builder
+	 * job's own thread.
+	 */
+	private static final int MATCHING_THREADS = Integer.getInteger(
+			"org.springframework.ide.eclipse.aop.core.internal.model.builder.threads",
+			Math.min(4, Runtime.getRuntime().availableProcessors()));
+
 	private final Set<IResource> affectedResources;
 
 	private final IProject project;
@@ -95,7 +111,13 @@ public class AopReferenceModelBuilderJob extends Job {
 
 	private MarkerModifyingJob markerJob = null;
 
-	private AspectDefinitionMatcher aspectDefinitionMatcher = null;
+	/**
+	 * One matcher per worker. Matchers cache pointcut instances which are not thread-safe, so a matcher is
+	 * only ever used by a single worker at a time.
+	 */
+	private List<AspectDefinitionMatcher> aspectDefinitionMatchers = null;
+
+	private ExecutorService matchingExecutor = null;
 
 	private AspectDefinitionBuilderHelper aspectDefinitionBuilder;
 
@@ -171,10 +193,15 @@ public class AopReferenceModelBuilderJob extends Job {
 
 	/**
 	 * Builds AOP references for given {@link IBean} instances. Matches the given Aspect definition against the
-	 * {@link IBean}.
+	 * {@link IBean}. The references found are collected in the task, rather than added to the {@link IAopProject}
+	 * right away, so that tasks can be run in parallel and their results merged in a predictable order.
 	 */
-	private void buildAopReferencesForBean(final IBean bean, final IModelElement context, final IAspectDefinition info,
-			final IResource file, final IAopProject aopProject, IProgressMonitor monitor) {
+	private void buildAopReferencesForBean(final MatchTask task, final AspectDefinitionMatcher aspectDefinitionMatcher) {
+		final IBean bean = task.bean;
+		final IModelElement context = task.context;
+		final IAspectDefinition info = task.info;
+		final IResource file = task.file;
+		final IAopProject aopProject = task.aopProject;
 		try {
 			AopLog.log(AopLog.BUILDER, Activator.getFormattedMessage(
 					"AopReferenceModelBuilder.processingBeanDefinition", bean, bean.getElementResource().getFullPath()));
@@ -223,7 +250,7 @@ public class AopReferenceModelBuilderJob extends Job {
 					// handle introductions first
 					if (info instanceof BeanIntroductionDefinition) {
 						BeanIntroductionDefinition intro = (BeanIntroductionDefinition) info;
-						if (intro.getTypeMatcher().matches(targetClass)) {
+						if (aspectDefinitionMatcher.matches(targetClass, intro)) {
 							IMember jdtAspectMember = null;
 							if (intro instanceof AnnotationIntroductionDefinition) {
 								String fieldName = ((AnnotationIntroductionDefinition) intro).getDefiningField();
@@ -237,7 +264,7 @@ public class AopReferenceModelBuilderJob extends Job {
 								IAopReference ref = new AopReference(info.getType(), jdtAspectMember, JdtUtils
 										.getLineNumber(jdtAspectMember), jdtTargetType, JdtUtils
 										.getLineNumber(jdtTargetType), info, file, bean);
-								aopProject.addAopReference(ref);
+								task.references.add(ref);
 							}
 						}
 					}
@@ -265,7 +292,7 @@ public class AopReferenceModelBuilderJob extends Job {
 								IAopReference ref = new AopReference(info.getType(), jdtAspectMethod, JdtUtils
 										.getLineNumber(jdtAspectMethod), method, JdtUtils.getLineNumber(method), info,
 										file, bean);
-								aopProject.addAopReference(ref);
+								task.references.add(ref);
 							}
 							// System.out.println(String.format("--- matching on '%s' took '%s'", targetClass, (System
 							// .currentTimeMillis() - start)));
@@ -275,26 +302,21 @@ public class AopReferenceModelBuilderJob extends Job {
 			});
 		}
 		catch (Throwable t) {
-			markerJob.addThrowableHolder(new ThrowableHolder(t, file, bean, info));
+			task.throwable = new ThrowableHolder(t, file, bean, info);
 		}
 	}
 
-	private void buildAopReferencesForBeans(IModelElement config, IAspectDefinition info, IProgressMonitor monitor,
+	private void buildAopReferencesForBeans(IModelElement config, IAspectDefinition info, List<MatchTask> tasks,
 			IResource file, IAopProject aopProject, Set<IBean> beans) {
-
-		monitor.subTask(Activator.getFormattedMessage("AopReferenceModelBuilder.buildingAopReferences"));
-
 		for (IBean bean : beans) {
-			monitor.subTask(Activator.getFormattedMessage("AopReferenceModelBuilder.buildingAopReferencesForBean", bean
-					.getElementName(), bean.getElementResource().getFullPath()));
-			buildAopReferencesForBean(bean, config, info, file, aopProject, monitor);
+			tasks.add(new MatchTask(bean, config, info, file, aopProject));
 
 			// Make sure that inner beans are handled as well
-			buildAopReferencesForBeans(config, info, monitor, file, aopProject, BeansModelUtils.getInnerBeans(bean));
+			buildAopReferencesForBeans(config, info, tasks, file, aopProject, BeansModelUtils.getInnerBeans(bean));
 		}
 	}
 
-	private void buildAopReferencesForBeansConfig(IBeansConfig config, IAspectDefinition info, IProgressMonitor monitor) {
+	private void buildAopReferencesForBeansConfig(IBeansConfig config, IAspectDefinition info, List<MatchTask> tasks) {
 
 		IResource file = config.getElementResource();
 		IJavaProject javaProject = JdtUtils.getJavaProject(file.getProject());
@@ -310,7 +332,7 @@ public class AopReferenceModelBuilderJob extends Job {
 				addBeansFromComponent(component, beans);
 			}
 
-			buildAopReferencesForBeans(config, info, monitor, file, aopProject, beans);
+			buildAopReferencesForBeans(config, info, tasks, file, aopProject, beans);
 		}
 	}
 
@@ -362,14 +384,19 @@ public class AopReferenceModelBuilderJob extends Job {
 				//
 				// start = System.currentTimeMillis();
 
+				List<MatchTask> tasks = new ArrayList<>();
 				for (IAspectDefinition info : aspectInfos) {
 					// build model for config
-					buildAopReferencesForBeansConfig(config, info, monitor);
+					buildAopReferencesForBeansConfig(config, info, tasks);
 
 					// build model for config sets
-					buildAopReferencesFromBeansConfigSets(project, config, info, monitor);
+					buildAopReferencesFromBeansConfigSets(project, config, info, tasks);
 				}
 
+				monitor.subTask(Activator.getFormattedMessage("AopReferenceModelBuilder.buildingAopReferences"));
+				runMatchTasks(tasks, monitor);
+				mergeMatchTasks(tasks);
+
 				// System.out.println(String.format("-- building aop model for file '%s' took '%s'", currentFile,
 				// (System
 				// .currentTimeMillis() - start)));
@@ -395,7 +422,7 @@ public class AopReferenceModelBuilderJob extends Job {
 	 * the config set.
 	 */
 	private void buildAopReferencesFromBeansConfigSets(IBeansProject project, IBeansConfig config,
-			IAspectDefinition info, IProgressMonitor monitor) {
+			IAspectDefinition info, List<MatchTask> tasks) {
 
 		Set<IBeansConfig> foundConfigs = new LinkedHashSet<>();
 		for (IBeansConfigSet configSet : project.getConfigSets()) {
@@ -409,7 +436,86 @@ public class AopReferenceModelBuilderJob extends Job {
 			}
 		}
 		for (IBeansConfig bc : foundConfigs) {
-			buildAopReferencesForBeansConfig(bc, info, monitor);
+			buildAopReferencesForBeansConfig(bc, info, tasks);
+		}
+	}
+
+	/**
+	 * Runs the given tasks, spreading them over the matching threads. Each worker uses its own
+	 * {@link AspectDefinitionMatcher}.
+	 */
+	private void runMatchTasks(final List<MatchTask> tasks, final IProgressMonitor monitor) {
+		int workers = Math.min(aspectDefinitionMatchers.size(), tasks.size());
+		if (matchingExecutor == null || workers <= 1) {
+			AspectDefinitionMatcher matcher = aspectDefinitionMatchers.get(0);
+			for (MatchTask task : tasks) {
+				if (monitor.isCanceled()) {
+					throw new OperationCanceledException();
+				}
+				monitor.subTask(Activator.getFormattedMessage("AopReferenceModelBuilder.buildingAopReferencesForBean",
+						task.bean.getElementName(), task.bean.getElementResource().getFullPath()));
+				buildAopReferencesForBean(task, matcher);
+			}
+			return;
+		}
+
+		final AtomicInteger nextTask = new AtomicInteger();
+		List<Future<?>> futures = new ArrayList<>(workers);
+		for (int i = 0; i < workers; i++) {
+			final AspectDefinitionMatcher matcher = aspectDefinitionMatchers.get(i);
+			futures.add(matchingExecutor.submit(new Runnable() {
+				public void run() {
+					ClassLoader contextClassLoader = Thread.currentThread().getContextClassLoader();
+					try {
+						int next;
+						while (!monitor.isCanceled() && (next = nextTask.getAndIncrement()) < tasks.size()) {
+							buildAopReferencesForBean(tasks.get(next), matcher);
+						}
+					}
+					finally {
+						Thread.currentThread().setContextClassLoader(contextClassLoader);
+					}
+				}
+			}));
+		}
+		try {
+			for (Future<?> future : futures) {
+				future.get();
+			}
+		}
+		catch (InterruptedException e) {
+			monitor.setCanceled(true);
+			throw new OperationCanceledException();
+		}
+		catch (ExecutionException e) {
+			throw new IllegalStateException(e.getCause());
+		}
+		if (monitor.isCanceled()) {
+			throw new OperationCanceledException();
+		}
+	}
+
+	/**
+	 * Adds the results of the given tasks to the model in the order of the tasks, i.e. the same order in which
+	 * they would have been added by matching one bean after another.
+	 */
+	private void mergeMatchTasks(List<MatchTask> tasks) {
+		Map<IAopProject, List<IAopReference>> referencesPerProject = new LinkedHashMap<>();
+		for (MatchTask task : tasks) {
+			if (!task.references.isEmpty()) {
+				List<IAopReference> references = referencesPerProject.get(task.aopProject);
+				if (references == null) {
+					references = new ArrayList<>();
+					referencesPerProject.put(task.aopProject, references);
+				}
+				references.addAll(task.references);
+			}
+			if (task.throwable != null) {
+				markerJob.addThrowableHolder(task.throwable);
+			}
+		}
+		for (Map.Entry<IAopProject, List<IAopReference>> entry : referencesPerProject.entrySet()) {
+			((AopProject) entry.getKey()).addAopReferences(entry.getValue());
 		}
 	}
 
@@ -435,7 +541,21 @@ public class AopReferenceModelBuilderJob extends Job {
 				affectedResources.size()));
 
 		markerJob = new MarkerModifyingJob();
-		aspectDefinitionMatcher = new AspectDefinitionMatcher();
+		aspectDefinitionMatchers = new ArrayList<>();
+		for (int i = 0; i < Math.max(1, MATCHING_THREADS); i++) {
+			aspectDefinitionMatchers.add(new AspectDefinitionMatcher());
+		}
+		if (MATCHING_THREADS > 1) {
+			matchingExecutor = Executors.newFixedThreadPool(MATCHING_THREADS, new ThreadFactory() {
+				private final AtomicInteger count = new AtomicInteger();
+
+				public Thread newThread(Runnable r) {
+					Thread thread = new Thread(r, "AOP Reference Matcher " + count.incrementAndGet());
+					thread.setDaemon(true);
+					return thread;
+				}
+			});
+		}
 		aspectDefinitionCache = new HashMap<>();
 		aspectDefinitionBuilder = new AspectDefinitionBuilderHelper();
 		classLoaderSupport = createWeavingClassLoaderSupport();
@@ -486,7 +606,13 @@ public class AopReferenceModelBuilderJob extends Job {
 			AopLog.logEnd(AopLog.BUILDER, PROCESSING_TOOK_MSG);
 		}
 		finally {
-			aspectDefinitionMatcher.close();
+			if (matchingExecutor != null) {
+				matchingExecutor.shutdownNow();
+				matchingExecutor = null;
+			}
+			for (AspectDefinitionMatcher matcher : aspectDefinitionMatchers) {
+				matcher.close();
+			}
 			aspectDefinitionBuilder.close();
 			// schedule marker update job
 			markerJob.schedule();
@@ -652,6 +778,37 @@ public class AopReferenceModelBuilderJob extends Job {
 
 	}
 
+	/**
+	 * Matching of a single aspect definition against a single bean, and the results of doing so.
+	 * Tasks are run by worker threads; their results are merged into the {@link IAopProject} afterwards.
+	 * @since 3.9.4
+	 */
+	private static class MatchTask {
+
+		private final IBean bean;
+
+		private final IModelElement context;
+
+		private final IAspectDefinition info;
+
+		private final IResource file;
+
+		private final IAopProject aopProject;
+
+		private final List<IAopReference> references = new ArrayList<>();
+
+		private ThrowableHolder throwable;
+
+		public MatchTask(IBean bean, IModelElement context, IAspectDefinition info, IResource file,
+				IAopProject aopProject) {
+			this.bean = bean;
+			this.context = context;
+			this.info = info;
+			this.file = file;
+			this.aopProject = aopProject;
+		}
+	}
+
 	/**
 	 * Holder to collect {@link Exception}s thrown during pointcut parsing and matching.
 	 * @since 2.0.4
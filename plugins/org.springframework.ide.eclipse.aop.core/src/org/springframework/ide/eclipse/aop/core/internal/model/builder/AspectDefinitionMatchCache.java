@@ -0,0 +1,178 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Spring IDE Developers
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Spring IDE Developers - initial API and implementation
+ *******************************************************************************/
+package org.springframework.ide.eclipse.aop.core.internal.model.builder;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.jdt.core.IMethod;
+
+/**
+ * Remembers the results of matching aspect definitions against target classes across builds.
+ * <p>
+ * Results are keyed by a description of the aspect definition (its pointcut expression and a fingerprint of the
+ * aspect class) and a structural fingerprint of the target class (names, modifiers and annotations of the class, its
+ * supertypes and their methods). As long as neither changes, matching the same bean again gives the same result,
+ * so a rebuild after an unrelated change doesn't need to do any AspectJ matching for it.
+ * <p>
+ * Stale entries are never looked up again, since a change to either class changes the key. They are
+ * evicted when the cache grows beyond its maximum size.
+ * @since 3.9.4
+ */
+public class AspectDefinitionMatchCache {
+
+	private static final int MAX_ENTRIES = Integer.getInteger(
+			"org.springframework.ide.eclipse.aop.core.internal.model.builder.match.cache.size", 20000);
+
+	private static final AspectDefinitionMatchCache INSTANCE = new AspectDefinitionMatchCache();
+
+	public static AspectDefinitionMatchCache getInstance() {
+		return INSTANCE;
+	}
+
+	private final Map<String, Set<IMethod>> results = new LinkedHashMap<String, Set<IMethod>>(1024, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, Set<IMethod>> eldest) {
+			return size() > MAX_ENTRIES;
+		}
+	};
+
+	private final Map<Class<?>, String> fingerprints = new WeakHashMap<Class<?>, String>();
+
+	private final AtomicLong hits = new AtomicLong();
+
+	private final AtomicLong misses = new AtomicLong();
+
+	public Set<IMethod> get(String key) {
+		Set<IMethod> result;
+		synchronized (results) {
+			result = results.get(key);
+		}
+		if (result != null) {
+			hits.incrementAndGet();
+		}
+		else {
+			misses.incrementAndGet();
+		}
+		return result;
+	}
+
+	public void put(String key, Set<IMethod> matches) {
+		synchronized (results) {
+			results.put(key, Collections.unmodifiableSet(matches));
+		}
+	}
+
+	public void clear() {
+		synchronized (results) {
+			results.clear();
+		}
+		synchronized (fingerprints) {
+			fingerprints.clear();
+		}
+	}
+
+	/**
+	 * Computes a fingerprint of everything about a class that can influence whether pointcuts match it: the names,
+	 * modifiers and annotations of the class, all its supertypes, and their declared methods.
+	 * @return the fingerprint or <code>null</code> if it can't be computed (for example because some of the
+	 * referenced classes can't be loaded)
+	 */
+	public String getFingerprint(Class<?> clazz) {
+		synchronized (fingerprints) {
+			if (fingerprints.containsKey(clazz)) {
+				return fingerprints.get(clazz);
+			}
+		}
+		String fingerprint;
+		try {
+			StringBuilder description = new StringBuilder();
+			List<Class<?>> types = new ArrayList<Class<?>>();
+			for (Class<?> type = clazz; type != null; type = type.getSuperclass()) {
+				types.add(type);
+			}
+			types.addAll(Arrays.asList(org.springframework.util.ClassUtils.getAllInterfacesForClass(clazz)));
+			for (Class<?> type : types) {
+				description.append(type.getName()).append(' ').append(type.getModifiers()).append(' ');
+				appendAnnotations(description, type.getDeclaredAnnotations());
+				description.append('\n');
+				List<String> methods = new ArrayList<String>();
+				for (Method method : type.getDeclaredMethods()) {
+					StringBuilder methodDescription = new StringBuilder(method.toGenericString());
+					appendAnnotations(methodDescription, method.getDeclaredAnnotations());
+					for (Annotation[] parameterAnnotations : method.getParameterAnnotations()) {
+						appendAnnotations(methodDescription, parameterAnnotations);
+					}
+					methods.add(methodDescription.toString());
+				}
+				Collections.sort(methods);
+				for (String method : methods) {
+					description.append(method).append('\n');
+				}
+			}
+			fingerprint = hash(description.toString());
+		}
+		catch (Throwable e) {
+			// e.g. NoClassDefFoundError for a type referenced by a method signature
+			fingerprint = null;
+		}
+		synchronized (fingerprints) {
+			fingerprints.put(clazz, fingerprint);
+		}
+		return fingerprint;
+	}
+
+	private static void appendAnnotations(StringBuilder description, Annotation[] annotations) {
+		List<String> names = new ArrayList<String>(annotations.length);
+		for (Annotation annotation : annotations) {
+			names.add(annotation.toString());
+		}
+		Collections.sort(names);
+		description.append(names);
+	}
+
+	private static String hash(String description) throws Exception {
+		MessageDigest digest = MessageDigest.getInstance("SHA-1");
+		byte[] bytes = digest.digest(description.getBytes(StandardCharsets.UTF_8));
+		StringBuilder hex = new StringBuilder(bytes.length * 2);
+		for (byte b : bytes) {
+			hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+		}
+		return hex.toString();
+	}
+
+	public long getHitCount() {
+		return hits.get();
+	}
+
+	public long getMissCount() {
+		return misses.get();
+	}
+
+	public int size() {
+		synchronized (results) {
+			return results.size();
+		}
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2013 Spring IDE Developers
+ * Copyright (c) 2007, 2017 Spring IDE Developers
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -10,6 +10,7 @@
  *******************************************************************************/
 package org.springframework.ide.eclipse.aop.core.internal.model.builder;
 
+import java.lang.annotation.Annotation;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
 import java.lang.reflect.InvocationTargetException;
@@ -20,6 +21,7 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
@@ -30,11 +32,13 @@ import org.eclipse.core.resources.IProject;
 import org.eclipse.jdt.core.IMethod;
 import org.eclipse.jdt.core.IType;
 import org.springframework.aop.Advisor;
+import org.springframework.aop.ClassFilter;
 import org.springframework.aop.aspectj.AspectJExpressionPointcut;
 import org.springframework.aop.framework.AopInfrastructureBean;
 import org.springframework.aop.support.AopUtils;
 import org.springframework.beans.factory.config.BeanDefinition;
 import org.springframework.beans.factory.support.RootBeanDefinition;
+import org.springframework.ide.eclipse.aop.core.internal.model.BeanIntroductionDefinition;
 import org.springframework.ide.eclipse.aop.core.model.IAopReference.ADVICE_TYPE;
 import org.springframework.ide.eclipse.aop.core.model.IAspectDefinition;
 import org.springframework.ide.eclipse.beans.core.internal.model.BeansModelUtils;
@@ -56,9 +60,33 @@ import org.springframework.util.ReflectionUtils;
  */
 public class AspectDefinitionMatcher {
 
+	private static final String POINTCUT_ANNOTATION = "org.aspectj.lang.annotation.Pointcut";
+
+	/** Pointcut designators and operators that can be followed by an argument list */
+	private static final Set<String> POINTCUT_DESIGNATORS = new HashSet<String>(Arrays.asList("execution", "within",
+			"this", "target", "args", "bean", "call", "get", "set", "handler", "initialization", "preinitialization",
+			"staticinitialization", "adviceexecution", "withincode", "cflow", "cflowbelow", "if", "and", "or", "not"));
+
 	/** Internal cache to used with {@link AspectJExpressionPointcut} */
 	private Map<IAspectDefinition, Object> pointcutExpressionCache = new HashMap<IAspectDefinition, Object>();
 
+	/** Keys describing aspect definitions for the {@link AspectDefinitionMatchCache} */
+	private Map<IAspectDefinition, String> aspectKeyCache = new HashMap<IAspectDefinition, String>();
+
+	/** Type matchers of introductions; these are not thread-safe and therefore kept per matcher */
+	private Map<BeanIntroductionDefinition, ClassFilter> typeMatcherCache =
+			new IdentityHashMap<BeanIntroductionDefinition, ClassFilter>();
+
+	private final AspectDefinitionMatchCache matchCache;
+
+	public AspectDefinitionMatcher() {
+		this(AspectDefinitionMatchCache.getInstance());
+	}
+
+	public AspectDefinitionMatcher(AspectDefinitionMatchCache matchCache) {
+		this.matchCache = matchCache;
+	}
+
 	/**
 	 * Returns all matches on {@link Method} in form of the corresponding {@link IMethod}.
 	 * @param targetClass the target class to check for a match
@@ -77,6 +105,12 @@ public class AspectDefinitionMatcher {
 			return Collections.emptySet();
 		}
 
+		// check if bean is synthetic as this would mean that the BeanPostProcessor would not load
+		BeanDefinition beanDefinition = BeansModelUtils.getMergedBeanDefinition(targetBean, null);
+		if (beanDefinition instanceof RootBeanDefinition && ((RootBeanDefinition) beanDefinition).isSynthetic()) {
+			return Collections.emptySet();
+		}
+
 		// expose bean name on thread local
 		Class<?> proxyCreationContextClass = ClassUtils
 				.loadClass("org.springframework.ide.eclipse.springframework.aop.framework.autoproxy.ProxyCreationContext");
@@ -85,6 +119,16 @@ public class AspectDefinitionMatcher {
 		if (targetBean.getAliases() != null && targetBean.getAliases().length > 0) {
 			beanNames.addAll(Arrays.asList(targetBean.getAliases()));
 		}
+
+		// a previous build may have matched the same aspect against the same class already
+		String cacheKey = getMatchCacheKey(targetClass, info, project, beanNames);
+		if (cacheKey != null) {
+			Set<IMethod> cached = matchCache.get(cacheKey);
+			if (cached != null) {
+				return new LinkedHashSet<IMethod>(cached);
+			}
+		}
+
 		for (String beanName : beanNames) {
 			ClassUtils.invokeMethod(proxyCreationContextClass, "setCurrentProxiedBeanName", new Object[] { beanName },
 					new Class[] { String.class });
@@ -97,9 +141,198 @@ public class AspectDefinitionMatcher {
 						new Class[] { String.class });
 			}
 		}
+
+		if (cacheKey != null) {
+			matchCache.put(cacheKey, new LinkedHashSet<IMethod>(matches));
+		}
 		return matches;
 	}
 
+	/**
+	 * Checks if the given introduction applies to the given target class.
+	 * @param targetClass the target class to check for a match
+	 * @param info the {@link BeanIntroductionDefinition}
+	 * @return <code>true</code> if the introduction applies to the target class
+	 */
+	public boolean matches(Class<?> targetClass, BeanIntroductionDefinition info) {
+		ClassFilter typeMatcher = typeMatcherCache.get(info);
+		if (typeMatcher == null) {
+			typeMatcher = info.createTypeMatcher();
+			typeMatcherCache.put(info, typeMatcher);
+		}
+		return typeMatcher.matches(targetClass);
+	}
+
+	/**
+	 * Creates the key under which results are kept in the {@link AspectDefinitionMatchCache}.
+	 * @return the key, or <code>null</code> if the results shouldn't be cached
+	 */
+	private String getMatchCacheKey(Class<?> targetClass, IAspectDefinition info, IProject project,
+			List<String> beanNames) {
+		String aspectKey = getAspectKey(info);
+		if (aspectKey == null) {
+			return null;
+		}
+		String classFingerprint = matchCache.getFingerprint(targetClass);
+		if (classFingerprint == null) {
+			return null;
+		}
+		return project.getName() + '|' + aspectKey + '|' + targetClass.getName() + '|' + classFingerprint + '|'
+				+ beanNames;
+	}
+
+	/**
+	 * Describes everything about an aspect definition that influences matching, including fingerprints of the
+	 * aspect class and of all other types declaring named pointcuts the pointcut expression refers to.
+	 */
+	private String getAspectKey(IAspectDefinition info) {
+		if (aspectKeyCache.containsKey(info)) {
+			return aspectKeyCache.get(info);
+		}
+		String key = null;
+		if (info.getPointcutExpression() != null) {
+			StringBuilder description = new StringBuilder();
+			description.append(info.getPointcutExpression()).append('|').append(info.getType()).append('|')
+					.append(info.isProxyTargetClass()).append('|').append(info.getAdviceMethodName()).append('|')
+					.append(Arrays.toString(info.getAdviceMethodParameterTypes())).append('|')
+					.append(Arrays.toString(info.getArgNames())).append('|').append(info.getReturning()).append('|')
+					.append(info.getThrowing()).append('|').append(info.getAspectClassName());
+			try {
+				Class<?> aspectClass = null;
+				Set<Class<?>> visited = new HashSet<Class<?>>();
+				if (info.getAspectClassName() != null) {
+					aspectClass = ClassUtils.loadClass(info.getAspectClassName());
+					String aspectFingerprint = matchCache.getFingerprint(aspectClass);
+					if (aspectFingerprint == null) {
+						return cacheAspectKey(info, null);
+					}
+					description.append('|').append(aspectFingerprint);
+					visited.add(aspectClass);
+					if (!appendPointcutFingerprints(aspectClass, visited, description)) {
+						return cacheAspectKey(info, null);
+					}
+				}
+				if (appendPointcutFingerprints(info.getPointcutExpression(), aspectClass, visited, description)) {
+					key = description.toString();
+				}
+			}
+			catch (Throwable e) {
+				key = null;
+			}
+		}
+		return cacheAspectKey(info, key);
+	}
+
+	private String cacheAspectKey(IAspectDefinition info, String key) {
+		aspectKeyCache.put(info, key);
+		return key;
+	}
+
+	/**
+	 * Appends the fingerprints of the types declaring the named pointcuts the given pointcut expression refers to,
+	 * directly or through other named pointcuts.
+	 * @param scope the type unqualified named pointcuts are resolved against, may be <code>null</code>
+	 * @param visited types that have been fingerprinted already
+	 * @return <code>false</code> if a referenced type can't be resolved, in which case matches must not be cached
+	 */
+	private boolean appendPointcutFingerprints(String expression, Class<?> scope, Set<Class<?>> visited,
+			StringBuilder description) throws Throwable {
+		for (String reference : getNamedPointcutReferences(expression)) {
+			int index = reference.lastIndexOf('.');
+			Class<?> type = scope;
+			if (index > 0) {
+				try {
+					type = ClassUtils.loadClass(reference.substring(0, index));
+				}
+				catch (ClassNotFoundException e) {
+					// e.g. a reference to a pointcut declared by a nested class
+					return false;
+				}
+			}
+			if (type == null) {
+				return false;
+			}
+			if (visited.add(type)) {
+				String fingerprint = matchCache.getFingerprint(type);
+				if (fingerprint == null) {
+					return false;
+				}
+				description.append('|').append(fingerprint);
+				if (!appendPointcutFingerprints(type, visited, description)) {
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Appends the fingerprints of the types declaring the named pointcuts referred to by the
+	 * <code>@Pointcut</code> methods of the given type and its superclasses.
+	 */
+	private boolean appendPointcutFingerprints(Class<?> type, Set<Class<?>> visited, StringBuilder description)
+			throws Throwable {
+		for (Class<?> declaringType = type; declaringType != null; declaringType = declaringType.getSuperclass()) {
+			for (Method method : declaringType.getDeclaredMethods()) {
+				for (Annotation annotation : method.getDeclaredAnnotations()) {
+					if (POINTCUT_ANNOTATION.equals(annotation.annotationType().getName())) {
+						Object expression = annotation.annotationType().getMethod("value").invoke(annotation);
+						if (expression instanceof String
+								&& !appendPointcutFingerprints((String) expression, type, visited, description)) {
+							return false;
+						}
+					}
+				}
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Returns the named pointcuts the given pointcut expression refers to, i.e. the names followed by an argument
+	 * list that aren't pointcut designators. Only the top level of the expression is looked at, as named pointcuts
+	 * can't be used as arguments of the designators supported by Spring AOP.
+	 */
+	static List<String> getNamedPointcutReferences(String expression) {
+		List<String> references = new ArrayList<String>();
+		int depth = 0;
+		int start = -1;
+		for (int i = 0; i < expression.length(); i++) {
+			char c = expression.charAt(i);
+			boolean namePart = Character.isJavaIdentifierPart(c) || c == '.' || c == '@';
+			if (depth == 0 && namePart) {
+				if (start < 0) {
+					start = i;
+				}
+				continue;
+			}
+			if (start >= 0) {
+				String name = expression.substring(start, i);
+				start = -1;
+				if (isNamedPointcutReference(name, expression, i)) {
+					references.add(name);
+				}
+			}
+			if (c == '(') {
+				depth++;
+			}
+			else if (c == ')') {
+				depth--;
+			}
+		}
+		return references;
+	}
+
+	private static boolean isNamedPointcutReference(String name, String expression, int end) {
+		if (name.startsWith("@") || POINTCUT_DESIGNATORS.contains(name)) {
+			return false;
+		}
+		while (end < expression.length() && Character.isWhitespace(expression.charAt(end))) {
+			end++;
+		}
+		return end < expression.length() && expression.charAt(end) == '(';
+	}
+
 	public void close() {
 		for (Object pce : pointcutExpressionCache.values()) {
 			Field field = ReflectionUtils.findField(pce.getClass(), "shadowMatchCache");
@@ -117,6 +350,8 @@ public class AspectDefinitionMatcher {
 			shadowMatchCache.clear();
 		}
 		pointcutExpressionCache.clear();
+		aspectKeyCache.clear();
+		typeMatcherCache.clear();
 	}
 
 	/**
@@ -125,7 +360,8 @@ public class AspectDefinitionMatcher {
 	 * Legal matches need to be public and either defined on the class and/or interface depending on the
 	 * <code>isProxyTargetClass</code>.
 	 */
-	private boolean checkMethod(Class targetClass, Method targetMethod, boolean isProxyTargetClass) {
+	private boolean checkMethod(Class targetClass, Class[] targetInterfaces, Method targetMethod,
+			boolean isProxyTargetClass) {
 		Assert.notNull(targetClass);
 		Assert.notNull(targetMethod);
 
@@ -136,7 +372,6 @@ public class AspectDefinitionMatcher {
 			return true;
 		}
 		else {
-			Class[] targetInterfaces = org.springframework.util.ClassUtils.getAllInterfacesForClass(targetClass);
 			// if target class does not implement any interface allow match
 			if (targetInterfaces == null || targetInterfaces.length == 0) {
 				return true;
@@ -247,12 +482,6 @@ public class AspectDefinitionMatcher {
 			return Collections.emptySet();
 		}
 
-		// check if bean is synthetic as this would mean that the BeanPostProcessor would not load
-		BeanDefinition beanDefinition = BeansModelUtils.getMergedBeanDefinition(targetBean, null);
-		if (beanDefinition instanceof RootBeanDefinition && ((RootBeanDefinition) beanDefinition).isSynthetic()) {
-			return Collections.emptySet();
-		}
-
 		// check if pointcut expression has been set
 		if (info.getPointcutExpression() == null) {
 			return Collections.emptySet();
@@ -266,6 +495,7 @@ public class AspectDefinitionMatcher {
 		}
 
 		final IType jdtTargetType = JdtUtils.getJavaType(project, targetClass.getName());
+		final Class[] targetInterfaces = org.springframework.util.ClassUtils.getAllInterfacesForClass(targetClass);
 
 		// TODO CD here is room for speed improvements by collecting all valid
 		// methods in one go and then ask for
@@ -273,7 +503,8 @@ public class AspectDefinitionMatcher {
 		ReflectionUtils.doWithMethods(targetClass, new ReflectionUtils.MethodCallback() {
 			public void doWith(Method method) throws IllegalArgumentException, IllegalAccessException {
 
-				if (checkMethod(targetClass, method, info.isProxyTargetClass()) && !matchingMethods.contains(method)) {
+				if (checkMethod(targetClass, targetInterfaces, method, info.isProxyTargetClass())
+						&& !matchingMethods.contains(method)) {
 					try {
 						boolean matches = (Boolean) ClassUtils.invokeMethod(aspectJExpressionPointcut, "matches", method, targetClass);
 						if (matches) {
@@ -283,8 +514,6 @@ public class AspectDefinitionMatcher {
 						// from the interface rather then the actual
 						// class
 						else if (!info.isProxyTargetClass()) {
-							Class[] targetInterfaces = org.springframework.util.ClassUtils.getAllInterfacesForClass(targetClass);
-
 							if (targetInterfaces != null) {
 								for (Class targetInterface : targetInterfaces) {
 									Method[] targetInterfaceMethods = targetInterface.getMethods();
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2009 Spring IDE Developers
+ * Copyright (c) 2009, 2017 Spring IDE Developers
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -49,7 +49,15 @@ public class AutowireBeanReference extends BeanReference {
 
 	public void setSource(Member member, int index) {
 		IResource resource = BeansModelUtils.getParentOfClass(parent, IResourceModelElement.class).getElementResource();
-		source = AutowireUtils.getJavaElement(resource, member, index);
+		setSource(AutowireUtils.getJavaElement(resource, member, index), index);
+	}
+
+	/**
+	 * Sets the source of this reference to an already resolved java element.
+	 * @since 3.9.4
+	 */
+	public void setSource(IJavaElement source, int index) {
+		this.source = source;
 		if (source != null) {
 			try {
 				this.parameterIndex = index;
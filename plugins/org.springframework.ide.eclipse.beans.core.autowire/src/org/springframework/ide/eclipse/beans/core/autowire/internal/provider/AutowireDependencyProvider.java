@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2009, 2015 Spring IDE Developers
+ * Copyright (c) 2009, 2017 Spring IDE Developers
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -17,10 +17,12 @@ import java.lang.reflect.Modifier;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -30,7 +32,9 @@ import javax.annotation.Resource;
 import javax.inject.Provider;
 
 import org.eclipse.core.resources.IMarker;
+import org.eclipse.core.resources.IResource;
 import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IType;
 import org.eclipse.jdt.core.JavaModelException;
 import org.springframework.beans.BeanWrapperImpl;
 import org.springframework.beans.BeansException;
@@ -46,6 +50,7 @@ import org.springframework.beans.factory.annotation.AutowiredAnnotationBeanPostP
 import org.springframework.beans.factory.config.BeanDefinition;
 import org.springframework.beans.factory.config.BeanDefinitionHolder;
 import org.springframework.beans.factory.config.DependencyDescriptor;
+import org.springframework.beans.factory.config.RuntimeBeanReference;
 import org.springframework.beans.factory.config.TypedStringValue;
 import org.springframework.beans.factory.support.AutowireCandidateResolver;
 import org.springframework.context.annotation.CommonAnnotationBeanPostProcessor;
@@ -53,8 +58,13 @@ import org.springframework.core.LocalVariableTableParameterNameDiscoverer;
 import org.springframework.core.ParameterNameDiscoverer;
 import org.springframework.core.convert.support.DefaultConversionService;
 import org.springframework.ide.eclipse.beans.core.BeansCorePlugin;
+import org.springframework.ide.eclipse.beans.core.autowire.AutowireBeanReference;
 import org.springframework.ide.eclipse.beans.core.autowire.IAutowireDependencyResolver;
 import org.springframework.ide.eclipse.beans.core.autowire.IFactoryBeanTypeResolver;
+import org.springframework.ide.eclipse.beans.core.autowire.internal.provider.AutowireResolutionCache.BeanResolution;
+import org.springframework.ide.eclipse.beans.core.autowire.internal.provider.AutowireResolutionCache.ContextResolutions;
+import org.springframework.ide.eclipse.beans.core.autowire.internal.provider.AutowireResolutionCache.Dependencies;
+import org.springframework.ide.eclipse.beans.core.autowire.internal.provider.AutowireResolutionCache.ResolvedReference;
 import org.springframework.ide.eclipse.beans.core.autowire.internal.provider.InjectionMetadata.InjectedElement;
 import org.springframework.ide.eclipse.beans.core.internal.model.BeansModelUtils;
 import org.springframework.ide.eclipse.beans.core.internal.model.validation.rules.ValidationRuleUtils;
@@ -65,9 +75,11 @@ import org.springframework.ide.eclipse.beans.core.model.IBeansConfig;
 import org.springframework.ide.eclipse.beans.core.model.IBeansConfigSet;
 import org.springframework.ide.eclipse.beans.core.model.IBeansModelElement;
 import org.springframework.ide.eclipse.beans.core.model.IBeansProject;
+import org.springframework.ide.eclipse.core.SpringCore;
 import org.springframework.ide.eclipse.core.java.ClassUtils;
 import org.springframework.ide.eclipse.core.java.IProjectClassLoaderSupport;
 import org.springframework.ide.eclipse.core.java.JdtUtils;
+import org.springframework.ide.eclipse.core.java.typehierarchy.TypeHierarchyEngine;
 import org.springframework.ide.eclipse.core.model.validation.ValidationProblem;
 import org.springframework.ide.eclipse.core.model.validation.ValidationProblemAttribute;
 import org.springframework.util.ObjectUtils;
@@ -118,6 +130,42 @@ public class AutowireDependencyProvider implements IAutowireDependencyResolver {
 	private Class<?> objectFactoryClass;
 	private Class<?> providerClass;
 
+	private AutowireResolutionCache resolutionCache;
+
+	/** Records what the resolution in progress looks at; only used with a {@link #resolutionCache} */
+	private Dependencies dependencies;
+
+	/** Candidate bean names per required type name, shared with the {@link #resolutionCache} */
+	private Map<String, String[]> beansForType;
+
+	private TypeHierarchyEngine typeHierarchyEngine;
+
+	/** Candidate bean names per type name; built on first use */
+	private Map<String, Set<String>> beansByType;
+
+	/** Type hierarchies determined using the type hierarchy engine, <code>null</code> for types it can't find */
+	private Map<String, Set<String>> typeHierarchies = new HashMap<String, Set<String>>();
+
+	/** Beans per name and alias; built on first use */
+	private Map<String, IBean> beansByName;
+
+	/** Aliases per bean name; built on first use */
+	private Map<String, Set<String>> aliasesByBeanName;
+
+	/** Descriptions of the bean definitions, as included in both kinds of fingerprints */
+	private Map<IBean, String> beanDescriptions = new HashMap<IBean, String>();
+
+	private Map<IBean, String> beanFingerprints = new HashMap<IBean, String>();
+
+	private Map<IBean, String> dependencyFingerprints = new HashMap<IBean, String>();
+
+	private Map<String, String> classStamps = new HashMap<String, String>();
+
+	private Map<String, String> classFingerprints = new HashMap<String, String>();
+
+	/** Problems found while creating the injection metadata for a bean class */
+	private Map<String, List<ValidationProblem>> metadataProblems = new HashMap<String, List<ValidationProblem>>();
+
 	public AutowireDependencyProvider(IBeansModelElement element, IBeansModelElement context) {
 		this.context = (context == null ? element : context);
 		this.element = element;
@@ -146,39 +194,19 @@ public class AutowireDependencyProvider implements IAutowireDependencyResolver {
 					fillResolvableDependencies();
 
 					Set<IBean> elementBeans = BeansModelUtils.getBeans(element);
+					if (resolutionCache != null) {
+						resolveIncrementally(elementBeans, autowiredBeanReferences);
+						return;
+					}
+
 					for (IInjectionMetadataProvider provider : createInjectionMetadataProviders()) {
 						for (final IBean bean : elementBeans) {
-
-							List<InjectionMetadata> beanInjectionMetadata = null;
-							if (injectionMetadata.containsKey(bean)) {
-								beanInjectionMetadata = injectionMetadata.get(bean);
-							}
-							else {
-								beanInjectionMetadata = new ArrayList<InjectionMetadata>();
-								injectionMetadata.put(bean, beanInjectionMetadata);
-							}
-
-							String className = BeansModelUtils.getBeanClass(bean, context);
-							try {
-								if (className != null && !bean.isFactory()) {
-									Class<?> targetClass = ClassUtils.loadClass(className);
-									beanInjectionMetadata.add(provider.findAutowiringMetadata(targetClass));
-								}
-							}
-							catch (Throwable e) {
-							}
+							addInjectionMetadata(bean, provider);
 						}
 					}
 
 					for (Map.Entry<IBean, List<InjectionMetadata>> entry : injectionMetadata.entrySet()) {
-						Set<IBeanReference> autowiredReferences = new HashSet<IBeanReference>();
-
-						for (InjectionMetadata metadata : entry.getValue()) {
-							resolveDependencies(entry.getKey(), autowiredReferences, metadata.getInjectedFields());
-							resolveDependencies(entry.getKey(), autowiredReferences, metadata.getInjectedMethods());
-							resolveConstructorDependencies(entry.getKey(), autowiredReferences, metadata
-									.getInjectedConstructors());
-						}
+						Set<IBeanReference> autowiredReferences = resolveBean(entry.getKey(), entry.getValue());
 						if (autowiredReferences.size() > 0) {
 							autowiredBeanReferences.put(entry.getKey(), autowiredReferences);
 						}
@@ -215,73 +243,376 @@ public class AutowireDependencyProvider implements IAutowireDependencyResolver {
 					addResolvableClass(className, StringUtils.uncapitalize(org.springframework.util.ClassUtils
 							.getShortName(className)));
 				}
+			});
+		}
+		catch (ClassNotFoundException e) {
+			// Ignore here as this can easily happen if project class path is not complete
+		}
+		catch (NoClassDefFoundError e) {
+			// Ignore here as this can easily happen if project class path is not complete
+		}
+		catch (Throwable e) {
+			BeansCorePlugin.log(e);
+		}
 
-				private void resolveConstructorDependencies(IBean bean, Set<IBeanReference> autowiredReferences,
-						Set<InjectedElement> injectedConstructors) {
-					InjectedElement[] constructors = sortConstructors(injectedConstructors);
+		return autowiredBeanReferences;
+	}
 
-					// Special handling for explicit defined values
-					if (constructors.length > 0) {
-						for (InjectionMetadata.InjectedElement injectionElement : constructors) {
-							try {
-								autowiredReferences.addAll(injectionElement.getBeanReferences(bean, context,
-										AutowireDependencyProvider.this));
+	/**
+	 * Resolves the beans of the element, reusing the results of earlier runs kept in the {@link #resolutionCache}
+	 * for beans that aren't affected by changes since then.
+	 */
+	private void resolveIncrementally(Set<IBean> elementBeans, Map<IBean, Set<IBeanReference>> autowiredBeanReferences) {
+		ContextResolutions resolutions = resolutionCache.getResolutions(element, context);
+		synchronized (resolutions) {
+			try {
+				String candidatesVersion = getCandidatesVersion();
+				boolean sameCandidates = candidatesVersion.equals(resolutions.candidatesVersion);
+				if (!sameCandidates) {
+					resolutions.beansForType = new HashMap<String, String[]>();
+					resolutions.candidatesVersion = candidatesVersion;
+				}
+				beansForType = resolutions.beansForType;
+
+				boolean sameProviders = resolutions.providerDependencies != null
+						&& (sameCandidates || isUpToDate(resolutions.providerDependencies));
+				dependencies = new Dependencies();
+				Set<IInjectionMetadataProvider> providers = createInjectionMetadataProviders();
+				resolutions.providerDependencies = dependencies;
+				dependencies = null;
+				if (!sameProviders) {
+					resolutions.beans.clear();
+				}
+
+				Set<String> beanIds = new HashSet<String>();
+				Set<ValidationProblem> reusedProblems = new LinkedHashSet<ValidationProblem>();
+				for (IBean bean : elementBeans) {
+					beanIds.add(bean.getElementID());
+					String fingerprint = getFingerprint(bean);
+					BeanResolution resolution = resolutions.beans.get(bean.getElementID());
+					Set<IBeanReference> references;
+					if (resolution != null && resolution.fingerprint.equals(fingerprint)
+							&& (sameCandidates || isUpToDate(resolution.dependencies))) {
+						references = createReferences(bean, resolution.references);
+						reusedProblems.addAll(resolution.problems);
+						resolutionCache.beanReused();
+					}
+					else {
+						dependencies = new Dependencies();
+						int firstProblem = problems.size();
+						for (IInjectionMetadataProvider provider : providers) {
+							addInjectionMetadata(bean, provider);
+						}
+						List<ValidationProblem> beanProblems = new ArrayList<ValidationProblem>(problems.subList(
+								firstProblem, problems.size()));
+						String className = BeansModelUtils.getBeanClass(bean, context);
+						if (className != null) {
+							// Metadata problems are only reported for the first bean of a class
+							List<ValidationProblem> classProblems = metadataProblems.get(className);
+							if (classProblems == null) {
+								metadataProblems.put(className, new ArrayList<ValidationProblem>(beanProblems));
 							}
-							catch (Throwable e) {
-								// TODO CD log somewhere
+							else {
+								beanProblems.addAll(classProblems);
 							}
 						}
+						int firstResolutionProblem = problems.size();
+						references = resolveBean(bean, getInjectionMetadata(bean));
+						beanProblems.addAll(problems.subList(firstResolutionProblem, problems.size()));
+
+						resolutions.beans.put(bean.getElementID(), new BeanResolution(fingerprint, dependencies,
+								getResolvedReferences(references), beanProblems));
+						dependencies = null;
+						resolutionCache.beanResolved();
+					}
+					if (references.size() > 0) {
+						autowiredBeanReferences.put(bean, references);
 					}
 				}
+				resolutions.beans.keySet().retainAll(beanIds);
 
-				private InjectedElement[] sortConstructors(Set<InjectedElement> injectedConstructors) {
-					InjectedElement[] constructors = (InjectedElement[]) injectedConstructors
-							.toArray(new InjectedElement[injectedConstructors.size()]);
-					Arrays.sort(constructors, new Comparator<InjectedElement>() {
+				Set<ValidationProblem> reported = new HashSet<ValidationProblem>(problems);
+				for (ValidationProblem problem : reusedProblems) {
+					if (reported.add(problem)) {
+						problems.add(problem);
+					}
+				}
+			}
+			finally {
+				dependencies = null;
+				beansForType = null;
+			}
+		}
+	}
 
-						public int compare(InjectedElement o1, InjectedElement o2) {
-							Constructor<?> c1 = (Constructor<?>) o1.getMember();
-							Constructor<?> c2 = (Constructor<?>) o2.getMember();
-							boolean p1 = Modifier.isPublic(c1.getModifiers());
-							boolean p2 = Modifier.isPublic(c2.getModifiers());
-							if (p1 != p2) {
-								return (p1 ? -1 : 1);
-							}
-							int c1pl = c1.getParameterTypes().length;
-							int c2pl = c2.getParameterTypes().length;
-							return (new Integer(c1pl)).compareTo(c2pl) * -1;
-						}
-					});
-					return constructors;
+	private List<InjectionMetadata> getInjectionMetadata(IBean bean) {
+		List<InjectionMetadata> beanInjectionMetadata = injectionMetadata.get(bean);
+		if (beanInjectionMetadata == null) {
+			beanInjectionMetadata = new ArrayList<InjectionMetadata>();
+			injectionMetadata.put(bean, beanInjectionMetadata);
+		}
+		return beanInjectionMetadata;
+	}
+
+	private void addInjectionMetadata(IBean bean, IInjectionMetadataProvider provider) {
+		List<InjectionMetadata> beanInjectionMetadata = getInjectionMetadata(bean);
+
+		String className = BeansModelUtils.getBeanClass(bean, context);
+		try {
+			if (className != null && !bean.isFactory()) {
+				Class<?> targetClass = ClassUtils.loadClass(className);
+				beanInjectionMetadata.add(provider.findAutowiringMetadata(targetClass));
+			}
+		}
+		catch (Throwable e) {
+		}
+	}
+
+	private Set<IBeanReference> resolveBean(IBean bean, List<InjectionMetadata> beanInjectionMetadata) {
+		Set<IBeanReference> autowiredReferences = new HashSet<IBeanReference>();
+		for (InjectionMetadata metadata : beanInjectionMetadata) {
+			resolveDependencies(bean, autowiredReferences, metadata.getInjectedFields());
+			resolveDependencies(bean, autowiredReferences, metadata.getInjectedMethods());
+			resolveConstructorDependencies(bean, autowiredReferences, metadata.getInjectedConstructors());
+		}
+		return autowiredReferences;
+	}
+
+	private void resolveConstructorDependencies(IBean bean, Set<IBeanReference> autowiredReferences,
+			Set<InjectedElement> injectedConstructors) {
+		InjectedElement[] constructors = sortConstructors(injectedConstructors);
+
+		// Special handling for explicit defined values
+		if (constructors.length > 0) {
+			for (InjectionMetadata.InjectedElement injectionElement : constructors) {
+				try {
+					autowiredReferences.addAll(injectionElement.getBeanReferences(bean, context, this));
+				}
+				catch (Throwable e) {
+					// TODO CD log somewhere
 				}
+			}
+		}
+	}
 
-				private void resolveDependencies(IBean bean, Set<IBeanReference> autowiredReferences,
-						Set<InjectionMetadata.InjectedElement> injectionElements) {
-					if (injectionElements.size() > 0) {
-						for (InjectionMetadata.InjectedElement injectionElement : injectionElements) {
-							try {
-								autowiredReferences.addAll(injectionElement.getBeanReferences(bean, context,
-										AutowireDependencyProvider.this));
-							}
-							catch (Throwable e) {
-								// TODO CD log somewhere
-							}
-						}
+	private InjectedElement[] sortConstructors(Set<InjectedElement> injectedConstructors) {
+		InjectedElement[] constructors = (InjectedElement[]) injectedConstructors
+				.toArray(new InjectedElement[injectedConstructors.size()]);
+		Arrays.sort(constructors, new Comparator<InjectedElement>() {
+
+			public int compare(InjectedElement o1, InjectedElement o2) {
+				Constructor<?> c1 = (Constructor<?>) o1.getMember();
+				Constructor<?> c2 = (Constructor<?>) o2.getMember();
+				boolean p1 = Modifier.isPublic(c1.getModifiers());
+				boolean p2 = Modifier.isPublic(c2.getModifiers());
+				if (p1 != p2) {
+					return (p1 ? -1 : 1);
+				}
+				int c1pl = c1.getParameterTypes().length;
+				int c2pl = c2.getParameterTypes().length;
+				return (new Integer(c1pl)).compareTo(c2pl) * -1;
+			}
+		});
+		return constructors;
+	}
+
+	private void resolveDependencies(IBean bean, Set<IBeanReference> autowiredReferences,
+			Set<InjectionMetadata.InjectedElement> injectionElements) {
+		if (injectionElements.size() > 0) {
+			for (InjectionMetadata.InjectedElement injectionElement : injectionElements) {
+				try {
+					autowiredReferences.addAll(injectionElement.getBeanReferences(bean, context, this));
+				}
+				catch (Throwable e) {
+					// TODO CD log somewhere
+				}
+			}
+		}
+	}
+
+	private Set<IBeanReference> createReferences(IBean bean, List<ResolvedReference> resolvedReferences) {
+		Set<IBeanReference> references = new HashSet<IBeanReference>();
+		for (ResolvedReference resolvedReference : resolvedReferences) {
+			AutowireBeanReference ref = new AutowireBeanReference(bean, new RuntimeBeanReference(
+					resolvedReference.beanName));
+			ref.setSource(resolvedReference.source, resolvedReference.parameterIndex);
+			references.add(ref);
+		}
+		return references;
+	}
+
+	private List<ResolvedReference> getResolvedReferences(Set<IBeanReference> references) {
+		List<ResolvedReference> resolvedReferences = new ArrayList<ResolvedReference>(references.size());
+		for (IBeanReference reference : references) {
+			if (reference instanceof AutowireBeanReference) {
+				AutowireBeanReference ref = (AutowireBeanReference) reference;
+				resolvedReferences.add(new ResolvedReference(ref.getBeanName(), ref.getSource(), ref
+						.getParameterIndex()));
+			}
+		}
+		return resolvedReferences;
+	}
+
+	/**
+	 * @return a version of the set of all candidate beans, which changes whenever a bean that could be injected
+	 * anywhere changes. Only uses the cheap {@link #getFingerprint(IBean)}, so no bean classes are loaded.
+	 */
+	private String getCandidatesVersion() {
+		List<String> fingerprints = new ArrayList<String>(beans.size());
+		for (IBean bean : beans) {
+			fingerprints.add(getFingerprint(bean));
+		}
+		Collections.sort(fingerprints);
+		return AutowireResolutionCache.hash(fingerprints.toString());
+	}
+
+	/**
+	 * @return <code>true</code> if the dependencies recorded during an earlier resolution are still the same
+	 */
+	private boolean isUpToDate(Dependencies recorded) {
+		for (Map.Entry<String, Set<String>> entry : recorded.typeCandidates.entrySet()) {
+			Set<String> candidates = new HashSet<String>(Arrays.asList(getBeansForType(entry.getKey())));
+			if (!entry.getValue().equals(candidates)) {
+				return false;
+			}
+		}
+		for (Map.Entry<String, String> entry : recorded.beanFingerprints.entrySet()) {
+			if (!ObjectUtils.nullSafeEquals(entry.getValue(), getDependencyFingerprint(getBean(entry.getKey())))) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * @return a fingerprint of the bean definition and of the modification stamps and type hierarchy of the bean's
+	 * class, used to decide whether a bean has to be resolved again. Doesn't load any classes, but changes whenever
+	 * the source or class file of the bean class or one of its supertypes changes.
+	 */
+	private String getFingerprint(IBean bean) {
+		if (bean == null) {
+			return null;
+		}
+		String fingerprint = beanFingerprints.get(bean);
+		if (fingerprint == null) {
+			StringBuilder description = new StringBuilder(getDescription(bean));
+			appendClassStamps(BeansModelUtils.getBeanClass(bean, context), description);
+			String typeName = ValidationRuleUtils.getBeanClassName(bean, context);
+			appendClassStamps(typeName, description);
+			fingerprint = AutowireResolutionCache.hash(description);
+			beanFingerprints.put(bean, fingerprint);
+		}
+		return fingerprint;
+	}
+
+	/**
+	 * @return a fingerprint of everything about a bean that can influence autowiring into other beans, including the
+	 * structure of its class. As that requires loading the class, this is only computed for beans that a resolution
+	 * actually looked at, as recorded in its {@link Dependencies}.
+	 */
+	private String getDependencyFingerprint(IBean bean) {
+		if (bean == null) {
+			return null;
+		}
+		String fingerprint = dependencyFingerprints.get(bean);
+		if (fingerprint == null) {
+			StringBuilder description = new StringBuilder(getDescription(bean));
+			String className = BeansModelUtils.getBeanClass(bean, context);
+			description.append(' ').append(getClassFingerprint(className));
+			String typeName = ValidationRuleUtils.getBeanClassName(bean, context);
+			if (typeName != null && !typeName.equals(className)) {
+				description.append(' ').append(getClassFingerprint(typeName));
+			}
+			fingerprint = AutowireResolutionCache.hash(description);
+			dependencyFingerprints.put(bean, fingerprint);
+		}
+		return fingerprint;
+	}
+
+	private String getDescription(IBean bean) {
+		String description = beanDescriptions.get(bean);
+		if (description == null) {
+			StringBuilder builder = new StringBuilder(bean.getElementName());
+			String[] aliases = getAliases(bean.getElementName());
+			Arrays.sort(aliases);
+			builder.append(' ').append(Arrays.toString(aliases)).append(' ').append(bean.isFactory());
+			builder.append(' ').append(BeansModelUtils.getBeanClass(bean, context));
+			builder.append(' ').append(ValidationRuleUtils.getBeanClassName(bean, context));
+			try {
+				AutowireResolutionCache.describe(BeansModelUtils.getMergedBeanDefinition(bean, context), builder);
+			}
+			catch (Throwable e) {
+				builder.append(" ?");
+			}
+			description = builder.toString();
+			beanDescriptions.put(bean, description);
+		}
+		return description;
+	}
+
+	/**
+	 * Appends the names and modification stamps of a class and all its supertypes, as far as the type hierarchy
+	 * engine knows them, or else just of the class itself.
+	 */
+	private void appendClassStamps(String className, StringBuilder description) {
+		if (className == null) {
+			return;
+		}
+		Set<String> types = getTypeHierarchy(className);
+		List<String> names = types != null ? new ArrayList<String>(types) : Collections.singletonList(className);
+		if (types != null) {
+			Collections.sort(names);
+		}
+		for (String name : names) {
+			description.append(' ').append(name).append(' ').append(getClassStamp(name));
+		}
+	}
+
+	/**
+	 * @return the modification stamp of the source file, class file or archive that declares a class
+	 */
+	private String getClassStamp(String className) {
+		if (classStamps.containsKey(className)) {
+			return classStamps.get(className);
+		}
+		String stamp = null;
+		if (project != null) {
+			IType type = JdtUtils.getJavaType(project.getProject(), className);
+			if (type != null) {
+				IResource resource = type.getResource();
+				if (resource != null) {
+					stamp = resource.getFullPath() + "@" + resource.getModificationStamp();
+				}
+				else {
+					// A type from an archive outside of the workspace
+					IJavaElement root = type.getAncestor(IJavaElement.PACKAGE_FRAGMENT_ROOT);
+					if (root != null) {
+						stamp = root.getPath() + "@" + root.getPath().toFile().lastModified();
 					}
 				}
-			});
+			}
 		}
-		catch (ClassNotFoundException e) {
-			// Ignore here as this can easily happen if project class path is not complete
+		classStamps.put(className, stamp);
+		return stamp;
+	}
+
+	private String getClassFingerprint(String className) {
+		if (className == null) {
+			return null;
 		}
-		catch (NoClassDefFoundError e) {
-			// Ignore here as this can easily happen if project class path is not complete
+		if (classFingerprints.containsKey(className)) {
+			return classFingerprints.get(className);
+		}
+		String fingerprint;
+		try {
+			fingerprint = AutowireResolutionCache.getClassFingerprint(ClassUtils.loadClass(className));
 		}
 		catch (Throwable e) {
-			BeansCorePlugin.log(e);
+			// Ignore here as this can easily happen if project class path is not complete
+			fingerprint = null;
 		}
-
-		return autowiredBeanReferences;
+		classFingerprints.put(className, fingerprint);
+		return fingerprint;
 	}
 
 	public void preloadClasses() {
@@ -309,38 +640,61 @@ public class AutowireDependencyProvider implements IAutowireDependencyResolver {
 	}
 
 	public String[] getAliases(String beanName) {
-		Set<String> aliases = new HashSet<String>();
-		if (context instanceof IBeansConfig) {
-			for (IBeanAlias alias : ((IBeansConfig) context).getAliases()) {
-				if (beanName.equals(alias.getBeanName())) {
-					aliases.add(alias.getElementName());
-				}
-			}
+		Set<String> aliases = getAliasesByBeanName().get(beanName);
+		if (aliases == null) {
+			return new String[0];
 		}
-		else if (context instanceof IBeansConfigSet) {
-			for (IBeanAlias alias : ((IBeansConfigSet) context).getAliases()) {
-				if (beanName.equals(alias.getBeanName())) {
-					aliases.add(alias.getElementName());
+		return (String[]) aliases.toArray(new String[aliases.size()]);
+	}
+
+	private Map<String, Set<String>> getAliasesByBeanName() {
+		if (aliasesByBeanName == null) {
+			Set<IBeanAlias> beanAliases = new LinkedHashSet<IBeanAlias>();
+			if (context instanceof IBeansConfig) {
+				beanAliases.addAll(((IBeansConfig) context).getAliases());
+			}
+			else if (context instanceof IBeansConfigSet) {
+				beanAliases.addAll(((IBeansConfigSet) context).getAliases());
+			}
+			Map<String, Set<String>> index = new HashMap<String, Set<String>>();
+			for (IBeanAlias alias : beanAliases) {
+				Set<String> aliases = index.get(alias.getBeanName());
+				if (aliases == null) {
+					aliases = new HashSet<String>();
+					index.put(alias.getBeanName(), aliases);
 				}
+				aliases.add(alias.getElementName());
 			}
+			aliasesByBeanName = index;
 		}
-		return (String[]) aliases.toArray(new String[aliases.size()]);
+		return aliasesByBeanName;
 	}
 
 	public IBean getBean(String candidateName) {
-		for (IBean bean : beans) {
-			if (bean.getElementName().equals(candidateName)) {
-				return bean;
-			}
-			else {
+		IBean bean = findBean(candidateName);
+		if (dependencies != null) {
+			dependencies.beanFingerprints.put(candidateName, getDependencyFingerprint(bean));
+		}
+		return bean;
+	}
+
+	private IBean findBean(String candidateName) {
+		if (beansByName == null) {
+			// The first bean with a given name or alias wins
+			Map<String, IBean> index = new HashMap<String, IBean>();
+			for (IBean bean : beans) {
+				if (!index.containsKey(bean.getElementName())) {
+					index.put(bean.getElementName(), bean);
+				}
 				for (String alias : getAliases(bean.getElementName())) {
-					if (alias.equals(candidateName)) {
-						return bean;
+					if (!index.containsKey(alias)) {
+						index.put(alias, bean);
 					}
 				}
 			}
+			beansByName = index;
 		}
-		return null;
+		return beansByName.get(candidateName);
 	}
 	
 	public String[] getBeansForType(String requiredTypeName) {
@@ -361,67 +715,177 @@ public class AutowireDependencyProvider implements IAutowireDependencyResolver {
 	}
 
 	public String[] getBeansForType(Class<?> requiredType) {
-		Set<String> matchingBeans = new HashSet<String>();
-		
-		for (IBean bean : beans) {
-			String beanClassName = ValidationRuleUtils.getBeanClassName(bean, context);
-			if (beanClassName != null) {
-				try {
-					Class<?> beanClass = ClassUtils.loadClass(beanClassName);
-					if (requiredType.isAssignableFrom(beanClass)) {
-						matchingBeans.add(bean.getElementName());
-					}
-					else if (factoryBeanClass != null && factoryBeanClass.isAssignableFrom(beanClass)) {
-						if (isFactoryForType(beanClass, requiredType)) {
-							matchingBeans.add(bean.getElementName());
-						} 
-						else if (isExtensibleFactoryForType(bean, beanClass, requiredType)) {
+		String[] matchingBeans = null;
+		if (beansForType != null) {
+			matchingBeans = beansForType.get(requiredType.getName());
+		}
+		if (matchingBeans == null) {
+			matchingBeans = findBeansForType(requiredType);
+			if (beansForType != null) {
+				beansForType.put(requiredType.getName(), matchingBeans);
+			}
+		}
+		if (dependencies != null) {
+			dependencies.typeCandidates.put(requiredType.getName(), new HashSet<String>(Arrays.asList(matchingBeans)));
+		}
+		return beansForType != null ? matchingBeans.clone() : matchingBeans;
+	}
+
+	private String[] findBeansForType(Class<?> requiredType) {
+		Set<String> matchingBeans = getBeansByType().get(requiredType.getName());
+		if (matchingBeans == null) {
+			return new String[0];
+		}
+		return (String[]) matchingBeans.toArray(new String[matchingBeans.size()]);
+	}
+
+	/**
+	 * @return the names of the candidate beans per type name. Every bean is registered for all supertypes and
+	 * interfaces of its class and, for factory beans, of the type of object it creates.
+	 */
+	private Map<String, Set<String>> getBeansByType() {
+		if (beansByType == null) {
+			Map<String, Set<String>> index = new HashMap<String, Set<String>>();
+			for (IBean bean : beans) {
+				String beanClassName = ValidationRuleUtils.getBeanClassName(bean, context);
+				if (beanClassName != null) {
+					try {
+						for (String type : getBeanTypes(bean, beanClassName)) {
+							Set<String> matchingBeans = index.get(type);
+							if (matchingBeans == null) {
+								matchingBeans = new HashSet<String>();
+								index.put(type, matchingBeans);
+							}
 							matchingBeans.add(bean.getElementName());
 						}
 					}
+					catch (ClassNotFoundException e) {
+						// Ignore here as this can easily happen if project class path is not complete
+					}
+					catch (NoClassDefFoundError e) {
+						// Ignore here as this can easily happen if project class path is not complete
+					}
+					catch (Throwable e) {
+						BeansCorePlugin.log(e);
+					}
 				}
-				catch (ClassNotFoundException e) {
-					// Ignore here as this can easily happen if project class path is not complete
+			}
+			beansByType = index;
+		}
+		return beansByType;
+	}
+
+	/**
+	 * @return the names of all types a bean can be injected as
+	 */
+	private Set<String> getBeanTypes(IBean bean, String beanClassName) throws ClassNotFoundException {
+		Class<?> beanClass = null;
+		Set<String> types = getTypeHierarchy(beanClassName);
+		if (types == null) {
+			beanClass = ClassUtils.loadClass(beanClassName);
+			types = getTypeHierarchy(beanClass);
+		}
+		if (factoryBeanClass != null && types.contains(factoryBeanClass.getName())) {
+			types = new HashSet<String>(types);
+			try {
+				if (beanClass == null) {
+					beanClass = ClassUtils.loadClass(beanClassName);
 				}
-				catch (NoClassDefFoundError e) {
-					// Ignore here as this can easily happen if project class path is not complete
+				Method factoryMethod = beanClass.getMethod("getObject", new Class[] {});
+				if (factoryMethod != null) {
+					types.addAll(getTypeHierarchy(factoryMethod.getReturnType()));
 				}
-				catch (Throwable e) {
-					BeansCorePlugin.log(e);
+				for (IFactoryBeanTypeResolver factoryTypeResolver : FactoryBeanTypeResolverExtensions
+						.getFactoryBeanTypeResolvers()) {
+					Class<?> beanType = factoryTypeResolver.resolveBeanTypeFromFactory(bean, beanClass);
+					if (beanType != null) {
+						types.addAll(getTypeHierarchy(beanType));
+					}
 				}
 			}
+			catch (ClassNotFoundException e) {
+				// Ignore here as this can easily happen if project class path is not complete
+			}
+			catch (NoClassDefFoundError e) {
+				// Ignore here as this can easily happen if project class path is not complete
+			}
+			catch (Throwable e) {
+				BeansCorePlugin.log(e);
+			}
 		}
-		return (String[]) matchingBeans.toArray(new String[matchingBeans.size()]);
+		return types;
 	}
 
-	private boolean isFactoryForType(Class<?> beanClass, Class<?> requiredType) {
-		try {
-			Method factoryMethod = beanClass.getMethod("getObject", new Class[] {});
-			if (factoryMethod != null && requiredType.isAssignableFrom(factoryMethod.getReturnType())) {
-				return true;
-			}
-		}
-		catch (NoClassDefFoundError e) {
-			// Ignore here as this can easily happen if project class path is not complete
+	/**
+	 * Determines the names of a type and all its supertypes and interfaces from the class files on the project's
+	 * class path, without loading any classes.
+	 * @return the type names or <code>null</code> if the type hierarchy engine isn't available or can't find any of
+	 * the types
+	 */
+	private Set<String> getTypeHierarchy(String typeName) {
+		if (typeHierarchies.containsKey(typeName)) {
+			return typeHierarchies.get(typeName);
 		}
-		catch (Throwable e) {
-			BeansCorePlugin.log(e);
+		Set<String> types = null;
+		TypeHierarchyEngine engine = getTypeHierarchyEngine();
+		if (engine != null) {
+			types = new HashSet<String>();
+			types.add(typeName);
+			types.add(Object.class.getName());
+			if (!Object.class.getName().equals(typeName)) {
+				// Every type but Object has a superclass (interfaces have Object), so none means the type wasn't found
+				String superclass = engine.getSupertype(project.getProject(), typeName);
+				if (superclass == null) {
+					types = null;
+				}
+				else {
+					List<String> supertypes = new ArrayList<String>();
+					supertypes.add(superclass);
+					String[] interfaces = engine.getInterfaces(project.getProject(), typeName);
+					if (interfaces != null) {
+						supertypes.addAll(Arrays.asList(interfaces));
+					}
+					for (String supertype : supertypes) {
+						Set<String> supertypeHierarchy = getTypeHierarchy(supertype);
+						if (supertypeHierarchy == null) {
+							types = null;
+							break;
+						}
+						types.addAll(supertypeHierarchy);
+					}
+				}
+			}
 		}
+		typeHierarchies.put(typeName, types);
+		return types;
+	}
 
-		return false;
+	/**
+	 * @return the names of a loaded class and all its supertypes and interfaces
+	 */
+	private Set<String> getTypeHierarchy(Class<?> clazz) {
+		Set<String> types = new HashSet<String>();
+		if (!clazz.isPrimitive()) {
+			types.add(Object.class.getName());
+			addTypeHierarchy(clazz, types);
+		}
+		return types;
 	}
 
-	private boolean isExtensibleFactoryForType(IBean bean, Class<?> beanClass, Class<?> requiredType) {
-		IFactoryBeanTypeResolver[] resolvers = FactoryBeanTypeResolverExtensions.getFactoryBeanTypeResolvers();
-		
-		for (IFactoryBeanTypeResolver factoryTypeResolver : resolvers) {
-			Class<?> beanType = factoryTypeResolver.resolveBeanTypeFromFactory(bean, beanClass);
-			if (beanType != null && requiredType.isAssignableFrom(beanType)) {
-				return true;
+	private void addTypeHierarchy(Class<?> clazz, Set<String> types) {
+		if (clazz != null && types.add(clazz.getName())) {
+			addTypeHierarchy(clazz.getSuperclass(), types);
+			for (Class<?> iface : clazz.getInterfaces()) {
+				addTypeHierarchy(iface, types);
 			}
 		}
+	}
 
-		return false;
+	private TypeHierarchyEngine getTypeHierarchyEngine() {
+		if (!"true".equals(System.getProperty(TypeHierarchyEngine.ENABLE_PROPERTY, "true")) || project == null) {
+			return null;
+		}
+		return typeHierarchyEngine != null ? typeHierarchyEngine : SpringCore.getTypeHierarchyEngine();
 	}
 
 	public boolean isAutowireCandidate(String beanName, DependencyDescriptor descriptor)
@@ -512,6 +976,24 @@ public class AutowireDependencyProvider implements IAutowireDependencyResolver {
 		this.classLoaderSupport = classLoaderSupport;
 	}
 
+	/**
+	 * Sets the cache to reuse the results of earlier resolutions from, and to store the results of this resolution
+	 * in. Without a cache all beans are resolved.
+	 * @since 3.9.4
+	 */
+	public void setResolutionCache(AutowireResolutionCache resolutionCache) {
+		this.resolutionCache = resolutionCache;
+	}
+
+	/**
+	 * Sets the type hierarchy engine used to determine the types of beans. Defaults to the engine of
+	 * {@link SpringCore}.
+	 * @since 3.9.4
+	 */
+	public void setTypeHierarchyEngine(TypeHierarchyEngine typeHierarchyEngine) {
+		this.typeHierarchyEngine = typeHierarchyEngine;
+	}
+
 	protected String determinePrimaryCandidate(Map<String, IBean> candidateBeans, DependencyDescriptor descriptor) {
 		String primaryBeanName = null;
 		String fallbackBeanName = null;
@@ -0,0 +1,315 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Spring IDE Developers
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Spring IDE Developers - initial API and implementation
+ *******************************************************************************/
+package org.springframework.ide.eclipse.beans.core.autowire.internal.provider;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.AnnotatedElement;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.jdt.core.IJavaElement;
+import org.springframework.beans.PropertyValue;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.TypedStringValue;
+import org.springframework.beans.factory.support.AbstractBeanDefinition;
+import org.springframework.beans.factory.support.AutowireCandidateQualifier;
+import org.springframework.ide.eclipse.beans.core.internal.model.AbstractBeansModelCache;
+import org.springframework.ide.eclipse.core.model.IModelElement;
+import org.springframework.ide.eclipse.core.model.ModelChangeEvent;
+import org.springframework.ide.eclipse.core.model.validation.ValidationProblem;
+
+/**
+ * Remembers the results of autowire resolution across validation runs, so that
+ * {@link AutowireDependencyProvider} only has to re-resolve the injection points of beans that are affected by a
+ * change.
+ * <p>
+ * Results are kept per config and context (config or config set). For every bean the cache keeps the references
+ * and problems found for it, together with a fingerprint of the bean (its bean definition and the modification stamps
+ * of its class and supertypes) and the dependencies of the resolution: the candidate beans found for every required
+ * type and the fingerprints (including the structure of their classes) of all beans that were looked at. A cached
+ * result is reused if the bean's fingerprint is unchanged and either the set of candidate beans as a whole is
+ * unchanged, or none of the dependencies of the result changed.
+ * <p>
+ * The candidate beans found for each required type are kept as well, as long as the set of candidate beans is
+ * unchanged.
+ * <p>
+ * Configs, contexts and beans are identified by their element ids, so results are kept when the beans model reloads
+ * a config after a change and creates new elements for it. The fingerprints decide which of them can be reused. The
+ * results of a project are only dropped when the beans model reports the removal of the project or one of its configs.
+ * @since 3.9.4
+ */
+public class AutowireResolutionCache extends AbstractBeansModelCache {
+
+	private static final AutowireResolutionCache DEFAULT = new AutowireResolutionCache();
+
+	public static AutowireResolutionCache getDefault() {
+		DEFAULT.startListening();
+		return DEFAULT;
+	}
+
+	private final ConcurrentHashMap<String, ContextResolutions> contexts =
+			new ConcurrentHashMap<String, ContextResolutions>();
+
+	private final AtomicLong reused = new AtomicLong();
+
+	private final AtomicLong resolved = new AtomicLong();
+
+	/**
+	 * @return the cached resolutions for the beans of the given config, resolved in the given context
+	 */
+	public ContextResolutions getResolutions(IModelElement element, IModelElement context) {
+		String key = element.getElementID() + " " + context.getElementID();
+		ContextResolutions resolutions = contexts.get(key);
+		if (resolutions == null) {
+			resolutions = new ContextResolutions(getProjectName(element));
+			ContextResolutions existing = contexts.putIfAbsent(key, resolutions);
+			if (existing != null) {
+				resolutions = existing;
+			}
+		}
+		return resolutions;
+	}
+
+	public void clear() {
+		contexts.clear();
+	}
+
+	@Override
+	protected void projectChanged(String projectName, ModelChangeEvent.Type type) {
+		// Changed configs are detected by the fingerprints of their beans
+		if (type != ModelChangeEvent.Type.REMOVED) {
+			return;
+		}
+		if (projectName == null) {
+			contexts.clear();
+			return;
+		}
+		for (Map.Entry<String, ContextResolutions> entry : contexts.entrySet()) {
+			if (projectName.equals(entry.getValue().projectName)) {
+				contexts.remove(entry.getKey(), entry.getValue());
+			}
+		}
+	}
+
+	/**
+	 * @return the number of beans whose cached resolution was reused
+	 */
+	public long getReusedCount() {
+		return reused.get();
+	}
+
+	/**
+	 * @return the number of beans that had to be resolved
+	 */
+	public long getResolvedCount() {
+		return resolved.get();
+	}
+
+	void beanReused() {
+		reused.incrementAndGet();
+	}
+
+	void beanResolved() {
+		resolved.incrementAndGet();
+	}
+
+	/**
+	 * Cached resolutions of the beans of a single config in a single context. Callers should synchronize on this object
+	 * while using it.
+	 */
+	public static class ContextResolutions {
+
+		final String projectName;
+
+		String candidatesVersion;
+
+		/** Input used to set up the injection metadata providers */
+		Dependencies providerDependencies;
+
+		/** Candidate bean names per required type name; valid for {@link #candidatesVersion} */
+		Map<String, String[]> beansForType = new HashMap<String, String[]>();
+
+		/** Resolutions per bean element id */
+		final Map<String, BeanResolution> beans = new HashMap<String, BeanResolution>();
+
+		ContextResolutions(String projectName) {
+			this.projectName = projectName;
+		}
+
+	}
+
+	/**
+	 * Everything a resolution looked at, apart from the bean itself.
+	 */
+	static class Dependencies {
+
+		/** Candidate bean names found per required type name */
+		final Map<String, Set<String>> typeCandidates = new HashMap<String, Set<String>>();
+
+		/** Fingerprints of the beans that were looked up by name; <code>null</code> for names without bean */
+		final Map<String, String> beanFingerprints = new HashMap<String, String>();
+
+	}
+
+	static class BeanResolution {
+
+		final String fingerprint;
+
+		final Dependencies dependencies;
+
+		final List<ResolvedReference> references;
+
+		final List<ValidationProblem> problems;
+
+		BeanResolution(String fingerprint, Dependencies dependencies, List<ResolvedReference> references,
+				List<ValidationProblem> problems) {
+			this.fingerprint = fingerprint;
+			this.dependencies = dependencies;
+			this.references = references;
+			this.problems = problems;
+		}
+	}
+
+	static class ResolvedReference {
+
+		final String beanName;
+
+		final IJavaElement source;
+
+		final int parameterIndex;
+
+		ResolvedReference(String beanName, IJavaElement source, int parameterIndex) {
+			this.beanName = beanName;
+			this.source = source;
+			this.parameterIndex = parameterIndex;
+		}
+	}
+
+	/**
+	 * Describes everything of a bean definition that can influence autowiring of or into the bean.
+	 */
+	static void describe(BeanDefinition bd, StringBuilder description) {
+		description.append(bd.toString());
+		for (PropertyValue pv : bd.getPropertyValues().getPropertyValueList()) {
+			description.append(' ').append(pv.getName());
+			if (pv.getValue() instanceof TypedStringValue) {
+				description.append('=').append(((TypedStringValue) pv.getValue()).getValue());
+			}
+		}
+		description.append(" args=").append(bd.getConstructorArgumentValues().getArgumentCount());
+		if (bd instanceof AbstractBeanDefinition) {
+			for (AutowireCandidateQualifier qualifier : ((AbstractBeanDefinition) bd).getQualifiers()) {
+				description.append(" @").append(qualifier.getTypeName());
+				for (String name : qualifier.attributeNames()) {
+					description.append(' ').append(name).append('=').append(qualifier.getAttribute(name));
+				}
+			}
+		}
+	}
+
+	/**
+	 * Computes a fingerprint of everything about a class that can influence autowiring: the names, modifiers, generic
+	 * signatures and annotations of the class, its supertypes and their fields, methods and constructors.
+	 */
+	static String getClassFingerprint(Class<?> clazz) {
+		StringBuilder description = new StringBuilder();
+		List<Class<?>> types = new ArrayList<Class<?>>();
+		for (Class<?> type = clazz; type != null; type = type.getSuperclass()) {
+			types.add(type);
+		}
+		for (Class<?> type : org.springframework.util.ClassUtils.getAllInterfacesForClassAsSet(clazz)) {
+			types.add(type);
+		}
+		for (Class<?> type : types) {
+			description.append(type.getName()).append(' ').append(type.getModifiers()).append(' ')
+					.append(type.getGenericSuperclass());
+			for (java.lang.reflect.Type iface : type.getGenericInterfaces()) {
+				description.append(' ').append(iface);
+			}
+			appendAnnotations(description, type);
+			description.append('\n');
+			List<String> members = new ArrayList<String>();
+			for (Field field : type.getDeclaredFields()) {
+				StringBuilder member = new StringBuilder(field.toGenericString());
+				appendAnnotations(member, field);
+				members.add(member.toString());
+			}
+			for (Method method : type.getDeclaredMethods()) {
+				StringBuilder member = new StringBuilder(method.toGenericString());
+				appendAnnotations(member, method);
+				appendParameterAnnotations(member, method.getParameterAnnotations());
+				members.add(member.toString());
+			}
+			for (Constructor<?> constructor : type.getDeclaredConstructors()) {
+				StringBuilder member = new StringBuilder(constructor.toGenericString());
+				appendAnnotations(member, constructor);
+				appendParameterAnnotations(member, constructor.getParameterAnnotations());
+				members.add(member.toString());
+			}
+			Collections.sort(members);
+			for (String member : members) {
+				description.append(member).append('\n');
+			}
+		}
+		return hash(description);
+	}
+
+	private static void appendAnnotations(StringBuilder description, AnnotatedElement element) {
+		appendAnnotations(description, element.getDeclaredAnnotations());
+	}
+
+	private static void appendParameterAnnotations(StringBuilder description, Annotation[][] parameterAnnotations) {
+		for (Annotation[] annotations : parameterAnnotations) {
+			appendAnnotations(description, annotations);
+		}
+	}
+
+	private static void appendAnnotations(StringBuilder description, Annotation[] annotations) {
+		List<String> names = new ArrayList<String>(annotations.length);
+		for (Annotation annotation : annotations) {
+			// Include meta-annotations, as they make an annotation a qualifier
+			StringBuilder name = new StringBuilder(annotation.toString());
+			for (Annotation meta : annotation.annotationType().getDeclaredAnnotations()) {
+				name.append(' ').append(meta.annotationType().getName());
+			}
+			names.add(name.toString());
+		}
+		Collections.sort(names);
+		description.append(names);
+	}
+
+	static String hash(CharSequence description) {
+		try {
+			MessageDigest digest = MessageDigest.getInstance("SHA-1");
+			byte[] bytes = digest.digest(description.toString().getBytes(StandardCharsets.UTF_8));
+			StringBuilder hex = new StringBuilder(bytes.length * 2);
+			for (byte b : bytes) {
+				hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+			}
+			return hex.toString();
+		}
+		catch (Exception e) {
+			// SHA-1 is always available
+			throw new IllegalStateException(e);
+		}
+	}
+}
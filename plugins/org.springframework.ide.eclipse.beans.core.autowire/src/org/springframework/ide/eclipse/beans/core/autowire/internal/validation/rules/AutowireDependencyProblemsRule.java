@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2009, 2013 Spring IDE Developers
+ * Copyright (c) 2009, 2017 Spring IDE Developers
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -12,11 +12,13 @@ package org.springframework.ide.eclipse.beans.core.autowire.internal.validation.
 
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.springframework.ide.eclipse.beans.core.autowire.internal.provider.AutowireDependencyProvider;
+import org.springframework.ide.eclipse.beans.core.autowire.internal.provider.AutowireResolutionCache;
 import org.springframework.ide.eclipse.beans.core.internal.model.BeansConfig;
 import org.springframework.ide.eclipse.beans.core.model.IBeansConfig;
 import org.springframework.ide.eclipse.beans.core.model.IBeansModelElement;
 import org.springframework.ide.eclipse.beans.core.model.validation.IBeansValidationContext;
 import org.springframework.ide.eclipse.core.model.IModelElement;
+import org.springframework.ide.eclipse.core.model.validation.AbstractValidationContext;
 import org.springframework.ide.eclipse.core.model.validation.IValidationContext;
 import org.springframework.ide.eclipse.core.model.validation.IValidationRule;
 import org.springframework.ide.eclipse.core.model.validation.ValidationProblem;
@@ -45,6 +47,10 @@ public class AutowireDependencyProblemsRule implements IValidationRule<IBeansCon
 		AutowireDependencyProvider provider = new AutowireDependencyProvider(element, (IBeansModelElement) context
 				.getContextElement());
 		provider.setProjectClassLoaderSupport(context.getProjectClassLoaderSupport());
+		provider.setResolutionCache(AutowireResolutionCache.getDefault());
+		if (context instanceof AbstractValidationContext) {
+			provider.setTypeHierarchyEngine(((AbstractValidationContext) context).getTypeHierarchyEngine());
+		}
 		
 		provider.resolveAutowiredDependencies();
 		for (ValidationProblem problem : provider.getValidationProblems()) {
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2010 Spring IDE Developers
+ * Copyright (c) 2010, 2017 Spring IDE Developers
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -11,12 +11,20 @@
 package org.springframework.ide.eclipse.beans.core.metadata.internal.model;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import org.eclipse.core.resources.IProject;
 import org.eclipse.core.resources.IResource;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IConfigurationElement;
@@ -29,6 +37,8 @@ import org.eclipse.core.runtime.Platform;
 import org.eclipse.core.runtime.SafeRunner;
 import org.eclipse.core.runtime.Status;
 import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.jdt.core.IType;
+import org.eclipse.jdt.core.JavaModelException;
 import org.eclipse.ui.progress.IProgressConstants;
 import org.springframework.ide.eclipse.beans.core.BeansCoreImages;
 import org.springframework.ide.eclipse.beans.core.BeansCorePlugin;
@@ -42,10 +52,18 @@ import org.springframework.ide.eclipse.beans.core.model.IBean;
 import org.springframework.ide.eclipse.beans.core.model.IBeanProperty;
 import org.springframework.ide.eclipse.beans.core.model.IBeansConfig;
 import org.springframework.ide.eclipse.beans.core.model.IBeansProject;
+import org.springframework.ide.eclipse.core.SpringCore;
+import org.springframework.ide.eclipse.core.java.JdtUtils;
+import org.springframework.ide.eclipse.core.java.typehierarchy.TypeHierarchyEngine;
 import org.springframework.ide.eclipse.core.model.ModelChangeEvent.Type;
 
 /**
  * {@link Job} implementation that handles loading and attaching {@link IBeanMetadata} for {@link IBeansConfig}.
+ * <p>
+ * The configs are processed in parallel by a small pool of worker threads. Contributed providers that don't declare
+ * that they can be called concurrently are called by one thread at a time. Beans whose fingerprint (bean class,
+ * bean definition and the source files of the bean class and its superclasses) is unchanged since the meta data was
+ * last attached are skipped.
  * @author Christian Dupuis
  * @since 2.0.5
  */
@@ -57,6 +75,9 @@ public class BeanMetadataBuilderJob extends Job {
 	/** The class attribute in the extension point contribution */
 	private static final String CLASS_ATTRIBUTE = "class";
 
+	/** The attribute declaring that a provider can be called concurrently */
+	private static final String CONCURRENT_ATTRIBUTE = "concurrent";
+
 	/** The id of the metadata providers extension point */
 	public static final String META_DATA_PROVIDERS_EXTENSION_POINT = BeansMetadataPlugin.PLUGIN_ID
 			+ ".metadataproviders";
@@ -64,6 +85,11 @@ public class BeanMetadataBuilderJob extends Job {
 	/** Object identifying the job family */
 	private static final Object CONTENT_FAMILY = new Object();
 
+	/** The number of threads used to attach meta data; 1 processes all configs on the job's thread */
+	private static final int BUILDER_THREADS = Integer.getInteger(
+			"org.springframework.ide.eclipse.beans.core.metadata.internal.model.builder.threads",
+			Math.min(4, Runtime.getRuntime().availableProcessors()));
+
 	/** Internal cache of the affected {@link IBean}s keyed by the containing {@link IBeansConfig} */
 	private Map<IBeansConfig, Set<IBean>> affectedBeans;
 
@@ -128,46 +154,194 @@ public class BeanMetadataBuilderJob extends Job {
 
 			// Reading contributed IBeanMetadataProviders from the extension point
 			IBeanMetadataProvider[] providers = getMetadataProviders();
-			Set<IBeansProject> projects = new LinkedHashSet<IBeansProject>();
+			Set<IBeansProject> projects = Collections.synchronizedSet(new LinkedHashSet<IBeansProject>());
 
-			for (Map.Entry<IBeansConfig, Set<IBean>> entry : affectedBeans.entrySet()) {
+			List<Map.Entry<IBeansConfig, Set<IBean>>> entries = new ArrayList<Map.Entry<IBeansConfig, Set<IBean>>>(
+					affectedBeans.entrySet());
+			attachMetadata(entries, monitor, providers, projects);
 
-				// Do some profiling
-				long start = System.currentTimeMillis();
-				IResource resource = entry.getKey().getElementResource();
-				projects.add(BeansModelUtils.getParentOfClass(entry.getKey(), IBeansProject.class));
+			// Notify that the model has changed.
+			synchronized (projects) {
+				for (IBeansProject project : projects) {
+					((BeansModel) BeansCorePlugin.getModel()).notifyListeners(project, Type.CHANGED);
+				}
+			}
 
-				monitor.subTask("Attaching Spring bean meta data to file [" + resource.getFullPath().toString() + "]");
-				attachMetadata(entry.getKey(), entry.getValue(), monitor, providers);
-				monitor.worked(1);
+		}
+		finally {
+			affectedBeans = null;
+		}
+		return Status.OK_STATUS;
+	}
 
-				if (BeanMetadataModel.DEBUG) {
-					System.out.println("Attaching meta data [" + resource.getFullPath().toString() + "] took "
-							+ (System.currentTimeMillis() - start) + "ms");
+	/**
+	 * Attaches meta data to the beans of all given configs. The configs are spread over the worker threads; see
+	 * {@link #getMetadataProviders()} for how providers are protected from concurrent calls.
+	 * @param projects collects the projects whose meta data has changed
+	 */
+	private void attachMetadata(final List<Map.Entry<IBeansConfig, Set<IBean>>> entries,
+			final IProgressMonitor monitor, final IBeanMetadataProvider[] providers, final Set<IBeansProject> projects) {
+		int workers = Math.min(BUILDER_THREADS, entries.size());
+		if (workers <= 1) {
+			for (Map.Entry<IBeansConfig, Set<IBean>> entry : entries) {
+				if (monitor.isCanceled()) {
+					return;
 				}
+				attachMetadata(entry.getKey(), entry.getValue(), monitor, providers, projects);
 			}
+			return;
+		}
 
-			// Notify that the model has changed.
-			for (IBeansProject project : projects) {
-				((BeansModel) BeansCorePlugin.getModel()).notifyListeners(project, Type.CHANGED);
-			}
+		ExecutorService executor = Executors.newFixedThreadPool(workers, new ThreadFactory() {
+			private final AtomicInteger count = new AtomicInteger();
 
+			public Thread newThread(Runnable r) {
+				Thread thread = new Thread(r, "Spring Meta Data Builder " + count.incrementAndGet());
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+		try {
+			final AtomicInteger nextEntry = new AtomicInteger();
+			List<Future<?>> futures = new ArrayList<Future<?>>(workers);
+			for (int i = 0; i < workers; i++) {
+				futures.add(executor.submit(new Runnable() {
+					public void run() {
+						ClassLoader contextClassLoader = Thread.currentThread().getContextClassLoader();
+						try {
+							int next;
+							while (!monitor.isCanceled() && (next = nextEntry.getAndIncrement()) < entries.size()) {
+								Map.Entry<IBeansConfig, Set<IBean>> entry = entries.get(next);
+								attachMetadata(entry.getKey(), entry.getValue(), monitor, providers, projects);
+							}
+						}
+						finally {
+							Thread.currentThread().setContextClassLoader(contextClassLoader);
+						}
+					}
+				}));
+			}
+			for (Future<?> future : futures) {
+				future.get();
+			}
+		}
+		catch (InterruptedException e) {
+			monitor.setCanceled(true);
+		}
+		catch (ExecutionException e) {
+			BeansMetadataPlugin.getDefault().getLog().log(
+					new Status(IStatus.ERROR, BeansMetadataPlugin.PLUGIN_ID, 1, "Error attaching meta data", e.getCause()));
 		}
 		finally {
-			affectedBeans = null;
+			executor.shutdownNow();
+		}
+	}
+
+	private void attachMetadata(IBeansConfig beansConfig, Set<IBean> beans, IProgressMonitor monitor,
+			IBeanMetadataProvider[] providers, Set<IBeansProject> projects) {
+		// Do some profiling
+		long start = System.currentTimeMillis();
+		IResource resource = beansConfig.getElementResource();
+
+		synchronized (monitor) {
+			monitor.subTask("Attaching Spring bean meta data to file [" + resource.getFullPath().toString() + "]");
+		}
+		if (attachMetadata(beansConfig, beans, monitor, providers)) {
+			projects.add(BeansModelUtils.getParentOfClass(beansConfig, IBeansProject.class));
+		}
+		synchronized (monitor) {
+			monitor.worked(1);
+		}
+
+		if (BeanMetadataModel.DEBUG) {
+			System.out.println("Attaching meta data [" + resource.getFullPath().toString() + "] took "
+					+ (System.currentTimeMillis() - start) + "ms");
 		}
-		return Status.OK_STATUS;
 	}
 
 	/**
 	 * Iterates over the provided list of {@link IBeanMetadataProvider}s and attaches {@link IBeanMetadata} and
 	 * {@link IBeanProperty}s to the given {@link IBean} instance.
+	 * <p>
+	 * Beans whose fingerprint didn't change since the meta data was last attached to them are skipped.
+	 * @return <code>true</code> if the meta data of at least one bean has been attached
 	 */
-	protected void attachMetadata(IBeansConfig beansConfig, Set<IBean> beans, IProgressMonitor progressMonitor,
+	protected boolean attachMetadata(IBeansConfig beansConfig, Set<IBean> beans, IProgressMonitor progressMonitor,
 			IBeanMetadataProvider[] providers) {
-
+		BeanMetadataModel model = (BeanMetadataModel) BeansMetadataPlugin.getMetadataModel();
+		String providerDescription = getProviderDescription(providers);
+		boolean attached = false;
 		for (IBean bean : beans) {
+			if (progressMonitor.isCanceled()) {
+				break;
+			}
+			String fingerprint = getFingerprint(bean, providerDescription);
+			if (fingerprint != null && fingerprint.equals(model.getBeanFingerprint(bean))) {
+				continue;
+			}
 			attachMetadataToBean(beansConfig, progressMonitor, providers, bean);
+			model.setBeanFingerprint(bean, fingerprint);
+			attached = true;
+		}
+		return attached;
+	}
+
+	private String getProviderDescription(IBeanMetadataProvider[] providers) {
+		StringBuilder description = new StringBuilder();
+		for (IBeanMetadataProvider provider : providers) {
+			if (provider instanceof SerializedMetadataProvider) {
+				provider = ((SerializedMetadataProvider) provider).provider;
+			}
+			description.append(provider.getClass().getName()).append(',');
+		}
+		return description.toString();
+	}
+
+	/**
+	 * Computes a fingerprint of everything the meta data of a bean is derived from: the bean definition, the
+	 * contributed providers and the source files of the bean class and its superclasses, identified by their
+	 * modification stamps.
+	 * @return the fingerprint or <code>null</code> if none can be computed, in which case the bean is always processed
+	 */
+	protected String getFingerprint(IBean bean, String providerDescription) {
+		String className = BeansModelUtils.getBeanClass(bean, null);
+		if (className == null) {
+			return null;
+		}
+		StringBuilder fingerprint = new StringBuilder(providerDescription);
+		fingerprint.append('|').append(className).append('|').append(bean.getClassName()).append('|')
+				.append(bean.getParentName()).append('|').append(bean.isAbstract()).append(bean.isFactory())
+				.append(bean.isLazyInit()).append(bean.isSingleton());
+
+		IProject project = bean.getElementResource().getProject();
+		Set<String> visited = new HashSet<String>();
+		IType type = JdtUtils.getJavaType(project, className);
+		// Binary types don't get any meta data attached, see AbstractAnnotationReadingMetadataProvider
+		while (type != null && !type.isBinary() && visited.add(type.getFullyQualifiedName())) {
+			IResource resource = type.getResource();
+			if (resource == null) {
+				return null;
+			}
+			fingerprint.append('|').append(type.getFullyQualifiedName()).append('@')
+					.append(resource.getModificationStamp());
+			String superclassName = getSuperclassName(type);
+			if (superclassName == null || Object.class.getName().equals(superclassName)) {
+				break;
+			}
+			type = JdtUtils.getJavaType(project, superclassName);
+		}
+		return fingerprint.toString();
+	}
+
+	private String getSuperclassName(IType type) {
+		if ("true".equals(System.getProperty(TypeHierarchyEngine.ENABLE_PROPERTY, "true"))) {
+			return SpringCore.getTypeHierarchyEngine().getSupertype(type);
+		}
+		try {
+			return JdtUtils.resolveClassName(type.getSuperclassName(), type);
+		}
+		catch (JavaModelException e) {
+			return null;
 		}
 	}
 
@@ -199,14 +373,13 @@ public class BeanMetadataBuilderJob extends Job {
 					beanProperties.addAll(provider.provideBeanProperties(bean, beansConfig, progressMonitor));
 				}
 			});
-
-			for (IBeanMetadata metaData : beanMetaDataSet) {
-				if (metaData instanceof IMethodMetadata) {
-					methodMetaData.add((IMethodMetadata) metaData);
-				}
-				else {
-					beanMetaData.add(metaData);
-				}
+		}
+		for (IBeanMetadata metaData : beanMetaDataSet) {
+			if (metaData instanceof IMethodMetadata) {
+				methodMetaData.add((IMethodMetadata) metaData);
+			}
+			else {
+				beanMetaData.add(metaData);
 			}
 		}
 		if (beanMetaData.size() > 0 || methodMetaData.size() > 0) {
@@ -219,6 +392,9 @@ public class BeanMetadataBuilderJob extends Job {
 
 	/**
 	 * Returns the {@link IBeanMetadataProvider}s contributed to the Eclipse extension point registry.
+	 * <p>
+	 * Providers whose contribution doesn't set the <code>concurrent</code> attribute to <code>true</code> are wrapped,
+	 * so that they are called by one thread at a time.
 	 */
 	protected IBeanMetadataProvider[] getMetadataProviders() {
 		List<IBeanMetadataProvider> providers = new ArrayList<IBeanMetadataProvider>();
@@ -232,6 +408,9 @@ public class BeanMetadataBuilderJob extends Job {
 							Object handler = config.createExecutableExtension(CLASS_ATTRIBUTE);
 							if (handler instanceof IBeanMetadataProvider) {
 								IBeanMetadataProvider entityResolver = (IBeanMetadataProvider) handler;
+								if (!Boolean.parseBoolean(config.getAttribute(CONCURRENT_ATTRIBUTE))) {
+									entityResolver = new SerializedMetadataProvider(entityResolver);
+								}
 								providers.add(entityResolver);
 							}
 						}
@@ -246,4 +425,26 @@ public class BeanMetadataBuilderJob extends Job {
 		return providers.toArray(new IBeanMetadataProvider[providers.size()]);
 	}
 
+	/**
+	 * Calls a provider that hasn't been declared safe to be called concurrently by one thread at a time.
+	 */
+	private static class SerializedMetadataProvider implements IBeanMetadataProvider {
+
+		private final IBeanMetadataProvider provider;
+
+		public SerializedMetadataProvider(IBeanMetadataProvider provider) {
+			this.provider = provider;
+		}
+
+		public synchronized Set<IBeanMetadata> provideBeanMetadata(IBean bean, IBeansConfig beansConfig,
+				IProgressMonitor progressMonitor) {
+			return provider.provideBeanMetadata(bean, beansConfig, progressMonitor);
+		}
+
+		public synchronized Set<IBeanProperty> provideBeanProperties(IBean bean, IBeansConfig beansConfig,
+				IProgressMonitor progressMonitor) {
+			return provider.provideBeanProperties(bean, beansConfig, progressMonitor);
+		}
+	}
+
 }
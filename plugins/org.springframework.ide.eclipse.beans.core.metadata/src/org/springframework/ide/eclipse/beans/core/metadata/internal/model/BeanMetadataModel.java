@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2010 Spring IDE Developers
+ * Copyright (c) 2010, 2017 Spring IDE Developers
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -23,11 +23,16 @@ import org.springframework.ide.eclipse.beans.core.metadata.model.IBeanMetadataMo
 import org.springframework.ide.eclipse.beans.core.metadata.model.IMethodMetadata;
 import org.springframework.ide.eclipse.beans.core.model.IBean;
 import org.springframework.ide.eclipse.beans.core.model.IBeanProperty;
+import org.springframework.ide.eclipse.beans.core.model.IBeansModelElementTypes;
 import org.springframework.ide.eclipse.core.SpringCore;
+import org.springframework.ide.eclipse.core.model.IModelElement;
 
 /**
  * {@link IBeanMetadataModel} implementation that saves and reloads its contents from a backing
  * store.
+ * <p>
+ * The contents are kept per project. The persisted contents of a project are loaded when they are first needed, and
+ * only projects whose contents changed are saved again.
  * @author Christian Dupuis
  * @since 2.0.5
  */
@@ -37,21 +42,30 @@ public class BeanMetadataModel implements IBeanMetadataModel {
 
 	public static final boolean DEBUG = SpringCore.isDebug(DEBUG_OPTION);
 
+	private static final String PROJECT_ID_PREFIX = new StringBuilder().append(IModelElement.ID_DELIMITER)
+			.append(IBeansModelElementTypes.PROJECT_TYPE).append(IModelElement.ID_SEPARATOR).toString();
+
 	private final ReentrantReadWriteLock rwl = new ReentrantReadWriteLock();
 
 	private final Lock r = rwl.readLock();
 
 	private final Lock w = rwl.writeLock();
 
-	private Map<String, BeanMetadataHolder> beanMetadata = new ConcurrentHashMap<String, BeanMetadataHolder>();
+	/** Contents per project name; only contains the projects that have been loaded */
+	private final Map<String, ProjectMetadata> projects = new ConcurrentHashMap<String, ProjectMetadata>();
+
+	private final Object loadLock = new Object();
 
-	private Map<String, BeanPropertyDataHolder> beanPropertyData = new ConcurrentHashMap<String, BeanPropertyDataHolder>();
+	/** Whether the contents saved by previous versions have been converted, so the old files can go */
+	private volatile boolean legacyStateConverted = false;
 
 	public Set<IBeanMetadata> getBeanMetadata(IBean bean) {
+		ProjectMetadata project = getProjectMetadata(bean);
 		try {
 			r.lock();
-			if (beanMetadata.containsKey(bean.getElementID())) {
-				return beanMetadata.get(bean.getElementID()).getBeanMetaData();
+			BeanMetadataHolder holder = project.metadata.get(bean.getElementID());
+			if (holder != null) {
+				return holder.getBeanMetaData();
 			}
 			return Collections.emptySet();
 		}
@@ -62,6 +76,7 @@ public class BeanMetadataModel implements IBeanMetadataModel {
 
 	public void setBeanMetadata(IBean bean, Set<IBeanMetadata> bMetaData,
 			Set<IMethodMetadata> methodMetaData) {
+		ProjectMetadata project = getProjectMetadata(bean);
 		try {
 			w.lock();
 			BeanMetadataHolder holder = new BeanMetadataHolder();
@@ -70,7 +85,8 @@ public class BeanMetadataModel implements IBeanMetadataModel {
 			holder.setMethodMetaData(methodMetaData);
 			// safe time so we can purge very old entries after a while
 			holder.setLastModified(System.currentTimeMillis());
-			beanMetadata.put(bean.getElementID(), holder);
+			project.metadata.put(bean.getElementID(), holder);
+			project.dirty = true;
 		}
 		finally {
 			w.unlock();
@@ -78,9 +94,14 @@ public class BeanMetadataModel implements IBeanMetadataModel {
 	}
 
 	public void clearBeanMetadata(IBean bean) {
+		ProjectMetadata project = getProjectMetadata(bean);
 		try {
 			w.lock();
-			beanMetadata.remove(bean.getElementID());
+			boolean removed = project.metadata.remove(bean.getElementID()) != null;
+			removed |= project.fingerprints.remove(bean.getElementID()) != null;
+			if (removed) {
+				project.dirty = true;
+			}
 		}
 		finally {
 			w.unlock();
@@ -88,10 +109,12 @@ public class BeanMetadataModel implements IBeanMetadataModel {
 	}
 
 	public Set<IBeanProperty> getBeanProperties(IBean bean) {
+		ProjectMetadata project = getProjectMetadata(bean);
 		try {
 			r.lock();
-			if (beanPropertyData.containsKey(bean.getElementID())) {
-				return beanPropertyData.get(bean.getElementID()).getBeanProperties();
+			BeanPropertyDataHolder holder = project.properties.get(bean.getElementID());
+			if (holder != null) {
+				return holder.getBeanProperties();
 			}
 			return Collections.emptySet();
 		}
@@ -101,6 +124,7 @@ public class BeanMetadataModel implements IBeanMetadataModel {
 	}
 
 	public void setBeanProperties(IBean bean, Set<IBeanProperty> beanProperties) {
+		ProjectMetadata project = getProjectMetadata(bean);
 		try {
 			w.lock();
 			BeanPropertyDataHolder holder = new BeanPropertyDataHolder();
@@ -108,7 +132,8 @@ public class BeanMetadataModel implements IBeanMetadataModel {
 			holder.setBeanProperties(beanProperties);
 			// safe time so we can purge very old entries after a while
 			holder.setLastModified(System.currentTimeMillis());
-			beanPropertyData.put(bean.getElementID(), holder);
+			project.properties.put(bean.getElementID(), holder);
+			project.dirty = true;
 		}
 		finally {
 			w.unlock();
@@ -116,9 +141,12 @@ public class BeanMetadataModel implements IBeanMetadataModel {
 	}
 
 	public void clearBeanProperties(IBean bean) {
+		ProjectMetadata project = getProjectMetadata(bean);
 		try {
 			w.lock();
-			beanPropertyData.remove(bean.getElementID());
+			if (project.properties.remove(bean.getElementID()) != null) {
+				project.dirty = true;
+			}
 		}
 		finally {
 			w.unlock();
@@ -126,33 +154,155 @@ public class BeanMetadataModel implements IBeanMetadataModel {
 	}
 
 	/**
-	 * Starts and loads the internal model.
+	 * Returns the fingerprint the given {@link IBean} had when its meta data was last attached.
+	 * @see BeanMetadataBuilderJob#getFingerprint(IBean, String)
 	 */
-	public void start() {
+	public String getBeanFingerprint(IBean bean) {
+		return getProjectMetadata(bean).fingerprints.get(bean.getElementID());
+	}
+
+	public void setBeanFingerprint(IBean bean, String fingerprint) {
+		ProjectMetadata project = getProjectMetadata(bean);
+		if (fingerprint == null) {
+			project.fingerprints.remove(bean.getElementID());
+		}
+		else {
+			project.fingerprints.put(bean.getElementID(), fingerprint);
+		}
+		project.dirty = true;
+	}
 
+	/**
+	 * Returns the contents of the project of the given bean, loading them if necessary.
+	 */
+	private ProjectMetadata getProjectMetadata(IBean bean) {
+		String projectName = getProjectName(bean.getElementID());
+		ProjectMetadata project = projects.get(projectName);
+		if (project == null) {
+			synchronized (loadLock) {
+				project = projects.get(projectName);
+				if (project == null) {
+					project = new ProjectMetadata();
+					BeanMetadataPersistence.loadProject(projectName, project);
+					projects.put(projectName, project);
+				}
+			}
+		}
+		return project;
+	}
+
+	/**
+	 * Extracts the name of the project from the given element id.
+	 */
+	static String getProjectName(String elementId) {
+		int start = elementId.indexOf(PROJECT_ID_PREFIX);
+		if (start < 0) {
+			return "";
+		}
+		start += PROJECT_ID_PREFIX.length();
+		int end = elementId.indexOf(IModelElement.ID_DELIMITER, start);
+		return end < 0 ? elementId.substring(start) : elementId.substring(start, end);
+	}
+
+	/**
+	 * Starts the internal model. The contents of the projects are loaded lazily, only the contents saved in the
+	 * single file format used by previous versions are converted.
+	 */
+	public void start() {
+		if (!BeanMetadataPersistence.hasLegacyState()) {
+			return;
+		}
 		Map<String, BeanMetadataHolder> storedBeanMetadata = BeanMetadataPersistence.loadMetadata();
 		Map<String, BeanPropertyDataHolder> storedProperties = BeanMetadataPersistence
 				.loadProperties();
-		try {
-			w.lock();
-			beanMetadata = storedBeanMetadata;
-			beanPropertyData = storedProperties;
+		Map<String, String> storedFingerprints = BeanMetadataPersistence.loadFingerprints();
+		if (storedBeanMetadata.isEmpty() && storedProperties.isEmpty()) {
+			// Don't skip any beans if their meta data got lost
+			storedFingerprints.clear();
 		}
-		catch (Exception e) {
-			beanMetadata = new ConcurrentHashMap<String, BeanMetadataHolder>();
-			beanPropertyData = new ConcurrentHashMap<String, BeanPropertyDataHolder>();
+		synchronized (loadLock) {
+			// Contents that have been loaded or created in the meantime take precedence
+			for (Map.Entry<String, BeanMetadataHolder> entry : storedBeanMetadata.entrySet()) {
+				ProjectMetadata project = getLegacyProjectMetadata(entry.getKey());
+				if (!project.metadata.containsKey(entry.getKey())) {
+					project.metadata.put(entry.getKey(), entry.getValue());
+				}
+			}
+			for (Map.Entry<String, BeanPropertyDataHolder> entry : storedProperties.entrySet()) {
+				ProjectMetadata project = getLegacyProjectMetadata(entry.getKey());
+				if (!project.properties.containsKey(entry.getKey())) {
+					project.properties.put(entry.getKey(), entry.getValue());
+				}
+			}
+			for (Map.Entry<String, String> entry : storedFingerprints.entrySet()) {
+				ProjectMetadata project = getLegacyProjectMetadata(entry.getKey());
+				if (!project.fingerprints.containsKey(entry.getKey())) {
+					project.fingerprints.put(entry.getKey(), entry.getValue());
+				}
+			}
+			legacyStateConverted = true;
 		}
-		finally {
-			w.unlock();
+	}
+
+	private ProjectMetadata getLegacyProjectMetadata(String elementId) {
+		String projectName = getProjectName(elementId);
+		ProjectMetadata project = projects.get(projectName);
+		if (project == null) {
+			project = new ProjectMetadata();
+			BeanMetadataPersistence.loadProject(projectName, project);
+			projects.put(projectName, project);
 		}
+		project.dirty = true;
+		return project;
 	}
 
 	/**
 	 * Stops and saves the internal model.
 	 */
 	public void stop() {
-		BeanMetadataPersistence.storeMetadata(beanMetadata);
-		BeanMetadataPersistence.storeProperties(beanPropertyData);
+		synchronized (loadLock) {
+			for (Map.Entry<String, ProjectMetadata> entry : projects.entrySet()) {
+				ProjectMetadata project = entry.getValue();
+				if (project.dirty) {
+					project.dirty = false;
+					BeanMetadataPersistence.storeProject(entry.getKey(), project);
+				}
+			}
+			if (legacyStateConverted) {
+				BeanMetadataPersistence.deleteLegacyState();
+			}
+		}
+	}
+
+	/**
+	 * The meta data, properties and fingerprints of the beans of a single project, keyed by element id.
+	 */
+	public static class ProjectMetadata {
+
+		final Map<String, BeanMetadataHolder> metadata = new ConcurrentHashMap<String, BeanMetadataHolder>();
+
+		final Map<String, BeanPropertyDataHolder> properties = new ConcurrentHashMap<String, BeanPropertyDataHolder>();
+
+		final Map<String, String> fingerprints = new ConcurrentHashMap<String, String>();
+
+		public Map<String, BeanMetadataHolder> getMetadata() {
+			return metadata;
+		}
+
+		public Map<String, BeanPropertyDataHolder> getProperties() {
+			return properties;
+		}
+
+		public Map<String, String> getFingerprints() {
+			return fingerprints;
+		}
+
+		/** Whether the contents changed since they were loaded or saved */
+		volatile boolean dirty;
+
+		public boolean isEmpty() {
+			return metadata.isEmpty() && properties.isEmpty() && fingerprints.isEmpty();
+		}
 	}
 
 }
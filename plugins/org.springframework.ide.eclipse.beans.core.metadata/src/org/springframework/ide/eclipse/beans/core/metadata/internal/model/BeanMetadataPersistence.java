@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2010, 2013 Spring IDE Developers
+ * Copyright (c) 2010, 2017 Spring IDE Developers
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -10,22 +10,50 @@
  *******************************************************************************/
 package org.springframework.ide.eclipse.beans.core.metadata.internal.model;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
 import java.io.File;
 import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.NotSerializableException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.Status;
 import org.springframework.ide.eclipse.beans.core.metadata.BeansMetadataPlugin;
+import org.springframework.ide.eclipse.beans.core.metadata.internal.model.BeanMetadataModel.ProjectMetadata;
 import org.springframework.ide.eclipse.beans.core.metadata.model.IBeanMetadata;
 
 /**
- * Stores and loads the {@link IBeanMetadata}s from the persisted file.
+ * Stores and loads the {@link IBeanMetadata}s from the persisted files.
+ * <p>
+ * The meta data of every project is kept in a file of its own, which is only read when the project's meta data is
+ * first needed and only written if it has changed. A file starts with a magic number and a format version, followed
+ * by self-contained records, one per bean meta data, bean properties or bean fingerprint. Every record carries its
+ * kind, the element id of its bean and the length of its payload. Later records replace earlier ones for the same
+ * bean, so records can be appended to an existing file. A record that can't be read (for example because a meta data
+ * class has changed) is skipped without affecting the other records or projects.
+ * <p>
+ * Files are written to a temporary file first, which then replaces the existing file.
  * @author Christian Dupuis
  * @author Martin Lippert
  * @since 2.0.5
@@ -38,48 +66,273 @@ public class BeanMetadataPersistence {
 
 	private static final String BEANPROPERTIES_FOLDER_NAME = "/properties/";
 
-	public static void storeMetadata(Map<String, BeanMetadataHolder> metaData) {
-		File file = BeansMetadataPlugin.getDefault().getStateLocation().append(METADATA_FOLDER_NAME + STATE_FILE_NAME)
-				.toFile();
-		store(metaData, file);
-	}
+	private static final String FINGERPRINTS_FOLDER_NAME = "/fingerprints/";
 
-	public static void storeProperties(Map<String, BeanPropertyDataHolder> properties) {
-		File file = BeansMetadataPlugin.getDefault().getStateLocation()
-				.append(BEANPROPERTIES_FOLDER_NAME + STATE_FILE_NAME).toFile();
-		store(properties, file);
-	}
+	private static final String FILE_EXTENSION = ".beanmetadata";
+
+	private static final String TEMP_FILE_EXTENSION = ".tmp";
+
+	/** "SBMD" */
+	private static final int MAGIC = 0x53424D44;
+
+	/** Must be incremented whenever the format of the files changes; files of other versions are discarded */
+	private static final int VERSION = 1;
+
+	private static final byte METADATA_RECORD = 1;
+
+	private static final byte PROPERTIES_RECORD = 2;
 
-	private static void store(Object obj, File file) {
-		ObjectOutputStream out = null;
+	private static final byte FINGERPRINT_RECORD = 3;
 
+	/**
+	 * Loads the persisted meta data of the given project into <code>projectMetadata</code>.
+	 */
+	static void loadProject(String projectName, ProjectMetadata projectMetadata) {
+		File file = getProjectFile(projectName);
+		if (!file.exists()) {
+			return;
+		}
+		InputStream stream = null;
 		try {
-			if (!file.exists()) {
-				file.getParentFile().mkdirs();
-				file.createNewFile();
-			}
-			out = new ObjectOutputStream(new FileOutputStream(file));
-			out.writeObject(obj);
+			stream = Files.newInputStream(file.toPath());
+			load(stream, file.length(), file.toString(), projectMetadata);
 		}
 		catch (IOException e) {
 			BeansMetadataPlugin.getDefault().getLog().log(new Status(IStatus.ERROR, BeansMetadataPlugin.PLUGIN_ID,
-					"Exception saving meta data model for class " + obj.getClass(), e));
+					"Exception restoring meta data model of project " + projectName, e));
 		}
 		finally {
+			close(stream);
+		}
+	}
+
+	/**
+	 * Reads the persisted meta data of a project from the given stream into <code>projectMetadata</code>. If the stream
+	 * is truncated or corrupt, the records read completely up to that point are kept.
+	 * @param length the length of the stream; no record can be longer than that
+	 * @param source describes the stream for log messages
+	 */
+	public static void load(InputStream stream, long length, String source, ProjectMetadata projectMetadata) {
+		try {
+			DataInputStream in = new DataInputStream(new BufferedInputStream(stream));
+			if (in.readInt() != MAGIC) {
+				throw new IOException("Not a persisted meta data model: " + source);
+			}
+			int version = in.readInt();
+			if (version != VERSION) {
+				throw new IOException("Unsupported version " + version + " of persisted meta data model: " + source);
+			}
+			Set<String> unreadable = new HashSet<String>();
 			try {
-				if (out != null)
-					out.close();
+				readRecords(in, length, projectMetadata, unreadable);
+			}
+			finally {
+				// Don't skip beans whose meta data couldn't be restored
+				projectMetadata.fingerprints.keySet().removeAll(unreadable);
 			}
-			catch (IOException e) {
+			if (unreadable.size() > 0) {
+				BeansMetadataPlugin.getDefault().getLog().log(new Status(IStatus.WARNING,
+						BeansMetadataPlugin.PLUGIN_ID, "Skipped unreadable meta data of " + unreadable.size()
+								+ " beans in " + source));
 			}
 		}
+		catch (EOFException e) {
+			// A truncated file; keep the records that were read completely
+			BeansMetadataPlugin.getDefault().getLog().log(new Status(IStatus.WARNING, BeansMetadataPlugin.PLUGIN_ID,
+					"Persisted meta data model is incomplete: " + source));
+		}
+		catch (IOException e) {
+			BeansMetadataPlugin.getDefault().getLog().log(new Status(IStatus.ERROR, BeansMetadataPlugin.PLUGIN_ID,
+					"Exception restoring persisted meta data model " + source, e));
+		}
+		catch (RuntimeException e) {
+			BeansMetadataPlugin.getDefault().getLog().log(new Status(IStatus.ERROR, BeansMetadataPlugin.PLUGIN_ID,
+					"Exception restoring persisted meta data model " + source, e));
+		}
 	}
 
+	private static void readRecords(DataInputStream in, long length, ProjectMetadata projectMetadata,
+			Set<String> unreadable) throws IOException {
+		while (true) {
+			byte kind;
+			try {
+				kind = in.readByte();
+			}
+			catch (EOFException e) {
+				return;
+			}
+			String elementId = in.readUTF();
+			int payloadLength = in.readInt();
+			if (payloadLength < 0 || payloadLength > length) {
+				// A corrupt length; don't try to allocate it
+				throw new EOFException("Invalid record length " + payloadLength);
+			}
+			byte[] payload = new byte[payloadLength];
+			in.readFully(payload);
+			try {
+				readRecord(kind, elementId, payload, projectMetadata);
+			}
+			catch (Exception e) {
+				unreadable.add(elementId);
+			}
+			catch (LinkageError e) {
+				unreadable.add(elementId);
+			}
+		}
+	}
+
+	private static void readRecord(byte kind, String elementId, byte[] payload, ProjectMetadata projectMetadata)
+			throws IOException, ClassNotFoundException {
+		switch (kind) {
+		case METADATA_RECORD:
+			projectMetadata.metadata.put(elementId, (BeanMetadataHolder) deserialize(payload));
+			break;
+		case PROPERTIES_RECORD:
+			projectMetadata.properties.put(elementId, (BeanPropertyDataHolder) deserialize(payload));
+			break;
+		case FINGERPRINT_RECORD:
+			projectMetadata.fingerprints.put(elementId, new String(payload, StandardCharsets.UTF_8));
+			break;
+		default:
+			throw new IOException("Unknown record kind " + kind);
+		}
+	}
+
+	/**
+	 * Writes the meta data of the given project, replacing the previously persisted meta data. The file is deleted if
+	 * there is no meta data.
+	 */
+	static void storeProject(String projectName, ProjectMetadata projectMetadata) {
+		File file = getProjectFile(projectName);
+		try {
+			if (projectMetadata.isEmpty()) {
+				Files.deleteIfExists(file.toPath());
+				return;
+			}
+			File folder = file.getParentFile();
+			if (!folder.isDirectory() && !folder.mkdirs()) {
+				throw new IOException("Cannot create folder " + folder);
+			}
+			Path target = file.toPath();
+			Path temp = target.resolveSibling(file.getName() + TEMP_FILE_EXTENSION);
+			OutputStream stream = Files.newOutputStream(temp);
+			try {
+				store(stream, projectMetadata);
+			}
+			finally {
+				stream.close();
+			}
+			try {
+				Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+			}
+			catch (AtomicMoveNotSupportedException e) {
+				Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+			}
+		}
+		catch (IOException e) {
+			BeansMetadataPlugin.getDefault().getLog().log(new Status(IStatus.ERROR, BeansMetadataPlugin.PLUGIN_ID,
+					"Exception saving meta data model of project " + projectName, e));
+		}
+	}
+
+	/**
+	 * Writes the meta data of a project to the given stream, in the format read by
+	 * {@link #load(InputStream, long, String, ProjectMetadata)}.
+	 */
+	public static void store(OutputStream stream, ProjectMetadata projectMetadata) throws IOException {
+		DataOutputStream out = new DataOutputStream(new BufferedOutputStream(stream));
+		out.writeInt(MAGIC);
+		out.writeInt(VERSION);
+		Set<String> unwritable = new HashSet<String>();
+		for (Map.Entry<String, BeanMetadataHolder> entry : projectMetadata.metadata.entrySet()) {
+			writeRecord(out, METADATA_RECORD, entry.getKey(), entry.getValue(), unwritable);
+		}
+		for (Map.Entry<String, BeanPropertyDataHolder> entry : projectMetadata.properties.entrySet()) {
+			writeRecord(out, PROPERTIES_RECORD, entry.getKey(), entry.getValue(), unwritable);
+		}
+		for (Map.Entry<String, String> entry : projectMetadata.fingerprints.entrySet()) {
+			// Beans whose meta data couldn't be written must be processed again
+			if (!unwritable.contains(entry.getKey())) {
+				writeRecord(out, FINGERPRINT_RECORD, entry.getKey(), entry.getValue().getBytes(StandardCharsets.UTF_8));
+			}
+		}
+		out.flush();
+	}
+
+	private static void writeRecord(DataOutputStream out, byte kind, String elementId, Object obj,
+			Set<String> unwritable) throws IOException {
+		byte[] payload;
+		try {
+			payload = serialize(obj);
+		}
+		catch (NotSerializableException e) {
+			unwritable.add(elementId);
+			return;
+		}
+		writeRecord(out, kind, elementId, payload);
+	}
+
+	private static void writeRecord(DataOutputStream out, byte kind, String elementId, byte[] payload)
+			throws IOException {
+		out.writeByte(kind);
+		out.writeUTF(elementId);
+		out.writeInt(payload.length);
+		out.write(payload);
+	}
+
+	private static byte[] serialize(Object obj) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		ObjectOutputStream out = new ObjectOutputStream(bytes);
+		out.writeObject(obj);
+		out.close();
+		return bytes.toByteArray();
+	}
+
+	private static Object deserialize(byte[] payload) throws IOException, ClassNotFoundException {
+		ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(payload));
+		try {
+			return in.readObject();
+		}
+		finally {
+			in.close();
+		}
+	}
+
+	private static File getProjectFile(String projectName) {
+		try {
+			return BeansMetadataPlugin.getDefault().getStateLocation()
+					.append(METADATA_FOLDER_NAME + URLEncoder.encode(projectName, "UTF-8") + FILE_EXTENSION).toFile();
+		}
+		catch (UnsupportedEncodingException e) {
+			// UTF-8 is always supported
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * Returns <code>true</code> if there are files of the single file format used by previous versions.
+	 */
+	public static boolean hasLegacyState() {
+		return getLegacyFile(METADATA_FOLDER_NAME).exists() || getLegacyFile(BEANPROPERTIES_FOLDER_NAME).exists()
+				|| getLegacyFile(FINGERPRINTS_FOLDER_NAME).exists();
+	}
+
+	public static void deleteLegacyState() {
+		getLegacyFile(METADATA_FOLDER_NAME).delete();
+		getLegacyFile(BEANPROPERTIES_FOLDER_NAME).delete();
+		getLegacyFile(FINGERPRINTS_FOLDER_NAME).delete();
+	}
+
+	private static File getLegacyFile(String folderName) {
+		return BeansMetadataPlugin.getDefault().getStateLocation().append(folderName + STATE_FILE_NAME).toFile();
+	}
+
+	/**
+	 * Loads the meta data of all projects from the single file format used by previous versions.
+	 */
 	@SuppressWarnings("unchecked")
 	public static Map<String, BeanMetadataHolder> loadMetadata() {
-		File f = BeansMetadataPlugin.getDefault().getStateLocation().append(METADATA_FOLDER_NAME + STATE_FILE_NAME)
-				.toFile();
-		Map<String, BeanMetadataHolder> metaData = load(f, Map.class);
+		Map<String, BeanMetadataHolder> metaData = load(getLegacyFile(METADATA_FOLDER_NAME), Map.class);
 		if (metaData != null && metaData.size() > 0) {
 			return metaData;
 		}
@@ -89,9 +342,7 @@ public class BeanMetadataPersistence {
 
 	@SuppressWarnings("unchecked")
 	public static Map<String, BeanPropertyDataHolder> loadProperties() {
-		File f = BeansMetadataPlugin.getDefault().getStateLocation().append(BEANPROPERTIES_FOLDER_NAME + STATE_FILE_NAME)
-				.toFile();
-		Map<String, BeanPropertyDataHolder> metaData = load(f, Map.class);
+		Map<String, BeanPropertyDataHolder> metaData = load(getLegacyFile(BEANPROPERTIES_FOLDER_NAME), Map.class);
 		if (metaData != null && metaData.size() > 0) {
 			return metaData;
 		}
@@ -99,12 +350,22 @@ public class BeanMetadataPersistence {
 		return new ConcurrentHashMap<String, BeanPropertyDataHolder>();
 	}
 
+	@SuppressWarnings("unchecked")
+	public static Map<String, String> loadFingerprints() {
+		Map<String, String> fingerprints = load(getLegacyFile(FINGERPRINTS_FOLDER_NAME), Map.class);
+		if (fingerprints != null && fingerprints.size() > 0) {
+			return new ConcurrentHashMap<String, String>(fingerprints);
+		}
+		// create new empty model
+		return new ConcurrentHashMap<String, String>();
+	}
+
 	public static <T> T load(File file, Class<T> clazz) {
 		ObjectInputStream in = null;
 
 		try {
 			if (file.exists()) {
-				in = new ObjectInputStream(new FileInputStream(file));
+				in = new ObjectInputStream(new BufferedInputStream(new FileInputStream(file)));
 				return (T) in.readObject();
 			}
 		}
@@ -113,14 +374,18 @@ public class BeanMetadataPersistence {
 					"Exception restoring meta data model for class " + clazz, e));
 		}
 		finally {
-			try {
-				if (in != null)
-					in.close();
-			}
-			catch (IOException e) {
-			}
+			close(in);
 		}
 		return null;
 	}
 
+	private static void close(InputStream in) {
+		try {
+			if (in != null)
+				in.close();
+		}
+		catch (IOException e) {
+		}
+	}
+
 }
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2010, 2016 Spring IDE Developers
+ * Copyright (c) 2010, 2017 Spring IDE Developers
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -15,6 +15,7 @@ import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.eclipse.core.resources.IProject;
 import org.eclipse.core.runtime.IProgressMonitor;
@@ -37,6 +38,8 @@ import org.springframework.ide.eclipse.core.type.asm.ClassReaderFactory;
 /**
  * Abstract base {@link IBeanMetadataProvider} that uses a {@link AnnotationMetadataReadingVisitor} to load annotation
  * meta data from the {@link IBean}'s bean class.
+ * <p>
+ * The annotation meta data of every type is read only once per instance, even if beans are processed concurrently.
  * 
  * @author Christian Dupuis
  * @author Martin Lippert
@@ -57,6 +60,11 @@ public abstract class AbstractAnnotationReadingMetadataProvider extends BeanMeta
 	 */
 	private final Map<IType, IAnnotationMetadata> metadataCache = new ConcurrentHashMap<IType, IAnnotationMetadata>();
 
+	/**
+	 * Locks used to make sure that concurrent requests for the same {@link IType} only read its annotations once.
+	 */
+	private final ConcurrentMap<IType, Object> metadataLocks = new ConcurrentHashMap<IType, Object>();
+
 	@Override
 	public final Set<IBeanMetadata> provideBeanMetadata(IBean bean, IBeansConfig beansConfig,
 			IProgressMonitor progressMonitor) {
@@ -94,10 +102,27 @@ public abstract class AbstractAnnotationReadingMetadataProvider extends BeanMeta
 		}
 
 		// Check cache first
-		if (metadataCache.containsKey(orginalType)) {
-			return metadataCache.get(orginalType);
+		IAnnotationMetadata visitor = metadataCache.get(orginalType);
+		if (visitor != null) {
+			return visitor;
 		}
 
+		Object lock = new Object();
+		Object existingLock = metadataLocks.putIfAbsent(orginalType, lock);
+		if (existingLock != null) {
+			lock = existingLock;
+		}
+		synchronized (lock) {
+			visitor = metadataCache.get(orginalType);
+			if (visitor == null) {
+				visitor = readAnnotationMetadata(bean, project, type);
+			}
+		}
+		return visitor;
+	}
+
+	private IAnnotationMetadata readAnnotationMetadata(IBean bean, IProject project, IType type) {
+		IType orginalType = type;
 		IAnnotationMetadata visitor = null;
 
 		// JDT in Eclipse 3.4 supports annotation in the core model
@@ -154,7 +179,7 @@ public abstract class AbstractAnnotationReadingMetadataProvider extends BeanMeta
 	 * This method checks for an already created {@link ClassReaderFactory} in the internal cache
 	 * {@link #classReaderFactoryCache} before creating a new instance.
 	 */
-	private ClassReaderFactory getClassReaderFactory(IProject project) {
+	private synchronized ClassReaderFactory getClassReaderFactory(IProject project) {
 		if (!classReaderFactoryCache.containsKey(project)) {
 			classReaderFactoryCache.put(project, new CachingClassReaderFactory(JdtUtils.getClassLoader(project,
 					null)));
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2010 Spring IDE Developers
+ * Copyright (c) 2010, 2017 Spring IDE Developers
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -23,6 +23,11 @@ import org.springframework.ide.eclipse.beans.core.model.IBeansConfig;
  * <p>
  * Note: contributions made over this extension are <b>not</b> stored in the core model and will be terminated after
  * <b>10</b> seconds.
+ * <p>
+ * Meta data is attached to the beans of several configs in parallel. Unless the <code>metadataProvider</code>
+ * contribution sets the <code>concurrent</code> attribute to <code>true</code>, a provider is called by one thread at
+ * a time. Providers declaring to be concurrent must be safe to be called by several threads at once, for different
+ * beans and configs.
  * @author Christian Dupuis
  * @since 2.0.5
  */
@@ -0,0 +1,133 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Spring IDE Developers
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Spring IDE Developers - initial API and implementation
+ *******************************************************************************/
+package org.springframework.ide.eclipse.aop.core.internal.model.builder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Queue;
+import java.util.Stack;
+import java.util.TreeSet;
+import java.util.Vector;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.Test;
+import org.springframework.ide.eclipse.aop.core.internal.model.BeanIntroductionDefinition;
+
+/**
+ * Tests for matching introductions with {@link AspectDefinitionMatcher}.
+ * @since 3.9.4
+ */
+public class AspectDefinitionMatcherTest {
+
+	private static final Class<?>[] TARGET_CLASSES = { ArrayList.class, LinkedList.class, Vector.class,
+			Stack.class, HashMap.class, TreeSet.class };
+
+	@Test
+	public void testIntroductionMatches() throws Exception {
+		BeanIntroductionDefinition intro = createIntroduction("listAspect", "java.util.*List",
+				"java.util.RandomAccess");
+		AspectDefinitionMatcher matcher = new AspectDefinitionMatcher(new AspectDefinitionMatchCache());
+		ClassLoader contextClassLoader = Thread.currentThread().getContextClassLoader();
+		Thread.currentThread().setContextClassLoader(getClass().getClassLoader());
+		try {
+			assertTrue(matcher.matches(LinkedList.class, intro));
+			// already implements the introduced interface
+			assertFalse(matcher.matches(ArrayList.class, intro));
+			assertFalse(matcher.matches(HashMap.class, intro));
+		}
+		finally {
+			Thread.currentThread().setContextClassLoader(contextClassLoader);
+			matcher.close();
+		}
+	}
+
+	@Test
+	public void testIntroductionMatchesOnSeveralThreads() throws Exception {
+		final List<BeanIntroductionDefinition> intros = new ArrayList<BeanIntroductionDefinition>();
+		intros.add(createIntroduction("listAspect", "java.util.*List", "java.util.RandomAccess"));
+		intros.add(createIntroduction("collectionAspect", "java.util.*", "java.util.Deque"));
+		intros.add(createIntroduction("vectorAspect", "java.util.Vector+", "java.util.Queue"));
+
+		final boolean[][] expected = match(intros, new AspectDefinitionMatcher(new AspectDefinitionMatchCache()));
+
+		int threads = 4;
+		final CountDownLatch start = new CountDownLatch(1);
+		final Queue<String> failures = new ConcurrentLinkedQueue<String>();
+		List<Thread> workers = new ArrayList<Thread>();
+		for (int i = 0; i < threads; i++) {
+			Thread worker = new Thread() {
+				@Override
+				public void run() {
+					try {
+						start.await();
+						for (int run = 0; run < 50; run++) {
+							// a fresh matcher per run, so that type matchers get created concurrently as well
+							boolean[][] actual = match(intros, new AspectDefinitionMatcher(
+									new AspectDefinitionMatchCache()));
+							for (int j = 0; j < expected.length; j++) {
+								for (int k = 0; k < expected[j].length; k++) {
+									if (expected[j][k] != actual[j][k]) {
+										failures.add(intros.get(j).getAspectName() + " on " + TARGET_CLASSES[k]);
+									}
+								}
+							}
+						}
+					}
+					catch (Throwable e) {
+						failures.add(e.toString());
+					}
+				}
+			};
+			worker.start();
+			workers.add(worker);
+		}
+		start.countDown();
+		for (Thread worker : workers) {
+			worker.join();
+		}
+		assertEquals("[]", failures.toString());
+	}
+
+	private boolean[][] match(List<BeanIntroductionDefinition> intros, AspectDefinitionMatcher matcher)
+			throws Exception {
+		ClassLoader contextClassLoader = Thread.currentThread().getContextClassLoader();
+		Thread.currentThread().setContextClassLoader(getClass().getClassLoader());
+		try {
+			boolean[][] result = new boolean[intros.size()][TARGET_CLASSES.length];
+			for (int i = 0; i < intros.size(); i++) {
+				for (int j = 0; j < TARGET_CLASSES.length; j++) {
+					result[i][j] = matcher.matches(TARGET_CLASSES[j], intros.get(i));
+				}
+			}
+			return result;
+		}
+		finally {
+			Thread.currentThread().setContextClassLoader(contextClassLoader);
+			matcher.close();
+		}
+	}
+
+	private BeanIntroductionDefinition createIntroduction(String aspectName, String typePattern,
+			String introducedInterfaceName) {
+		BeanIntroductionDefinition intro = new BeanIntroductionDefinition();
+		intro.setAspectName(aspectName);
+		intro.setTypePattern(typePattern);
+		intro.setIntroducedInterfaceName(introducedInterfaceName);
+		return intro;
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2005, 2014 Spring IDE Developers
+ * Copyright (c) 2005, 2017 Spring IDE Developers
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -11,6 +11,7 @@
 package org.springframework.ide.eclipse.beans.core.autowire;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
@@ -28,6 +29,7 @@ import org.junit.BeforeClass;
 import org.junit.Test;
 import org.springframework.ide.eclipse.beans.core.BeansCorePlugin;
 import org.springframework.ide.eclipse.beans.core.autowire.internal.provider.AutowireDependencyProvider;
+import org.springframework.ide.eclipse.beans.core.autowire.internal.provider.AutowireResolutionCache;
 import org.springframework.ide.eclipse.beans.core.autowire.internal.provider.FactoryBeanTypeResolverExtensions;
 import org.springframework.ide.eclipse.beans.core.internal.model.BeansConfig;
 import org.springframework.ide.eclipse.beans.core.internal.model.BeansModel;
@@ -38,6 +40,7 @@ import org.springframework.ide.eclipse.beans.core.model.IBeanReference;
 import org.springframework.ide.eclipse.beans.core.model.IBeansConfig;
 import org.springframework.ide.eclipse.beans.core.model.IBeansProject;
 import org.springframework.ide.eclipse.core.SpringCore;
+import org.springframework.ide.eclipse.core.model.ModelChangeEvent;
 import org.springsource.ide.eclipse.commons.tests.util.StsTestUtil;
 
 /**
@@ -513,6 +516,99 @@ public class AutowireDependencyProviderTest {
 		assertEquals(1, provider.getValidationProblems().size());
 	}
 
+	@Test
+	public void testCachedResolution() throws Exception {
+		BeansConfig config = new BeansConfig(beansProject, "src/org/springframework/beans/factory/annotation/testExtendedResourceInjection-context.xml", IBeansConfig.Type.MANUAL);
+		AutowireResolutionCache cache = new AutowireResolutionCache();
+
+		AutowireDependencyProvider provider = new AutowireDependencyProvider(config, config);
+		provider.setResolutionCache(cache);
+		Map<IBean, Set<IBeanReference>> references = provider.resolveAutowiredDependencies();
+		long resolved = cache.getResolvedCount();
+		assertTrue(resolved > 0);
+		assertEquals(0, cache.getReusedCount());
+
+		AutowireDependencyProvider cachedProvider = new AutowireDependencyProvider(config, config);
+		cachedProvider.setResolutionCache(cache);
+		Map<IBean, Set<IBeanReference>> cachedReferences = cachedProvider.resolveAutowiredDependencies();
+		assertEquals(resolved, cache.getResolvedCount());
+		assertEquals(resolved, cache.getReusedCount());
+
+		IBean bean = BeansModelUtils.getBean("annotatedBean", config);
+		assertEquals(1, cachedReferences.size());
+		assertEquals(7, cachedReferences.get(bean).size());
+		assertEquals(references.get(bean), cachedReferences.get(bean));
+	}
+
+	@Test
+	public void testCacheReusedAfterClassChange() throws Exception {
+		String configFile = "src/org/springframework/beans/factory/annotation/testExtendedResourceInjection-context.xml";
+		BeansConfig config = new BeansConfig(beansProject, configFile, IBeansConfig.Type.MANUAL);
+		AutowireResolutionCache cache = new AutowireResolutionCache();
+
+		AutowireDependencyProvider provider = new AutowireDependencyProvider(config, config);
+		provider.setResolutionCache(cache);
+		provider.resolveAutowiredDependencies();
+		long resolved = cache.getResolvedCount();
+		assertTrue(resolved > 1);
+
+		// Change the class of a single bean; the beans model then reloads the config and reports a change of the project
+		project.getFile("src/test/beans/NestedTestBean.java").touch(null);
+		cache.elementChanged(new ModelChangeEvent(beansProject, ModelChangeEvent.Type.CHANGED));
+		BeansConfig reloadedConfig = new BeansConfig(beansProject, configFile, IBeansConfig.Type.MANUAL);
+
+		AutowireDependencyProvider changedProvider = new AutowireDependencyProvider(reloadedConfig, reloadedConfig);
+		changedProvider.setResolutionCache(cache);
+		Map<IBean, Set<IBeanReference>> references = changedProvider.resolveAutowiredDependencies();
+
+		// Only the bean of the changed class is resolved again
+		assertEquals(resolved + 1, cache.getResolvedCount());
+		assertEquals(resolved - 1, cache.getReusedCount());
+		IBean bean = BeansModelUtils.getBean("annotatedBean", reloadedConfig);
+		assertEquals(7, references.get(bean).size());
+		for (IBeanReference reference : references.get(bean)) {
+			assertSame(bean, reference.getElementParent());
+		}
+	}
+
+	@Test
+	public void testCacheDroppedWhenProjectRemoved() throws Exception {
+		BeansConfig config = new BeansConfig(beansProject, "src/org/springframework/beans/factory/annotation/testExtendedResourceInjection-context.xml", IBeansConfig.Type.MANUAL);
+		AutowireResolutionCache cache = new AutowireResolutionCache();
+
+		AutowireDependencyProvider provider = new AutowireDependencyProvider(config, config);
+		provider.setResolutionCache(cache);
+		provider.resolveAutowiredDependencies();
+		long resolved = cache.getResolvedCount();
+		assertTrue(resolved > 0);
+
+		cache.elementChanged(new ModelChangeEvent(beansProject, ModelChangeEvent.Type.REMOVED));
+
+		AutowireDependencyProvider removedProvider = new AutowireDependencyProvider(config, config);
+		removedProvider.setResolutionCache(cache);
+		removedProvider.resolveAutowiredDependencies();
+		assertEquals(2 * resolved, cache.getResolvedCount());
+		assertEquals(0, cache.getReusedCount());
+	}
+
+	@Test
+	public void testCachedResolutionProblems() throws Exception {
+		BeansConfig config = new BeansConfig(beansProject, "src/org/springframework/beans/factory/annotation/testCustomAnnotationRequiredFieldResourceInjectionFailsWhenNoDependencyFound-context.xml", IBeansConfig.Type.MANUAL);
+		AutowireResolutionCache cache = new AutowireResolutionCache();
+
+		AutowireDependencyProvider provider = new AutowireDependencyProvider(config, config);
+		provider.setResolutionCache(cache);
+		provider.resolveAutowiredDependencies();
+		assertEquals(1, provider.getValidationProblems().size());
+
+		AutowireDependencyProvider cachedProvider = new AutowireDependencyProvider(config, config);
+		cachedProvider.setResolutionCache(cache);
+		Map<IBean, Set<IBeanReference>> references = cachedProvider.resolveAutowiredDependencies();
+		assertTrue(cache.getReusedCount() > 0);
+		assertEquals(0, references.size());
+		assertEquals(provider.getValidationProblems(), cachedProvider.getValidationProblems());
+	}
+
 	@Test
 	public void testCustomAnnotationRequiredMethodResourceInjection() throws Exception {
 		BeansConfig config = new BeansConfig(beansProject, "src/org/springframework/beans/factory/annotation/testCustomAnnotationRequiredMethodResourceInjection-context.xml", IBeansConfig.Type.MANUAL);
@@ -0,0 +1,147 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Spring IDE Developers
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Spring IDE Developers - initial API and implementation
+ *******************************************************************************/
+package org.springframework.ide.eclipse.beans.core.metadata.internal.model.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import org.junit.Test;
+import org.springframework.ide.eclipse.beans.core.metadata.internal.model.BeanMetadataHolder;
+import org.springframework.ide.eclipse.beans.core.metadata.internal.model.BeanMetadataModel.ProjectMetadata;
+import org.springframework.ide.eclipse.beans.core.metadata.internal.model.BeanMetadataPersistence;
+import org.springframework.ide.eclipse.beans.core.metadata.internal.model.BeanPropertyDataHolder;
+
+/**
+ * Tests reading and writing the persisted meta data of a project.
+ * @since 3.9.4
+ */
+public class BeanMetadataPersistenceTest {
+
+	/** Record kinds of the persisted format */
+	private static final byte METADATA_RECORD = 1;
+
+	private static final byte FINGERPRINT_RECORD = 3;
+
+	private ProjectMetadata createProjectMetadata(String... elementIds) {
+		ProjectMetadata projectMetadata = new ProjectMetadata();
+		for (String elementId : elementIds) {
+			BeanMetadataHolder metadata = new BeanMetadataHolder();
+			metadata.setElemenetId(elementId);
+			metadata.setLastModified(42);
+			projectMetadata.getMetadata().put(elementId, metadata);
+
+			BeanPropertyDataHolder properties = new BeanPropertyDataHolder();
+			properties.setElemenetId(elementId);
+			properties.setLastModified(43);
+			projectMetadata.getProperties().put(elementId, properties);
+
+			projectMetadata.getFingerprints().put(elementId, "fingerprint of " + elementId);
+		}
+		return projectMetadata;
+	}
+
+	private byte[] store(ProjectMetadata projectMetadata) throws Exception {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		BeanMetadataPersistence.store(bytes, projectMetadata);
+		return bytes.toByteArray();
+	}
+
+	private ProjectMetadata load(byte[] bytes) {
+		ProjectMetadata projectMetadata = new ProjectMetadata();
+		BeanMetadataPersistence.load(new ByteArrayInputStream(bytes), bytes.length, "test", projectMetadata);
+		return projectMetadata;
+	}
+
+	private byte[] append(byte[] bytes, byte kind, String elementId, int length, byte[] payload) throws Exception {
+		ByteArrayOutputStream result = new ByteArrayOutputStream();
+		result.write(bytes);
+		DataOutputStream out = new DataOutputStream(result);
+		out.writeByte(kind);
+		out.writeUTF(elementId);
+		out.writeInt(length);
+		out.write(payload);
+		out.flush();
+		return result.toByteArray();
+	}
+
+	@Test
+	public void testRoundTrip() throws Exception {
+		ProjectMetadata projectMetadata = load(store(createProjectMetadata("a", "b")));
+
+		assertEquals(2, projectMetadata.getMetadata().size());
+		assertEquals("a", projectMetadata.getMetadata().get("a").getElemenetId());
+		assertEquals(42, projectMetadata.getMetadata().get("b").getLastModified());
+		assertEquals(2, projectMetadata.getProperties().size());
+		assertEquals("b", projectMetadata.getProperties().get("b").getElemenetId());
+		assertEquals(43, projectMetadata.getProperties().get("a").getLastModified());
+		assertEquals(2, projectMetadata.getFingerprints().size());
+		assertEquals("fingerprint of a", projectMetadata.getFingerprints().get("a"));
+		assertEquals("fingerprint of b", projectMetadata.getFingerprints().get("b"));
+	}
+
+	@Test
+	public void testTruncatedFile() throws Exception {
+		byte[] bytes = store(createProjectMetadata("a"));
+		bytes = append(bytes, FINGERPRINT_RECORD, "b", 20, "fingerprint of b".getBytes(StandardCharsets.UTF_8));
+
+		ProjectMetadata projectMetadata = load(Arrays.copyOf(bytes, bytes.length - 2));
+		assertEquals("a", projectMetadata.getMetadata().get("a").getElemenetId());
+		assertEquals("fingerprint of a", projectMetadata.getFingerprints().get("a"));
+		assertFalse(projectMetadata.getFingerprints().containsKey("b"));
+
+		// Cut off within the header
+		assertTrue(load(Arrays.copyOf(bytes, 6)).isEmpty());
+	}
+
+	@Test
+	public void testInvalidRecordLength() throws Exception {
+		byte[] bytes = store(createProjectMetadata("a"));
+
+		ProjectMetadata projectMetadata = load(append(bytes, METADATA_RECORD, "b", Integer.MAX_VALUE, new byte[8]));
+		assertEquals(1, projectMetadata.getMetadata().size());
+		assertEquals("fingerprint of a", projectMetadata.getFingerprints().get("a"));
+
+		projectMetadata = load(append(bytes, METADATA_RECORD, "b", -1, new byte[8]));
+		assertEquals(1, projectMetadata.getMetadata().size());
+		assertEquals("fingerprint of a", projectMetadata.getFingerprints().get("a"));
+	}
+
+	@Test
+	public void testBadRecord() throws Exception {
+		byte[] bytes = store(createProjectMetadata("a"));
+		byte[] garbage = new byte[] { 1, 2, 3, 4 };
+		bytes = append(bytes, METADATA_RECORD, "b", garbage.length, garbage);
+		byte[] fingerprint = "fingerprint of b".getBytes(StandardCharsets.UTF_8);
+		bytes = append(bytes, FINGERPRINT_RECORD, "b", fingerprint.length, fingerprint);
+		bytes = append(bytes, (byte) 99, "c", garbage.length, garbage);
+		fingerprint = "fingerprint of d".getBytes(StandardCharsets.UTF_8);
+		bytes = append(bytes, FINGERPRINT_RECORD, "d", fingerprint.length, fingerprint);
+
+		ProjectMetadata projectMetadata = load(bytes);
+		assertEquals(1, projectMetadata.getMetadata().size());
+		assertEquals("a", projectMetadata.getMetadata().get("a").getElemenetId());
+		assertEquals("fingerprint of a", projectMetadata.getFingerprints().get("a"));
+
+		// The bean whose meta data couldn't be read must be processed again
+		assertFalse(projectMetadata.getFingerprints().containsKey("b"));
+
+		// Records after the bad ones are still read
+		assertEquals("fingerprint of d", projectMetadata.getFingerprints().get("d"));
+	}
+
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2005, 2014 Spring IDE Developers
+ * Copyright (c) 2005, 2017 Spring IDE Developers
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -16,6 +16,7 @@ import org.junit.runners.Suite.SuiteClasses;
 import org.springframework.ide.core.classreading.tests.JdtAnnotationMetadataTest;
 import org.springframework.ide.core.classreading.tests.JdtBasedAnnotationMetadataTest;
 import org.springframework.ide.core.classreading.tests.JdtClassMetadataTest;
+import org.springframework.ide.eclipse.aop.core.internal.model.builder.AspectDefinitionMatcherTest;
 import org.springframework.ide.eclipse.beans.core.autowire.AutowireDependencyProviderTest;
 import org.springframework.ide.eclipse.beans.core.autowire.CommonAnnotationInjectionMetadataProviderTests;
 import org.springframework.ide.eclipse.beans.core.internal.model.resources.tests.ResourceChangeEventHandlerTest;
@@ -30,6 +31,7 @@ import org.springframework.ide.eclipse.beans.core.internal.model.validation.rule
 import org.springframework.ide.eclipse.beans.core.internal.model.validation.rules.BeanReferenceRuleWithConfigSetTest;
 import org.springframework.ide.eclipse.beans.core.internal.model.validation.rules.NamespaceElementsRuleTest;
 import org.springframework.ide.eclipse.beans.core.internal.model.validation.rules.RequiredPropertyRuleTest;
+import org.springframework.ide.eclipse.beans.core.metadata.internal.model.tests.BeanMetadataPersistenceTest;
 import org.springframework.ide.eclipse.beans.core.model.tests.BeansProjectAutoConfigTest;
 import org.springframework.ide.eclipse.beans.core.model.tests.BeansProjectDescriptionWriterTest;
 import org.springframework.ide.eclipse.beans.core.model.tests.BeansConfigFactoryTest;
@@ -80,7 +82,9 @@ import org.springframework.ide.eclipse.core.java.TypeHierarchyEngineTest;
 	BeansJavaConfigRenameTypeRefactoringParticipantTest.class,
 	ResourceChangeEventHandlerTest.class,
 	TypeHierarchyEngineTest.class,
-	BeansModelUtilsTest.class
+	BeansModelUtilsTest.class,
+	BeanMetadataPersistenceTest.class,
+	AspectDefinitionMatcherTest.class
 })
 public class AllBeansCoreTests {
 	// goofy junit4, no class body needed
@@ -0,0 +1,80 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Spring IDE Developers
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Spring IDE Developers - initial API and implementation
+ *******************************************************************************/
+package org.springframework.ide.eclipse.beans.core.internal.model;
+
+import org.springframework.ide.eclipse.beans.core.BeansCorePlugin;
+import org.springframework.ide.eclipse.beans.core.model.IBeansProject;
+import org.springframework.ide.eclipse.core.model.IModelChangeListener;
+import org.springframework.ide.eclipse.core.model.IModelElement;
+import org.springframework.ide.eclipse.core.model.ModelChangeEvent;
+
+/**
+ * Base class for caches of information derived from the beans model. While listening, the cache is told
+ * about every change of the beans model, together with the project the change belongs to, so that it can
+ * drop the information it keeps for that project.
+ * @since 3.9.4
+ */
+public abstract class AbstractBeansModelCache implements IModelChangeListener {
+
+	private boolean listening = false;
+
+	public final void elementChanged(ModelChangeEvent event) {
+		projectChanged(getProjectName(event.getElement()), event.getType());
+	}
+
+	/**
+	 * Called when the beans model reports a change.
+	 * @param projectName the name of the project the changed element belongs to, or <code>null</code> if the
+	 * change isn't limited to a single project
+	 * @param type the type of the change
+	 */
+	protected abstract void projectChanged(String projectName, ModelChangeEvent.Type type);
+
+	/**
+	 * Returns the name of the project the given element belongs to.
+	 * @return the project name, or <code>null</code> if the element doesn't belong to a single project (e.g. the
+	 * model itself)
+	 */
+	public static String getProjectName(IModelElement element) {
+		if (element == null) {
+			return null;
+		}
+		try {
+			IBeansProject project = BeansModelUtils.getProject(element);
+			return (project != null ? project.getElementName() : null);
+		}
+		catch (IllegalArgumentException e) {
+			// e.g. the model itself
+			return null;
+		}
+	}
+
+	/**
+	 * Registers this cache with the beans model, unless that happened already.
+	 */
+	protected synchronized void startListening() {
+		if (!listening) {
+			BeansCorePlugin.getModel().addChangeListener(this);
+			listening = true;
+		}
+	}
+
+	/**
+	 * Removes this cache from the beans model's listeners.
+	 */
+	protected synchronized void stopListening() {
+		if (listening) {
+			BeansCorePlugin.getModel().removeChangeListener(this);
+			listening = false;
+		}
+	}
+
+}
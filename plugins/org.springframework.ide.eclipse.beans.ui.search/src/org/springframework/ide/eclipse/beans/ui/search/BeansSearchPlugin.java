@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2006, 2007 Spring IDE Developers
+ * Copyright (c) 2006, 2017 Spring IDE Developers
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -23,6 +23,8 @@ import org.eclipse.swt.widgets.Shell;
 import org.eclipse.ui.IWorkbenchPage;
 import org.eclipse.ui.IWorkbenchWindow;
 import org.eclipse.ui.plugin.AbstractUIPlugin;
+import org.osgi.framework.BundleContext;
+import org.springframework.ide.eclipse.beans.ui.search.internal.queries.BeansSearchIndex;
 
 /**
  * Central access point for the Spring Framework Search UI plug-in
@@ -45,6 +47,8 @@ public class BeansSearchPlugin extends AbstractUIPlugin {
 	
 	private ResourceBundle resourceBundle;
 
+	private BeansSearchIndex searchIndex;
+
 	/**
 	 * Creates the Spring Beans Search UI plug-in.
 	 * <p>
@@ -61,6 +65,17 @@ public class BeansSearchPlugin extends AbstractUIPlugin {
 		}
 	}
 
+	@Override
+	public void stop(BundleContext context) throws Exception {
+		synchronized (this) {
+			if (searchIndex != null) {
+				searchIndex.dispose();
+				searchIndex = null;
+			}
+		}
+		super.stop(context);
+	}
+
 	public static BeansSearchPlugin getDefault() {
 		return plugin;
 	}
@@ -69,6 +84,16 @@ public class BeansSearchPlugin extends AbstractUIPlugin {
 		return resourceBundle;
 	}
 
+	/**
+	 * Returns the index used to answer beans search queries.
+	 */
+	public synchronized BeansSearchIndex getSearchIndex() {
+		if (searchIndex == null) {
+			searchIndex = new BeansSearchIndex();
+		}
+		return searchIndex;
+	}
+
 	public static IWorkspace getWorkspace() {
 		return ResourcesPlugin.getWorkspace();
 	}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2006, 2016 Spring IDE Developers
+ * Copyright (c) 2006, 2017 Spring IDE Developers
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -10,6 +10,18 @@
  *******************************************************************************/
 package org.springframework.ide.eclipse.beans.ui.search.internal.queries;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.regex.Pattern;
 
 import org.eclipse.core.runtime.Assert;
@@ -20,6 +32,8 @@ import org.eclipse.core.runtime.Status;
 import org.eclipse.search.ui.ISearchQuery;
 import org.eclipse.search.ui.ISearchResult;
 import org.eclipse.search.ui.text.Match;
+import org.springframework.ide.eclipse.beans.core.model.IBeansModel;
+import org.springframework.ide.eclipse.beans.core.model.IBeansProject;
 import org.springframework.ide.eclipse.beans.ui.search.BeansSearchPlugin;
 import org.springframework.ide.eclipse.beans.ui.search.internal.BeansSearchMessages;
 import org.springframework.ide.eclipse.beans.ui.search.internal.BeansSearchResult;
@@ -31,14 +45,28 @@ import org.springframework.ide.eclipse.core.model.ISourceModelElement;
 import org.springsource.ide.eclipse.commons.core.PatternUtils;
 
 /**
+ * Base class of the beans search queries. A query matches every model element that has a search key (see
+ * {@link #getSearchKeys(IModelElement)}) matching the query's pattern.
+ * <p>
+ * Projects in the scope are searched with the help of the {@link BeansSearchIndex}: an exact pattern is looked up
+ * directly, any other pattern is only matched against the distinct search keys of a project. Projects are searched in
+ * parallel, and the matches of every project are added to the {@link BeansSearchResult} as soon as they are found.
+ * Other scope elements (e.g. single configs) are visited element by element.
  * @author Torsten Juergeleit
  * @author Christian Dupuis
  */
 public abstract class AbstractBeansQuery implements ISearchQuery {
 
+	/** The number of projects searched in parallel */
+	private static final int SEARCH_THREADS = Integer.getInteger(
+			"org.springframework.ide.eclipse.beans.ui.search.threads",
+			Math.min(4, Runtime.getRuntime().availableProcessors()));
+
 	private BeansSearchScope scope;
 	private String pattern;
 	private Pattern compiledPattern;
+	/** The search key to look up if the pattern matches this key only; <code>null</code> otherwise */
+	private String exactKey;
 	private ISearchResult result;
 
 	public AbstractBeansQuery(BeansSearchScope scope, String pattern,
@@ -48,6 +76,10 @@ public abstract class AbstractBeansQuery implements ISearchQuery {
 		this.pattern = pattern;
 		this.compiledPattern = PatternUtils.createPattern(pattern,
 				isCaseSensitive, isRegexSearch);
+		if (isCaseSensitive && !isRegexSearch && pattern.indexOf('*') < 0
+				&& pattern.indexOf('?') < 0 && pattern.indexOf('\\') < 0) {
+			this.exactKey = pattern;
+		}
 	}
 
 	public BeansSearchScope getScope() {
@@ -76,34 +108,39 @@ public abstract class AbstractBeansQuery implements ISearchQuery {
 	public final IStatus run(IProgressMonitor monitor) {
 		final BeansSearchResult result = (BeansSearchResult) getSearchResult();
 		result.removeAll();
+		List<IBeansProject> projects = new ArrayList<IBeansProject>();
 		for (IModelElement element : scope.getModelElements()) {
 			if (monitor.isCanceled()) {
 				throw new OperationCanceledException();
 			}
-			IModelElementVisitor visitor = new IModelElementVisitor() {
-				public boolean visit(IModelElement element,
-						IProgressMonitor monitor) {
-					if (doesMatch(element, compiledPattern, monitor)) {
-						int startLine;
-						int lines;
-						if (element instanceof ISourceModelElement) {
-							ISourceModelElement sourceElement =
-								(ISourceModelElement) element;
-							startLine = sourceElement.getElementStartLine();
-							lines = sourceElement.getElementEndLine()
-									- startLine + 1;
-						} else {
-							startLine = -1;
-							lines = -1;
-						}
-						Match match = new Match(element, Match.UNIT_LINE,
-								startLine, lines);
-						result.addMatch(match);
+			if (element instanceof IBeansModel) {
+				for (IBeansProject project : ((IBeansModel) element).getProjects()) {
+					if (!projects.contains(project)) {
+						projects.add(project);
 					}
-					return true;
 				}
-			};
-			element.accept(visitor, monitor);
+			}
+			else if (element instanceof IBeansProject) {
+				if (!projects.contains(element)) {
+					projects.add((IBeansProject) element);
+				}
+			}
+			else {
+				IModelElementVisitor visitor = new IModelElementVisitor() {
+					public boolean visit(IModelElement element,
+							IProgressMonitor monitor) {
+						if (doesMatch(element, compiledPattern, monitor)) {
+							result.addMatch(createMatch(element));
+						}
+						return true;
+					}
+				};
+				element.accept(visitor, monitor);
+			}
+		}
+		searchProjects(projects, result, monitor);
+		if (monitor.isCanceled()) {
+			throw new OperationCanceledException();
 		}
 		Object[] args = new Object[] { new Integer(result.getMatchCount()) };
 		String message = MessageUtils.format(
@@ -112,10 +149,130 @@ public abstract class AbstractBeansQuery implements ISearchQuery {
 				null);
 	}
 
+	/**
+	 * Searches the given projects, in parallel if there is more than one,
+	 * and adds the matches of each project to the result once the project
+	 * is done.
+	 */
+	private void searchProjects(final List<IBeansProject> projects,
+			final BeansSearchResult result, final IProgressMonitor monitor) {
+		int workers = Math.min(SEARCH_THREADS, projects.size());
+		if (workers <= 1) {
+			for (IBeansProject project : projects) {
+				if (monitor.isCanceled()) {
+					return;
+				}
+				searchProject(project, result, monitor);
+			}
+			return;
+		}
+
+		ExecutorService executor = Executors.newFixedThreadPool(workers,
+				new ThreadFactory() {
+			private final AtomicInteger count = new AtomicInteger();
+
+			public Thread newThread(Runnable r) {
+				Thread thread = new Thread(r, "Spring Beans Search "
+						+ count.incrementAndGet());
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+		try {
+			final AtomicInteger nextProject = new AtomicInteger();
+			List<Future<?>> futures = new ArrayList<Future<?>>(workers);
+			for (int i = 0; i < workers; i++) {
+				futures.add(executor.submit(new Runnable() {
+					public void run() {
+						int next;
+						while (!monitor.isCanceled()
+								&& (next = nextProject.getAndIncrement()) < projects.size()) {
+							searchProject(projects.get(next), result, monitor);
+						}
+					}
+				}));
+			}
+			for (Future<?> future : futures) {
+				future.get();
+			}
+		}
+		catch (InterruptedException e) {
+			monitor.setCanceled(true);
+		}
+		catch (ExecutionException e) {
+			BeansSearchPlugin.log(e.getCause());
+		}
+		finally {
+			executor.shutdownNow();
+		}
+	}
+
+	private void searchProject(IBeansProject project,
+			BeansSearchResult result, IProgressMonitor monitor) {
+		Map<String, Set<IModelElement>> index = BeansSearchPlugin.getDefault()
+				.getSearchIndex().getIndex(project, this, monitor);
+		Set<IModelElement> elements;
+		if (exactKey != null) {
+			elements = index.get(exactKey);
+			if (elements == null) {
+				return;
+			}
+		}
+		else {
+			elements = new LinkedHashSet<IModelElement>();
+			for (Map.Entry<String, Set<IModelElement>> entry : index.entrySet()) {
+				if (monitor.isCanceled()) {
+					return;
+				}
+				if (compiledPattern.matcher(entry.getKey()).matches()) {
+					elements.addAll(entry.getValue());
+				}
+			}
+		}
+		if (!elements.isEmpty()) {
+			List<Match> matches = new ArrayList<Match>(elements.size());
+			for (IModelElement element : elements) {
+				matches.add(createMatch(element));
+			}
+			result.addMatches(matches.toArray(new Match[matches.size()]));
+		}
+	}
+
+	private Match createMatch(IModelElement element) {
+		int startLine;
+		int lines;
+		if (element instanceof ISourceModelElement) {
+			ISourceModelElement sourceElement =
+				(ISourceModelElement) element;
+			startLine = sourceElement.getElementStartLine();
+			lines = sourceElement.getElementEndLine()
+					- startLine + 1;
+		} else {
+			startLine = -1;
+			lines = -1;
+		}
+		return new Match(element, Match.UNIT_LINE, startLine, lines);
+	}
+
 	/**
 	 * Returns <code>true</code> if given {@link IModelElement} matches
-	 * this query. 
+	 * this query, i.e. if any of its search keys matches the given pattern.
+	 */
+	protected boolean doesMatch(IModelElement element,
+			Pattern pattern, IProgressMonitor monitor) {
+		for (String key : getSearchKeys(element)) {
+			if (pattern.matcher(key).matches()) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Returns the strings of the given {@link IModelElement} which are
+	 * matched against the pattern of this query, e.g. the name and aliases
+	 * of a bean. The keys must only depend on the element, as they are kept
+	 * in the {@link BeansSearchIndex}.
 	 */
-	protected abstract boolean doesMatch(IModelElement element,
-			Pattern pattern, IProgressMonitor monitor);
+	protected abstract Collection<String> getSearchKeys(IModelElement element);
 }
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2006, 2007 Spring IDE Developers
+ * Copyright (c) 2006, 2017 Spring IDE Developers
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -10,9 +10,9 @@
  *******************************************************************************/
 package org.springframework.ide.eclipse.beans.ui.search.internal.queries;
 
-import java.util.regex.Pattern;
+import java.util.Collection;
+import java.util.Collections;
 
-import org.eclipse.core.runtime.IProgressMonitor;
 import org.springframework.ide.eclipse.beans.core.model.IBean;
 import org.springframework.ide.eclipse.beans.ui.search.internal.BeansSearchMessages;
 import org.springframework.ide.eclipse.beans.ui.search.internal.BeansSearchScope;
@@ -40,18 +40,15 @@ public class BeanChildQuery extends AbstractBeansQuery {
 	}
 
 	@Override
-	protected boolean doesMatch(IModelElement element, Pattern pattern,
-			IProgressMonitor monitor) {
+	protected Collection<String> getSearchKeys(IModelElement element) {
 		if (element instanceof IBean) {
 			IBean bean = (IBean) element;
-			if (bean.isChildBean()) {
+			if (bean.isChildBean() && bean.getParentName() != null) {
 
 				// Compare given parent bean's name with bean's one
-				if (pattern.matcher(bean.getParentName()).matches()) {
-					return true;
-				}
+				return Collections.singletonList(bean.getParentName());
 			}
 		}
-		return false;
+		return Collections.emptyList();
 	}
 }
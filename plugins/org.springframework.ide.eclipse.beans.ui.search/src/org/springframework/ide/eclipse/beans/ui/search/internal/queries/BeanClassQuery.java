@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2006, 2007 Spring IDE Developers
+ * Copyright (c) 2006, 2017 Spring IDE Developers
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -10,9 +10,9 @@
  *******************************************************************************/
 package org.springframework.ide.eclipse.beans.ui.search.internal.queries;
 
-import java.util.regex.Pattern;
+import java.util.Collection;
+import java.util.Collections;
 
-import org.eclipse.core.runtime.IProgressMonitor;
 import org.springframework.ide.eclipse.beans.core.model.IBean;
 import org.springframework.ide.eclipse.beans.ui.search.internal.BeansSearchMessages;
 import org.springframework.ide.eclipse.beans.ui.search.internal.BeansSearchScope;
@@ -40,18 +40,15 @@ public class BeanClassQuery extends AbstractBeansQuery {
 	}
 
 	@Override
-	protected boolean doesMatch(IModelElement element, Pattern pattern,
-			IProgressMonitor monitor) {
+	protected Collection<String> getSearchKeys(IModelElement element) {
 		if (element instanceof IBean) {
 			String className = ((IBean) element).getClassName();
 			if (className != null) {
 
 				// Compare given class name with bean's one
-				if (pattern.matcher(className).matches()) {
-					return true;
-				}
+				return Collections.singletonList(className);
 			}
 		}
-		return false;
+		return Collections.emptyList();
 	}
 }
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2006, 2007 Spring IDE Developers
+ * Copyright (c) 2006, 2017 Spring IDE Developers
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -10,9 +10,12 @@
  *******************************************************************************/
 package org.springframework.ide.eclipse.beans.ui.search.internal.queries;
 
-import java.util.regex.Pattern;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
 
-import org.eclipse.core.runtime.IProgressMonitor;
 import org.springframework.ide.eclipse.beans.core.internal.model.Bean;
 import org.springframework.ide.eclipse.beans.core.model.IBean;
 import org.springframework.ide.eclipse.beans.ui.search.internal.BeansSearchMessages;
@@ -41,27 +44,21 @@ public class BeanNameQuery extends AbstractBeansQuery {
 	}
 
 	@Override
-	protected boolean doesMatch(IModelElement element, Pattern pattern,
-			IProgressMonitor monitor) {
+	protected Collection<String> getSearchKeys(IModelElement element) {
 		if (element instanceof IBean) {
 			Bean bean = (Bean) element;
+			List<String> keys = new ArrayList<String>();
 
 			// Compare bean name first
-			if (pattern.matcher(bean.getElementName()).matches()) {
-				return true;
-			}
+			keys.add(bean.getElementName());
 
 			// Now compare aliases
 			String[] aliases = bean.getAliases();
 			if (aliases != null) {
-				for (String alias : aliases) {
-					if (pattern.matcher(alias).matches()) {
-						return true;
-					}
-
-				}
+				keys.addAll(Arrays.asList(aliases));
 			}
+			return keys;
 		}
-		return false;
+		return Collections.emptyList();
 	}
 }
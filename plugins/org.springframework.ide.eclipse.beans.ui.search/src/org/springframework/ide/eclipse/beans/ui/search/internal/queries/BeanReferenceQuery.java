@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2006, 2007 Spring IDE Developers
+ * Copyright (c) 2006, 2017 Spring IDE Developers
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -10,10 +10,12 @@
  *******************************************************************************/
 package org.springframework.ide.eclipse.beans.ui.search.internal.queries;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Iterator;
-import java.util.regex.Pattern;
+import java.util.List;
 
-import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.search.ui.ISearchQuery;
 import org.springframework.beans.factory.support.AbstractBeanDefinition;
 import org.springframework.beans.factory.support.LookupOverride;
@@ -60,40 +62,32 @@ public class BeanReferenceQuery extends AbstractBeansQuery {
 	}
 
 	@Override
-	protected boolean doesMatch(IModelElement element, Pattern pattern,
-			IProgressMonitor monitor) {
+	protected Collection<String> getSearchKeys(IModelElement element) {
+		List<String> keys = new ArrayList<String>();
 		if (element instanceof IBeanAlias) {
 			IBeanAlias alias = (IBeanAlias) element;
-			if (pattern.matcher(alias.getBeanName()).matches()) {
-				return true;
-			}
+			keys.add(alias.getBeanName());
 		}
 		else if (element instanceof IBean) {
 			IBean bean = (IBean) element;
 
 			// Compare reference with parent bean
-			if (bean.isChildBean()
-					&& pattern.matcher(bean.getParentName()).matches()) {
-				return true;
+			if (bean.isChildBean() && bean.getParentName() != null) {
+				keys.add(bean.getParentName());
 			}
 			AbstractBeanDefinition bd = (AbstractBeanDefinition)
 					((Bean) element).getBeanDefinition();
 
 			// Compare reference with factory bean
 			String factoryBeanName = bd.getFactoryBeanName();
-			if (factoryBeanName != null
-					&& pattern.matcher(factoryBeanName).matches()) {
-				return true;
+			if (factoryBeanName != null) {
+				keys.add(factoryBeanName);
 			}
 
 			// Compare reference with depends-on beans
 			String dependsOnBeanNames[] = bd.getDependsOn();
 			if (dependsOnBeanNames != null) {
-				for (String name : dependsOnBeanNames) {
-					if (pattern.matcher(name).matches()) {
-						return true;
-					}
-				}
+				keys.addAll(Arrays.asList(dependsOnBeanNames));
 			}
 
 			// Compare reference with method-override beans
@@ -106,33 +100,33 @@ public class BeanReferenceQuery extends AbstractBeansQuery {
 					if (methodOverride instanceof LookupOverride) {
 						String name = ((LookupOverride) methodOverride)
 								.getBeanName();
-						if (pattern.matcher(name).matches()) {
-							return true;
+						if (name != null) {
+							keys.add(name);
 						}
 					}
 					else if (methodOverride instanceof ReplaceOverride) {
 						String name = ((ReplaceOverride) methodOverride)
 								.getMethodReplacerBeanName();
-						if (pattern.matcher(name).matches()) {
-							return true;
+						if (name != null) {
+							keys.add(name);
 						}
 					}
 				}
 			}
 		}
 		else if (element instanceof IBeansValueHolder) {
-			return doesValueMatch(element, ((IBeansValueHolder) element)
-					.getValue(), pattern);
+			addValueKeys(element, ((IBeansValueHolder) element).getValue(),
+					keys);
 		}
-		return false;
+		return keys;
 	}
 
-	private boolean doesValueMatch(IModelElement element, Object value,
-			Pattern pattern) {
+	private void addValueKeys(IModelElement element, Object value,
+			Collection<String> keys) {
 		if (value instanceof IBeanReference) {
 			String name = ((IBeanReference) value).getBeanName();
-			if (pattern.matcher(name).matches()) {
-				return true;
+			if (name != null) {
+				keys.add(name);
 			}
 		}
 		else if (value instanceof IBeansList) {
@@ -145,11 +139,9 @@ public class BeanReferenceQuery extends AbstractBeansQuery {
 				if (PROXY_FACTORY_CLASS_NAME.equals(beanClass)) {
 					for (IModelElement child : ((IBeansList) value)
 							.getElementChildren()) {
-						if (child instanceof IBeansTypedString) {
-							if (pattern.matcher(((IBeansTypedString) child)
-									.getString()).matches()) {
-								return true;
-							}
+						if (child instanceof IBeansTypedString
+								&& ((IBeansTypedString) child).getString() != null) {
+							keys.add(((IBeansTypedString) child).getString());
 						}
 					}
 				}
@@ -157,33 +149,26 @@ public class BeanReferenceQuery extends AbstractBeansQuery {
 			else {
 				for (IModelElement child : ((IBeansList) value)
 						.getElementChildren()) {
-					if (doesValueMatch(element, child, pattern)) {
-						return true;
-					}
+					addValueKeys(element, child, keys);
 				}
 			}
 		}
 		else if (value instanceof IBeansSet) {
 			for (IModelElement child : ((IBeansSet) value)
 					.getElementChildren()) {
-				if (doesValueMatch(element, child, pattern)) {
-					return true;
-				}
+				addValueKeys(element, child, keys);
 			}
 		}
 		else if (value instanceof IBeansMap) {
 			for (IModelElement child : ((IBeansMap) value)
 					.getElementChildren()) {
 				if (child instanceof IBeansMapEntry) {
-					if (doesValueMatch(element, ((IBeansMapEntry) child)
-							.getKey(), pattern)
-							|| doesValueMatch(element, ((IBeansMapEntry) child)
-									.getValue(), pattern)) {
-						return true;
-					}
+					addValueKeys(element, ((IBeansMapEntry) child).getKey(),
+							keys);
+					addValueKeys(element, ((IBeansMapEntry) child).getValue(),
+							keys);
 				}
 			}
 		}
-		return false;
 	}
 }
@@ -0,0 +1,117 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Spring IDE Developers
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Spring IDE Developers - initial API and implementation
+ *******************************************************************************/
+package org.springframework.ide.eclipse.beans.ui.search.internal.queries;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.springframework.ide.eclipse.beans.core.internal.model.AbstractBeansModelCache;
+import org.springframework.ide.eclipse.beans.core.model.IBeansProject;
+import org.springframework.ide.eclipse.core.model.IModelElement;
+import org.springframework.ide.eclipse.core.model.IModelElementVisitor;
+import org.springframework.ide.eclipse.core.model.ModelChangeEvent;
+
+/**
+ * Index of the search keys of all model elements of a project, per kind of {@link AbstractBeansQuery}. An index maps
+ * every search key (e.g. a bean name or a referenced bean name) to the elements having it, so that a query only has to
+ * look at the distinct keys instead of visiting all elements.
+ * <p>
+ * An index is built on first use and kept until the beans model reports a change of the project.
+ * @since 3.9.4
+ */
+public class BeansSearchIndex extends AbstractBeansModelCache {
+
+	/** Indexes per project name */
+	private final ConcurrentHashMap<String, Map<Class<?>, Map<String, Set<IModelElement>>>> projects =
+			new ConcurrentHashMap<String, Map<Class<?>, Map<String, Set<IModelElement>>>>();
+
+	/**
+	 * Incremented on every model change; an index built during a change isn't kept. Guarded by {@link #projects}, so
+	 * that checking it and storing an index can't interleave with a change.
+	 */
+	private long modificationCount = 0;
+
+	/**
+	 * Returns the index of the given project for the kind of the given query, building it if necessary.
+	 */
+	public Map<String, Set<IModelElement>> getIndex(IBeansProject project, AbstractBeansQuery query,
+			IProgressMonitor monitor) {
+		startListening();
+		String projectName = project.getElementName();
+		Map<Class<?>, Map<String, Set<IModelElement>>> indexes = projects.get(projectName);
+		if (indexes != null) {
+			Map<String, Set<IModelElement>> index = indexes.get(query.getClass());
+			if (index != null) {
+				return index;
+			}
+		}
+
+		long count;
+		synchronized (projects) {
+			count = modificationCount;
+		}
+		Map<String, Set<IModelElement>> index = buildIndex(project, query, monitor);
+		synchronized (projects) {
+			if (!monitor.isCanceled() && count == modificationCount) {
+				indexes = projects.get(projectName);
+				if (indexes == null) {
+					indexes = new ConcurrentHashMap<Class<?>, Map<String, Set<IModelElement>>>();
+					projects.put(projectName, indexes);
+				}
+				indexes.put(query.getClass(), index);
+			}
+		}
+		return index;
+	}
+
+	private Map<String, Set<IModelElement>> buildIndex(IBeansProject project, final AbstractBeansQuery query,
+			IProgressMonitor monitor) {
+		final Map<String, Set<IModelElement>> index = new HashMap<String, Set<IModelElement>>();
+		project.accept(new IModelElementVisitor() {
+			public boolean visit(IModelElement element, IProgressMonitor monitor) {
+				for (String key : query.getSearchKeys(element)) {
+					Set<IModelElement> elements = index.get(key);
+					if (elements == null) {
+						elements = new LinkedHashSet<IModelElement>();
+						index.put(key, elements);
+					}
+					elements.add(element);
+				}
+				return true;
+			}
+		}, monitor);
+		return Collections.unmodifiableMap(index);
+	}
+
+	@Override
+	protected void projectChanged(String projectName, ModelChangeEvent.Type type) {
+		synchronized (projects) {
+			modificationCount++;
+			if (projectName != null) {
+				projects.remove(projectName);
+			}
+			else {
+				projects.clear();
+			}
+		}
+	}
+
+	public void dispose() {
+		stopListening();
+		projects.clear();
+	}
+
+}
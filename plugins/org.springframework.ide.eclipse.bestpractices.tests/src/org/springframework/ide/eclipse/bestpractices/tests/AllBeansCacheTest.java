@@ -0,0 +1,95 @@
+/*******************************************************************************
+ *  Copyright (c) 2017 Pivotal Software, Inc.
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Pivotal Software, Inc. - initial API and implementation
+ *******************************************************************************/
+package org.springframework.ide.eclipse.bestpractices.tests;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.core.resources.IFile;
+import org.springframework.ide.eclipse.beans.core.BeansCorePlugin;
+import org.springframework.ide.eclipse.beans.core.model.IBean;
+import org.springframework.ide.eclipse.beans.core.model.IBeansConfig;
+import org.springframework.ide.eclipse.core.model.AbstractModel;
+import org.springframework.ide.eclipse.core.model.ModelChangeEvent.Type;
+import org.springframework.ide.eclipse.internal.bestpractices.springiderules.AllBeansCache;
+
+/**
+ * Test case for the {@link AllBeansCache} class.
+ */
+public class AllBeansCacheTest extends AbstractBeansCoreTestCase {
+
+	private IBeansConfig getConfig() throws Exception {
+		IFile file = (IFile) createPredefinedProjectAndGetResource("bestpractices", "src/bean-inheritance-positive.xml");
+		IBeansConfig config = BeansCorePlugin.getModel().getConfig(file);
+		assertNotNull(config);
+		return config;
+	}
+
+	private IBean getBean(IBean[] beans, String name) {
+		for (IBean bean : beans) {
+			if (name.equals(bean.getElementName())) {
+				return bean;
+			}
+		}
+		fail("No bean '" + name + "'");
+		return null;
+	}
+
+	private List<String> getNames(List<IBean> beans) {
+		List<String> names = new ArrayList<String>();
+		for (IBean bean : beans) {
+			names.add(bean.getElementName());
+		}
+		return names;
+	}
+
+	public void testAllBeansCached() throws Exception {
+		IBeansConfig config = getConfig();
+		IBean[] beans = AllBeansCache.getDefault().getAllBeans(config);
+		assertEquals(4, beans.length);
+		assertSame(beans, AllBeansCache.getDefault().getAllBeans(config));
+	}
+
+	public void testCacheInvalidatedOnConfigChange() throws Exception {
+		IBeansConfig config = getConfig();
+		IBean[] beans = AllBeansCache.getDefault().getAllBeans(config);
+		((AbstractModel) BeansCorePlugin.getModel()).notifyListeners(config, Type.CHANGED);
+		assertNotSame(beans, AllBeansCache.getDefault().getAllBeans(config));
+	}
+
+	public void testCacheClearedOnDispose() throws Exception {
+		IBeansConfig config = getConfig();
+		AllBeansCache cache = new AllBeansCache();
+		IBean[] beans = cache.getAllBeans(config);
+		cache.dispose();
+		assertNotSame(beans, cache.getAllBeans(config));
+	}
+
+	public void testBeansWithSharedProperties() throws Exception {
+		IBeansConfig config = getConfig();
+		IBean[] beans = AllBeansCache.getDefault().getAllBeans(config);
+
+		List<String> names = getNames(AllBeansCache.getDefault().getBeansWithSharedProperties(config,
+				getBean(beans, "myclass1"), 3));
+		assertEquals(3, names.size());
+		assertTrue(names.contains("myclass1"));
+		assertTrue(names.contains("myclass2"));
+		assertTrue(names.contains("myclass3"));
+
+		assertTrue(AllBeansCache.getDefault().getBeansWithSharedProperties(config, getBean(beans, "myclass"), 1)
+				.isEmpty());
+		assertEquals(3, AllBeansCache.getDefault().getBeansWithSharedProperties(config,
+				getBean(beans, "myclass2"), 3).size());
+		assertEquals(1, AllBeansCache.getDefault().getBeansWithSharedProperties(config,
+				getBean(beans, "myclass2"), 4).size());
+	}
+
+}
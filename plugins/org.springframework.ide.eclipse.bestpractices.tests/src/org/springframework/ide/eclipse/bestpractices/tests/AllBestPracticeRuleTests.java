@@ -1,5 +1,5 @@
 /*******************************************************************************
- *  Copyright (c) 2012 VMware, Inc.
+ *  Copyright (c) 2012 - 2017 VMware, Inc.
  *  All rights reserved. This program and the accompanying materials
  *  are made available under the terms of the Eclipse Public License v1.0
  *  which accompanies this distribution, and is available at
@@ -44,6 +44,7 @@ public class AllBestPracticeRuleTests {
 		suite.addTestSuite(UseBeanInheritanceRuleTest.class);
 		suite.addTestSuite(AvoidDriverManagerDataSourceRuleTest.class);
 		suite.addTestSuite(UseDedicatedNamespacesRuleTest.class);
+		suite.addTestSuite(AllBeansCacheTest.class);
 		//$JUnit-END$
 		return suite;
 	}
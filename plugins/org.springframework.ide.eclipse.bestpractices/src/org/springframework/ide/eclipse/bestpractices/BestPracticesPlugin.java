@@ -0,0 +1,42 @@
+/*******************************************************************************
+ *  Copyright (c) 2017 Pivotal Software, Inc.
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Pivotal Software, Inc. - initial API and implementation
+ *******************************************************************************/
+package org.springframework.ide.eclipse.bestpractices;
+
+import org.eclipse.core.runtime.Plugin;
+import org.osgi.framework.BundleContext;
+import org.springframework.ide.eclipse.internal.bestpractices.springiderules.AllBeansCache;
+
+/**
+ * The activator class controls the plug-in life cycle
+ * @since 3.9.4
+ */
+public class BestPracticesPlugin extends Plugin {
+
+	private static BestPracticesPlugin plugin;
+
+	@Override
+	public void start(BundleContext context) throws Exception {
+		super.start(context);
+		plugin = this;
+	}
+
+	@Override
+	public void stop(BundleContext context) throws Exception {
+		AllBeansCache.disposeDefault();
+		plugin = null;
+		super.stop(context);
+	}
+
+	public static BestPracticesPlugin getDefault() {
+		return plugin;
+	}
+
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- *  Copyright (c) 2015 Pivotal Software, Inc.
+ *  Copyright (c) 2015, 2017 Pivotal Software, Inc.
  *  All rights reserved. This program and the accompanying materials
  *  are made available under the terms of the Eclipse Public License v1.0
  *  which accompanies this distribution, and is available at
@@ -10,34 +10,200 @@
  *******************************************************************************/
 package org.springframework.ide.eclipse.internal.bestpractices.springiderules;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
+import org.springframework.ide.eclipse.beans.core.internal.model.AbstractBeansModelCache;
+import org.springframework.ide.eclipse.beans.core.internal.model.BeanReference;
 import org.springframework.ide.eclipse.beans.core.internal.model.BeansModelUtils;
+import org.springframework.ide.eclipse.beans.core.internal.model.BeansTypedString;
 import org.springframework.ide.eclipse.beans.core.model.IBean;
+import org.springframework.ide.eclipse.beans.core.model.IBeanProperty;
 import org.springframework.ide.eclipse.core.model.IModelElement;
+import org.springframework.ide.eclipse.core.model.ModelChangeEvent;
 
 /**
+ * Cache of the beans of a validation root element (config or config set),
+ * shared by the best practice rules across validation runs.
+ * <p>
+ * Next to the beans themselves, the cache keeps the beans grouped by property
+ * signature (property name and value), so that rules looking for beans with
+ * properties in common don't have to compare every bean with every other bean.
+ * <p>
+ * The entries of a project are dropped whenever the beans model reports a
+ * change of the project, e.g. because a config has been reloaded. The shared
+ * cache is disposed when the plugin is stopped.
  * @author Martin Lippert
  */
-public class AllBeansCache {
+public class AllBeansCache extends AbstractBeansModelCache {
 
-	private final Map<IModelElement, IBean[]> allBeansCache;
+	private static final AllBeansCache DEFAULT = new AllBeansCache();
+
+	/**
+	 * Returns the shared cache.
+	 */
+	public static AllBeansCache getDefault() {
+		DEFAULT.startListening();
+		return DEFAULT;
+	}
+
+	/**
+	 * Disposes the shared cache, without starting it if it hasn't been used.
+	 */
+	public static void disposeDefault() {
+		DEFAULT.dispose();
+	}
+
+	private final ConcurrentHashMap<String, BeansEntry> allBeansCache;
 
 	public AllBeansCache() {
-		allBeansCache = new ConcurrentHashMap<IModelElement, IBean[]>();
+		allBeansCache = new ConcurrentHashMap<String, BeansEntry>();
 	}
 
 	public IBean[] getAllBeans(IModelElement rootElement) {
-		IBean[] allBeans = allBeansCache.get(rootElement);
-		if (allBeans == null) {
+		return getEntry(rootElement).beans;
+	}
+
+	/**
+	 * Returns the beans having at least the given number of properties with
+	 * the same name and value as a property of the given bean, in the order of
+	 * {@link #getAllBeans(IModelElement)}. The given bean itself is included
+	 * if it has enough properties.
+	 */
+	public List<IBean> getBeansWithSharedProperties(IModelElement rootElement, IBean bean, int minNumSharedProperties) {
+		BeansEntry entry = getEntry(rootElement);
+		Map<String, int[]> beansBySignature = entry.getBeansBySignature();
+
+		Map<Integer, Integer> sharedProperties = new HashMap<Integer, Integer>();
+		for (IBeanProperty property : bean.getProperties()) {
+			String signature = getSignature(property);
+			if (signature != null) {
+				int[] beans = beansBySignature.get(signature);
+				if (beans != null) {
+					for (int i : beans) {
+						Integer count = sharedProperties.get(i);
+						sharedProperties.put(i, (count == null ? 1 : count + 1));
+					}
+				}
+			}
+		}
+
+		List<Integer> positions = new ArrayList<Integer>();
+		for (Map.Entry<Integer, Integer> shared : sharedProperties.entrySet()) {
+			if (shared.getValue() >= minNumSharedProperties) {
+				positions.add(shared.getKey());
+			}
+		}
+		Collections.sort(positions);
+		List<IBean> result = new ArrayList<IBean>(positions.size());
+		for (int i : positions) {
+			result.add(entry.beans[i]);
+		}
+		return result;
+	}
+
+	private BeansEntry getEntry(IModelElement rootElement) {
+		BeansEntry entry = allBeansCache.get(rootElement.getElementID());
+
+		// A reloaded root element is a new instance
+		if (entry == null || entry.rootElement != rootElement) {
 			Set<IBean> beans = BeansModelUtils.getBeans(rootElement);
-			allBeans = beans.toArray(new IBean[beans.size()]);
-			allBeansCache.put(rootElement, allBeans);
+			entry = new BeansEntry(rootElement, getProjectName(rootElement), beans.toArray(new IBean[beans.size()]));
+			allBeansCache.put(rootElement.getElementID(), entry);
+		}
+		return entry;
+	}
+
+	/**
+	 * Two properties are considered equal if they have the same name and
+	 * either the same string value or a reference to the same bean.
+	 * @return the signature of the given property, or <code>null</code> if
+	 * the property can't be equal to another property
+	 */
+	static String getSignature(IBeanProperty property) {
+		Object value = property.getValue();
+		if (value instanceof BeansTypedString) {
+			return property.getElementName() + "\u0000s" + ((BeansTypedString) value).getString();
+		}
+		else if (value instanceof BeanReference) {
+			return property.getElementName() + "\u0000r" + ((BeanReference) value).getBeanName();
+		}
+		return null;
+	}
+
+	@Override
+	protected void projectChanged(String projectName, ModelChangeEvent.Type type) {
+		if (projectName == null) {
+			allBeansCache.clear();
+			return;
 		}
+		for (BeansEntry entry : allBeansCache.values()) {
+			if (projectName.equals(entry.projectName)) {
+				allBeansCache.remove(entry.rootElement.getElementID(), entry);
+			}
+		}
+	}
+
+	/**
+	 * Stops listening to the beans model and drops all cached beans.
+	 */
+	public void dispose() {
+		stopListening();
+		allBeansCache.clear();
+	}
 
-		return allBeans;
+	private static class BeansEntry {
+
+		private final IModelElement rootElement;
+
+		private final String projectName;
+
+		private final IBean[] beans;
+
+		/** Positions of the beans per property signature; created on first use */
+		private volatile Map<String, int[]> beansBySignature;
+
+		public BeansEntry(IModelElement rootElement, String projectName, IBean[] beans) {
+			this.rootElement = rootElement;
+			this.projectName = projectName;
+			this.beans = beans;
+		}
+
+		public Map<String, int[]> getBeansBySignature() {
+			Map<String, int[]> result = beansBySignature;
+			if (result == null) {
+				Map<String, List<Integer>> positions = new HashMap<String, List<Integer>>();
+				for (int i = 0; i < beans.length; i++) {
+					for (IBeanProperty property : beans[i].getProperties()) {
+						String signature = getSignature(property);
+						if (signature != null) {
+							List<Integer> list = positions.get(signature);
+							if (list == null) {
+								list = new ArrayList<Integer>();
+								positions.put(signature, list);
+							}
+							list.add(i);
+						}
+					}
+				}
+				result = new HashMap<String, int[]>(positions.size());
+				for (Map.Entry<String, List<Integer>> entry : positions.entrySet()) {
+					List<Integer> list = entry.getValue();
+					int[] array = new int[list.size()];
+					for (int i = 0; i < array.length; i++) {
+						array[i] = list.get(i);
+					}
+					result.put(entry.getKey(), array);
+				}
+				beansBySignature = result;
+			}
+			return result;
+		}
 	}
 
 }
@@ -1,5 +1,5 @@
 /*******************************************************************************
- *  Copyright (c) 2012, 2015 VMware, Inc.
+ *  Copyright (c) 2012, 2017 VMware, Inc.
  *  All rights reserved. This program and the accompanying materials
  *  are made available under the terms of the Eclipse Public License v1.0
  *  which accompanies this distribution, and is available at
@@ -18,7 +18,6 @@ import org.eclipse.core.runtime.IProgressMonitor;
 import org.springframework.beans.factory.support.AbstractBeanDefinition;
 import org.springframework.ide.eclipse.beans.core.internal.model.Bean;
 import org.springframework.ide.eclipse.beans.core.internal.model.BeanReference;
-import org.springframework.ide.eclipse.beans.core.internal.model.BeansModelUtils;
 import org.springframework.ide.eclipse.beans.core.internal.model.BeansTypedString;
 import org.springframework.ide.eclipse.beans.core.model.IBean;
 import org.springframework.ide.eclipse.beans.core.model.IBeanConstructorArgument;
@@ -29,7 +28,6 @@ import org.springframework.ide.eclipse.core.model.IModelElement;
 import org.springframework.ide.eclipse.core.model.validation.IValidationContext;
 import org.springframework.ide.eclipse.core.model.validation.IValidationRule;
 import org.springframework.ide.eclipse.core.model.xml.XmlSourceLocation;
-import org.springframework.ide.eclipse.core.project.IProjectContributorState;
 
 /**
  * This rule checks for cases where it may be possible to simplify the
@@ -75,25 +73,24 @@ public class UseBeanInheritance implements IValidationRule<IBean, IBeansValidati
 	 */
 	public void validate(IBean bean, IBeansValidationContext validationContext, IProgressMonitor progressMonitor) {
 
-		IBean[] allBeans = null;
-		if (validationContext instanceof IProjectContributorState) {
-			AllBeansCache allBeansCache = ((IProjectContributorState) validationContext).get(AllBeansCache.class);
-			if (allBeansCache == null) {
-				allBeansCache = new AllBeansCache();
-				((IProjectContributorState) validationContext).hold(allBeansCache);
-			}
+		IModelElement rootElement = validationContext.getRootElement();
+		AllBeansCache allBeansCache = AllBeansCache.getDefault();
 
-			allBeans = allBeansCache.getAllBeans(validationContext.getRootElement());
+		List<IBean> similarBeanList = new ArrayList<IBean>();
+		if (minNumSharedProperties > 0) {
+			// Only beans sharing enough properties with this bean can be similar
+			for (IBean currBean : allBeansCache.getBeansWithSharedProperties(rootElement, bean,
+					minNumSharedProperties)) {
+				if (isSimilar(bean, currBean)) {
+					similarBeanList.add(currBean);
+				}
+			}
 		}
 		else {
-			Set<IBean> beans = BeansModelUtils.getBeans(validationContext.getRootElement());
-			allBeans = beans.toArray(new IBean[beans.size()]);
-		}
-
-		List<IBean> similarBeanList = new ArrayList<IBean>();
-		for (IBean currBean : allBeans) {
-			if (isSimilar(bean, currBean)) {
-				similarBeanList.add(currBean);
+			for (IBean currBean : allBeansCache.getAllBeans(rootElement)) {
+				if (isSimilar(bean, currBean)) {
+					similarBeanList.add(currBean);
+				}
 			}
 		}
 
@@ -39,6 +39,9 @@ import org.springframework.ide.eclipse.boot.dash.test.yaml.Yaml2DeploymentProper
 	//Really short (less than 2 seconds per suite):
 	JLRMethodParserTest.class,
 	OrderBasedComparatorTest.class,
+	LogBufferTest.class,
+	PollingLiveExpTest.class,
+	JobThrottleTest.class,
 	ManifestCompareMergeTests.class,
 	ManifestYmlSchemaTest.class,
 	ManifestYamlEditorTest.class,
@@ -24,6 +24,7 @@ import org.eclipse.core.resources.IProject;
 import org.junit.Test;
 import org.springframework.ide.eclipse.boot.dash.model.BootDashElementsFilterBoxModel;
 import org.springframework.ide.eclipse.boot.dash.model.LocalBootDashModel;
+import org.springframework.ide.eclipse.boot.dash.model.TagSearchFilter;
 import org.springframework.ide.eclipse.boot.dash.model.TagUtils;
 import org.springframework.ide.eclipse.boot.dash.test.AbstractLaunchConfigurationsDashElementTest.TestElement;
 import org.springframework.ide.eclipse.boot.dash.test.mocks.Mocks;
@@ -274,4 +275,34 @@ public class BootDashElementTagsTests extends Mocks {
 		assertTrue(filterBoxModel.getFilter().getValue().accept(createElement("foobar", new String[] {})));
 	}
 
+	@Test
+	public void narrowingSearch() throws Exception {
+		TagSearchFilter<TestElement> spring = new TagSearchFilter<>("spr");
+		assertTrue(new TagSearchFilter<>("spring").narrows(spring));
+		assertTrue(new TagSearchFilter<>("spring,").narrows(spring));
+		assertTrue(new TagSearchFilter<>("spring, xd").narrows(spring));
+		assertFalse(new TagSearchFilter<>("sp").narrows(spring));
+		assertFalse(new TagSearchFilter<>("xd").narrows(spring));
+		assertFalse(new TagSearchFilter<>("xd,").narrows(new TagSearchFilter<>("spring, xd")));
+	}
+
+	@Test
+	public void narrowingSearchResults() throws Exception {
+		BootDashElementsFilterBoxModel filterBoxModel = new BootDashElementsFilterBoxModel();
+		TestElement springElement = createElement("t1", new String[] {"spring"});
+		TestElement xdElement = createElement("t2", new String[] {"xd"});
+
+		filterBoxModel.getText().setValue("s");
+		assertTrue(filterBoxModel.getFilter().getValue().accept(springElement));
+		assertFalse(filterBoxModel.getFilter().getValue().accept(xdElement));
+
+		filterBoxModel.getText().setValue("sp");
+		assertTrue(filterBoxModel.getFilter().getValue().accept(springElement));
+		assertFalse(filterBoxModel.getFilter().getValue().accept(xdElement));
+
+		filterBoxModel.getText().setValue("x");
+		assertFalse(filterBoxModel.getFilter().getValue().accept(springElement));
+		assertTrue(filterBoxModel.getFilter().getValue().accept(xdElement));
+	}
+
 }
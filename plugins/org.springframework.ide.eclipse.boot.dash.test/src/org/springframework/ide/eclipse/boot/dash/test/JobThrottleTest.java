@@ -0,0 +1,56 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Pivotal, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Pivotal, Inc. - initial API and implementation
+ *******************************************************************************/
+package org.springframework.ide.eclipse.boot.dash.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+import org.junit.Test;
+import org.springframework.ide.eclipse.boot.dash.util.JobThrottle;
+
+public class JobThrottleTest {
+
+	@Test
+	public void limitsConcurrentJobs() throws Exception {
+		JobThrottle throttle = new JobThrottle(2);
+		AtomicInteger running = new AtomicInteger();
+		AtomicInteger maxRunning = new AtomicInteger();
+		int numJobs = 6;
+		CountDownLatch done = new CountDownLatch(numJobs);
+		for (int i = 0; i < numJobs; i++) {
+			throttle.schedule(new Job("job "+i) {
+				@Override
+				protected IStatus run(IProgressMonitor monitor) {
+					int r = running.incrementAndGet();
+					maxRunning.accumulateAndGet(r, Math::max);
+					try {
+						Thread.sleep(50);
+					} catch (InterruptedException e) {
+					}
+					running.decrementAndGet();
+					done.countDown();
+					return Status.OK_STATUS;
+				}
+			});
+		}
+		assertTrue(done.await(10, TimeUnit.SECONDS));
+		assertTrue(maxRunning.get() <= 2);
+		assertEquals(0, throttle.getPendingCount());
+	}
+}
@@ -0,0 +1,85 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Pivotal, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Pivotal, Inc. - initial API and implementation
+ *******************************************************************************/
+package org.springframework.ide.eclipse.boot.dash.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+import org.junit.Test;
+import org.springframework.ide.eclipse.boot.dash.cloudfoundry.console.LogBuffer;
+import org.springframework.ide.eclipse.boot.dash.cloudfoundry.console.LogBuffer.Batch;
+
+public class LogBufferTest {
+
+	private static final Comparator<Integer> ORDER = Comparator.naturalOrder();
+
+	@Test
+	public void releasesSortedAfterDelay() throws Exception {
+		LogBuffer<Integer> buffer = new LogBuffer<>(ORDER, 100, 10);
+		buffer.add(3, 0);
+		buffer.add(1, 10);
+		buffer.add(2, 20);
+
+		assertTrue(buffer.release(50).getItems().isEmpty());
+		assertEquals(Arrays.asList(1, 2, 3), buffer.release(120).getItems());
+		assertTrue(buffer.isEmpty());
+	}
+
+	@Test
+	public void holdsBackYoungMessages() throws Exception {
+		LogBuffer<Integer> buffer = new LogBuffer<>(ORDER, 100, 10);
+		buffer.add(1, 0);
+		buffer.add(4, 0);
+		buffer.add(3, 90);
+
+		//3 is too young, so it and everything sorted after it stays in the buffer.
+		assertEquals(Arrays.asList(1), buffer.release(100).getItems());
+		buffer.add(2, 150);
+		assertEquals(Arrays.asList(2, 3, 4), buffer.release(250).getItems());
+	}
+
+	@Test
+	public void dropsOldestBeyondHighWaterMark() throws Exception {
+		LogBuffer<Integer> buffer = new LogBuffer<>(ORDER, 0, 3);
+		for (int i = 1; i <= 5; i++) {
+			buffer.add(i, 0);
+		}
+		assertEquals(3, buffer.size());
+
+		Batch<Integer> batch = buffer.release(0);
+		assertEquals(Arrays.asList(3, 4, 5), batch.getItems());
+		assertEquals(2, batch.getDropped());
+
+		assertEquals(0, buffer.release(0).getDropped());
+		assertEquals(2, buffer.getTotalDropped());
+	}
+
+	@Test
+	public void lowerHighWaterMark() throws Exception {
+		LogBuffer<Integer> buffer = new LogBuffer<>(ORDER, 0, 10);
+		for (int i = 1; i <= 5; i++) {
+			buffer.add(i, 0);
+		}
+		buffer.setHighWaterMark(2);
+		assertEquals(2, buffer.getHighWaterMark());
+		Batch<Integer> batch = buffer.release(0);
+		assertEquals(Arrays.asList(4, 5), batch.getItems());
+		assertEquals(3, batch.getDropped());
+	}
+
+	@Test(expected=IllegalArgumentException.class)
+	public void badHighWaterMark() throws Exception {
+		new LogBuffer<>(ORDER, 0, 0);
+	}
+}
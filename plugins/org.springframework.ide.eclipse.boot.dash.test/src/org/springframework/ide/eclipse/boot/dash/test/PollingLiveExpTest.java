@@ -0,0 +1,82 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Pivotal, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Pivotal, Inc. - initial API and implementation
+ *******************************************************************************/
+package org.springframework.ide.eclipse.boot.dash.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+import org.springframework.ide.eclipse.boot.dash.livexp.PollingLiveExp;
+import org.springsource.ide.eclipse.commons.frameworks.test.util.ACondition;
+
+public class PollingLiveExpTest {
+
+	@Test
+	public void refreshesChangingValue() throws Exception {
+		AtomicInteger computes = new AtomicInteger();
+		PollingLiveExp<Integer> exp = PollingLiveExp.create(computes::incrementAndGet)
+				.sleepBetweenRefreshes(Duration.ofMillis(20));
+		try {
+			exp.refreshForever();
+			ACondition.waitFor("refreshes", 3000, () -> {
+				assertTrue(exp.getValue()!=null && exp.getValue() > 5);
+			});
+			assertEquals(Duration.ofMillis(20), exp.getCurrentRefreshInterval());
+			assertTrue(exp.getRefreshCount() > 5);
+		} finally {
+			exp.dispose();
+		}
+	}
+
+	@Test
+	public void backsOffWhenUnchanged() throws Exception {
+		PollingLiveExp<String> exp = PollingLiveExp.create(() -> "same")
+				.sleepBetweenRefreshes(Duration.ofMillis(20));
+		try {
+			exp.refreshForever();
+			ACondition.waitFor("backed off", 3000, () -> {
+				assertEquals(Duration.ofMillis(20 * PollingLiveExp.MAX_BACKOFF), exp.getCurrentRefreshInterval());
+			});
+			assertEquals("same", exp.getValue());
+		} finally {
+			exp.dispose();
+		}
+	}
+
+	@Test
+	public void pausedWhenNotActive() throws Exception {
+		AtomicInteger computes = new AtomicInteger();
+		AtomicBoolean active = new AtomicBoolean(false);
+		PollingLiveExp<Integer> exp = PollingLiveExp.create(computes::incrementAndGet)
+				.sleepBetweenRefreshes(Duration.ofMillis(20))
+				.activeWhen(active::get);
+		try {
+			exp.refreshForever();
+			//The explicitly requested first refresh happens even when not active
+			ACondition.waitFor("first refresh", 3000, () -> {
+				assertEquals(1, computes.get());
+			});
+			Thread.sleep(300);
+			assertEquals(1, computes.get());
+
+			active.set(true);
+			ACondition.waitFor("resumed", 3000, () -> {
+				assertTrue(computes.get() > 3);
+			});
+		} finally {
+			exp.dispose();
+		}
+	}
+}
@@ -13,6 +13,8 @@ package org.springframework.ide.eclipse.boot.dash.test.actuator;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
 
 import java.util.List;
 import java.util.stream.Collectors;
@@ -85,6 +87,28 @@ public class ActuatorDataTest {
 		assertNotEquals(client.getBeans(), otherClient.getBeans());
 	}
 
+	@Test public void testUnchangedModelReused() throws Exception {
+		String json = ActuatorClientTest.getContents("beans-sample.json");
+		TestActuatorClient client = new TestActuatorClient(null).beansJson(json).version("1");
+		LiveBeansModel liveBeans = client.getBeans();
+		assertSame(liveBeans, client.getBeans());
+
+		//Different payload, but same beans
+		client.beansJson(json + "\n");
+		assertSame(liveBeans, client.getBeans());
+	}
+
+	@Test public void testChangedModelNotReused() throws Exception {
+		TestActuatorClient client = new TestActuatorClient(null).beansJson(ActuatorClientTest.getContents("beans-sample.json")).version("1");
+		LiveBeansModel liveBeans = client.getBeans();
+
+		client.beansJson(ActuatorClientTest.getContents("beans-sample-diff1.json"));
+		LiveBeansModel changedBeans = client.getBeans();
+		assertNotSame(liveBeans, changedBeans);
+		assertNotEquals(liveBeans, changedBeans);
+		assertSame(changedBeans, client.getBeans());
+	}
+
 	@Test public void testModelContent() throws Exception {
 		TestActuatorClient client = new TestActuatorClient(null).beansJson(ActuatorClientTest.getContents("beans-sample.json")).version("1");
 		LiveBeansModel liveBeans = client.getBeans();
@@ -157,6 +181,7 @@ public class ActuatorDataTest {
 				.map(RequestMapping::getPath)
 				.collect(Collectors.toSet())
 		);
+		assertSame(mappings, client.getRequestMappings());
 	}
 
 }
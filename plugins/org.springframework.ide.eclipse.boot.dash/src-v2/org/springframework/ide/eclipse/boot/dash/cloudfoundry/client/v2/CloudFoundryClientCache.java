@@ -12,9 +12,10 @@ package org.springframework.ide.eclipse.boot.dash.cloudfoundry.client.v2;
 
 import java.net.URL;
 import java.time.Duration;
-import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.cloudfoundry.client.CloudFoundryClient;
 import org.cloudfoundry.reactor.ConnectionContext;
@@ -231,19 +232,25 @@ public class CloudFoundryClientCache {
 		}
 	}
 
-	private Map<Params, CFClientProvider> cache = new HashMap<>();
+	/**
+	 * Targets are connected concurrently on startup, so clients for different hosts / users are created
+	 * without holding a lock on the whole cache. Targets sharing the same host and credentials
+	 * (e.g. different spaces in the same org) share a single client and therefore a single access token.
+	 */
+	private Map<Params, CFClientProvider> cache = new ConcurrentHashMap<>();
 
-	private int clientCount = 0;
+	private AtomicInteger clientCount = new AtomicInteger();
 
-	public synchronized CFClientProvider getOrCreate(String username, CFCredentials credentials, String host, boolean skipSsl) {
+	public CFClientProvider getOrCreate(String username, CFCredentials credentials, String host, boolean skipSsl) {
 		Params params = new Params(username, credentials, host, skipSsl);
 		CFClientProvider client = cache.get(params);
 		if (client==null) {
-			clientCount++;
-			debug("Creating client ["+clientCount+"]: "+params);
-			cache.put(params, client = create(params));
+			client = cache.computeIfAbsent(params, (p) -> {
+				debug("Creating client ["+clientCount.incrementAndGet()+"]: "+p);
+				return create(p);
+			});
 		} else {
-			debug("Reusing client ["+clientCount+"]: "+params);
+			debug("Reusing client ["+clientCount.get()+"]: "+params);
 		}
 		return client;
 	}
@@ -12,14 +12,20 @@ package org.springframework.ide.eclipse.boot.dash.cloudfoundry.client.v2;
 
 import java.io.IOException;
 import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Function;
 import java.util.function.Predicate;
@@ -34,9 +40,14 @@ import org.cloudfoundry.client.v2.buildpacks.ListBuildpacksRequest;
 import org.cloudfoundry.client.v2.buildpacks.ListBuildpacksResponse;
 import org.cloudfoundry.client.v2.domains.ListDomainsRequest;
 import org.cloudfoundry.client.v2.domains.ListDomainsResponse;
+import org.cloudfoundry.client.v2.events.EventEntity;
+import org.cloudfoundry.client.v2.events.EventResource;
 import org.cloudfoundry.client.v2.info.GetInfoRequest;
 import org.cloudfoundry.client.v2.info.GetInfoResponse;
+import org.cloudfoundry.client.v2.organizations.ListOrganizationSpacesRequest;
 import org.cloudfoundry.client.v2.serviceinstances.DeleteServiceInstanceRequest;
+import org.cloudfoundry.client.v2.spaces.ListSpaceEventsRequest;
+import org.cloudfoundry.client.v2.spaces.ListSpaceEventsResponse;
 import org.cloudfoundry.client.v2.stacks.GetStackRequest;
 import org.cloudfoundry.client.v2.stacks.GetStackResponse;
 import org.cloudfoundry.client.v2.userprovidedserviceinstances.DeleteUserProvidedServiceInstanceRequest;
@@ -76,8 +87,10 @@ import org.cloudfoundry.util.PaginationUtils;
 import org.eclipse.core.runtime.Platform;
 import org.osgi.framework.Version;
 import org.springframework.ide.eclipse.boot.dash.cloudfoundry.ApplicationRunningStateTracker;
+import org.springframework.ide.eclipse.boot.dash.cloudfoundry.client.CFAppState;
 import org.springframework.ide.eclipse.boot.dash.cloudfoundry.client.CFApplication;
 import org.springframework.ide.eclipse.boot.dash.cloudfoundry.client.CFApplicationDetail;
+import org.springframework.ide.eclipse.boot.dash.cloudfoundry.client.CFApplicationsDelta;
 import org.springframework.ide.eclipse.boot.dash.cloudfoundry.client.CFBuildpack;
 import org.springframework.ide.eclipse.boot.dash.cloudfoundry.client.CFClientParams;
 import org.springframework.ide.eclipse.boot.dash.cloudfoundry.client.CFCloudDomain;
@@ -120,6 +133,13 @@ public class DefaultClientRequestsV2 implements ClientRequests {
 	public static final Duration GET_USERNAME_TIMEOUT = Duration.ofSeconds(5);
 	public static final Duration GET_SMALL_INFO_TIMEOUT = Duration.ofSeconds(20);
 
+	/**
+	 * Maximum number of 'get application details' requests that are in flight at the same time
+	 * when refreshing a space. Firing off a request for every app in a big space all at once
+	 * gets us rate-limited by CF. Can be overridden with a system property.
+	 */
+	public static final int APP_DETAILS_CONCURRENCY = Math.max(1, Integer.getInteger("sts.boot.dash.cf.app-details-concurrency", 10));
+
 	private static final boolean DEBUG = (""+Platform.getLocation()).contains("kdvolder") || (""+Platform.getLocation()).contains("bamboo");
 //	private static final boolean DEBUG_REACTOR = false;//(""+Platform.getLocation()).contains("kdvolder")
 									//|| (""+Platform.getLocation()).contains("bamboo");
@@ -149,6 +169,7 @@ public class DefaultClientRequestsV2 implements ClientRequests {
 	private CloudFoundryOperations _operations;
 
 	private Mono<String> orgId;
+	private Mono<String> spaceId;
 	private Mono<GetInfoResponse> info;
 	private AbstractUaaTokenProvider _tokenProvider;
 	private DefaultConnectionContext _connection;
@@ -179,6 +200,7 @@ public class DefaultClientRequestsV2 implements ClientRequests {
 				.build();
 		debug("<<< creating cf operations");
 		this.orgId = getOrgId();
+		this.spaceId = getSpaceId();
 		this.info = client_getInfo().cache();
 		debug("DefaultClientRequestsV2 created: "+instances.incrementAndGet());
 	}
@@ -202,11 +224,197 @@ public class DefaultClientRequestsV2 implements ClientRequests {
 		}
 	}
 
+	private Mono<String> getSpaceId() {
+		String spaceName = params.getSpaceName();
+		if (spaceName==null) {
+			return Mono.error(new IOException("No space targetted"));
+		} else {
+			return client_getSpaceId(spaceName).cache();
+		}
+	}
+
 	@Override
 	public List<CFApplication> getApplicationsWithBasicInfo() throws Exception {
 		return ReactorUtils.get(operations_listApps());
 	}
 
+	/**
+	 * A full refresh is done at least this often, even when the events API says nothing changed. This
+	 * is a safety net for changes that don't produce events.
+	 */
+	private static final Duration FULL_APPS_REFRESH_INTERVAL = Duration.ofMinutes(5);
+
+	/**
+	 * Event timestamps come from the CF server's clock, so we ask for events a bit earlier than
+	 * our own clock says we need to. Events that were already processed are skipped based on their id.
+	 */
+	private static final Duration EVENTS_CLOCK_SKEW = Duration.ofMinutes(1);
+
+	/**
+	 * Apps in the space as of the last call to {@link #getApplicationsDelta()}, keyed by guid.
+	 */
+	private Map<UUID, CFApplication> appSnapshot = null;
+	private Instant appSnapshotTime = null;
+	private Instant appSnapshotFullTime = null;
+	private Set<String> seenEventIds = ImmutableSet.of();
+
+	/**
+	 * Apps that were reported as changed but whose details haven't arrived yet, e.g. because the
+	 * request failed or timed out. They are reported as changed again until their details arrive.
+	 */
+	private final Set<UUID> appsAwaitingDetails = ConcurrentHashMap.newKeySet();
+
+	@Override
+	public synchronized CFApplicationsDelta getApplicationsDelta() throws Exception {
+		Instant now = Instant.now();
+		if (appSnapshot!=null && Duration.between(appSnapshotFullTime, now).compareTo(FULL_APPS_REFRESH_INTERVAL) < 0) {
+			try {
+				Set<UUID> changedIds = getChangedAppIds(appSnapshotTime.minus(EVENTS_CLOCK_SKEW));
+				if (changedIds==null) {
+					//Too much going on, a full refresh is cheaper.
+					return fullAppsRefresh(now);
+				}
+				appSnapshotTime = now;
+				if (changedIds.isEmpty() && !hasUnsettledApps() && appsAwaitingDetails.isEmpty()) {
+					debug("getApplicationsDelta: nothing changed");
+					return new CFApplicationsDelta(ImmutableList.copyOf(appSnapshot.values()), ImmutableList.of());
+				}
+				return updateAppSnapshot(getApplicationsWithBasicInfo(), changedIds);
+			} catch (Exception e) {
+				//Fall back on full refresh below
+				Log.log(e);
+			}
+		}
+		return fullAppsRefresh(now);
+	}
+
+	private CFApplicationsDelta fullAppsRefresh(Instant now) throws Exception {
+		List<CFApplication> apps = getApplicationsWithBasicInfo();
+		appSnapshot = new LinkedHashMap<>();
+		appsAwaitingDetails.clear();
+		for (CFApplication app : apps) {
+			appSnapshot.put(app.getGuid(), app);
+			appsAwaitingDetails.add(app.getGuid());
+		}
+		appSnapshotTime = appSnapshotFullTime = now;
+		return new CFApplicationsDelta(apps, apps);
+	}
+
+	private CFApplicationsDelta updateAppSnapshot(List<CFApplication> apps, Set<UUID> changedIds) {
+		Map<UUID, CFApplication> newSnapshot = new LinkedHashMap<>();
+		ImmutableList.Builder<CFApplication> changed = ImmutableList.builder();
+		for (CFApplication app : apps) {
+			CFApplication old = appSnapshot.get(app.getGuid());
+			if (old==null || changedIds.contains(app.getGuid()) || appsAwaitingDetails.contains(app.getGuid())
+					|| isUnsettled(old) || !sameBasicInfo(old, app)) {
+				changed.add(app);
+				appsAwaitingDetails.add(app.getGuid());
+			}
+			newSnapshot.put(app.getGuid(), app);
+		}
+		appsAwaitingDetails.retainAll(newSnapshot.keySet());
+		appSnapshot = newSnapshot;
+		CFApplicationsDelta delta = new CFApplicationsDelta(apps, changed.build());
+		debug("getApplicationsDelta: "+delta);
+		return delta;
+	}
+
+	private boolean hasUnsettledApps() {
+		for (CFApplication app : appSnapshot.values()) {
+			if (isUnsettled(app)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * An app that is starting up may change its running instances without producing any events.
+	 * So we must keep checking it until it has settled.
+	 */
+	private static boolean isUnsettled(CFApplication app) {
+		return app.getState()==CFAppState.STARTED && app.getRunningInstances() < app.getInstances();
+	}
+
+	private static boolean sameBasicInfo(CFApplication a, CFApplication b) {
+		return Objects.equals(a.getName(), b.getName())
+			&& a.getState()==b.getState()
+			&& a.getInstances()==b.getInstances()
+			&& a.getRunningInstances()==b.getRunningInstances()
+			&& a.getMemory()==b.getMemory()
+			&& a.getDiskQuota()==b.getDiskQuota()
+			&& Objects.equals(a.getUris(), b.getUris());
+	}
+
+	/**
+	 * Types of the events that signal a change of an app. This is every 'audit.app.*' event, plus
+	 * crashes, which change the app's running instances.
+	 */
+	private static final List<String> APP_EVENT_TYPES = ImmutableList.of(
+			"audit.app.create",
+			"audit.app.update",
+			"audit.app.delete-request",
+			"audit.app.start",
+			"audit.app.stop",
+			"audit.app.restage",
+			"audit.app.map-route",
+			"audit.app.unmap-route",
+			"audit.app.droplet.mapped",
+			"app.crash"
+	);
+
+	private static final int EVENTS_PER_PAGE = 100;
+
+	/**
+	 * When there are more pages of app events than this, it is cheaper to just do a full refresh.
+	 */
+	private static final int MAX_EVENT_PAGES = 3;
+
+	/**
+	 * Uses the CF events API to determine which apps in the current space changed since a given time.
+	 *
+	 * @return The guids of the changed apps, or null if there are too many events to look at them all.
+	 */
+	private Set<UUID> getChangedAppIds(Instant since) throws Exception {
+		String timestamp = since.truncatedTo(ChronoUnit.SECONDS).toString();
+		String spaceId = ReactorUtils.get(this.spaceId);
+		ListSpaceEventsResponse firstPage = ReactorUtils.get(client_listAppEvents(spaceId, timestamp, 1));
+		int totalPages = firstPage.getTotalPages()==null ? 1 : firstPage.getTotalPages();
+		if (totalPages > MAX_EVENT_PAGES) {
+			debug("getChangedAppIds: too many events ("+firstPage.getTotalResults()+")");
+			return null;
+		}
+		List<EventResource> events = new ArrayList<>(firstPage.getResources());
+		for (int page = 2; page <= totalPages; page++) {
+			events.addAll(ReactorUtils.get(client_listAppEvents(spaceId, timestamp, page)).getResources());
+		}
+		ImmutableSet.Builder<String> seen = ImmutableSet.builder();
+		ImmutableSet.Builder<UUID> changed = ImmutableSet.builder();
+		for (EventResource event : events) {
+			String eventId = event.getMetadata().getId();
+			seen.add(eventId);
+			EventEntity entity = event.getEntity();
+			if (!seenEventIds.contains(eventId) && "app".equals(entity.getActeeType())) {
+				changed.add(UUID.fromString(entity.getActee()));
+			}
+		}
+		seenEventIds = seen.build();
+		return changed.build();
+	}
+
+	private Mono<ListSpaceEventsResponse> client_listAppEvents(String spaceId, String timestamp, int page) {
+		return log("client.spaces.listEvents(timestamp>="+timestamp+", page="+page+")",
+				_client.spaces().listEvents(ListSpaceEventsRequest.builder()
+					.spaceId(spaceId)
+					.timestamp(timestamp)
+					.types(APP_EVENT_TYPES)
+					.resultsPerPage(EVENTS_PER_PAGE)
+					.page(page)
+					.build()
+				)
+		);
+	}
+
 	private ApplicationExtras getApplicationExtras(String appName) {
 		//Stuff used in computing the 'extras'...
 		Mono<UUID> appIdMono = getApplicationId(appName);
@@ -347,17 +555,48 @@ public class DefaultClientRequestsV2 implements ClientRequests {
 	 * as many apps as possible but it does not guarantee that it will return details for each app in the
 	 * list. This is to avoid one 'bad apple' from spoiling the whole batch. (I.e if failing to fetch details for
 	 * some apps we can still return details for the others rather than throw an exception).
+	 * <p>
+	 * At most {@link #APP_DETAILS_CONCURRENCY} requests are sent at the same time. Requests are
+	 * started in the order of the list, so callers should put the apps they want to see first
+	 * at the front of the list. Details are produced as soon as each request completes.
 	 */
 	@Override
 	public Flux<CFApplicationDetail> getApplicationDetails(List<CFApplication> appsToLookUp) throws Exception {
 		return Flux.fromIterable(appsToLookUp)
 		.flatMap((CFApplication appSummary) -> {
-			return getApplicationDetail(appSummary.getName())
+			return timed("getApplicationDetail(name="+appSummary.getName()+")", getApplicationDetail(appSummary.getName()))
 			.onErrorResume((error) -> {
 				Log.log(ExceptionUtil.coreException("getting application details for '"+appSummary.getName()+"' failed", error));
 				return Mono.empty();
 			})
-			.map((ApplicationDetail appDetails) -> CFWrappingV2.wrap((CFApplicationSummaryData)appSummary, appDetails));
+			.map((ApplicationDetail appDetails) -> CFWrappingV2.wrap((CFApplicationSummaryData)appSummary, appDetails))
+			.doOnNext((detail) -> appsAwaitingDetails.remove(appSummary.getGuid()));
+		}, APP_DETAILS_CONCURRENCY);
+	}
+
+	@Override
+	public int getApplicationDetailsConcurrency() {
+		return APP_DETAILS_CONCURRENCY;
+	}
+
+	/**
+	 * Requests slower than this are reported in the error log.
+	 */
+	private static final Duration SLOW_REQUEST_THRESHOLD = Duration.ofSeconds(10);
+
+	/**
+	 * Measures the time from subscription to completion of a request and reports it.
+	 */
+	private <T> Mono<T> timed(String msg, Mono<T> mono) {
+		return Mono.defer(() -> {
+			long start = System.currentTimeMillis();
+			return mono.doOnTerminate((value, error) -> {
+				long latency = System.currentTimeMillis() - start;
+				debug("--- "+msg+" took "+latency+" ms");
+				if (latency > SLOW_REQUEST_THRESHOLD.toMillis()) {
+					Log.warn("Slow CF request: "+msg+" took "+latency+" ms");
+				}
+			});
 		});
 	}
 
@@ -375,12 +614,9 @@ public class DefaultClientRequestsV2 implements ClientRequests {
 		.retryWhen(retryInterval(Duration.ofMillis(500), Duration.ofMinutes(1)))
 		;
 
-		 Disposable cancellation = ReactorUtils.sort(
-				stream,
-				(m1, m2) -> Long.compare(m1.getTimestamp(), m2.getTimestamp()),
-				Duration.ofSeconds(1)
-		)
-		.subscribe(logConsole::onMessage, logConsole::onError);
+		//Note: messages are passed on as they arrive. Putting them in order is up to the console
+		// (see ApplicationLogConsole), which can do so in a bounded buffer.
+		Disposable cancellation = stream.subscribe(logConsole::onMessage, logConsole::onError);
 
 		return cancellation;
 
@@ -1257,6 +1493,21 @@ public class DefaultClientRequestsV2 implements ClientRequests {
 		);
 	}
 
+	private Mono<String> client_getSpaceId(String spaceName) {
+		return log("client.organizations.listSpaces(name="+spaceName+")",
+			orgId.then((org) ->
+				_client.organizations().listSpaces(ListOrganizationSpacesRequest.builder()
+					.organizationId(org)
+					.name(spaceName)
+					.build()
+				)
+			)
+			.then((response) -> Mono.justOrEmpty(response.getResources().stream().findFirst()))
+			.map((space) -> space.getMetadata().getId())
+			.otherwiseIfEmpty(Mono.error(new IOException("Space not found: "+spaceName)))
+		);
+	}
+
 	private Mono<ImmutableList<CFApplication>> operations_listApps() {
 		return log("operations.applications.list()",
 			_operations.applications()
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2016 Pivotal, Inc.
+ * Copyright (c) 2016, 2017 Pivotal, Inc.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -12,17 +12,13 @@ package org.springframework.ide.eclipse.boot.dash.cloudfoundry.client.v2;
 
 import java.io.IOException;
 import java.time.Duration;
-import java.util.Comparator;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.PriorityQueue;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Function;
 
 import org.eclipse.core.runtime.OperationCanceledException;
-import org.reactivestreams.Publisher;
 import org.springframework.ide.eclipse.boot.dash.util.CancelationTokens.CancelationToken;
 
 import reactor.core.publisher.Flux;
@@ -182,78 +178,6 @@ public class ReactorUtils {
 		return stream.map((e) -> Tuples.of(e, System.currentTimeMillis()));
 	}
 
-	/**
-	 * Sorts the elements in a flux in a moving time window. I.e. this assumes element order may be
-	 * scrambled but the scrambling has a certain 'time localilty' to it. So we only need to consider
-	 * sorting of elements that arrive 'close to eachother'.
-	 * <p>
-	 * WARNING: The returned flux is intended for a single subscriber. It only maintains a
-	 * single buffer for sorting stream elements. This buffer is consumed when elements
-	 * are released to any subscriber. Therefore if one subscriber received a element it is gone
-	 * from the buffer and will not be delivered to the other subscribers.
-	 *
-	 * @param stream The stream to be sorted
-	 * @param comparator Compare function to sort with
-	 * @param bufferTime The 'window' of time beyond which we don't need to compare elements.
-	 */
-	public static <T> Flux<T> sort(Flux<T> stream, Comparator<T> comparator, Duration bufferTime) {
-
-		class SorterAccumulator {
-
-			final PriorityQueue<Tuple2<T, Long>> holdingPen = new PriorityQueue<>((Tuple2<T, Long> o1, Tuple2<T, Long> o2) -> {
-				return comparator.compare(o1.getT1(), o2.getT1());
-			});
-
-			final Flux<T> released = Flux.fromIterable(() -> new Iterator<T>() {
-				@Override
-				public boolean hasNext() {
-					Tuple2<T, Long> nxt;
-					synchronized (holdingPen) {
-						nxt = holdingPen.peek();
-					}
-					return nxt!=null && isOldEnough(nxt);
-				}
-
-				private boolean isOldEnough(Tuple2<T, Long> nxt) {
-					long age = System.currentTimeMillis() - nxt.getT2();
-					return age > bufferTime.toMillis();
-				}
-
-				@Override
-				public T next() {
-					synchronized (holdingPen) {
-						return holdingPen.remove().getT1();
-					}
-				}
-			});
-
-			public SorterAccumulator next(Flux<Tuple2<T, Long>> window) {
-				window.subscribe((e) -> {
-					synchronized (holdingPen) {
-						holdingPen.add(e);
-					}
-				});
-				return this;
-			}
-
-			public Flux<T> getReleased() {
-				return released;
-			}
-
-			public Publisher<? extends T> drain() {
-				return Flux.fromIterable(holdingPen)
-				.map(Tuple2::getT1);
-			}
-		}
-
-		SorterAccumulator sorter = new SorterAccumulator();
-		return timestamp(stream)
-		.window(bufferTime)
-		.scan(sorter, SorterAccumulator::next)
-		.concatMap(SorterAccumulator::getReleased)
-		.concatWith(sorter.drain());
-	}
-
 	protected static StringBuffer getStackDumps() {
 		StringBuffer sb = new StringBuffer();
 		Map<Thread, StackTraceElement[]> traces = Thread.getAllStackTraces();
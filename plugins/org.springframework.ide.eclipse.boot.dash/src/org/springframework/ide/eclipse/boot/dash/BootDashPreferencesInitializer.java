@@ -0,0 +1,28 @@
+/*******************************************************************************
+ *  Copyright (c) 2017 Pivotal, Inc.
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  Contributors:
+ *      Pivotal, Inc. - initial API and implementation
+ *******************************************************************************/
+package org.springframework.ide.eclipse.boot.dash;
+
+import org.eclipse.core.runtime.preferences.AbstractPreferenceInitializer;
+import org.eclipse.jface.preference.IPreferenceStore;
+import org.springframework.ide.eclipse.boot.dash.cloudfoundry.console.ApplicationLogConsole;
+
+/**
+ * Initializer of default values for the Boot Dashboard preferences
+ */
+public class BootDashPreferencesInitializer extends AbstractPreferenceInitializer {
+
+	@Override
+	public void initializeDefaultPreferences() {
+		IPreferenceStore store = BootDashActivator.getDefault().getPreferenceStore();
+		store.setDefault(ApplicationLogConsole.PREF_HIGH_WATER_MARK, ApplicationLogConsole.DEFAULT_HIGH_WATER_MARK);
+	}
+
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2015, 2016 Pivotal, Inc.
+ * Copyright (c) 2015, 2017 Pivotal, Inc.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -32,6 +32,14 @@ public class ApplicationRunningStateTracker {
 
 	public static final long WAIT_TIME = 1000;
 
+	/**
+	 * The wait time between checks grows by this factor, up to {@link #MAX_WAIT_TIME}, so that
+	 * apps that take long to start don't cause a steady stream of requests.
+	 */
+	private static final double WAIT_TIME_BACKOFF = 1.5;
+
+	public static final long MAX_WAIT_TIME = 5000;
+
 	private final ClientRequests requests;
 
 	private final String appName;
@@ -79,7 +87,7 @@ public class ApplicationRunningStateTracker {
 		long totalTime = currentTime + timeout;
 		String checkingMessage = "Checking if the application is running";
 
-		int estimatedAttempts = (int) (timeout / (WAIT_TIME + roughEstimateFetchStatsms));
+		int estimatedAttempts = (int) (timeout / (MAX_WAIT_TIME + roughEstimateFetchStatsms));
 
 		monitor.beginTask(checkingMessage, estimatedAttempts);
 
@@ -95,6 +103,7 @@ public class ApplicationRunningStateTracker {
 		// Get the guid, as it is more efficient for lookup
 		//UUID appGuid = app.getGuid();
 
+		long waitTime = WAIT_TIME;
 		while (runState != RunState.RUNNING && runState != RunState.FLAPPING && runState != RunState.CRASHED
 				&& currentTime < totalTime) {
 			int timeLeft = (int) ((totalTime - currentTime) / 1000);
@@ -108,10 +117,11 @@ public class ApplicationRunningStateTracker {
 
 			runState = getRunState(app.getInstanceDetails());
 			try {
-				Thread.sleep(WAIT_TIME);
+				Thread.sleep(waitTime);
 			} catch (InterruptedException e) {
 
 			}
+			waitTime = Math.min(MAX_WAIT_TIME, (long) (waitTime * WAIT_TIME_BACKOFF));
 
 			app = requests.getApplication(app.getName());
 			// App no longer exists
@@ -20,6 +20,7 @@ import java.net.URI;
 import java.net.URISyntaxException;
 import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Comparator;
 import java.util.HashMap;
@@ -90,8 +91,10 @@ import org.springframework.ide.eclipse.boot.dash.model.RunState;
 import org.springframework.ide.eclipse.boot.dash.model.UserInteractions;
 import org.springframework.ide.eclipse.boot.dash.model.runtargettypes.CannotAccessPropertyException;
 import org.springframework.ide.eclipse.boot.dash.model.runtargettypes.RunTargetType;
+import org.springframework.ide.eclipse.boot.dash.util.JobThrottle;
 import org.springframework.ide.eclipse.boot.dash.views.BootDashModelConsoleManager;
 import org.springframework.ide.eclipse.boot.pstore.IPropertyStore;
+import org.springframework.ide.eclipse.boot.pstore.PropertyStoreApi;
 import org.springframework.ide.eclipse.boot.pstore.PropertyStores;
 import org.springframework.ide.eclipse.boot.util.Log;
 import org.springsource.ide.eclipse.commons.core.util.StringUtil;
@@ -121,6 +124,20 @@ public class CloudFoundryBootDashModel extends AbstractBootDashModel implements
 
 	public static final String APP_TO_PROJECT_MAPPING = "projectToAppMapping";
 
+	/**
+	 * Names of the applications found by the last successful refresh. Shown right away when the
+	 * target is automatically connected on startup, until the live data arrives.
+	 */
+	private static final String CACHED_APP_NAMES = "cachedAppNames";
+
+	/**
+	 * Targets that were connected in the previous session are reconnected on startup. These connections are made
+	 * concurrently, but no more than this many at the same time.
+	 */
+	private static final int MAX_STARTUP_CONNECTIONS = Integer.getInteger("sts.bootdash.cf.startup.connections", 4);
+
+	private static final JobThrottle STARTUP_CONNECTIONS = new JobThrottle(MAX_STARTUP_CONNECTIONS);
+
 	private static final Comparator<BootDashElement> ELEMENT_COMPARATOR = new Comparator<BootDashElement>() {
 		@Override
 		public int compare(BootDashElement o1, BootDashElement o2) {
@@ -292,7 +309,8 @@ public class CloudFoundryBootDashModel extends AbstractBootDashModel implements
 			if (getRunTarget().getTargetProperties().get(CloudFoundryTargetProperties.DISCONNECTED) == null
 					&& (getRunTarget().getTargetProperties().isStoreCredentials() || getRunTarget().getTargetProperties().getCredentials() != null)) {
 				// If CF target was connected previously and either password is stored or not stored but non-null then connect automatically
-				getOperationsExecution().runAsynch(new ConnectOperation(this, true));
+				restoreAppNames();
+				getOperationsExecution().runAsynch(new ConnectOperation(this, true), null, STARTUP_CONNECTIONS);
 			}
 		} catch (CannotAccessPropertyException e) {
 			// ignore shouldn't happen. Get password is called only if password not stored
@@ -509,6 +527,44 @@ public class CloudFoundryBootDashModel extends AbstractBootDashModel implements
 	 */
 	public void updateAppNames(Collection<String> names) {
 		applications.setAppNames(names);
+		storeAppNames(names);
+	}
+
+	/**
+	 * Stores the names of the apps, so they can be shown right away on the next startup. Refreshes mostly
+	 * find the same apps, so the store is only written when the names actually changed.
+	 */
+	private void storeAppNames(Collection<String> names) {
+		try {
+			PropertyStoreApi store = new PropertyStoreApi(modelStore);
+			String[] stored = store.get(CACHED_APP_NAMES, null);
+			if (stored!=null && ImmutableSet.copyOf(stored).equals(ImmutableSet.copyOf(names))) {
+				return;
+			}
+			store.put(CACHED_APP_NAMES, names.toArray(new String[names.size()]));
+		} catch (Exception e) {
+			Log.log(e);
+		}
+	}
+
+	private void restoreAppNames() {
+		try {
+			String[] names = new PropertyStoreApi(modelStore).get(CACHED_APP_NAMES, null);
+			if (names!=null) {
+				applications.setAppNames(Arrays.asList(names));
+			}
+		} catch (Exception e) {
+			Log.log(e);
+		}
+	}
+
+	/**
+	 * Removes the applications shown from the cache on startup, if the target couldn't be connected.
+	 */
+	public void discardRestoredAppNames() {
+		if (!isConnected()) {
+			applications.setAppNames(ImmutableSet.<String>of());
+		}
 	}
 
 	public void updateElements(Collection<CFApplicationDetail> apps) throws Exception {
@@ -519,7 +575,7 @@ public class CloudFoundryBootDashModel extends AbstractBootDashModel implements
 			applications.setAppNames(ImmutableSet.<String>of());
 		} else {
 			synchronized (this) {
-				applications.setAppNames(getNames(apps));
+				updateAppNames(getNames(apps));
 				for (CFApplicationDetail appDetails : apps) {
 					CloudAppDashElement app = applications.getApplication(appDetails.getName());
 					app.setDetailedData(appDetails);
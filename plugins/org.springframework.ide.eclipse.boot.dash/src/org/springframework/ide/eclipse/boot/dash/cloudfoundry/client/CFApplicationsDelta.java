@@ -0,0 +1,49 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Pivotal, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Pivotal, Inc. - initial API and implementation
+ *******************************************************************************/
+package org.springframework.ide.eclipse.boot.dash.cloudfoundry.client;
+
+import java.util.List;
+
+import com.google.common.collect.ImmutableList;
+
+/**
+ * Result of {@link ClientRequests#getApplicationsDelta()}: all the apps currently in
+ * a space, plus the subset of those apps that changed since the previous refresh.
+ */
+public class CFApplicationsDelta {
+
+	private final List<CFApplication> applications;
+	private final List<CFApplication> changed;
+
+	public CFApplicationsDelta(List<CFApplication> applications, List<CFApplication> changed) {
+		this.applications = ImmutableList.copyOf(applications);
+		this.changed = ImmutableList.copyOf(changed);
+	}
+
+	/**
+	 * All the apps in the space, with their basic info.
+	 */
+	public List<CFApplication> getApplications() {
+		return applications;
+	}
+
+	/**
+	 * The apps for which details should be (re)fetched.
+	 */
+	public List<CFApplication> getChanged() {
+		return changed;
+	}
+
+	@Override
+	public String toString() {
+		return "CFApplicationsDelta(apps="+applications.size()+", changed="+changed.size()+")";
+	}
+}
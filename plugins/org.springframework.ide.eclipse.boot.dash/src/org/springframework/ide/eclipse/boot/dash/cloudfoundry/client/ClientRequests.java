@@ -48,6 +48,18 @@ public interface ClientRequests extends Disposable {
 	void deleteApplication(String name) throws Exception;
 
 	List<CFApplication> getApplicationsWithBasicInfo() throws Exception;
+
+	/**
+	 * Like {@link #getApplicationsWithBasicInfo()}, but also determines which apps changed since the
+	 * previous call, so that callers only need to fetch details for those apps.
+	 * <p>
+	 * The default implementation treats every app as changed.
+	 */
+	default CFApplicationsDelta getApplicationsDelta() throws Exception {
+		List<CFApplication> apps = getApplicationsWithBasicInfo();
+		return new CFApplicationsDelta(apps, apps);
+	}
+
 	List<CFBuildpack> getBuildpacks() throws Exception;
 	List<CFCloudDomain> getDomains() throws Exception;
 	List<CFServiceInstance> getServices() throws Exception;
@@ -57,6 +69,15 @@ public interface ClientRequests extends Disposable {
 	void stopApplication(String appName) throws Exception;
 	reactor.core.Disposable streamLogs(String appName, IApplicationLogConsole logConsole) throws Exception;
 	Flux<CFApplicationDetail> getApplicationDetails(List<CFApplication> appsToLookUp) throws Exception;
+
+	/**
+	 * @return Maximum number of application details that {@link #getApplicationDetails(List)} requests at the
+	 * same time. The default implementation doesn't limit this.
+	 */
+	default int getApplicationDetailsConcurrency() {
+		return Integer.MAX_VALUE;
+	}
+
 	String getHealthCheck(UUID appGuid) throws Exception;
 	void setHealthCheck(UUID guid, String hcType) throws Exception;
 	boolean applicationExists(String appName) throws Exception;
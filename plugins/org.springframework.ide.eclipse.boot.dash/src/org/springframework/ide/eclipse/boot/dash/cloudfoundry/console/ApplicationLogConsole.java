@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2015, 2016 Pivotal, Inc.
+ * Copyright (c) 2015, 2017 Pivotal, Inc.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -12,9 +12,15 @@ package org.springframework.ide.eclipse.boot.dash.cloudfoundry.console;
 
 import java.io.IOException;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.cloudfoundry.doppler.LogMessage;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
 import org.eclipse.debug.ui.IDebugUIConstants;
 import org.eclipse.jface.resource.JFaceResources;
 import org.eclipse.jface.util.IPropertyChangeListener;
@@ -33,12 +39,80 @@ import reactor.core.Disposable;
 @SuppressWarnings("restriction")
 public class ApplicationLogConsole extends MessageConsole implements IPropertyChangeListener, IApplicationLogConsole {
 
+	/**
+	 * Preference key for the maximum number of log messages waiting to be written to an application console.
+	 */
+	public static final String PREF_HIGH_WATER_MARK = "org.springframework.ide.eclipse.boot.dash.console.highWaterMark";
+
+	/**
+	 * Default maximum number of log messages waiting to be written to the console. When messages
+	 * arrive faster than the console can render them, older messages are dropped beyond this point.
+	 */
+	public static final int DEFAULT_HIGH_WATER_MARK = 10000;
+
+	/**
+	 * How long to hold on to messages so that messages arriving out of order can be sorted.
+	 */
+	private static final long REORDER_DELAY = 1000;
+
+	/**
+	 * Interval between writing batches of buffered messages to the console.
+	 */
+	private static final long FLUSH_INTERVAL = 250;
+
 	private Map<LogType, IOConsoleOutputStream> activeStreams = new HashMap<>();
 
 	private Disposable logStreamingToken;
 
+	private final LogBuffer<LogMessage> buffer = new LogBuffer<>(
+			(m1, m2) -> Long.compare(m1.getTimestamp(), m2.getTimestamp()),
+			REORDER_DELAY,
+			getPreferredHighWaterMark()
+	);
+
+	private final AtomicBoolean flushScheduled = new AtomicBoolean();
+
+	private final Job flushJob = new Job("Write log messages") {
+		@Override
+		protected IStatus run(IProgressMonitor monitor) {
+			flushScheduled.set(false);
+			flush();
+			if (!buffer.isEmpty()) {
+				scheduleFlush();
+			}
+			return Status.OK_STATUS;
+		}
+	};
+
 	public ApplicationLogConsole(String name, String type) {
 		super(name, type, BootDashActivator.getImageDescriptor("icons/cloud_obj.png"), true);
+		flushJob.setSystem(true);
+	}
+
+	/**
+	 * @return The high-water mark configured in the preferences, or the default if none (or an invalid one) is set.
+	 */
+	public static int getPreferredHighWaterMark() {
+		BootDashActivator plugin = BootDashActivator.getDefault();
+		if (plugin != null) {
+			int value = plugin.getPreferenceStore().getInt(PREF_HIGH_WATER_MARK);
+			if (value > 0) {
+				return value;
+			}
+		}
+		return DEFAULT_HIGH_WATER_MARK;
+	}
+
+	/**
+	 * Set the maximum number of log messages that are buffered while waiting to be written
+	 * to this console. This overrides the preference until the preference is changed again.
+	 */
+	public void setHighWaterMark(int highWaterMark) {
+		buffer.setHighWaterMark(highWaterMark);
+	}
+
+	public int getHighWaterMark() {
+		return buffer.getHighWaterMark();
 	}
 
 	public synchronized void setLogStreamingToken(Disposable logStreamingToken) {
@@ -52,14 +126,6 @@ public class ApplicationLogConsole extends MessageConsole implements IPropertyCh
 		return this.logStreamingToken;
 	}
 
-	public synchronized void writeLog(LogMessage log) {
-		if (log == null) {
-			return;
-		}
-		final LogType logType = LogType.getLogType(log);
-		writeApplicationLog(log.getMessage(), logType);
-	}
-
 	/**
 	 *
 	 * @param message
@@ -83,6 +149,41 @@ public class ApplicationLogConsole extends MessageConsole implements IPropertyCh
 		return false;
 	}
 
+	private void scheduleFlush() {
+		if (flushScheduled.compareAndSet(false, true)) {
+			flushJob.schedule(FLUSH_INTERVAL);
+		}
+	}
+
+	/**
+	 * Write buffered messages that are ready to the console. Consecutive messages of the same type
+	 * are written with a single write to their stream.
+	 */
+	private synchronized void flush() {
+		LogBuffer.Batch<LogMessage> batch = buffer.release();
+		if (batch.getDropped() > 0) {
+			writeApplicationLog("[" + batch.getDropped() + " log messages dropped because they arrived faster than they could be shown]", LogType.LOCALSTDERROR);
+		}
+		List<LogMessage> messages = batch.getItems();
+		StringBuilder chunk = new StringBuilder();
+		LogType chunkType = null;
+		for (LogMessage log : messages) {
+			LogType type = LogType.getLogType(log);
+			if (type != chunkType && chunk.length() > 0) {
+				writeApplicationLog(chunk.toString(), chunkType);
+				chunk.setLength(0);
+			}
+			chunkType = type;
+			String message = log.getMessage();
+			if (message != null) {
+				chunk.append(format(message));
+			}
+		}
+		if (chunk.length() > 0) {
+			writeApplicationLog(chunk.toString(), chunkType);
+		}
+	}
+
 	protected static String format(String message) {
 		if (message.contains("\n") || message.contains("\r")) {
 			return message;
@@ -92,6 +193,7 @@ public class ApplicationLogConsole extends MessageConsole implements IPropertyCh
 
 	public synchronized void close() {
 		setLogStreamingToken(null);
+		flushJob.cancel();
 
 		for (IOConsoleOutputStream outputStream : activeStreams.values()) {
 			if (!outputStream.isClosed()) {
@@ -152,7 +254,10 @@ public class ApplicationLogConsole extends MessageConsole implements IPropertyCh
 
 	@Override
 	public void onMessage(LogMessage log) {
-		writeLog(log);
+		if (log != null) {
+			buffer.add(log);
+			scheduleFlush();
+		}
 	}
 
 	@Override
@@ -169,11 +274,16 @@ public class ApplicationLogConsole extends MessageConsole implements IPropertyCh
 	protected void init() {
 		super.init();
 		JFaceResources.getFontRegistry().addListener(this);
+		BootDashActivator.getDefault().getPreferenceStore().addPropertyChangeListener(this);
 	}
 
 	@Override
 	protected void dispose() {
 		JFaceResources.getFontRegistry().removeListener(this);
+		BootDashActivator plugin = BootDashActivator.getDefault();
+		if (plugin != null) {
+			plugin.getPreferenceStore().removePropertyChangeListener(this);
+		}
 		super.dispose();
 	}
 
@@ -185,6 +295,8 @@ public class ApplicationLogConsole extends MessageConsole implements IPropertyCh
 		String property = evt.getProperty();
 		if (property.equals(IDebugUIConstants.PREF_CONSOLE_FONT)) {
 			setFont(JFaceResources.getFont(IDebugUIConstants.PREF_CONSOLE_FONT));
+		} else if (property.equals(PREF_HIGH_WATER_MARK)) {
+			setHighWaterMark(getPreferredHighWaterMark());
 		}
 	}
 
@@ -0,0 +1,153 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Pivotal, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Pivotal, Inc. - initial API and implementation
+ *******************************************************************************/
+package org.springframework.ide.eclipse.boot.dash.cloudfoundry.console;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import org.eclipse.core.runtime.Assert;
+
+import com.google.common.collect.ImmutableList;
+
+/**
+ * Bounded buffer that sits between the log stream of an app and the console it is written to.
+ * <p>
+ * Log messages may arrive slightly out of order. So the buffer holds on to each message for
+ * a short while and releases them sorted, in batches.
+ * <p>
+ * The buffer never holds more than a given number of messages (its 'high-water mark'). When a
+ * message arrives and the buffer is full, the oldest message is dropped. Dropped messages are counted
+ * so that the console can tell the user about them.
+ */
+public class LogBuffer<T> {
+
+	private static class Entry<T> {
+		final T item;
+		final long arrivalTime;
+		Entry(T item, long arrivalTime) {
+			this.item = item;
+			this.arrivalTime = arrivalTime;
+		}
+	}
+
+	/**
+	 * A batch of messages released from the buffer.
+	 */
+	public static class Batch<T> {
+		private final List<T> items;
+		private final long dropped;
+
+		Batch(List<T> items, long dropped) {
+			this.items = items;
+			this.dropped = dropped;
+		}
+
+		public List<T> getItems() {
+			return items;
+		}
+
+		/**
+		 * @return Number of messages that were dropped since the previous batch.
+		 */
+		public long getDropped() {
+			return dropped;
+		}
+	}
+
+	private final Comparator<Entry<T>> order;
+	private final long holdBackMillis;
+	private final ArrayDeque<Entry<T>> entries = new ArrayDeque<>();
+	private int highWaterMark;
+	private long dropped = 0;
+	private long totalDropped = 0;
+
+	/**
+	 * @param order Order in which messages are released.
+	 * @param holdBackMillis How long to hold on to each message, waiting for 'earlier' messages to arrive.
+	 * @param highWaterMark Maximum number of messages in the buffer.
+	 */
+	public LogBuffer(Comparator<T> order, long holdBackMillis, int highWaterMark) {
+		Assert.isLegal(highWaterMark > 0);
+		this.order = (e1, e2) -> order.compare(e1.item, e2.item);
+		this.holdBackMillis = holdBackMillis;
+		this.highWaterMark = highWaterMark;
+	}
+
+	public void add(T item) {
+		add(item, System.currentTimeMillis());
+	}
+
+	public synchronized void add(T item, long now) {
+		makeRoom(1);
+		entries.addLast(new Entry<>(item, now));
+	}
+
+	private void makeRoom(int space) {
+		while (!entries.isEmpty() && entries.size() + space > highWaterMark) {
+			entries.removeFirst();
+			dropped++;
+			totalDropped++;
+		}
+	}
+
+	public Batch<T> release() {
+		return release(System.currentTimeMillis());
+	}
+
+	/**
+	 * Removes the messages that have been held long enough and returns them in sorted order. Releasing stops
+	 * at the first message that is too 'young', so that messages that arrive later can still be sorted in front of it.
+	 */
+	public synchronized Batch<T> release(long now) {
+		List<Entry<T>> sorted = new ArrayList<>(entries);
+		sorted.sort(order);
+		entries.clear();
+		entries.addAll(sorted);
+		ImmutableList.Builder<T> released = ImmutableList.builder();
+		while (!entries.isEmpty() && now - entries.peekFirst().arrivalTime >= holdBackMillis) {
+			released.add(entries.removeFirst().item);
+		}
+		Batch<T> batch = new Batch<>(released.build(), dropped);
+		dropped = 0;
+		return batch;
+	}
+
+	public synchronized boolean isEmpty() {
+		return entries.isEmpty();
+	}
+
+	public synchronized int size() {
+		return entries.size();
+	}
+
+	public synchronized int getHighWaterMark() {
+		return highWaterMark;
+	}
+
+	/**
+	 * Changes the maximum number of messages in the buffer. If the buffer currently holds more messages
+	 * than the new limit, the oldest ones are dropped right away.
+	 */
+	public synchronized void setHighWaterMark(int highWaterMark) {
+		Assert.isLegal(highWaterMark > 0);
+		this.highWaterMark = highWaterMark;
+		makeRoom(0);
+	}
+
+	/**
+	 * @return Total number of messages that were dropped from this buffer since it was created.
+	 */
+	public synchronized long getTotalDropped() {
+		return totalDropped;
+	}
+}
@@ -11,15 +11,25 @@
 package org.springframework.ide.eclipse.boot.dash.cloudfoundry.ops;
 
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.jobs.ISchedulingRule;
+import org.springframework.ide.eclipse.boot.dash.cloudfoundry.CloudAppDashElement;
 import org.springframework.ide.eclipse.boot.dash.cloudfoundry.CloudFoundryBootDashModel;
 import org.springframework.ide.eclipse.boot.dash.cloudfoundry.client.CFApplication;
 import org.springframework.ide.eclipse.boot.dash.cloudfoundry.client.CFApplicationDetail;
+import org.springframework.ide.eclipse.boot.dash.cloudfoundry.client.ClientRequests;
+import org.springframework.ide.eclipse.boot.dash.model.BootDashElement;
+import org.springframework.ide.eclipse.boot.dash.model.BootDashViewModel;
 import org.springframework.ide.eclipse.boot.dash.model.RefreshState;
 import org.springsource.ide.eclipse.commons.livexp.core.LiveVariable;
+import org.springsource.ide.eclipse.commons.livexp.util.Filter;
 
 import reactor.core.publisher.Flux;
 
@@ -44,9 +54,16 @@ public class AppInstancesRefreshOperation extends CloudOperation {
 		this.model.setBaseRefreshState(RefreshState.loading("Fetching App Instances..."));
 		try {
 			if (!appsToLookUp.isEmpty()) {
-				Duration timeToWait = Duration.ofSeconds(30);
-				model.getRunTarget().getClient().getApplicationDetails(appsToLookUp)
-				.doOnNext(this.model::updateApplication)
+				int total = appsToLookUp.size();
+				AtomicInteger fetched = new AtomicInteger();
+				//Requests are throttled, so big spaces take longer. Allow for that.
+				ClientRequests client = model.getRunTarget().getClient();
+				Duration timeToWait = Duration.ofSeconds(30).plusSeconds(total / Math.max(1, client.getApplicationDetailsConcurrency()));
+				client.getApplicationDetails(prioritize(appsToLookUp))
+				.doOnNext((appDetails) -> {
+					this.model.updateApplication(appDetails);
+					this.model.setBaseRefreshState(RefreshState.loading("Fetching App Instances ("+fetched.incrementAndGet()+"/"+total+")..."));
+				})
 				.then()
 				.block(timeToWait);
 			}
@@ -57,6 +74,41 @@ public class AppInstancesRefreshOperation extends CloudOperation {
 		}
 	}
 
+	/**
+	 * Sorts the apps so that details are fetched first for the apps the user is most likely looking at:
+	 * expanded apps, then apps that are visible in an expanded section, then the rest.
+	 */
+	private List<CFApplication> prioritize(List<CFApplication> apps) {
+		BootDashViewModel viewModel = model.getViewModel();
+		if (viewModel==null) {
+			return apps;
+		}
+		Map<String, CloudAppDashElement> elements = new HashMap<>();
+		for (CloudAppDashElement e : model.getApplicationValues()) {
+			elements.put(e.getName(), e);
+		}
+		boolean sectionExpanded = viewModel.isExpanded(model);
+		Filter<BootDashElement> filter = viewModel.getFilter().getValue();
+		List<CFApplication> sorted = new ArrayList<>(apps);
+		//Note: sort is stable so apps with the same priority keep their original order.
+		sorted.sort(Comparator.comparingInt((CFApplication app) -> {
+			CloudAppDashElement e = elements.get(app.getName());
+			if (e==null) {
+				return 3;
+			}
+			boolean visible = filter==null || filter.accept(e);
+			if (visible && viewModel.isExpanded(e)) {
+				return 0;
+			} else if (visible && sectionExpanded) {
+				return 1;
+			} else if (visible) {
+				return 2;
+			}
+			return 3;
+		}));
+		return sorted;
+	}
+
 	public ISchedulingRule getSchedulingRule() {
 		return new RefreshSchedulingRule(model.getRunTarget());
 	}
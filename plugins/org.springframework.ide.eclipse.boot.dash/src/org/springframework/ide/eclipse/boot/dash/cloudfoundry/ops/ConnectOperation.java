@@ -79,6 +79,7 @@ public class ConnectOperation extends CloudOperation {
 
 				} catch (MissingPasswordException|CannotAccessPropertyException|AssertionFailedException e) {
 					model.setBaseRefreshState(RefreshState.READY);
+					model.discardRestoredAppNames();
 					if (ui == null) {
 						Log.log(e);
 					} else {
@@ -108,6 +109,7 @@ public class ConnectOperation extends CloudOperation {
 					}
 				} catch (Exception e) {
 					model.setBaseRefreshState(RefreshState.error(e));
+					model.discardRestoredAppNames();
 					if (ui == null) {
 						throw e;
 					} else {
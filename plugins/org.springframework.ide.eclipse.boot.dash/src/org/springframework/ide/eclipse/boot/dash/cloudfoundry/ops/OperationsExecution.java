@@ -20,6 +20,7 @@ import org.springframework.ide.eclipse.boot.dash.BootDashActivator;
 import org.springframework.ide.eclipse.boot.dash.cloudfoundry.CloudFoundryBootDashModel;
 import org.springframework.ide.eclipse.boot.dash.model.UserInteractions;
 import org.springframework.ide.eclipse.boot.dash.util.CancelationTokens;
+import org.springframework.ide.eclipse.boot.dash.util.JobThrottle;
 import org.springframework.ide.eclipse.boot.util.Log;
 import org.springsource.ide.eclipse.commons.livexp.util.ExceptionUtil;
 
@@ -46,6 +47,14 @@ public class OperationsExecution {
 	}
 
 	public void runAsynch(final Operation<?> op, UserInteractions ui) {
+		runAsynch(op, ui, null);
+	}
+
+	/**
+	 * Runs an operation in a job that is scheduled through a given {@link JobThrottle}, which limits
+	 * how many of its jobs run at the same time.
+	 */
+	public void runAsynch(final Operation<?> op, UserInteractions ui, JobThrottle throttle) {
 		if (op!=null) {
 			Job job = new Job(op.getName()) {
 
@@ -80,7 +89,11 @@ public class OperationsExecution {
 			}
 
 			job.setPriority(Job.INTERACTIVE);
-			job.schedule();
+			if (throttle != null) {
+				throttle.schedule(job);
+			} else {
+				job.schedule();
+			}
 		}
 	}
 }
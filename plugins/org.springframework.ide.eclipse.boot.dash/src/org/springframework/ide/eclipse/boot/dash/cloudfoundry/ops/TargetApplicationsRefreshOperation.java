@@ -18,6 +18,7 @@ import org.eclipse.core.runtime.jobs.ISchedulingRule;
 import org.springframework.ide.eclipse.boot.dash.cloudfoundry.CloudAppDashElement;
 import org.springframework.ide.eclipse.boot.dash.cloudfoundry.CloudFoundryBootDashModel;
 import org.springframework.ide.eclipse.boot.dash.cloudfoundry.client.CFApplication;
+import org.springframework.ide.eclipse.boot.dash.cloudfoundry.client.CFApplicationsDelta;
 import org.springframework.ide.eclipse.boot.dash.model.RefreshState;
 import org.springframework.ide.eclipse.boot.dash.model.UserInteractions;
 
@@ -61,11 +62,14 @@ public final class TargetApplicationsRefreshOperation extends CloudOperation {
 				// the
 				// two refresh operations
 
-				List<CFApplication> apps = model.getRunTarget().getClient().getApplicationsWithBasicInfo();
-				this.model.updateAppNames(getNames(apps));
+				CFApplicationsDelta delta = model.getRunTarget().getClient().getApplicationsDelta();
+				this.model.updateAppNames(getNames(delta.getApplications()));
 
-				// 2. Launch the slower app stats/instances refresh operation.
-				this.model.runAsynch(new AppInstancesRefreshOperation(this.model, apps), ui);
+				// 2. Launch the slower app stats/instances refresh operation, only for the apps
+				// that changed since the last refresh.
+				if (!delta.getChanged().isEmpty()) {
+					this.model.runAsynch(new AppInstancesRefreshOperation(this.model, delta.getChanged()), ui);
+				}
 				model.setBaseRefreshState(RefreshState.READY);
 			} catch (Exception e) {
 				/*
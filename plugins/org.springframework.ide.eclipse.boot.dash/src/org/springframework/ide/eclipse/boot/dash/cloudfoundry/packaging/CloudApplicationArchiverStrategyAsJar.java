@@ -13,14 +13,24 @@ package org.springframework.ide.eclipse.boot.dash.cloudfoundry.packaging;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Properties;
 import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
 
 import org.eclipse.core.resources.IContainer;
 import org.eclipse.core.resources.IProject;
+import org.eclipse.core.runtime.Assert;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IPath;
 import org.eclipse.core.runtime.IProgressMonitor;
@@ -43,6 +53,9 @@ import org.springframework.ide.eclipse.boot.util.Log;
 import org.springsource.ide.eclipse.commons.frameworks.core.maintype.MainTypeFinder;
 import org.springsource.ide.eclipse.commons.frameworks.core.util.FileUtil;
 
+import com.google.common.hash.Hashing;
+import com.google.common.io.Files;
+
 public class CloudApplicationArchiverStrategyAsJar implements CloudApplicationArchiverStrategy {
 
 	private static final String TEMP_FOLDER_NAME = "springidetempFolderForJavaAppJar";
@@ -121,6 +134,134 @@ public class CloudApplicationArchiverStrategyAsJar implements CloudApplicationAr
 
 	private static final File[] NO_FILES = new File[]{};
 
+	/**
+	 * A work folder is kept for the duration of the session for each project. It holds the inputs of
+	 * the repackaging (the jar of the project's own classes and the jars created from folder dependencies)
+	 * and their fingerprints, so that a previous deploy's inputs can be reused by the next one. The
+	 * repackaged jar itself is written to a separate folder for every deploy.
+	 * <p>
+	 * Deploys of the same project may run at the same time (e.g. to two targets), so a work folder
+	 * must only be used while holding its lock.
+	 */
+	private static class WorkFolder {
+		final ReentrantLock lock = new ReentrantLock();
+		private File folder;
+
+		File getFolder() throws IOException {
+			Assert.isLegal(lock.isHeldByCurrentThread());
+			if (folder==null || !folder.isDirectory()) {
+				folder = FileUtil.createTempDirectory(TEMP_FOLDER_NAME);
+			}
+			return folder;
+		}
+	}
+
+	private static final Map<String, WorkFolder> WORK_FOLDERS = new ConcurrentHashMap<>();
+
+	/**
+	 * Fingerprints of the inputs that were used to create the archives in a work folder. Each input
+	 * is identified by a key (e.g. "content:com/foo/Bar.class" or "lib:foo.jar") and its fingerprint
+	 * is a string that changes whenever the input's content changes.
+	 * <p>
+	 * For files in the project's output folders the fingerprint is the sha1 of the file's content. The
+	 * size and timestamp of each file are recorded separately and only serve to avoid recomputing the
+	 * sha1 of files that weren't touched. They are not compared.
+	 */
+	private static class Fingerprints {
+
+		private static final String CONTENT = "content:";
+		private static final String LIB = "lib:";
+		private static final String STAT = "stat:";
+
+		private final TreeMap<String, String> fingerprints = new TreeMap<>();
+		private final Map<String, String> stats = new HashMap<>();
+
+		static Fingerprints load(File file) {
+			Fingerprints it = new Fingerprints();
+			if (file.isFile()) {
+				Properties props = new Properties();
+				try (InputStream in = new FileInputStream(file)) {
+					props.load(in);
+					for (String key : props.stringPropertyNames()) {
+						if (key.startsWith(STAT)) {
+							it.stats.put(key.substring(STAT.length()), props.getProperty(key));
+						} else {
+							it.fingerprints.put(key, props.getProperty(key));
+						}
+					}
+				} catch (Exception e) {
+					//Corrupt or unreadable. Treat as if there were no fingerprints, so everything is rebuilt.
+					Log.log(e);
+					it.fingerprints.clear();
+					it.stats.clear();
+				}
+			}
+			return it;
+		}
+
+		void save(File file) throws IOException {
+			Properties props = new Properties();
+			props.putAll(fingerprints);
+			for (Map.Entry<String, String> stat : stats.entrySet()) {
+				props.put(STAT + stat.getKey(), stat.getValue());
+			}
+			try (OutputStream out = new FileOutputStream(file)) {
+				props.store(out, null);
+			}
+		}
+
+		void put(String key, String fingerprint) {
+			fingerprints.put(key, fingerprint);
+		}
+
+		String get(String key) {
+			return fingerprints.get(key);
+		}
+
+		/**
+		 * Add fingerprints for all the files in a folder. The keys are the relative paths of the files,
+		 * prefixed with a given prefix.
+		 */
+		void addContent(String prefix, File baseFolder, Fingerprints previous) throws IOException {
+			addContent(prefix, baseFolder, null, previous);
+		}
+
+		private void addContent(String prefix, File baseFolder, String relativePath, Fingerprints previous) throws IOException {
+			File file = relativePath==null ? baseFolder : new File(baseFolder, relativePath);
+			if (file.isDirectory()) {
+				for (String name : file.list()) {
+					addContent(prefix, baseFolder, relativePath==null ? name : pathJoin(relativePath, name), previous);
+				}
+			} else if (file.isFile()) {
+				String key = prefix + relativePath;
+				String sizeAndTime = file.length()+":"+file.lastModified();
+				String oldHash = previous.get(key);
+				if (oldHash!=null && sizeAndTime.equals(previous.stats.get(key))) {
+					//Untouched file, so the hash can't have changed.
+					put(key, oldHash);
+				} else {
+					put(key, Files.hash(file, Hashing.sha1()).toString());
+				}
+				stats.put(key, sizeAndTime);
+			}
+		}
+
+		/**
+		 * @return Whether the entries with a given prefix in this and another set of fingerprints are the same.
+		 */
+		boolean sameAs(Fingerprints other, String prefix) {
+			return select(prefix).equals(other.select(prefix));
+		}
+
+		private Map<String, String> select(String prefix) {
+			return fingerprints.subMap(prefix, prefix + Character.MAX_VALUE);
+		}
+	}
+
+	private static String pathJoin(String relativePath, String name) {
+		return relativePath + "/" +name;
+	}
+
 	private static class Archiver implements ICloudApplicationArchiver {
 
 		private IJavaProject jp;
@@ -128,7 +269,6 @@ public class CloudApplicationArchiverStrategyAsJar implements CloudApplicationAr
 		private ILaunchConfiguration conf;
 		private BootLaunchConfigurationDelegate delegate;
 		private JarNameGenerator jarNames;
-		private File _tempFolder;
 
 		Archiver(IJavaProject jp, IType mainType) throws CoreException {
 			this.jp = jp;
@@ -153,23 +293,46 @@ public class CloudApplicationArchiverStrategyAsJar implements CloudApplicationAr
 			return NO_FILES;
 		}
 
+		/**
+		 * Creates the archive incrementally. The inputs created by the previous deploy of the same project
+		 * are reused when they are unchanged, based on the fingerprints recorded for them. Since unchanged
+		 * entries produce identical bytes, the CF client's resource matching (done when pushing) will find them in
+		 * the CF resource cache, so they are not uploaded again.
+		 * <p>
+		 * The returned jar belongs to this deploy only. It is not touched by other deploys of the same project.
+		 */
 		@Override
 		public File getApplicationArchive(IProgressMonitor mon) throws Exception {
 			SplitClasspath classpath = getRuntimeClasspath();
-			File tempFolder = getTempFolder();
-			File baseJar = new File(tempFolder, jp.getElementName()+".original.jar");
-			File repackagedJar = new File(tempFolder, jp.getElementName()+".repackaged.jar");
-
-			createBaseJar(classpath.projectContents, baseJar);
-			repackage(baseJar, classpath.dependencies, repackagedJar);
-			return repackagedJar;
-		}
+			File repackagedJar = new File(FileUtil.createTempDirectory(TEMP_FOLDER_NAME), jp.getElementName()+".jar");
+			WorkFolder workFolder = WORK_FOLDERS.computeIfAbsent(jp.getElementName(), (name) -> new WorkFolder());
+			workFolder.lock.lock();
+			try {
+				File tempFolder = workFolder.getFolder();
+				File baseJar = new File(tempFolder, jp.getElementName()+".original.jar");
+				File fingerprintsFile = new File(tempFolder, jp.getElementName()+".fingerprints");
+
+				Fingerprints previous = Fingerprints.load(fingerprintsFile);
+				//Delete the fingerprints while we are working. So if anything goes wrong, everything gets rebuilt next time.
+				fingerprintsFile.delete();
+				Fingerprints current = new Fingerprints();
+				for (File outputFolder : classpath.projectContents) {
+					current.addContent(Fingerprints.CONTENT, outputFolder, previous);
+				}
+				List<Library> libraries = getLibraries(tempFolder, classpath.dependencies, previous, current);
 
-		private File getTempFolder() throws IOException {
-			if (_tempFolder==null) {
-				_tempFolder = FileUtil.createTempDirectory(TEMP_FOLDER_NAME);
+				if (!baseJar.isFile() || !current.sameAs(previous, Fingerprints.CONTENT)) {
+					createBaseJar(classpath.projectContents, baseJar);
+				} else {
+					debug("Reusing: "+baseJar);
+				}
+				//The libraries and the base jar are read from the work folder, so this must be done while holding the lock.
+				repackage(baseJar, libraries, repackagedJar);
+				current.save(fingerprintsFile);
+			} finally {
+				workFolder.lock.unlock();
 			}
-			return _tempFolder;
+			return repackagedJar;
 		}
 
 		private void createBaseJar(List<File> projectContents, File baseJar) throws FileNotFoundException, IOException {
@@ -205,33 +368,51 @@ public class CloudApplicationArchiverStrategyAsJar implements CloudApplicationAr
 			}
 		}
 
-		private String pathJoin(String relativePath, String name) {
-			return relativePath + "/" +name;
-		}
-
-		private void repackage(File baseJar, List<File> dependencies, File repackagedJar) throws IOException {
+		private void repackage(File baseJar, List<Library> libraries, File repackagedJar) throws IOException {
 			Repackager repackager = new Repackager(baseJar);
 			repackager.setMainClass(mainType.getFullyQualifiedName());
-			repackager.repackage(repackagedJar, asLibraries(dependencies));
+			repackager.repackage(repackagedJar, asLibraries(libraries));
 		}
 
-		private Libraries asLibraries(final List<File> dependencies) {
+		/**
+		 * Determine the libraries to include in the archive, and record their fingerprints. Dependency jars are used
+		 * directly, in place. Dependencies that are folders (i.e. output folders of other workspace projects) are turned
+		 * into jars in the work folder, but only when their contents changed since the jar was created.
+		 */
+		private List<Library> getLibraries(File tempFolder, List<File> dependencies, Fingerprints previous, Fingerprints current) throws IOException {
+			List<Library> libraries = new ArrayList<>(dependencies.size());
+			for (File dep : dependencies) {
+				if (dep.isFile()) {
+					String jarName = jarNames.createName(dep);
+					current.put(Fingerprints.LIB + jarName, dep.getAbsolutePath()+":"+dep.length()+":"+dep.lastModified());
+					libraries.add(new Library(jarName, dep, LibraryScope.COMPILE, false));
+				} else if (dep.isDirectory()) {
+					String jarName = jarNames.createName(dep);
+					File jarFile = new File(tempFolder, jarName);
+					String key = Fingerprints.LIB + jarName;
+					current.put(key, dep.getAbsolutePath());
+					current.addContent(key + ":", dep, previous);
+					if (!jarFile.isFile() || !current.sameAs(previous, key)) {
+						JarWriter jarWriter = new JarWriter(jarFile);
+						try {
+							writeFolder(jarWriter, dep);
+						} finally {
+							jarWriter.close();
+						}
+					} else {
+						debug("Reusing: "+jarFile);
+					}
+					libraries.add(new Library(jarName, jarFile, LibraryScope.COMPILE, false));
+				}
+			}
+			return libraries;
+		}
+
+		private Libraries asLibraries(final List<Library> libraries) {
 			return new Libraries() {
 				public void doWithLibraries(LibraryCallback callback) throws IOException {
-					for (File dep : dependencies) {
-						if (dep.isFile()) {
-							callback.library(new Library(jarNames.createName(dep), dep, LibraryScope.COMPILE, false));
-						} else if (dep.isDirectory()) {
-							String jarName = jarNames.createName(dep);
-							File jarFile = new File(getTempFolder(), jarName);
-							JarWriter jarWriter = new JarWriter(jarFile);
-							try {
-								writeFolder(jarWriter, dep);
-							} finally {
-								jarWriter.close();
-							}
-							callback.library(new Library(jarName, jarFile, LibraryScope.COMPILE, false));
-						}
+					for (Library library : libraries) {
+						callback.library(library);
 					}
 				}
 			};
@@ -11,57 +11,122 @@
 package org.springframework.ide.eclipse.boot.dash.livexp;
 
 import java.time.Duration;
+import java.util.Objects;
 
 import javax.inject.Provider;
 
-import org.eclipse.core.runtime.IProgressMonitor;
-import org.eclipse.core.runtime.IStatus;
-import org.eclipse.core.runtime.Status;
-import org.eclipse.core.runtime.jobs.Job;
 import org.springsource.ide.eclipse.commons.livexp.core.LiveExpression;
 
 /**
- * LiveExpression that continually refreshes itself at regular intervals with a background job.
+ * LiveExpression that continually refreshes itself at regular intervals. The refreshes of all
+ * polling expressions are run by a shared {@link RefreshScheduler}.
  * <p>
  * The expression, when created, starts out in a 'sleeping' state. It will not start refreshing/computing
  * its value until methods like 'refreshOnce', 'refreshFor' or 'refreshForever' are called.
+ * <p>
+ * When refreshing doesn't change the value, the time between refreshes gradually grows (up to
+ * {@link #MAX_BACKOFF} times the configured interval). As soon as a change is detected the
+ * configured interval is used again.
+ * <p>
+ * Periodic refreshes can be paused by setting an 'active' condition (see {@link #activeWhen(Provider)}).
+ * Explicitly requested refreshes (i.e. the first refresh after calling one of the 'refreshXXX' methods)
+ * are always done.
  *
  * @author Kris De Volder
  */
 public abstract class PollingLiveExp<T> extends LiveExpression<T> {
 
 	private static final Provider<Boolean> STOP_REFRESHING = () -> false;
+	private static final Provider<Boolean> ALWAYS_ACTIVE = () -> true;
 
-	private Job refreshJob = createRefreshJob();
+	/**
+	 * Maximum factor by which the time between refreshes grows when the value doesn't change.
+	 */
+	public static final int MAX_BACKOFF = 8;
+
+	private volatile RefreshScheduler scheduler = RefreshScheduler.getDefault();
 
 	/**
 	 * Time in ms to 'sleep' between refreshes.
 	 */
 	private long sleepBetweenRefreshes = 500;
 
+	/**
+	 * Current time in ms between refreshes, taking into account backing off.
+	 */
+	private volatile long currentSleep = sleepBetweenRefreshes;
+
 	private Provider<Boolean> continueRefreshing = STOP_REFRESHING;
 
+	private Provider<Boolean> active = ALWAYS_ACTIVE;
+
+	/**
+	 * Set when a refresh was explicitly requested. Such a refresh is done even when not 'active'.
+	 */
+	private volatile boolean refreshRequested = false;
+
+	private long refreshCount = 0;
+	private long refreshNanos = 0;
+	private long lastRefreshNanos = 0;
+
 	/**
 	 * Override the default 'sleepBetweenRefreshes' value.
 	 */
 	public PollingLiveExp<T> sleepBetweenRefreshes(Duration duration) {
 		this.sleepBetweenRefreshes = duration.toMillis();
+		this.currentSleep = sleepBetweenRefreshes;
 		return this;
 	}
 
-	private Job createRefreshJob() {
-		Job job = new Job("Refresh PollingLiveExp") {
-			@Override
-			protected IStatus run(IProgressMonitor monitor) {
-				refresh();
-				if (continueRefreshing.get()) {
-					this.schedule(sleepBetweenRefreshes);
-				}
-				return Status.OK_STATUS;
+	/**
+	 * Only refresh periodically while a given condition holds (e.g. while the element whose data is
+	 * being polled is visible to the user). While not active, the condition is re-checked every
+	 * 'sleepBetweenRefreshes'.
+	 */
+	public PollingLiveExp<T> activeWhen(Provider<Boolean> active) {
+		this.active = active==null ? ALWAYS_ACTIVE : active;
+		return this;
+	}
+
+	/**
+	 * Called by the {@link RefreshScheduler} when this expression is due.
+	 *
+	 * @return Delay in ms until the next refresh, or -1 if no more refreshes are needed.
+	 */
+	long tick() {
+		RefreshScheduler s = scheduler;
+		if (s==null) {
+			return -1; //disposed
+		}
+		boolean requested = refreshRequested;
+		refreshRequested = false;
+		if (!requested && !active.get()) {
+			//Paused.
+			if (!continueRefreshing.get()) {
+				return -1;
 			}
-		};
-		job.setSystem(true);
-		return job;
+			currentSleep = sleepBetweenRefreshes;
+			return sleepBetweenRefreshes;
+		}
+		T oldValue = getValue();
+		long start = System.nanoTime();
+		refresh();
+		recordRefresh(System.nanoTime() - start);
+		if (!continueRefreshing.get()) {
+			return -1;
+		}
+		if (Objects.equals(oldValue, getValue())) {
+			currentSleep = Math.min(currentSleep * 2, sleepBetweenRefreshes * MAX_BACKOFF);
+		} else {
+			currentSleep = sleepBetweenRefreshes;
+		}
+		return currentSleep;
+	}
+
+	private synchronized void recordRefresh(long nanos) {
+		refreshCount++;
+		refreshNanos += nanos;
+		lastRefreshNanos = nanos;
 	}
 
 	@Override
@@ -73,56 +138,87 @@ public abstract class PollingLiveExp<T> extends LiveExpression<T> {
 
 	@Override
 	public void dispose() {
-		refreshJob = null;
+		RefreshScheduler s = scheduler;
+		scheduler = null;
+		if (s!=null) {
+			s.unschedule(this);
+		}
 		continueRefreshing = STOP_REFRESHING;
 		super.dispose();
 	}
 
+	private void startRefreshing(Provider<Boolean> continueRefreshing) {
+		RefreshScheduler s = scheduler;
+		if (s!=null) {
+			this.continueRefreshing = continueRefreshing;
+			this.currentSleep = sleepBetweenRefreshes;
+			this.refreshRequested = true;
+			s.schedule(this, 0);
+		}
+	}
+
 	/**
 	 * Start refreshing now, and continue until given duration expires.
 	 */
 	public void refreshFor(Duration duration) {
-		Job job = refreshJob;
-		if (job!=null) {
-			long stopRefrestingAfter = System.currentTimeMillis() + duration.toMillis();
-			this.continueRefreshing = () -> System.currentTimeMillis() <= stopRefrestingAfter;
-			job.schedule();
-		}
+		long stopRefrestingAfter = System.currentTimeMillis() + duration.toMillis();
+		startRefreshing(() -> System.currentTimeMillis() <= stopRefrestingAfter);
 	}
 
 	/**
 	 * Start refreshing now, and continue forever (or until this expression is disposed).
 	 */
 	public PollingLiveExp<T> refreshForever() {
-		Job job = refreshJob;
-		if (job!=null) {
-			continueRefreshing = () -> true;
-			job.schedule();
-		}
+		startRefreshing(() -> true);
 		return this;
 	}
 
 	public PollingLiveExp<T> refreshOnce() {
-		Job job = refreshJob;
-		if (job!=null) {
-			continueRefreshing = new Provider<Boolean>() {
-
-				boolean firstTime = true;
-
-				@Override
-				public Boolean get() {
-					try {
-						return firstTime;
-					} finally {
-						firstTime = false;
-					}
+		startRefreshing(new Provider<Boolean>() {
+
+			boolean firstTime = true;
+
+			@Override
+			public Boolean get() {
+				try {
+					return firstTime;
+				} finally {
+					firstTime = false;
 				}
-			};
-			job.schedule();
-		}
+			}
+		});
 		return this;
 	}
 
+	/**
+	 * @return Number of times this expression's value was recomputed by polling.
+	 */
+	public synchronized long getRefreshCount() {
+		return refreshCount;
+	}
+
+	/**
+	 * @return Total time spent recomputing this expression's value by polling.
+	 */
+	public synchronized Duration getRefreshTime() {
+		return Duration.ofNanos(refreshNanos);
+	}
+
+	/**
+	 * @return Time it took to recompute the value the last time it was polled.
+	 */
+	public synchronized Duration getLastRefreshTime() {
+		return Duration.ofNanos(lastRefreshNanos);
+	}
+
+	/**
+	 * @return Current time between refreshes, which may be longer than the configured interval when the
+	 * value hasn't been changing.
+	 */
+	public Duration getCurrentRefreshInterval() {
+		return Duration.ofMillis(currentSleep);
+	}
+
 	/**
 	 * Lambda-friendly way of creating a PollingLiveExp instance.
 	 */
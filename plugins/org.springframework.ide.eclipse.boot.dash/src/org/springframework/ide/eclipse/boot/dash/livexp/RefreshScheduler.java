@@ -0,0 +1,242 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Pivotal, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Pivotal, Inc. - initial API and implementation
+ *******************************************************************************/
+package org.springframework.ide.eclipse.boot.dash.livexp;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.ide.eclipse.boot.dash.util.SharedScheduler;
+import org.springframework.ide.eclipse.boot.util.Log;
+
+/**
+ * Central scheduler for the refreshes of all {@link PollingLiveExp}s.
+ * <p>
+ * Each expression tells the scheduler when it next wants to be refreshed. Whenever the scheduler
+ * wakes up, it dispatches every expression that is due, or that will be due within a short
+ * window. So expressions with similar intervals end up sharing a single wake-up.
+ * <p>
+ * The refreshes themselves run on the worker threads of the {@link SharedScheduler}, so a refresh
+ * that blocks (e.g. on an unresponsive JMX or actuator endpoint) doesn't hold up the others. An
+ * expression is not refreshed again while its previous refresh is still running. A refresh that
+ * doesn't complete within {@link #REFRESH_TIMEOUT} is given up on, and tried again after that
+ * same delay.
+ */
+public class RefreshScheduler {
+
+	/**
+	 * Expressions that become due within this many ms of the earliest one are refreshed
+	 * together with it.
+	 */
+	private static final long COALESCE_WINDOW = 100;
+
+	/**
+	 * Time in ms after which a refresh that hasn't completed is given up on.
+	 */
+	public static final long REFRESH_TIMEOUT = 20000;
+
+	/**
+	 * Returned in place of the next delay when a refresh was skipped because the previous one is still running.
+	 */
+	private static final long SKIPPED = -2;
+
+	private static RefreshScheduler instance;
+
+	public static synchronized RefreshScheduler getDefault() {
+		if (instance==null) {
+			instance = new RefreshScheduler();
+		}
+		return instance;
+	}
+
+	/**
+	 * Time at which each scheduled expression is due for a refresh.
+	 */
+	private final Map<PollingLiveExp<?>, Long> due = new HashMap<>();
+
+	/**
+	 * Expressions that were handed to a worker thread and whose refresh hasn't completed
+	 * (or timed out) yet.
+	 */
+	private final Set<PollingLiveExp<?>> dispatched = new HashSet<>();
+
+	/**
+	 * Expressions that became due again while dispatched. They are refreshed again as soon as the
+	 * current refresh completes.
+	 */
+	private final Set<PollingLiveExp<?>> requeued = new HashSet<>();
+
+	/**
+	 * Expressions whose refresh is actually running. Unlike {@link #dispatched} this includes refreshes
+	 * that timed out but are still blocked.
+	 */
+	private final Set<PollingLiveExp<?>> running = ConcurrentHashMap.newKeySet();
+
+	private ScheduledFuture<?> scheduledWakeUp;
+
+	private long wakeUps = 0;
+	private long refreshes = 0;
+	private long refreshNanos = 0;
+	private long timeouts = 0;
+
+	RefreshScheduler() {
+	}
+
+	/**
+	 * Request a refresh of given expression after a given delay. This replaces any
+	 * refresh that was already scheduled for it.
+	 */
+	public synchronized void schedule(PollingLiveExp<?> exp, long delay) {
+		due.put(exp, System.currentTimeMillis() + delay);
+		wakeUp();
+	}
+
+	public synchronized void unschedule(PollingLiveExp<?> exp) {
+		due.remove(exp);
+		requeued.remove(exp);
+	}
+
+	/**
+	 * Reschedule the wake-up for when the earliest expression is due.
+	 */
+	private synchronized void wakeUp() {
+		if (scheduledWakeUp!=null) {
+			scheduledWakeUp.cancel(false);
+			scheduledWakeUp = null;
+		}
+		if (!due.isEmpty()) {
+			long earliest = Long.MAX_VALUE;
+			for (Long time : due.values()) {
+				earliest = Math.min(earliest, time);
+			}
+			scheduledWakeUp = SharedScheduler.schedule(this::runDue, Math.max(0, earliest - System.currentTimeMillis()));
+		}
+	}
+
+	private synchronized void runDue() {
+		wakeUps++;
+		List<PollingLiveExp<?>> toRefresh = new ArrayList<>();
+		long cutoff = System.currentTimeMillis() + COALESCE_WINDOW;
+		for (Entry<PollingLiveExp<?>, Long> e : due.entrySet()) {
+			if (e.getValue() <= cutoff) {
+				toRefresh.add(e.getKey());
+			}
+		}
+		for (PollingLiveExp<?> exp : toRefresh) {
+			due.remove(exp);
+			if (dispatched.contains(exp)) {
+				requeued.add(exp);
+			} else {
+				dispatch(exp);
+			}
+		}
+		wakeUp();
+	}
+
+	private void dispatch(PollingLiveExp<?> exp) {
+		dispatched.add(exp);
+		AtomicLong start = new AtomicLong();
+		SharedScheduler.submit(() -> tick(exp, start), REFRESH_TIMEOUT)
+		.whenComplete((nextDelay, error) -> refreshed(exp, System.nanoTime() - start.get(), nextDelay, error));
+	}
+
+	/**
+	 * @param start Receives the time the refresh actually started, so time spent waiting for a worker
+	 * thread is not counted in {@link #getRefreshTime()}.
+	 */
+	private long tick(PollingLiveExp<?> exp, AtomicLong start) {
+		start.set(System.nanoTime());
+		if (!running.add(exp)) {
+			//Previous refresh timed out, but is still blocked.
+			return SKIPPED;
+		}
+		try {
+			return exp.tick();
+		} finally {
+			running.remove(exp);
+		}
+	}
+
+	private synchronized void refreshed(PollingLiveExp<?> exp, long nanos, Long nextDelay, Throwable error) {
+		dispatched.remove(exp);
+		long delay;
+		if (error instanceof TimeoutException || (error==null && nextDelay==SKIPPED)) {
+			if (error!=null) {
+				timeouts++;
+			}
+			delay = REFRESH_TIMEOUT;
+		} else if (error!=null) {
+			Log.log(error);
+			delay = -1;
+		} else {
+			refreshNanos += nanos;
+			refreshes++;
+			delay = nextDelay;
+		}
+		if (requeued.remove(exp)) {
+			delay = 0;
+		}
+		if (delay>=0 && !due.containsKey(exp)) {
+			due.put(exp, System.currentTimeMillis() + delay);
+		}
+		wakeUp();
+	}
+
+	/**
+	 * @return Number of expressions currently waiting for a refresh.
+	 */
+	public synchronized int getScheduledCount() {
+		return due.size();
+	}
+
+	/**
+	 * @return How many times the scheduler woke up to refresh expressions. Compare with {@link #getRefreshCount()}
+	 * to see how much refreshes are coalesced.
+	 */
+	public synchronized long getWakeUpCount() {
+		return wakeUps;
+	}
+
+	/**
+	 * @return Total number of times an expression was handled by the scheduler.
+	 */
+	public synchronized long getRefreshCount() {
+		return refreshes;
+	}
+
+	/**
+	 * @return Number of refreshes that were given up on because they took longer than {@link #REFRESH_TIMEOUT}.
+	 */
+	public synchronized long getTimeoutCount() {
+		return timeouts;
+	}
+
+	/**
+	 * @return Total time spent refreshing expressions.
+	 */
+	public synchronized Duration getRefreshTime() {
+		return Duration.ofNanos(refreshNanos);
+	}
+
+	@Override
+	public synchronized String toString() {
+		return "RefreshScheduler(scheduled="+due.size()+", wakeUps="+wakeUps+", refreshes="+refreshes+", timeouts="+timeouts+", time="+getRefreshTime().toMillis()+"ms)";
+	}
+}
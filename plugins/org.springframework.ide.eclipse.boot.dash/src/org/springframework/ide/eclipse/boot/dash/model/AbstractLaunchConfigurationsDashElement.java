@@ -521,6 +521,7 @@ public abstract class AbstractLaunchConfigurationsDashElement<T> extends Wrappin
 			if (liveRequestMappings==null) {
 				ActuatorClient client = getActuatorClient();
 				liveRequestMappings = PollingLiveExp.create(client::getRequestMappings);
+				liveRequestMappings.activeWhen(this::isShownInView);
 				addElementState(liveRequestMappings);
 				addDisposableChild(liveRequestMappings);
 				runState.addListener((e, runstate) -> {
@@ -540,6 +541,7 @@ public abstract class AbstractLaunchConfigurationsDashElement<T> extends Wrappin
 			if (liveBeans == null) {
 				ActuatorClient client = getActuatorClient();
 				liveBeans = PollingLiveExp.create(client::getBeans);
+				liveBeans.activeWhen(this::isShownInView);
 				addElementState(liveBeans);
 				addDisposableChild(liveBeans);
 				runState.addListener((e, runstate) -> {
@@ -556,6 +558,15 @@ public abstract class AbstractLaunchConfigurationsDashElement<T> extends Wrappin
 		}
 	}
 
+	/**
+	 * Live data only needs refreshing periodically while the element may be visible in the
+	 * boot dash.
+	 */
+	private boolean isShownInView() {
+		BootDashViewModel viewModel = getBootDashModel().getViewModel();
+		return viewModel==null || viewModel.isShown(this);
+	}
+
 	private int getJmxPort() {
 		for (ILaunchConfiguration c : getLaunchConfigs()) {
 			for (ILaunch l : LaunchUtils.getLaunches(c)) {
@@ -608,6 +619,9 @@ public abstract class AbstractLaunchConfigurationsDashElement<T> extends Wrappin
 							} catch (Exception e) {
 								debug(ExceptionUtil.getMessage(e));
 								//most likely this just means the app isn't running so ignore
+								if (cm!=null) {
+									cm.disposeClient(e);
+								}
 							} finally {
 								if (cm!=null) {
 									cm.disposeClient();
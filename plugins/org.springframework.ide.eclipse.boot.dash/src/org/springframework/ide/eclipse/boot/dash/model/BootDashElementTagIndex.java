@@ -0,0 +1,153 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Pivotal, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Pivotal, Inc. - initial API and implementation
+ *******************************************************************************/
+package org.springframework.ide.eclipse.boot.dash.model;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.runtime.IAdaptable;
+import org.eclipse.jface.util.IPropertyChangeListener;
+import org.eclipse.ui.IWorkingSet;
+import org.eclipse.ui.IWorkingSetManager;
+import org.eclipse.ui.PlatformUI;
+import org.springframework.ide.eclipse.boot.dash.model.BootDashModel.ElementStateListener;
+
+import com.google.common.collect.ImmutableSet;
+
+/**
+ * Keeps the search tokens (i.e. the name, tags and working set names) of boot dash elements, so
+ * that search filters don't have to recompute them for every element on every keystroke.
+ * <p>
+ * Entries are discarded when an element's state changes, and all entries are discarded
+ * when working sets change.
+ */
+public class BootDashElementTagIndex implements ElementStateListener {
+
+	private final Map<BootDashElement, ImmutableSet<String>> tokens;
+
+	private Map<IProject, Set<String>> workingSets;
+	private IPropertyChangeListener workingSetListener;
+
+	/**
+	 * Creates an index that caches tokens per element. It must be registered as an {@link ElementStateListener} with
+	 * the models containing the elements to keep it up-to-date.
+	 */
+	public BootDashElementTagIndex() {
+		this(true);
+	}
+
+	private BootDashElementTagIndex(boolean caching) {
+		this.tokens = caching ? Collections.synchronizedMap(new WeakHashMap<>()) : null;
+	}
+
+	/**
+	 * Creates an 'index' that doesn't cache anything except for the working sets, which
+	 * are computed once. Suitable for use by a single filter that isn't kept around for a long time.
+	 */
+	public static BootDashElementTagIndex uncached() {
+		return new BootDashElementTagIndex(false);
+	}
+
+	@Override
+	public void stateChanged(BootDashElement e) {
+		if (tokens!=null) {
+			tokens.remove(e);
+		}
+	}
+
+	/**
+	 * @return The name, tags and working set names of a given element.
+	 */
+	public ImmutableSet<String> getTokens(BootDashElement element) {
+		if (tokens==null) {
+			return computeTokens(element);
+		}
+		ImmutableSet<String> found = tokens.get(element);
+		if (found==null) {
+			found = computeTokens(element);
+			tokens.put(element, found);
+		}
+		return found;
+	}
+
+	private ImmutableSet<String> computeTokens(BootDashElement element) {
+		ImmutableSet.Builder<String> builder = ImmutableSet.builder();
+		Set<String> tags = element.getTags();
+		if (tags!=null) {
+			builder.addAll(tags);
+		}
+		// Add implicit tag for element name
+		builder.add(element.getName());
+		// Add implicit tags for Working Sets
+		IProject project = element.getProject();
+		if (project != null) {
+			Set<String> workingSetNames = getWorkingSets().get(project);
+			if (workingSetNames != null) {
+				builder.addAll(workingSetNames);
+			}
+		}
+		return builder.build();
+	}
+
+	private synchronized Map<IProject, Set<String>> getWorkingSets() {
+		if (workingSets == null) {
+			IWorkingSetManager manager = PlatformUI.getWorkbench().getWorkingSetManager();
+			if (tokens!=null && workingSetListener==null) {
+				workingSetListener = (event) -> invalidateAll();
+				manager.addPropertyChangeListener(workingSetListener);
+			}
+			Map<IProject, Set<String>> mapping = new HashMap<>();
+			for (IWorkingSet ws : manager.getAllWorkingSets()) {
+				if (!ws.isAggregateWorkingSet()) {
+					for (IAdaptable a : ws.getElements()) {
+						IProject project = (IProject)a.getAdapter(IProject.class);
+						if (project != null) {
+							Set<String> set = mapping.get(project);
+							if (set == null) {
+								set = new HashSet<>();
+								mapping.put(project, set);
+							}
+							set.add(ws.getName());
+						}
+					}
+				}
+			}
+			workingSets = mapping;
+		}
+		return workingSets;
+	}
+
+	private void invalidateAll() {
+		synchronized (this) {
+			workingSets = null;
+		}
+		if (tokens!=null) {
+			tokens.clear();
+		}
+	}
+
+	public void dispose() {
+		IPropertyChangeListener l;
+		synchronized (this) {
+			l = workingSetListener;
+			workingSetListener = null;
+		}
+		if (l!=null && PlatformUI.isWorkbenchRunning()) {
+			PlatformUI.getWorkbench().getWorkingSetManager().removePropertyChangeListener(l);
+		}
+		invalidateAll();
+	}
+}
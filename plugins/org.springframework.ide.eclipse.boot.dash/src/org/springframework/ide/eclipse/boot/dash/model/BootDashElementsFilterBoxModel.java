@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2015 Pivotal, Inc.
+ * Copyright (c) 2015, 2017 Pivotal, Inc.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -20,11 +20,34 @@ import org.springsource.ide.eclipse.commons.livexp.util.Filters;
  */
 public class BootDashElementsFilterBoxModel extends FilterBoxModel<BootDashElement> {
 
+	//Note: fields are deliberately not initialized in their declaration, because
+	// the super constructor may already call createFilterForInput.
+	private BootDashElementTagIndex index;
+	private BootDashElementSearchFilter lastFilter;
+
+	public BootDashElementsFilterBoxModel() {
+		this(null);
+	}
+
+	/**
+	 * @param index Index providing the search tokens for elements. If null, tokens are
+	 *              recomputed by each filter.
+	 */
+	public BootDashElementsFilterBoxModel(BootDashElementTagIndex index) {
+		this.index = index;
+	}
+
 	@Override
 	protected Filter<BootDashElement> createFilterForInput(String text) {
 		if (StringUtil.hasText(text)) {
-			return new BootDashElementSearchFilter(text);
+			BootDashElementSearchFilter filter = index==null
+					? new BootDashElementSearchFilter(text)
+					: new BootDashElementSearchFilter(text, index);
+			filter.narrowFrom(lastFilter);
+			lastFilter = filter;
+			return filter;
 		} else {
+			lastFilter = null;
 			return Filters.acceptAll();
 		}
 	}
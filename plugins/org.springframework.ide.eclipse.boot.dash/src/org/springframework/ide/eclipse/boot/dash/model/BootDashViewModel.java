@@ -11,10 +11,12 @@
 package org.springframework.ide.eclipse.boot.dash.model;
 
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.WeakHashMap;
 
 import org.springframework.ide.eclipse.boot.dash.cloudfoundry.DevtoolsUtil;
 import org.springframework.ide.eclipse.boot.dash.cloudfoundry.debug.DebugStrategyManager;
@@ -44,6 +46,7 @@ public class BootDashViewModel extends AbstractDisposable {
 	private RunTargetPropertiesManager manager;
 	private ToggleFiltersModel toggleFiltersModel;
 	private BootDashElementsFilterBoxModel filterBox;
+	private BootDashElementTagIndex tagIndex;
 	private LiveExpression<Filter<BootDashElement>> filter;
 	private ProcessTracker devtoolsProcessTracker;
 	private List<RunTargetType> orderedRunTargetTypes;
@@ -52,6 +55,20 @@ public class BootDashViewModel extends AbstractDisposable {
 	private DebugStrategyManager cfDebugStrategies;
 	private BootDashModelContext context;
 
+	/**
+	 * Models and elements that are currently expanded in the boot dash tree. Used to decide what
+	 * data to fetch first when refreshing. Weakly held, so that elements removed from their model
+	 * (which are never collapsed) don't stay around.
+	 */
+	private final Set<Object> expandedElements = Collections.synchronizedSet(Collections.newSetFromMap(new WeakHashMap<>()));
+
+	/**
+	 * Models and elements that were collapsed by the user. Unlike 'not expanded' this means
+	 * they are known to be collapsed, and their children are not visible. Weakly held, like
+	 * {@link #expandedElements}.
+	 */
+	private final Set<Object> collapsedElements = Collections.synchronizedSet(Collections.newSetFromMap(new WeakHashMap<>()));
+
 	/**
 	 * Create an 'empty' BootDashViewModel with no run targets. Targets can be
 	 * added by adding them to the runTarget's LiveSet.
@@ -71,7 +88,9 @@ public class BootDashViewModel extends AbstractDisposable {
 		this.modelComparator = new BootModelComparator(targetComparator);
 
 		this.runTargetTypes = new LinkedHashSet<>(orderedRunTargetTypes);
-		filterBox = new BootDashElementsFilterBoxModel();
+		tagIndex = new BootDashElementTagIndex();
+		models.addElementStateListener(tagIndex);
+		filterBox = new BootDashElementsFilterBoxModel(tagIndex);
 		toggleFiltersModel = new ToggleFiltersModel(context);
 		LiveExpression<Filter<BootDashElement>> baseFilter = filterBox.getFilter();
 		LiveExpression<Filter<BootDashElement>> treeAwarefilter = baseFilter.apply(new Function<Filter<BootDashElement>, Filter<BootDashElement>>() {
@@ -100,6 +119,7 @@ public class BootDashViewModel extends AbstractDisposable {
 		devtoolsProcessTracker.dispose();
 		cfDebugStrategies.dispose();
 		filterBox.dispose();
+		tagIndex.dispose();
 	}
 
 	public void addElementStateListener(ElementStateListener l) {
@@ -147,6 +167,36 @@ public class BootDashViewModel extends AbstractDisposable {
 		return filter;
 	}
 
+	public void setExpanded(Object element, boolean expanded) {
+		if (expanded) {
+			expandedElements.add(element);
+			collapsedElements.remove(element);
+		} else {
+			expandedElements.remove(element);
+			collapsedElements.add(element);
+		}
+	}
+
+	public boolean isExpanded(Object element) {
+		return expandedElements.contains(element);
+	}
+
+	public boolean isCollapsed(Object element) {
+		return collapsedElements.contains(element);
+	}
+
+	/**
+	 * Determines whether an element may be visible to the user. I.e. it is not
+	 * in a collapsed section and it is not filtered out.
+	 */
+	public boolean isShown(BootDashElement element) {
+		if (isCollapsed(element.getBootDashModel())) {
+			return false;
+		}
+		Filter<BootDashElement> f = filter.getValue();
+		return f==null || f.accept(element);
+	}
+
 	public RunTarget getRunTargetById(String targetId) {
 		for (BootDashModel m : getSectionModels().getValue()) {
 			RunTarget target = m.getRunTarget();
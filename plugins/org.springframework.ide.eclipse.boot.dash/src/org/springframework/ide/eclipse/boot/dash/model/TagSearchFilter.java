@@ -14,7 +14,9 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Predicate;
 import java.util.regex.Pattern;
 
@@ -35,6 +37,23 @@ public class  TagSearchFilter<T extends Taggable> implements Filter<T> {
 
 	private String[] searchTags;
 
+	/**
+	 * Compiled patterns, created on first use.
+	 */
+	private List<Predicate<String>> patterns;
+
+	/**
+	 * Results of {@link #accept(Taggable)} so far. Since the result only depends on the element's
+	 * tags, it is remembered by tag set.
+	 */
+	private final Map<Set<String>, Boolean> results = new ConcurrentHashMap<>();
+
+	/**
+	 * A less restrictive filter that was in effect before this one. Anything it rejected,
+	 * this filter rejects as well.
+	 */
+	private TagSearchFilter<T> previous;
+
 	public TagSearchFilter() {
 		this(null, null);
 	}
@@ -64,18 +83,64 @@ public class  TagSearchFilter<T extends Taggable> implements Filter<T> {
 		if (searchTags.length == 0 && searchTerm.isEmpty()) {
 			return true;
 		}
+		Set<String> elementTags = getTags(element);
+		Boolean result = results.get(elementTags);
+		if (result == null) {
+			TagSearchFilter<T> previous = this.previous;
+			if (previous != null && Boolean.FALSE.equals(previous.results.get(elementTags))) {
+				result = false;
+			} else {
+				result = getPatterns().stream().allMatch(
+						(pat) -> elementTags.stream().anyMatch(pat)
+				);
+			}
+			results.put(elementTags, result);
+		}
+		return result;
+	}
 
-		List<Predicate<String>> patterns = new ArrayList<>(searchTags.length);
-		for (String searchTag : searchTags) {
-			patterns.add(toPattern(searchTag));
+	private List<Predicate<String>> getPatterns() {
+		if (patterns == null) {
+			List<Predicate<String>> patterns = new ArrayList<>(searchTags.length + 1);
+			for (String searchTag : searchTags) {
+				patterns.add(toPattern(searchTag));
+			}
+			patterns.add(toPattern("*"+searchTerm+"*"));
+			this.patterns = patterns;
 		}
-		patterns.add(toPattern("*"+searchTerm+"*"));
+		return patterns;
+	}
 
-		Set<String> elementTags = getTags(element);
+	/**
+	 * Determines whether this filter is at least as restrictive as another filter, i.e. whether anything rejected by
+	 * the other filter is certain to be rejected by this filter too. This is typically the case when the user
+	 * types more characters into the search box.
+	 */
+	public boolean narrows(TagSearchFilter<?> other) {
+		if (!Arrays.asList(searchTags).containsAll(Arrays.asList(other.searchTags))) {
+			return false;
+		}
+		if (other.searchTerm.isEmpty() || searchTerm.contains(other.searchTerm)) {
+			return true;
+		}
+		for (String tag : searchTags) {
+			if (tag.contains(other.searchTerm)) {
+				return true;
+			}
+		}
+		return false;
+	}
 
-		return patterns.stream().allMatch(
-				(pat) -> elementTags.stream().anyMatch(pat)
-		);
+	/**
+	 * Let this filter reuse the results of a less restrictive filter that was in effect before it.
+	 * Has no effect unless this filter {@link #narrows(TagSearchFilter)} the other one.
+	 */
+	public void narrowFrom(TagSearchFilter<T> previous) {
+		if (previous != null && previous != this && narrows(previous)) {
+			// Only keep one level of history, so a long typing session doesn't keep every filter in memory.
+			previous.previous = null;
+			this.previous = previous;
+		}
 	}
 
 	private Predicate<String> toPattern(String wildcarded) {
@@ -10,6 +10,7 @@
  *******************************************************************************/
 package org.springframework.ide.eclipse.boot.dash.model.actuator;
 
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 
 import org.apache.commons.lang3.tuple.ImmutablePair;
@@ -23,6 +24,9 @@ import org.springframework.ide.eclipse.beans.ui.live.model.LiveBeansModel;
 import org.springframework.ide.eclipse.beans.ui.live.model.TypeLookup;
 import org.springframework.ide.eclipse.boot.util.Log;
 
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hashing;
+
 /**
  * Abstract implementation of a ActuatorClient. The actuar client connects
  * to an actuator endpoint retrieving some information from a running spring boot app.
@@ -30,6 +34,12 @@ import org.springframework.ide.eclipse.boot.util.Log;
  * This implementation is abstract because there is more than one way that we can
  * connect to an actuator endpoint and retrieve the data from it. The method
  * to retrieve the data is therefore an abstract method.
+ * <p>
+ * The client is meant to be polled repeatedly. It remembers the last data it returned.
+ * When the payload hasn't changed, or parses to the same structure, then the previously
+ * returned object is returned again. This saves parsing, and allows clients to cheaply
+ * detect that nothing has changed. When something did change, a new object is returned
+ * and the views showing it are refreshed as a whole.
  *
  * @author Kris De Volder
  */
@@ -39,6 +49,12 @@ public abstract class ActuatorClient {
 
 	private final TypeLookup typeLookup;
 
+	private HashCode requestMappingsHash;
+	private List<RequestMapping> requestMappings;
+
+	private HashCode beansHash;
+	private LiveBeansModel beans;
+
 	public ActuatorClient(TypeLookup typeLookup) {
 		this.typeLookup = typeLookup;
 	}
@@ -57,41 +73,69 @@ public abstract class ActuatorClient {
 		return parser.parse(obj, typeLookup);
 	}
 
-	public List<RequestMapping> getRequestMappings() {
+	private static HashCode hash(String json, String version) {
+		return Hashing.sha1().newHasher()
+				.putString(String.valueOf(version), StandardCharsets.UTF_8)
+				.putString(json, StandardCharsets.UTF_8)
+				.hash();
+	}
+
+	public synchronized List<RequestMapping> getRequestMappings() {
+		List<RequestMapping> result = null;
+		HashCode hash = null;
 		try {
 			ImmutablePair<String, String> data = getRequestMappingData();
 			if (data != null) {
 				String json = data.left;
 				if (json!=null) {
-					System.out.println(json);
-					return parseRequestMappings(json, data.right);
+					hash = hash(json, data.right);
+					if (hash.equals(requestMappingsHash)) {
+						return requestMappings;
+					}
+					result = parseRequestMappings(json, data.right);
+					if (result!=null && result.equals(requestMappings)) {
+						result = requestMappings;
+					}
 				}
 			}
 		} catch (Exception e) {
 			Log.log(e);
 		}
-		return null;
+		requestMappingsHash = hash;
+		requestMappings = result;
+		return result;
 	}
 
-	public LiveBeansModel getBeans() {
+	public synchronized LiveBeansModel getBeans() {
+		LiveBeansModel result = null;
+		HashCode hash = null;
 		try {
 			ImmutablePair<String, String> data = getBeansData();
 			if (data != null) {
 				String json = data.left;
 				String version = data.right;
 				if (json != null) {
-					if (version != null) {
-						if (BEANS_PARSER_VERSION_1_RANGE.includes(Version.valueOf(version))) {
-							return new LiveBeansJsonParser(typeLookup, json).parse();
-						}
+					hash = hash(json, version);
+					if (hash.equals(beansHash)) {
+						return beans;
+					}
+					if (version != null && BEANS_PARSER_VERSION_1_RANGE.includes(Version.valueOf(version))) {
+						result = new LiveBeansJsonParser(typeLookup, json).parse();
+					} else {
+						result = new LiveBeansJsonParser2(typeLookup, json).parse();
+					}
+					if (result!=null && result.equals(beans)) {
+						//Payload changed, but not in a way that matters.
+						result = beans;
 					}
-					return new LiveBeansJsonParser2(typeLookup, json).parse();
 				}
 			}
 		} catch (Exception e) {
 			Log.log(e);
 		}
-		return null;
+		beansHash = hash;
+		beans = result;
+		return result;
 	}
 
 	protected abstract ImmutablePair<String, String> getRequestMappingData() throws Exception;
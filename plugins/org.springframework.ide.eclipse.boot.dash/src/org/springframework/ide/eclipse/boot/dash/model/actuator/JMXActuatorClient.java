@@ -10,6 +10,8 @@
  *******************************************************************************/
 package org.springframework.ide.eclipse.boot.dash.model.actuator;
 
+import java.io.IOException;
+import java.net.ConnectException;
 import java.util.Set;
 
 import javax.inject.Provider;
@@ -18,6 +20,7 @@ import javax.management.InstanceNotFoundException;
 import org.apache.commons.lang3.tuple.ImmutablePair;
 import org.springframework.ide.eclipse.beans.ui.live.model.TypeLookup;
 import org.springframework.ide.eclipse.boot.launch.util.JMXClient;
+import org.springframework.ide.eclipse.boot.launch.util.JMXConnectionPool;
 import org.springsource.ide.eclipse.commons.livexp.util.ExceptionUtil;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -79,7 +82,7 @@ public class JMXActuatorClient extends ActuatorClient {
 				}
 			}
 		} catch (Exception e) {
-			disposeClient(); //Client may be in broken state, do not reuse.
+			invalidateClient(e);
 			if (!isExpectedException(e)) {
 				throw e;
 			}
@@ -104,7 +107,7 @@ public class JMXActuatorClient extends ActuatorClient {
 				}
 			}
 		} catch (Exception e) {
-			disposeClient(); //Client may be in broken state, do not reuse.
+			invalidateClient(e);
 			if (!isExpectedException(e)) {
 				throw e;
 			}
@@ -129,11 +132,22 @@ public class JMXActuatorClient extends ActuatorClient {
 		if (!currentPort.equals(port) || client==null) {
 			disposeClient();
 			port = currentPort;
-			client = new JMXClient(currentPort);
+			client = JMXClient.pooled(currentPort);
 		}
 		return client;
 	}
 
+	/**
+	 * The client uses a connection shared with others (see {@link JMXConnectionPool}). So rather than
+	 * disposing it on any error, only tell the pool when the connection itself seems broken.
+	 */
+	private synchronized void invalidateClient(Exception _e) {
+		Throwable e = ExceptionUtil.getDeepestCause(_e);
+		if (client!=null && e instanceof IOException && !(e instanceof ConnectException)) {
+			client.invalidate();
+		}
+	}
+
 	private void disposeClient() {
 		JMXClient client = this.client;
 		if (client!=null) {
@@ -10,10 +10,9 @@
  *******************************************************************************/
 package org.springframework.ide.eclipse.boot.dash.util;
 
-import org.eclipse.core.runtime.IProgressMonitor;
-import org.eclipse.core.runtime.IStatus;
-import org.eclipse.core.runtime.Status;
-import org.eclipse.core.runtime.jobs.Job;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.locks.ReentrantLock;
+
 import org.springsource.ide.eclipse.commons.livexp.core.LiveExpression;
 import org.springsource.ide.eclipse.commons.livexp.core.LiveVariable;
 
@@ -24,6 +23,15 @@ import org.springsource.ide.eclipse.commons.livexp.core.LiveVariable;
  * repeatedly with a short delay between polls. This continues until either the
  * monitor object is disposed, or the application enters the 'ready' state.
  * <p>
+ * The delay between polls grows when the application takes a while to become
+ * ready. Subclasses that can be notified about changes of the application's state
+ * can call {@link #checkNow()} when that happens, and use a longer polling interval
+ * as a fallback (see {@link #getPollingInterval(int)}).
+ * <p>
+ * Checks for all monitors are run by the {@link SharedScheduler}. Since a check may block (e.g. while
+ * connecting to the application), it runs on the scheduler's worker threads and is treated as
+ * 'not ready' when it doesn't complete within {@link #CHECK_TIMEOUT}.
+ * <p>
  * When the application reaches ready state then its 'ready' LiveExp will change
  * value from false to true. Clients who wish to respond to this 'event' can
  * attach a listener to the livexp.
@@ -36,30 +44,110 @@ public abstract class AbstractPollingAppReadyStateMonitor implements ReadyStateM
 
 	public static final long POLLING_INTERVAL = 500/*ms*/;
 
-	private Job job;
-	private LiveVariable<Boolean> ready = new LiveVariable<>(false);
+	/**
+	 * Number of checks done at {@link #POLLING_INTERVAL} before backing off.
+	 */
+	private static final int FAST_POLLS = 4;
+
+	/**
+	 * Upper bound for the polling interval when backing off.
+	 */
+	public static final long MAX_BACKOFF_INTERVAL = 2000/*ms*/;
+
+	/**
+	 * Polling interval used when waiting for a notification. Polling is then just a fallback,
+	 * in case a notification got lost.
+	 */
+	public static final long NOTIFICATION_FALLBACK_INTERVAL = 5000/*ms*/;
+
+	/**
+	 * Time after which a check that hasn't completed is treated as 'not ready'.
+	 */
+	public static final long CHECK_TIMEOUT = 10000/*ms*/;
+
+	private ScheduledFuture<?> scheduled;
+	private int polls = 0;
+	private volatile LiveVariable<Boolean> ready = new LiveVariable<>(false);
+	private final ReentrantLock checkLock = new ReentrantLock();
 
 	final public void startPolling() {
-		initPollingJob();
+		schedule(0);
+	}
+
+	/**
+	 * Request an immediate check, for example, because a notification was received that indicates
+	 * the application's state has changed. This also resets the backoff.
+	 */
+	protected final void checkNow() {
+		synchronized (this) {
+			polls = 0;
+		}
+		schedule(0);
+	}
+
+	private synchronized void schedule(long delay) {
+		LiveVariable<Boolean> r = ready;
+		if (r==null || r.getValue()) {
+			//Disposed or ready. No more checks needed.
+			return;
+		}
+		if (scheduled!=null) {
+			scheduled.cancel(false);
+		}
+		scheduled = SharedScheduler.schedule(this::poll, delay);
+	}
+
+	private void poll() {
+		if (ready==null) {
+			return; //disposed. Scheduled check may be lagging behind
+		}
+		SharedScheduler.submit(this::check, CHECK_TIMEOUT).whenComplete(this::checked);
 	}
 
-	private void initPollingJob() {
-		this.job = new Job("Ready state poller") {
-			protected IStatus run(IProgressMonitor monitor) {
-				LiveVariable<Boolean> r = ready;
-				if (r!=null) { //null means disposed. Job may be lagging behind
-					r.setValue(checkReady());
-					if (!r.getValue()) {
-						this.schedule(POLLING_INTERVAL);
-					} else {
-						// don't reschedule
-					}
+	/**
+	 * @return Whether the application is ready, or <code>null</code> if the check was skipped.
+	 */
+	private Boolean check() {
+		//A check that timed out may still be blocked. Don't start another one alongside it.
+		if (!checkLock.tryLock()) {
+			return null;
+		}
+		try {
+			return checkReady();
+		} finally {
+			checkLock.unlock();
+		}
+	}
+
+	private void checked(Boolean isReady, Throwable error) {
+		LiveVariable<Boolean> r = ready;
+		if (r!=null) {
+			if (error!=null) {
+				isReady = false;
+			}
+			if (isReady!=null) {
+				r.setValue(isReady);
+			}
+			if (!Boolean.TRUE.equals(isReady)) {
+				int count;
+				synchronized (this) {
+					count = ++polls;
 				}
-				return Status.OK_STATUS;
+				schedule(getPollingInterval(count));
 			}
-		};
-		job.setSystem(true);
-		job.schedule();
+		}
+	}
+
+	/**
+	 * Determines the delay before the next check, given the number of checks done so far
+	 * (since the start, or since the last call to {@link #checkNow()}).
+	 */
+	protected long getPollingInterval(int polls) {
+		if (polls<=FAST_POLLS) {
+			return POLLING_INTERVAL;
+		}
+		int doublings = Math.min(polls - FAST_POLLS, 8);
+		return Math.min(MAX_BACKOFF_INTERVAL, POLLING_INTERVAL << doublings);
 	}
 
 	final public LiveExpression<Boolean> getReady() {
@@ -67,11 +155,13 @@ public abstract class AbstractPollingAppReadyStateMonitor implements ReadyStateM
 	}
 
 	public void dispose() {
-		if (job!=null) {
-			job.cancel();
-			job = null;
+		synchronized (this) {
+			if (scheduled!=null) {
+				scheduled.cancel(false);
+				scheduled = null;
+			}
+			ready = null;
 		}
-		ready = null;
 	}
 
 	/**
@@ -0,0 +1,71 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Pivotal, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Pivotal, Inc. - initial API and implementation
+ *******************************************************************************/
+package org.springframework.ide.eclipse.boot.dash.util;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+
+import org.eclipse.core.runtime.jobs.IJobChangeEvent;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.core.runtime.jobs.JobChangeAdapter;
+
+/**
+ * Schedules jobs so that no more than a given number of them run at the same time. Jobs
+ * beyond the limit are held back (not blocking any threads) and scheduled as soon as
+ * one of the running jobs is done.
+ */
+public class JobThrottle {
+
+	private final int maxRunning;
+	private final Queue<Job> pending = new ArrayDeque<>();
+	private int running = 0;
+
+	public JobThrottle(int maxRunning) {
+		this.maxRunning = Math.max(1, maxRunning);
+	}
+
+	public synchronized void schedule(Job job) {
+		job.addJobChangeListener(new JobChangeAdapter() {
+			@Override
+			public void done(IJobChangeEvent event) {
+				job.removeJobChangeListener(this);
+				finished();
+			}
+		});
+		if (running < maxRunning) {
+			running++;
+			job.schedule();
+		} else {
+			pending.add(job);
+		}
+	}
+
+	private void finished() {
+		Job next;
+		synchronized (this) {
+			next = pending.poll();
+			if (next == null) {
+				running--;
+			}
+		}
+		if (next != null) {
+			next.schedule();
+		}
+	}
+
+	public synchronized int getPendingCount() {
+		return pending.size();
+	}
+
+	public synchronized int getRunningCount() {
+		return running;
+	}
+}
@@ -0,0 +1,122 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Pivotal, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Pivotal, Inc. - initial API and implementation
+ *******************************************************************************/
+package org.springframework.ide.eclipse.boot.dash.util;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.springframework.ide.eclipse.boot.util.Log;
+
+/**
+ * Small pools of daemon threads, shared by the boot dashboard for running
+ * periodic checks (e.g. the ready state of launched apps, or refreshing
+ * live data) rather than having each of them run its own self-rescheduling job.
+ * <p>
+ * Tasks passed to {@link #schedule(Runnable, long)} run on the timer threads and should
+ * be short-lived. Tasks that may block (e.g. talking to a process over JMX or http)
+ * must be passed to {@link #submit(Callable, long)}, which runs them on a separate,
+ * bounded pool of worker threads and gives up waiting for them after a timeout.
+ */
+public class SharedScheduler {
+
+	private static final int THREADS = 4;
+
+	/**
+	 * Number of worker threads for blocking tasks.
+	 */
+	private static final int WORKERS = 8;
+
+	private static ScheduledThreadPoolExecutor executor;
+	private static ExecutorService workers;
+
+	private static ThreadFactory threadFactory(String name) {
+		AtomicInteger count = new AtomicInteger();
+		return (runnable) -> {
+			Thread t = new Thread(runnable, name+"-"+count.incrementAndGet());
+			t.setDaemon(true);
+			return t;
+		};
+	}
+
+	private static synchronized ScheduledThreadPoolExecutor getExecutor() {
+		if (executor==null) {
+			executor = new ScheduledThreadPoolExecutor(THREADS, threadFactory("Boot Dash Scheduler"));
+			executor.setRemoveOnCancelPolicy(true);
+		}
+		return executor;
+	}
+
+	private static synchronized ExecutorService getWorkers() {
+		if (workers==null) {
+			workers = Executors.newFixedThreadPool(WORKERS, threadFactory("Boot Dash Worker"));
+		}
+		return workers;
+	}
+
+	/**
+	 * Run a task once, after a given delay. Exceptions thrown by the task are logged.
+	 */
+	public static ScheduledFuture<?> schedule(Runnable task, long delayMillis) {
+		return getExecutor().schedule(() -> {
+			try {
+				task.run();
+			} catch (Throwable e) {
+				Log.log(e);
+			}
+		}, delayMillis, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Run a task that may block on the pool of worker threads. If the task doesn't complete
+	 * within the given timeout, the returned future fails with a {@link TimeoutException}
+	 * and the task is interrupted. The timeout starts when a worker thread starts running
+	 * the task, so time spent waiting for a free worker doesn't count against it.
+	 * <p>
+	 * Note that a task blocked on I/O may ignore the interrupt and keep its worker thread busy
+	 * for a while. Callers that run the same task repeatedly should therefore not submit it
+	 * again while a previous run is still in flight.
+	 */
+	public static <T> CompletableFuture<T> submit(Callable<T> task, long timeoutMillis) {
+		CompletableFuture<T> result = new CompletableFuture<>();
+		AtomicReference<Future<?>> work = new AtomicReference<>();
+		FutureTask<Void> runner = new FutureTask<>(() -> {
+			if (result.isDone()) {
+				return;
+			}
+			ScheduledFuture<?> timeout = getExecutor().schedule(() -> {
+				if (result.completeExceptionally(new TimeoutException("Task did not complete within "+timeoutMillis+" ms"))) {
+					work.get().cancel(true);
+				}
+			}, timeoutMillis, TimeUnit.MILLISECONDS);
+			result.whenComplete((value, error) -> timeout.cancel(false));
+			try {
+				result.complete(task.call());
+			} catch (Throwable e) {
+				result.completeExceptionally(e);
+			}
+		}, null);
+		work.set(runner);
+		getWorkers().execute(runner);
+		return result;
+	}
+
+}
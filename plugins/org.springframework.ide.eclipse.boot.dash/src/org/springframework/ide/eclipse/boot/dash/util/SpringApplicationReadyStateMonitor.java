@@ -20,6 +20,10 @@ import org.springframework.ide.eclipse.boot.launch.util.SpringApplicationLifecyc
  * polls. This continues until either the  SpringApplicationReadyStateMonitor is disposed,
  * or the application enters the 'ready' state.
  * <p>
+ * Once a JMX connection is established, the monitor listens for JMX notifications rather than
+ * polling for the lifecycle mbean to appear. Polling the 'Ready' attribute is only needed
+ * once the mbean exists and when it doesn't send attribute change notifications itself.
+ * <p>
  * When the application reaches ready state then its 'ready' LiveExp will change value from
  * false to true. Clients who wish to respond to this 'event' can attach a listener to
  * the livexp.
@@ -30,6 +34,13 @@ public class SpringApplicationReadyStateMonitor extends AbstractPollingAppReadyS
 
 	private SpringApplicationLifeCycleClientManager clientManager;
 
+	/**
+	 * Client to which our notification listeners are currently attached.
+	 */
+	private SpringApplicationLifecycleClient listeningTo;
+	private boolean readyNotifications;
+	private volatile boolean waitingForNotification;
+
 	public SpringApplicationReadyStateMonitor(ILaunch launch) {
 		super();
 		clientManager = new SpringApplicationLifeCycleClientManager(launch);
@@ -46,16 +57,42 @@ public class SpringApplicationReadyStateMonitor extends AbstractPollingAppReadyS
 		try {
 			SpringApplicationLifecycleClient client = clientManager.getLifeCycleClient();
 			if (client!=null) {
+				if (client!=listeningTo || client.listenersLost()) {
+					//New connection, old listeners (if any) went away with the old connection.
+					client.removeListeners();
+					readyNotifications = false;
+					client.addRegistrationListener(this::checkNow);
+					listeningTo = client;
+				}
+				if (!client.isRegistered()) {
+					//Registration listener will tell us when to look again.
+					waitingForNotification = true;
+					return false;
+				}
+				if (!readyNotifications) {
+					readyNotifications = client.addReadyListener(this::checkNow);
+				}
+				waitingForNotification = readyNotifications;
 				return client.isReady();
 			}
 		} catch (Exception e) {
 			//Something went wrong asking client for ready state.
 			// most likely process died.
 			if (clientManager != null) {
-				clientManager.disposeClient();
+				clientManager.disposeClient(e);
 			}
 		}
+		listeningTo = null;
+		waitingForNotification = false;
 		return false;
 	}
 
+	@Override
+	protected long getPollingInterval(int polls) {
+		if (waitingForNotification) {
+			return NOTIFICATION_FALLBACK_INTERVAL;
+		}
+		return super.getPollingInterval(polls);
+	}
+
 }
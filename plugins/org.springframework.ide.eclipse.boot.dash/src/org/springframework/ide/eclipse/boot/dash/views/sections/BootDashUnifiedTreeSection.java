@@ -33,9 +33,12 @@ import org.eclipse.jface.viewers.DoubleClickEvent;
 import org.eclipse.jface.viewers.IDoubleClickListener;
 import org.eclipse.jface.viewers.ISelection;
 import org.eclipse.jface.viewers.ISelectionChangedListener;
+import org.eclipse.jface.viewers.ITreeContentProvider;
+import org.eclipse.jface.viewers.ITreeViewerListener;
 import org.eclipse.jface.viewers.IStructuredSelection;
 import org.eclipse.jface.viewers.SelectionChangedEvent;
 import org.eclipse.jface.viewers.StructuredSelection;
+import org.eclipse.jface.viewers.TreeExpansionEvent;
 import org.eclipse.jface.viewers.TreeViewer;
 import org.eclipse.jface.viewers.Viewer;
 import org.eclipse.jface.viewers.ViewerCell;
@@ -162,8 +165,34 @@ public class BootDashUnifiedTreeSection extends PageSection implements MultiSele
 	}
 
 	final private ValueListener<Filter<BootDashElement>> FILTER_LISTENER = new UIValueListener<Filter<BootDashElement>>() {
+
+		/**
+		 * The filter that was last applied to the tree.
+		 */
+		private Filter<BootDashElement> appliedFilter;
+
 		public void uiGotValue(LiveExpression<Filter<BootDashElement>> exp, Filter<BootDashElement> value) {
-			tv.refresh();
+			if (tv == null || tv.getControl().isDisposed()) {
+				return;
+			}
+			Filter<BootDashElement> oldFilter = appliedFilter;
+			appliedFilter = value;
+			if (oldFilter == null || value == null) {
+				tv.refresh();
+			} else {
+				//Only add / remove the tree items for elements whose visibility actually changed,
+				// rather than rebuilding the whole tree on every keystroke.
+				ITreeContentProvider content = (ITreeContentProvider) tv.getContentProvider();
+				tv.getControl().setRedraw(false);
+				try {
+					for (Object section : content.getElements(tv.getInput())) {
+						applyFilterChange(content, section, oldFilter, value);
+					}
+				} finally {
+					tv.getControl().setRedraw(true);
+				}
+				tv.updateHiddenElementCount();
+			}
 			final Tree t = tv.getTree();
 			t.getDisplay().asyncExec(new Runnable() {
 				public void run() {
@@ -174,6 +203,23 @@ public class BootDashUnifiedTreeSection extends PageSection implements MultiSele
 		}
 	};
 
+	private void applyFilterChange(ITreeContentProvider content, Object parent, Filter<BootDashElement> oldFilter, Filter<BootDashElement> newFilter) {
+		for (Object child : content.getChildren(parent)) {
+			if (child instanceof BootDashElement) {
+				BootDashElement e = (BootDashElement) child;
+				boolean wasShown = oldFilter.accept(e);
+				boolean isShown = newFilter.accept(e);
+				if (wasShown && isShown) {
+					applyFilterChange(content, e, oldFilter, newFilter);
+				} else if (wasShown) {
+					tv.remove(parent, new Object[] { e });
+				} else if (isShown) {
+					tv.add(parent, e);
+				}
+			}
+		}
+	}
+
 	final private ElementStateListener ELEMENT_STATE_LISTENER = new ElementStateListener() {
 		public void stateChanged(final BootDashElement e) {
 			Display.getDefault().asyncExec(new Runnable() {
@@ -263,6 +309,10 @@ public class BootDashUnifiedTreeSection extends PageSection implements MultiSele
 		public void refresh(Object obj) {
 			super.refresh(obj);
 			// Every sub-tree refresh should update the hidden elements label
+			updateHiddenElementCount();
+		}
+
+		public void updateHiddenElementCount() {
 			int totalElements = countChildren(getRoot());
 			int filteredElements = countFilteredChildren(getRoot());
 			hiddenElementCount.setValue(totalElements - filteredElements);
@@ -382,6 +432,18 @@ public class BootDashUnifiedTreeSection extends PageSection implements MultiSele
 
 		model.addElementStateListener(ELEMENT_STATE_LISTENER);
 
+		tv.addTreeListener(new ITreeViewerListener() {
+			@Override
+			public void treeExpanded(TreeExpansionEvent event) {
+				model.setExpanded(event.getElement(), true);
+			}
+
+			@Override
+			public void treeCollapsed(TreeExpansionEvent event) {
+				model.setExpanded(event.getElement(), false);
+			}
+		});
+
 		if (searchFilterModel != null) {
 			searchFilterModel.addListener(FILTER_LISTENER);
 			tv.addFilter(new ViewerFilter() {
@@ -18,6 +18,7 @@ import org.junit.runners.Suite.SuiteClasses;
 @SuiteClasses({
 	BootLaunchUIModelTest.class,
 	ProfileHistoryTest.class,
+	JMXConnectionPoolTest.class,
 	BootLaunchConfigurationDelegateTest.class,
 	BootLaunchShortcutTest.class,
 	BootGroovyScriptLaunchConfigurationDelegateTest.class
@@ -0,0 +1,148 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Pivotal, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Pivotal, Inc. - initial API and implementation
+ *******************************************************************************/
+package org.springframework.ide.eclipse.boot.launch.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.net.ConnectException;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.management.MBeanServerConnection;
+import javax.management.NotificationFilter;
+import javax.management.NotificationListener;
+import javax.management.remote.JMXConnector;
+import javax.security.auth.Subject;
+
+import org.junit.Test;
+import org.springframework.ide.eclipse.boot.launch.util.JMXConnectionPool;
+import org.springframework.ide.eclipse.boot.launch.util.JMXConnectionPool.Lease;
+
+public class JMXConnectionPoolTest {
+
+	/**
+	 * Connects to the platform mbean server of the test process itself.
+	 */
+	private static class LocalConnector implements JMXConnector {
+
+		boolean closed = false;
+
+		@Override
+		public void connect() throws IOException {
+		}
+
+		@Override
+		public void connect(Map<String, ?> env) throws IOException {
+		}
+
+		@Override
+		public MBeanServerConnection getMBeanServerConnection() throws IOException {
+			return ManagementFactory.getPlatformMBeanServer();
+		}
+
+		@Override
+		public MBeanServerConnection getMBeanServerConnection(Subject delegationSubject) throws IOException {
+			return getMBeanServerConnection();
+		}
+
+		@Override
+		public void close() throws IOException {
+			closed = true;
+		}
+
+		@Override
+		public void addConnectionNotificationListener(NotificationListener listener, NotificationFilter filter, Object handback) {
+		}
+
+		@Override
+		public void removeConnectionNotificationListener(NotificationListener listener) {
+		}
+
+		@Override
+		public void removeConnectionNotificationListener(NotificationListener l, NotificationFilter f, Object handback) {
+		}
+
+		@Override
+		public String getConnectionId() throws IOException {
+			return "local";
+		}
+	}
+
+	@Test
+	public void sharedConnection() throws Exception {
+		AtomicInteger connects = new AtomicInteger();
+		LocalConnector connector = new LocalConnector();
+		JMXConnectionPool pool = new JMXConnectionPool(port -> {
+			connects.incrementAndGet();
+			return connector;
+		});
+
+		Lease lease1 = pool.acquire(1234);
+		Lease lease2 = pool.acquire(1234);
+		assertTrue(lease1.getConnection().getMBeanCount() > 0);
+		assertTrue(lease2.getConnection().getMBeanCount() > 0);
+		assertEquals(1, connects.get());
+		assertEquals(1, pool.getOpenConnectionCount());
+		assertEquals(2, pool.getRequestCount());
+
+		lease1.dispose();
+		assertEquals(1, pool.getOpenConnectionCount());
+		assertTrue(!connector.closed);
+
+		lease2.dispose();
+		assertEquals(0, pool.getOpenConnectionCount());
+		assertEquals(0, pool.getLeasedPortCount());
+		assertTrue(connector.closed);
+	}
+
+	@Test
+	public void reconnectAfterInvalidate() throws Exception {
+		AtomicInteger connects = new AtomicInteger();
+		JMXConnectionPool pool = new JMXConnectionPool(port -> {
+			connects.incrementAndGet();
+			return new LocalConnector();
+		});
+		Lease lease = pool.acquire(1234);
+		lease.getConnection();
+		lease.invalidate();
+		assertEquals(0, pool.getOpenConnectionCount());
+
+		lease.getConnection();
+		assertEquals(2, connects.get());
+		lease.dispose();
+	}
+
+	@Test
+	public void backOffAfterFailedConnect() throws Exception {
+		AtomicInteger connects = new AtomicInteger();
+		JMXConnectionPool pool = new JMXConnectionPool(port -> {
+			connects.incrementAndGet();
+			throw new ConnectException("Connection refused");
+		});
+		Lease lease = pool.acquire(1234);
+		for (int i = 0; i < 3; i++) {
+			try {
+				lease.getConnection();
+				fail("Should have failed");
+			} catch (ConnectException e) {
+				//expected
+			}
+		}
+		//Only the first attempt really tried to connect, the others were within the backoff period
+		assertEquals(1, connects.get());
+		assertEquals(1, pool.getFailedConnectCount());
+		lease.dispose();
+	}
+}
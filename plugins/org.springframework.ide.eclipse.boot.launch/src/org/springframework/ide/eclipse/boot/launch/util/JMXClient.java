@@ -12,6 +12,7 @@ package org.springframework.ide.eclipse.boot.launch.util;
 
 import java.io.IOException;
 
+import javax.management.AttributeList;
 import javax.management.AttributeNotFoundException;
 import javax.management.InstanceNotFoundException;
 import javax.management.MBeanException;
@@ -36,31 +37,64 @@ public class JMXClient implements Disposable {
 	private static final Object[] NO_PARAMS = new Object[0];
 	private static final String[] NO_SIGNATURES = new String[0];
 
-	private JMXConnector connector;
-	private MBeanServerConnection connection;
+	private interface ConnectionProvider {
+		MBeanServerConnection get() throws IOException;
+	}
+
+	private final Disposable onDispose;
+	private final ConnectionProvider connection;
+	private JMXConnectionPool.Lease lease;
 
 	public JMXClient(int port) throws IOException {
 		this(createLocalJmxConnector(port));
 	}
 
 	private JMXClient(JMXConnector connector) throws IOException {
-		this(connector, connector.getMBeanServerConnection());
+		this(() -> {
+			try {
+				connector.close();
+			} catch (IOException e) {
+				//Ignore
+			}
+		}, fixedConnection(connector.getMBeanServerConnection()));
 	}
 
-	@Override
-	public void dispose() {
-		try {
-			this.connector.close();
-		} catch (IOException e) {
-			//Ignore
-		}
+	private static ConnectionProvider fixedConnection(MBeanServerConnection connection) {
+		return () -> connection;
 	}
 
-	private JMXClient(JMXConnector connector, MBeanServerConnection connection) {
-		this.connector = connector;
+	private JMXClient(Disposable onDispose, ConnectionProvider connection) {
+		this.onDispose = onDispose;
 		this.connection = connection;
 	}
 
+	/**
+	 * Create a client that uses the shared connection for a given port from the {@link JMXConnectionPool}.
+	 * The connection is established lazily (and re-established when needed) when the client is used.
+	 * Disposing the client releases its lease on the connection.
+	 */
+	public static JMXClient pooled(int port) {
+		JMXConnectionPool.Lease lease = JMXConnectionPool.getDefault().acquire(port);
+		JMXClient client = new JMXClient(lease, lease::getConnection);
+		client.lease = lease;
+		return client;
+	}
+
+	/**
+	 * Tell the client that its connection appears to be broken. A pooled client will
+	 * re-establish the connection on next use.
+	 */
+	public void invalidate() {
+		if (lease!=null) {
+			lease.invalidate();
+		}
+	}
+
+	@Override
+	public void dispose() {
+		onDispose.dispose();
+	}
+
 	@SuppressWarnings("unchecked")
 	public <T> T getAttribute(Class<T> klass, String objectName, String attributeName) throws AttributeNotFoundException, InstanceNotFoundException, MBeanException, ReflectionException, IOException {
 		Object value = getAttribute(objectName, attributeName);
@@ -72,11 +106,21 @@ public class JMXClient implements Disposable {
 	}
 
 	public Object getAttribute(String objectName, String attributeName) throws AttributeNotFoundException, InstanceNotFoundException, MBeanException, ReflectionException, IOException {
-		return this.connection.getAttribute(toObjectName(objectName), attributeName);
+		return this.connection.get().getAttribute(toObjectName(objectName), attributeName);
+	}
+
+	/**
+	 * Read several attributes of the same mbean in a single request.
+	 *
+	 * @return The attributes that could be read. Attributes that couldn't be read are
+	 * left out of the result.
+	 */
+	public AttributeList getAttributes(String objectName, String... attributeNames) throws InstanceNotFoundException, ReflectionException, IOException {
+		return this.connection.get().getAttributes(toObjectName(objectName), attributeNames);
 	}
 
 	public Object callOperation(String objectName, String operationName) throws InstanceNotFoundException, MBeanException, ReflectionException, IOException {
-		return this.connection.invoke(toObjectName(objectName), operationName, NO_PARAMS, NO_SIGNATURES);
+		return this.connection.get().invoke(toObjectName(objectName), operationName, NO_PARAMS, NO_SIGNATURES);
 	}
 
 
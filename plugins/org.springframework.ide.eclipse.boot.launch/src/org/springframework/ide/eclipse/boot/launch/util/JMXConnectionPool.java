@@ -0,0 +1,302 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Pivotal, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Pivotal, Inc. - initial API and implementation
+ *******************************************************************************/
+package org.springframework.ide.eclipse.boot.launch.util;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.net.ConnectException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.management.MBeanServerConnection;
+import javax.management.NotificationListener;
+import javax.management.remote.JMXConnectionNotification;
+import javax.management.remote.JMXConnector;
+
+import org.springsource.ide.eclipse.commons.livexp.ui.Disposable;
+
+/**
+ * Shares JMX connections to local processes, so that the various clients interested in the
+ * same process (ready state monitors, live beans, request mappings, etc.) use a single
+ * connection per JMX port.
+ * <p>
+ * Connections are reference counted. A client calls {@link #acquire(int)} to obtain a
+ * {@link Lease} and must dispose the lease when it no longer needs the connection. The connection
+ * is closed when the last lease for it is disposed.
+ * <p>
+ * A connection that is reported as failed, or that doesn't respond to a health check after
+ * no request on it succeeded for a while, is closed and re-established on next use. Repeated failures to
+ * connect cause the pool to back off before trying again.
+ */
+public class JMXConnectionPool {
+
+	public interface ConnectorFactory {
+		JMXConnector connect(int port) throws IOException;
+	}
+
+	private static final JMXConnectionPool DEFAULT = new JMXConnectionPool(JMXClient::createLocalJmxConnector);
+
+	public static JMXConnectionPool getDefault() {
+		return DEFAULT;
+	}
+
+	/**
+	 * A connection on which no request succeeded for longer than this is checked before being handed out.
+	 */
+	private static final long HEALTH_CHECK_INTERVAL = 10_000;
+
+	private static final long MIN_BACKOFF = 250;
+	private static final long MAX_BACKOFF = 4000;
+
+	private final ConnectorFactory connectorFactory;
+	private final Map<Integer, Entry> entries = new HashMap<>();
+
+	private final AtomicLong connects = new AtomicLong();
+	private final AtomicLong failedConnects = new AtomicLong();
+	private final AtomicLong requests = new AtomicLong();
+
+	public JMXConnectionPool(ConnectorFactory connectorFactory) {
+		this.connectorFactory = connectorFactory;
+	}
+
+	/**
+	 * Pooled connection to a single port.
+	 */
+	private class Entry {
+		final int port;
+		int refCount = 0;
+		JMXConnector connector;
+		MBeanServerConnection connection;
+		/**
+		 * Last time a request on the connection succeeded.
+		 */
+		volatile long lastSucceeded;
+		int failures = 0;
+		long retryAfter = 0;
+
+		Entry(int port) {
+			this.port = port;
+		}
+
+		synchronized MBeanServerConnection getConnection() throws IOException {
+			long now = System.currentTimeMillis();
+			if (connection!=null && now - lastSucceeded > HEALTH_CHECK_INTERVAL && !isHealthy()) {
+				close();
+			}
+			if (connection==null) {
+				if (now < retryAfter) {
+					throw new ConnectException("Connection to JMX port "+port+" failed recently. Retrying in "+(retryAfter-now)+" ms");
+				}
+				connect();
+			}
+			return connection;
+		}
+
+		private void connect() throws IOException {
+			try {
+				connects.incrementAndGet();
+				JMXConnector connector = connectorFactory.connect(port);
+				if (connector==null) {
+					throw new ConnectException("Couldn't connect to JMX port "+port);
+				}
+				this.connector = connector;
+				this.connection = countRequests(connector.getMBeanServerConnection(), this);
+				lastSucceeded = System.currentTimeMillis();
+				NotificationListener listener = (notification, handback) -> {
+					String type = notification.getType();
+					if (JMXConnectionNotification.FAILED.equals(type) || JMXConnectionNotification.CLOSED.equals(type)) {
+						connectionLost(connector);
+					}
+				};
+				connector.addConnectionNotificationListener(listener, null, null);
+				failures = 0;
+				retryAfter = 0;
+			} catch (IOException e) {
+				failedConnects.incrementAndGet();
+				close();
+				failures++;
+				retryAfter = System.currentTimeMillis() + Math.min(MAX_BACKOFF, MIN_BACKOFF << Math.min(failures - 1, 8));
+				throw e;
+			}
+		}
+
+		private boolean isHealthy() {
+			try {
+				connection.getMBeanCount();
+				return true;
+			} catch (Exception e) {
+				return false;
+			}
+		}
+
+		synchronized void connectionLost(JMXConnector lost) {
+			if (connector==lost) {
+				close();
+			}
+		}
+
+		synchronized void close() {
+			JMXConnector connector = this.connector;
+			this.connector = null;
+			this.connection = null;
+			if (connector!=null) {
+				try {
+					connector.close();
+				} catch (IOException e) {
+					//Ignore, process might be dead already
+				}
+			}
+		}
+	}
+
+	/**
+	 * A reference to a pooled connection. Should be disposed when no longer needed.
+	 */
+	public class Lease implements Disposable {
+
+		private Entry entry;
+
+		private Lease(Entry entry) {
+			this.entry = entry;
+		}
+
+		/**
+		 * Get the pooled connection, connecting (or re-connecting) if necessary.
+		 */
+		public MBeanServerConnection getConnection() throws IOException {
+			Entry entry = this.entry;
+			if (entry==null) {
+				throw new IllegalStateException("JMX connection lease was disposed");
+			}
+			return entry.getConnection();
+		}
+
+		/**
+		 * Tell the pool that the connection appears to be broken. It will be re-established on next use.
+		 */
+		public void invalidate() {
+			Entry entry = this.entry;
+			if (entry!=null) {
+				entry.close();
+			}
+		}
+
+		public int getPort() {
+			Entry entry = this.entry;
+			return entry==null ? -1 : entry.port;
+		}
+
+		@Override
+		public void dispose() {
+			Entry entry;
+			synchronized (this) {
+				entry = this.entry;
+				this.entry = null;
+			}
+			if (entry!=null) {
+				release(entry);
+			}
+		}
+	}
+
+	/**
+	 * Obtain a lease on the connection for a given port. Note that the connection itself is created lazily,
+	 * so this doesn't fail when the process isn't (yet) accepting connections.
+	 */
+	public synchronized Lease acquire(int port) {
+		Entry entry = entries.get(port);
+		if (entry==null) {
+			entry = new Entry(port);
+			entries.put(port, entry);
+		}
+		entry.refCount++;
+		return new Lease(entry);
+	}
+
+	private void release(Entry entry) {
+		boolean close = false;
+		synchronized (this) {
+			entry.refCount--;
+			if (entry.refCount<=0 && entries.get(entry.port)==entry) {
+				entries.remove(entry.port);
+				close = true;
+			}
+		}
+		if (close) {
+			entry.close();
+		}
+	}
+
+	private MBeanServerConnection countRequests(MBeanServerConnection connection, Entry entry) {
+		return (MBeanServerConnection) Proxy.newProxyInstance(
+				MBeanServerConnection.class.getClassLoader(),
+				new Class<?>[] { MBeanServerConnection.class },
+				(proxy, method, args) -> {
+					requests.incrementAndGet();
+					try {
+						Object result = method.invoke(connection, args);
+						entry.lastSucceeded = System.currentTimeMillis();
+						return result;
+					} catch (InvocationTargetException e) {
+						throw e.getCause();
+					}
+				}
+		);
+	}
+
+	/**
+	 * @return Number of ports for which a connection is currently leased.
+	 */
+	public synchronized int getLeasedPortCount() {
+		return entries.size();
+	}
+
+	/**
+	 * @return Number of currently open connections.
+	 */
+	public synchronized int getOpenConnectionCount() {
+		int count = 0;
+		for (Entry entry : entries.values()) {
+			synchronized (entry) {
+				if (entry.connection!=null) {
+					count++;
+				}
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * @return Number of attempts to open a connection (successful or not).
+	 */
+	public long getConnectCount() {
+		return connects.get();
+	}
+
+	public long getFailedConnectCount() {
+		return failedConnects.get();
+	}
+
+	/**
+	 * @return Number of requests sent over pooled connections.
+	 */
+	public long getRequestCount() {
+		return requests.get();
+	}
+
+	@Override
+	public String toString() {
+		return "JMXConnectionPool(ports="+getLeasedPortCount()+", open="+getOpenConnectionCount()+", connects="+connects.get()
+				+", failedConnects="+failedConnects.get()+", requests="+requests.get()+")";
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2015 Pivotal, Inc.
+ * Copyright (c) 2015, 2017 Pivotal, Inc.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -18,46 +18,133 @@ import javax.management.remote.JMXConnector;
 import org.eclipse.core.runtime.Assert;
 import org.eclipse.debug.core.ILaunch;
 import org.springframework.ide.eclipse.boot.launch.BootLaunchConfigurationDelegate;
+import org.springframework.ide.eclipse.boot.launch.util.SpringApplicationLifecycleClient.ConnectionProvider;
 
 /**
  * Creates and manages an instance of {@link SpringApplicationLifecycleClient}.
+ * <p>
+ * When created for a JMX port (rather than with an explicit connection provider) the
+ * client uses the shared connection for that port from the {@link JMXConnectionPool}.
  *
  * @author Kris De Volder
  */
 public class SpringApplicationLifeCycleClientManager {
 
-	private Provider<JMXConnector> connectionProvider;
-	private JMXConnector connector;
+	/**
+	 * Source of the JMX connection used by the client.
+	 */
+	private interface ConnectionSource {
+		/**
+		 * Establish the connection.
+		 *
+		 * @return Provider the client obtains the connection from for each request.
+		 */
+		ConnectionProvider connect() throws Exception;
+		void disconnect();
+
+		/**
+		 * Called when a connection could not be established.
+		 */
+		default void connectFailed() {
+			disconnect();
+		}
+
+		/**
+		 * Called when the connection appears to be broken.
+		 */
+		default void invalidate() {
+			disconnect();
+		}
+	}
+
+	private final ConnectionSource connectionSource;
 	private SpringApplicationLifecycleClient client;
 
 	public SpringApplicationLifeCycleClientManager(Provider<JMXConnector> connectionProvider) {
 		Assert.isNotNull(connectionProvider);
-		this.connectionProvider = connectionProvider;
+		this.connectionSource = new ConnectionSource() {
+
+			private JMXConnector connector;
+
+			@Override
+			public ConnectionProvider connect() throws Exception {
+				JMXConnector connector = this.connector = connectionProvider.get();
+				connector.getMBeanServerConnection();
+				return connector::getMBeanServerConnection;
+			}
+
+			@Override
+			public void disconnect() {
+				try {
+					if (connector!=null) {
+						connector.close();
+					}
+				} catch (Exception e) {
+					//ignore
+				}
+				connector = null;
+			}
+		};
 	}
 
 	/**
 	 * Convenenience method, use ILaunch as the jmxPort provider.
 	 */
 	public SpringApplicationLifeCycleClientManager(ILaunch l) {
-		this(() -> createJMXConnection(BootLaunchConfigurationDelegate.getJMXPortAsInt(l)));
-	}
-
-	private static JMXConnector createJMXConnection(int port) {
-		if (port <=0) {
-			throw new IllegalStateException("JMX port not specified");
-		}
-		try {
-			return JMXClient.createLocalJmxConnector(port);
-		} catch (IOException e) {
-			return null;
-		}
+		this.connectionSource = new PooledConnectionSource(() -> BootLaunchConfigurationDelegate.getJMXPortAsInt(l));
 	}
 
 	/**
 	 * Convenenience method, use a given fixed port.
 	 */
 	public SpringApplicationLifeCycleClientManager(int resolvedPort) {
-		this(() -> createJMXConnection(resolvedPort));
+		this.connectionSource = new PooledConnectionSource(() -> resolvedPort);
+	}
+
+	private static class PooledConnectionSource implements ConnectionSource {
+
+		private final Provider<Integer> port;
+		private JMXConnectionPool.Lease lease;
+
+		PooledConnectionSource(Provider<Integer> port) {
+			this.port = port;
+		}
+
+		@Override
+		public ConnectionProvider connect() throws IOException {
+			int port = this.port.get();
+			if (port <=0) {
+				throw new IllegalStateException("JMX port not specified");
+			}
+			if (lease==null || lease.getPort()!=port) {
+				disconnect();
+				lease = JMXConnectionPool.getDefault().acquire(port);
+			}
+			JMXConnectionPool.Lease lease = this.lease;
+			lease.getConnection();
+			//The pool re-establishes a broken connection, so the client must not hold on to it.
+			return lease::getConnection;
+		}
+
+		@Override
+		public void connectFailed() {
+			//Keep the lease, so the pool remembers the failure and backs off.
+		}
+
+		@Override
+		public void invalidate() {
+			if (lease!=null) {
+				lease.invalidate();
+			}
+		}
+
+		@Override
+		public void disconnect() {
+			if (lease!=null) {
+				lease.dispose();
+				lease = null;
+			}
+		}
 	}
 
 	/**
@@ -66,26 +153,43 @@ public class SpringApplicationLifeCycleClientManager {
 	 * re-establish the connection the next time it is needed.
 	 */
 	public synchronized void disposeClient() {
-		try {
-			if (connector!=null) {
-				connector.close();
-			}
-		} catch (Exception e) {
-			//ignore
+		if (client!=null) {
+			client.removeListeners();
 		}
+		connectionSource.disconnect();
 		client = null;
-		connector = null;
+	}
+
+	/**
+	 * Dispose of current client after using it failed with a given error. If the error
+	 * indicates that the JMX connection itself is broken, the connection is invalidated
+	 * as well, so that it is re-established rather than reused by others.
+	 */
+	public synchronized void disposeClient(Throwable error) {
+		if (isConnectionError(error)) {
+			connectionSource.invalidate();
+		}
+		disposeClient();
+	}
+
+	private static boolean isConnectionError(Throwable e) {
+		while (e!=null) {
+			if (e instanceof IOException || e instanceof SecurityException) {
+				return true;
+			}
+			e = e.getCause()==e ? null : e.getCause();
+		}
+		return false;
 	}
 
 	/**
 	 * Try to obtain a client, may return null if a connection could not be established.
 	 */
-	public SpringApplicationLifecycleClient getLifeCycleClient() {
+	public synchronized SpringApplicationLifecycleClient getLifeCycleClient() {
 		try {
 			if (client==null) {
-				connector = connectionProvider.get();
 				client = new SpringApplicationLifecycleClient(
-						connector.getMBeanServerConnection(),
+						connectionSource.connect(),
 						SpringApplicationLifecycleClient.DEFAULT_OBJECT_NAME
 				);
 			}
@@ -94,7 +198,8 @@ public class SpringApplicationLifeCycleClientManager {
 			//e.printStackTrace();
 			//Someting went wrong creating client (most likely process we are trying to connect
 			// doesn't exist yet or has been terminated.
-			disposeClient();
+			client = null;
+			connectionSource.connectFailed();
 		}
 		return null;
 	}
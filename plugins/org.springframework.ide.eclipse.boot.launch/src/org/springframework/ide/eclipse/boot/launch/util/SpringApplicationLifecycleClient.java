@@ -11,14 +11,22 @@
 package org.springframework.ide.eclipse.boot.launch.util;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 
+import javax.management.AttributeChangeNotificationFilter;
 import javax.management.AttributeNotFoundException;
 import javax.management.InstanceNotFoundException;
 import javax.management.MBeanException;
 import javax.management.MBeanServerConnection;
+import javax.management.MBeanServerDelegate;
+import javax.management.MBeanServerNotification;
 import javax.management.MalformedObjectNameException;
+import javax.management.NotificationBroadcaster;
+import javax.management.NotificationListener;
 import javax.management.ObjectName;
 import javax.management.ReflectionException;
+import javax.management.relation.MBeanServerNotificationFilter;
 
 /**
  * A JMX client for the {@code SpringApplicationLifecycle} mbean. Permits to obtain
@@ -31,12 +39,36 @@ public class SpringApplicationLifecycleClient {
 	// Note: see SpringApplicationLifecycleAutoConfiguration
 	static final String DEFAULT_OBJECT_NAME = "org.springframework.boot:type=Admin,name=SpringApplication";
 
-	private final MBeanServerConnection connection;
+	/**
+	 * Provides the connection to use for each request. A pooled connection may be replaced when it
+	 * is re-established, so the client should not hold on to a connection itself.
+	 */
+	public interface ConnectionProvider {
+		MBeanServerConnection get() throws IOException;
+	}
+
+	private final ConnectionProvider connection;
 
 	private final ObjectName objectName;
 
+	/**
+	 * Notification listeners added by this client, so they can be removed when the client is disposed.
+	 * This matters when the connection is shared with other clients.
+	 */
+	private final List<Runnable> listenerRemovers = new ArrayList<>();
+
+	/**
+	 * The connection the notification listeners were added to.
+	 */
+	private MBeanServerConnection listenerConnection;
+
 	public SpringApplicationLifecycleClient(MBeanServerConnection connection,
 			String jmxName) {
+		this(() -> connection, jmxName);
+	}
+
+	public SpringApplicationLifecycleClient(ConnectionProvider connection,
+			String jmxName) {
 		this.connection = connection;
 		this.objectName = toObjectName(jmxName);
 	}
@@ -50,7 +82,7 @@ public class SpringApplicationLifecycleClient {
 	 */
 	public boolean isReady() throws Exception {
 		try {
-			return (Boolean) this.connection.getAttribute(this.objectName, "Ready");
+			return (Boolean) this.connection.get().getAttribute(this.objectName, "Ready");
 		}
 		catch (InstanceNotFoundException ex) {
 			return false; // Instance not available yet
@@ -71,8 +103,93 @@ public class SpringApplicationLifecycleClient {
 		}
 	}
 
+	/**
+	 * @return {@code true} if the lifecycle mbean is currently registered.
+	 */
+	public boolean isRegistered() throws IOException {
+		return this.connection.get().isRegistered(this.objectName);
+	}
+
+	/**
+	 * Register a listener that is called when the lifecycle mbean gets registered. This
+	 * allows a client to avoid repeatedly checking for the mbean while the application is
+	 * still starting up. The listener is removed automatically when the underlying JMX
+	 * connection is closed.
+	 */
+	public void addRegistrationListener(Runnable listener) throws Exception {
+		MBeanServerNotificationFilter filter = new MBeanServerNotificationFilter();
+		filter.disableAllObjectNames();
+		filter.enableObjectName(this.objectName);
+		filter.disableAllTypes();
+		filter.enableType(MBeanServerNotification.REGISTRATION_NOTIFICATION);
+		NotificationListener jmxListener = (notification, handback) -> listener.run();
+		MBeanServerConnection connection = this.connection.get();
+		connection.addNotificationListener(MBeanServerDelegate.DELEGATE_NAME, jmxListener, filter, null);
+		addRemover(connection, MBeanServerDelegate.DELEGATE_NAME, jmxListener);
+	}
+
+	/**
+	 * Register a listener that is called when the 'Ready' attribute of the lifecycle
+	 * mbean changes. This is only possible if the mbean emits attribute change notifications
+	 * (the mbean registered by current versions of Spring Boot does not).
+	 *
+	 * @return {@code true} if the listener was registered, {@code false} if the mbean
+	 * doesn't emit notifications, in which case clients have to poll {@link #isReady()}.
+	 * @throws InstanceNotFoundException if the mbean isn't registered (yet).
+	 */
+	public boolean addReadyListener(Runnable listener) throws Exception {
+		MBeanServerConnection connection = this.connection.get();
+		if (!connection.isInstanceOf(this.objectName, NotificationBroadcaster.class.getName())) {
+			return false;
+		}
+		AttributeChangeNotificationFilter filter = new AttributeChangeNotificationFilter();
+		filter.enableAttribute("Ready");
+		NotificationListener jmxListener = (notification, handback) -> listener.run();
+		connection.addNotificationListener(this.objectName, jmxListener, filter, null);
+		addRemover(connection, this.objectName, jmxListener);
+		return true;
+	}
+
+	private synchronized void addRemover(MBeanServerConnection connection, ObjectName name, NotificationListener listener) {
+		listenerConnection = connection;
+		listenerRemovers.add(() -> {
+			try {
+				connection.removeNotificationListener(name, listener);
+			} catch (Exception e) {
+				//Ignore, connection or mbean might be gone already
+			}
+		});
+	}
+
+	/**
+	 * Remove all notification listeners added via this client.
+	 */
+	public void removeListeners() {
+		List<Runnable> removers;
+		synchronized (this) {
+			removers = new ArrayList<>(listenerRemovers);
+			listenerRemovers.clear();
+			listenerConnection = null;
+		}
+		for (Runnable r : removers) {
+			r.run();
+		}
+	}
+
+	/**
+	 * @return {@code true} if notification listeners were added via this client to a connection
+	 * that has since been replaced. Those listeners went away with the old connection.
+	 */
+	public boolean listenersLost() throws IOException {
+		MBeanServerConnection listenerConnection;
+		synchronized (this) {
+			listenerConnection = this.listenerConnection;
+		}
+		return listenerConnection!=null && listenerConnection!=this.connection.get();
+	}
+
 	public int getProperty(String prop, int defaultValue) throws InstanceNotFoundException, MBeanException, ReflectionException, IOException {
-		Object o = this.connection.invoke(this.objectName,"getProperty",
+		Object o = this.connection.get().invoke(this.objectName,"getProperty",
 				new String[] {prop},
 				new String[] {String.class.getName()});
 		if (o instanceof Integer) {
@@ -91,7 +208,7 @@ public class SpringApplicationLifecycleClient {
 	 */
 	public void stop() throws Exception {
 		try {
-			this.connection.invoke(this.objectName, "shutdown", null, null);
+			this.connection.get().invoke(this.objectName, "shutdown", null, null);
 		}
 		catch (ReflectionException ex) {
 			throw new Exception("Shutdown failed", ex.getCause());
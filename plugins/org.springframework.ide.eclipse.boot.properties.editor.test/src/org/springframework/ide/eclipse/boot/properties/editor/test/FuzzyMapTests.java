@@ -133,6 +133,31 @@ public class FuzzyMapTests extends TestCase {
 	}
 
 
+	public void testSubMap() {
+		TestMap map = new TestMap(
+				"server.port",
+				"spring.jpa",
+				"spring.jpa.database",
+				"spring.jpa.show-sql",
+				"spring.jpb"
+		);
+		FuzzyMap<String> jpa = map.subMap("spring.jpa.");
+		assertEquals(2, jpa.size());
+		assertSame(jpa, map.subMap("spring.jpa."));
+		assertEquals(1, jpa.find("spring.jpa.sql").size());
+		assertEquals("spring.jpa.show-sql", jpa.find("spring.jpa.sql").get(0).data);
+		assertEquals(1, jpa.subMap("spring.jpa.d").size());
+		assertSame(jpa, jpa.subMap("spring."));
+		assertTrue(jpa.subMap("server.").isEmpty());
+		assertTrue(map.subMap("nothing.").isEmpty());
+		try {
+			jpa.add("spring.jpa.other");
+			fail("Views should be read-only");
+		} catch (UnsupportedOperationException e) {
+			//expected
+		}
+	}
+
 	private void assertMatchOrder(String pattern, String... datas) {
 		TestMap map = new TestMap(datas);
 		List<Match<String>> found = map.find(pattern);
@@ -12,6 +12,7 @@ package org.springframework.ide.eclipse.boot.properties.editor.test;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 
 import java.time.Duration;
 import java.util.ArrayList;
@@ -30,6 +31,7 @@ import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 import org.springframework.ide.eclipse.boot.properties.editor.metadata.CachingValueProvider;
+import org.springframework.ide.eclipse.boot.properties.editor.metadata.JavaTypeIndex;
 import org.springframework.ide.eclipse.boot.properties.editor.metadata.LoggerNameProvider;
 import org.springframework.ide.eclipse.boot.test.BootProjectTestHarness;
 import org.springsource.ide.eclipse.commons.tests.util.StsTestUtil;
@@ -105,6 +107,20 @@ public class LoggerNameProviderTest {
 		}
 	}
 
+	@Test
+	public void indexedResults() throws Exception {
+		JavaTypeIndex index = JavaTypeIndex.forProject(project);
+		index.join();
+		assertTrue(index.isReady());
+
+		LoggerNameProvider p = new LoggerNameProvider();
+		List<String> indexedQueryResults = getResults(p, "jboss");
+
+		dumpResults("jboss - INDEXED", indexedQueryResults);
+
+		assertElements(indexedQueryResults, JBOSS_RESULTS);
+	}
+
 	@Test
 	public void incrementalResults() throws Exception {
 		String fullQuery = "jboss";
@@ -77,4 +77,11 @@ public class TypeParserTest extends TestCase {
 		assertNotEquals(type1, type3);
 	}
 
+	public void testParseResultsAreShared() throws Exception {
+		Type type1 = TypeParser.parse("java.util.Map<java.lang.String,java.lang.Integer>");
+		Type type2 = TypeParser.parse("java.util.Map<java.lang.String,java.lang.Integer>");
+		assertSame(type1, type2);
+		assertNull(TypeParser.parse(""));
+	}
+
 }
@@ -13,7 +13,10 @@ package org.springframework.ide.eclipse.boot.properties.editor.test;
 import java.util.ArrayList;
 import java.util.regex.Pattern;
 
+import org.eclipse.jface.text.IDocument;
 import org.springframework.ide.eclipse.editor.support.util.DocumentUtil;
+import org.springframework.ide.eclipse.editor.support.yaml.YamlDocument;
+import org.springframework.ide.eclipse.editor.support.yaml.path.KeyAliases;
 import org.springframework.ide.eclipse.editor.support.yaml.path.YamlPath;
 import org.springframework.ide.eclipse.editor.support.yaml.path.YamlPathSegment;
 import org.springframework.ide.eclipse.editor.support.yaml.structure.YamlStructureParser;
@@ -832,6 +835,38 @@ public class YamlStructureParserTest extends ApplicationYamlEditorTestHarness {
 		assertMatch(YamlStructureParser.DOCUMENT_SEPERATOR, "...#");
 	}
 
+	public void testIncrementalReparse() throws Exception {
+		MockYamlEditor editor = new YamlEditor(
+				"server:\n" +
+				"  port: 8888\n" +
+				"spring:\n" +
+				"  application:\n" +
+				"    name: foo\n" +
+				"---\n" +
+				"logging:\n" +
+				"  level: debug\n"
+		);
+		IDocument doc = editor.getDocument();
+		SRootNode before = structureProvider.getStructure(new YamlDocument(doc, structureProvider));
+		assertSame(before, structureProvider.getStructure(new YamlDocument(doc, structureProvider)));
+
+		doc.replace(doc.get().indexOf("name: foo"), 0, "\n  profiles: dev\n    ");
+		assertIncrementalParse(doc);
+
+		doc.replace(doc.get().indexOf("logging"), 0, "---\nmore:\n  - item\n");
+		assertIncrementalParse(doc);
+
+		doc.replace(doc.get().indexOf("---"), 4, "");
+		assertIncrementalParse(doc);
+	}
+
+	private void assertIncrementalParse(IDocument doc) throws Exception {
+		SRootNode incremental = structureProvider.getStructure(new YamlDocument(doc, structureProvider));
+		SRootNode full = new YamlStructureParser(new YamlDocument(doc, structureProvider), KeyAliases.NONE).parse();
+		assertEquals(full.toString(), incremental.toString());
+		assertSame(incremental, structureProvider.getStructure(new YamlDocument(doc, structureProvider)));
+	}
+
 	private void assertMatch(Pattern pat, String string) {
 		assertTrue("Doesn't match: '"+string+"'", pat.matcher(string).matches());
 	}
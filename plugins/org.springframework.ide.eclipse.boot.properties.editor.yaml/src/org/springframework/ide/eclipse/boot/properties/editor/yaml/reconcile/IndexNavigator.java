@@ -12,7 +12,6 @@ package org.springframework.ide.eclipse.boot.properties.editor.yaml.reconcile;
 
 import static org.springsource.ide.eclipse.commons.core.util.StringUtil.*;
 
-import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 
@@ -29,10 +28,6 @@ import org.springsource.ide.eclipse.commons.core.util.StringUtil;
  */
 public class IndexNavigator {
 
-	//Possible opitmization: we could cache prefix match candidate and extended match candidate
-	// since it is assumed that the index is immutable for the lifetime of
-	// the index navigator.
-
 	private static final char NAV_CHAR = '.';
 
 	/**
@@ -105,18 +100,12 @@ public class IndexNavigator {
 		if (!StringUtil.hasText(prefix)) {
 			return index.find(query);
 		} else {
-			String dottedPrefix = prefix +".";
-			List<Match<PropertyInfo>> candidates = index.find(dottedPrefix + query);
-			if (!candidates.isEmpty()) {
-				//TODO: we can do better than this using treemap to narrow based on
-				// prefix
-				List<Match<PropertyInfo>> matches = new ArrayList<Match<PropertyInfo>>(candidates.size());
-				for (Match<PropertyInfo> match : candidates) {
-					if (match.data.getId().startsWith(dottedPrefix)){
-						matches.add(match);
-					}
-				}
-				return matches;
+			//Only entries in the sub-range of the index starting with the prefix can match. Note that
+			// the index caches these sub-range views so navigators at the same level share them.
+			String dottedPrefix = prefix + NAV_CHAR;
+			FuzzyMap<PropertyInfo> subIndex = index.subMap(dottedPrefix);
+			if (!subIndex.isEmpty()) {
+				return subIndex.find(dottedPrefix + query);
 			}
 		}
 		return Collections.emptyList();
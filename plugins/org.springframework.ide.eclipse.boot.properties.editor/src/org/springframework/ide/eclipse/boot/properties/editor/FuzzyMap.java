@@ -12,10 +12,14 @@ package org.springframework.ide.eclipse.boot.properties.editor;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Map.Entry;
+import java.util.NavigableMap;
 import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.springframework.ide.eclipse.editor.support.util.FuzzyMatcher;
 import org.springsource.ide.eclipse.commons.core.util.StringUtil;
@@ -66,16 +70,110 @@ public abstract class FuzzyMap<E> implements Iterable<E> {
 		return entries.values().iterator();
 	}
 
-	private TreeMap<String,E> entries = new TreeMap<>();
+	private final NavigableMap<String,E> entries;
+
+	/**
+	 * Cache of views created by {@link #subMap(String)}. Views share the entries
+	 * of this map, so they remain valid as long as this map is not changed.
+	 */
+	private final Map<String, FuzzyMap<E>> prefixViews = new ConcurrentHashMap<>();
+
+	public FuzzyMap() {
+		this(new TreeMap<>());
+	}
+
+	private FuzzyMap(NavigableMap<String,E> entries) {
+		this.entries = entries;
+	}
 
 	protected abstract String getKey(E entry);
 
+	/**
+	 * Read-only view of the entries of a {@link FuzzyMap} who's keys start with a given prefix.
+	 */
+	private static class PrefixView<E> extends FuzzyMap<E> {
+
+		private final FuzzyMap<E> target;
+		private final String prefix;
+
+		PrefixView(FuzzyMap<E> target, String prefix) {
+			this(target, prefix, prefixRange(target.entries, prefix));
+		}
+
+		private PrefixView(FuzzyMap<E> target, String prefix, NavigableMap<String,E> entries) {
+			super(entries);
+			this.target = target;
+			this.prefix = prefix;
+		}
+
+		@Override
+		protected String getKey(E entry) {
+			return target.getKey(entry);
+		}
+
+		@Override
+		public void add(E value) {
+			throw new UnsupportedOperationException("Prefix views of a FuzzyMap are read-only");
+		}
+
+		@Override
+		public FuzzyMap<E> subMap(String prefix) {
+			if (prefix.startsWith(this.prefix)) {
+				return target.subMap(prefix);
+			} else if (this.prefix.startsWith(prefix)) {
+				return this;
+			}
+			return new PrefixView<>(target, prefix, Collections.emptyNavigableMap());
+		}
+
+		private static <E> NavigableMap<String, E> prefixRange(NavigableMap<String, E> entries, String prefix) {
+			int last = prefix.length() - 1;
+			char lastChar = prefix.charAt(last);
+			if (lastChar==Character.MAX_VALUE) {
+				//Can't compute an upper bound for the range. Rare enough that we don't care about efficiency.
+				TreeMap<String, E> range = new TreeMap<>();
+				for (Entry<String, E> e : entries.tailMap(prefix, true).entrySet()) {
+					if (!e.getKey().startsWith(prefix)) {
+						break;
+					}
+					range.put(e.getKey(), e.getValue());
+				}
+				return range;
+			}
+			String upperBound = prefix.substring(0, last) + (char)(lastChar + 1);
+			return entries.subMap(prefix, true, upperBound, false);
+		}
+	}
+
+	/**
+	 * Get a read-only view containing only the entries of this map who's keys
+	 * start with a given prefix. Searching the view only considers the keys in
+	 * that range rather than the whole map.
+	 * <p>
+	 * Views with non-empty ranges are cached so that repeatedly asking for the same
+	 * prefix is cheap.
+	 */
+	public FuzzyMap<E> subMap(String prefix) {
+		if (!StringUtil.hasText(prefix)) {
+			return this;
+		}
+		FuzzyMap<E> view = prefixViews.get(prefix);
+		if (view==null) {
+			view = new PrefixView<>(this, prefix);
+			if (!view.isEmpty()) {
+				prefixViews.put(prefix, view);
+			}
+		}
+		return view;
+	}
+
 	public void add(E value) {
 		//This assumes no two entries have the same id.
 		String key = getKey(value);
 		E existing = entries.get(key);
 		if (existing==null) {
 			entries.put(getKey(value), value);
+			prefixViews.clear();
 		} else {
 			SpringPropertiesEditorPlugin.warning(FuzzyMap.class.getName()+": Multiple entries for key "+key+" some entries discarded");
 		}
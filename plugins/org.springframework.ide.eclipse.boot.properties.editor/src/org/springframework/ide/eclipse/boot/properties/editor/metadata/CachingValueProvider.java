@@ -100,6 +100,11 @@ public abstract class CachingValueProvider implements ValueProviderStrategy {
 
 	@Override
 	public final Flux<StsValueHint> getValues(IJavaProject javaProject, String query) {
+		Flux<StsValueHint> indexed = getIndexedValues(javaProject, query);
+		if (indexed!=null) {
+			//Index queries are cheap and the index is kept up-to-date, so there's no point caching them.
+			return indexed.take(MAX_RESULTS);
+		}
 //		debug("CA query: "+query);
 		Tuple2<String, String> key = key(javaProject, query);
 		CacheEntry cached = cache.get(key);
@@ -138,6 +143,16 @@ public abstract class CachingValueProvider implements ValueProviderStrategy {
 
 	protected abstract Flux<StsValueHint> getValuesAsycn(IJavaProject javaProject, String query);
 
+	/**
+	 * Subclasses may override this to answer queries from a precomputed index rather than a search.
+	 *
+	 * @return The values for a query, or null if no index is available (yet), in which case the query is
+	 * answered by {@link #getValuesAsycn(IJavaProject, String)} instead.
+	 */
+	protected Flux<StsValueHint> getIndexedValues(IJavaProject javaProject, String query) {
+		return null;
+	}
+
 	private Tuple2<String,String> key(IJavaProject javaProject, String query) {
 		return Tuples.of(javaProject==null?null:javaProject.getElementName(), query);
 	}
@@ -29,6 +29,7 @@ import org.springsource.ide.eclipse.commons.core.util.StringUtil;
 import org.springsource.ide.eclipse.commons.frameworks.core.async.FluxJdtSearch;
 import org.springsource.ide.eclipse.commons.frameworks.core.internal.cache.LimitedTimeCache;
 
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 /**
@@ -152,6 +153,18 @@ public class ClassReferenceProvider extends JdtSearchingValueProvider {
 		return toTypePattern(wildcardedQuery);
 	}
 
+	@Override
+	protected Flux<StsValueHint> getIndexedValues(IJavaProject javaProject, String query) {
+		if (target==null) {
+			//The index doesn't know about type hierarchies, so only untargetted searches can use it.
+			JavaTypeIndex index = JavaTypeIndex.forProject(javaProject);
+			if (index!=null) {
+				return index.query(query, false, concrete);
+			}
+		}
+		return null;
+	}
+
 	public IJavaSearchScope getScope(IJavaProject project) throws JavaModelException {
 		if (target!=null) {
 			IType type = getTargetType(project);
@@ -0,0 +1,426 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Pivotal, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Pivotal, Inc. - initial API and implementation
+ *******************************************************************************/
+package org.springframework.ide.eclipse.boot.properties.editor.metadata;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.jdt.core.ElementChangedEvent;
+import org.eclipse.jdt.core.Flags;
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IElementChangedListener;
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IJavaElementDelta;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.IPackageFragment;
+import org.eclipse.jdt.core.IPackageFragmentRoot;
+import org.eclipse.jdt.core.IType;
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.core.search.IJavaSearchConstants;
+import org.eclipse.jdt.core.search.IJavaSearchScope;
+import org.eclipse.jdt.core.search.SearchEngine;
+import org.eclipse.jdt.core.search.SearchPattern;
+import org.eclipse.jdt.core.search.TypeNameRequestor;
+import org.springframework.ide.eclipse.boot.util.Log;
+import org.springframework.ide.eclipse.editor.support.util.FuzzyMatcher;
+import org.springsource.ide.eclipse.commons.frameworks.core.async.FluxJdtSearch;
+
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Per-project index of the names of all types and packages on a project's classpath,
+ * used to answer 'class-reference' and 'logger-name' value hint queries without running
+ * a JDT search for every content assist request.
+ * <p>
+ * The index is built once, in a background job. After that it is kept up-to-date from java
+ * element deltas: changed compilation units are re-indexed individually, classpath changes
+ * cause a rebuild in the background. While the index is being built, {@link #query} returns
+ * null and callers are expected to fall back on a 'real' search.
+ */
+public class JavaTypeIndex {
+
+	private static final Map<IJavaProject, JavaTypeIndex> INDEXES = new ConcurrentHashMap<>();
+
+	static {
+		JavaCore.addElementChangedListener(new DeltaListener(), ElementChangedEvent.POST_CHANGE);
+	}
+
+	private static final int CLASSPATH_CHANGED =
+			IJavaElementDelta.F_CLASSPATH_CHANGED |
+			IJavaElementDelta.F_RESOLVED_CLASSPATH_CHANGED |
+			IJavaElementDelta.F_ARCHIVE_CONTENT_CHANGED |
+			IJavaElementDelta.F_ADDED_TO_CLASSPATH |
+			IJavaElementDelta.F_REMOVED_FROM_CLASSPATH;
+
+	private static class DeltaListener implements IElementChangedListener {
+
+		@Override
+		public void elementChanged(ElementChangedEvent event) {
+			if (!INDEXES.isEmpty()) {
+				visit(event.getDelta());
+			}
+		}
+
+		private void visit(IJavaElementDelta delta) {
+			IJavaElement el = delta.getElement();
+			switch (el.getElementType()) {
+			case IJavaElement.JAVA_MODEL:
+				visitChildren(delta);
+				break;
+			case IJavaElement.JAVA_PROJECT:
+				IJavaProject jp = (IJavaProject) el;
+				if (delta.getKind()==IJavaElementDelta.REMOVED || (delta.getFlags() & IJavaElementDelta.F_CLOSED)!=0) {
+					JavaTypeIndex removed = INDEXES.remove(jp);
+					if (removed!=null) {
+						removed.buildJob.cancel();
+					}
+				} else if ((delta.getFlags() & CLASSPATH_CHANGED)!=0) {
+					rebuildAffected(jp);
+				} else {
+					visitChildren(delta);
+				}
+				break;
+			case IJavaElement.PACKAGE_FRAGMENT_ROOT:
+				if (delta.getKind()!=IJavaElementDelta.CHANGED || (delta.getFlags() & CLASSPATH_CHANGED)!=0) {
+					rebuildAffected(el);
+				} else {
+					visitChildren(delta);
+				}
+				break;
+			case IJavaElement.PACKAGE_FRAGMENT:
+				if (delta.getKind()==IJavaElementDelta.REMOVED) {
+					//Can't easily tell which packages (incl. 'ancestor' packages) disappeared as a result. So just start over.
+					rebuildAffected(el);
+				} else {
+					visitChildren(delta);
+				}
+				break;
+			case IJavaElement.COMPILATION_UNIT:
+				ICompilationUnit cu = (ICompilationUnit) el;
+				if (!cu.isWorkingCopy() || delta.getKind()!=IJavaElementDelta.CHANGED) {
+					for (JavaTypeIndex index : INDEXES.values()) {
+						if (index.project.isOnClasspath(cu)) {
+							index.update(cu);
+						}
+					}
+				}
+				break;
+			default:
+				break;
+			}
+		}
+
+		private void visitChildren(IJavaElementDelta delta) {
+			for (IJavaElementDelta c : delta.getAffectedChildren()) {
+				visit(c);
+			}
+		}
+
+		private void rebuildAffected(IJavaElement changed) {
+			for (JavaTypeIndex index : INDEXES.values()) {
+				if (index.project.equals(changed) || index.project.isOnClasspath(changed) || isRequired(index.project, changed.getJavaProject())) {
+					index.rebuild();
+				}
+			}
+		}
+
+		private boolean isRequired(IJavaProject project, IJavaProject required) {
+			try {
+				if (required!=null) {
+					for (String name : project.getRequiredProjectNames()) {
+						if (name.equals(required.getElementName())) {
+							return true;
+						}
+					}
+				}
+				return false;
+			} catch (Exception e) {
+				//Can't determine dependencies... so be safe and assume it is.
+				return true;
+			}
+		}
+	}
+
+	private static class TypeInfo {
+		final String fqName;
+		final int simpleNameStart;
+		final boolean isAbstract;
+
+		TypeInfo(String fqName, boolean isAbstract) {
+			this.fqName = fqName;
+			this.simpleNameStart = Math.max(fqName.lastIndexOf('.'), fqName.lastIndexOf('$')) + 1;
+			this.isAbstract = isAbstract;
+		}
+
+		String getSimpleName() {
+			return fqName.substring(simpleNameStart);
+		}
+
+		/**
+		 * The package and enclosing type names, separated by '.'; i.e. what a JDT qualified type name pattern
+		 * is matched against.
+		 */
+		String getQualification() {
+			return simpleNameStart==0 ? "" : fqName.substring(0, simpleNameStart-1).replace('$', '.');
+		}
+	}
+
+	/**
+	 * The actual data in the index. A fresh instance is created each time the index is rebuilt
+	 * so that queries never see a partially built index.
+	 */
+	private static class Data {
+		final NavigableMap<String, TypeInfo> types = new ConcurrentSkipListMap<>();
+		final NavigableSet<String> packages = new ConcurrentSkipListSet<>();
+
+		/**
+		 * The names of the types that came from each source file in the workspace. Used to remove stale
+		 * entries when a compilation unit is changed or deleted.
+		 */
+		final Map<String, List<String>> typesBySource = new HashMap<>();
+
+		void add(TypeInfo type, String source) {
+			types.put(type.fqName, type);
+			String pkg = type.fqName.substring(0, Math.max(0, type.fqName.lastIndexOf('.')));
+			while (!pkg.isEmpty() && packages.add(pkg)) {
+				pkg = pkg.substring(0, Math.max(0, pkg.lastIndexOf('.')));
+			}
+			if (source!=null) {
+				typesBySource.computeIfAbsent(source, (s) -> new ArrayList<>()).add(type.fqName);
+			}
+		}
+	}
+
+	/**
+	 * @return The index for a given project, or null if the project is null (which only happens
+	 * in some unit testing contexts). When an index is requested for the first time, it is
+	 * built in the background.
+	 */
+	public static JavaTypeIndex forProject(IJavaProject jp) {
+		if (jp==null) {
+			return null;
+		}
+		return INDEXES.computeIfAbsent(jp, JavaTypeIndex::new);
+	}
+
+	private final IJavaProject project;
+	private final Job buildJob;
+	private volatile Data data;
+
+	private JavaTypeIndex(IJavaProject project) {
+		this.project = project;
+		this.buildJob = new Job("Index types of "+project.getElementName()) {
+			@Override
+			protected IStatus run(IProgressMonitor monitor) {
+				try {
+					data = build(monitor);
+				} catch (OperationCanceledException e) {
+					return Status.CANCEL_STATUS;
+				} catch (Exception e) {
+					Log.log(e);
+				}
+				return Status.OK_STATUS;
+			}
+		};
+		buildJob.setSystem(true);
+		buildJob.setPriority(Job.DECORATE);
+		buildJob.schedule();
+	}
+
+	private Data build(IProgressMonitor monitor) throws Exception {
+		Data data = new Data();
+		//Null package and type names match all types.
+		new SearchEngine().searchAllTypeNames(null, SearchPattern.R_PATTERN_MATCH, null, SearchPattern.R_PATTERN_MATCH,
+			IJavaSearchConstants.TYPE, FluxJdtSearch.searchScope(project),
+			new TypeNameRequestor() {
+				@Override
+				public void acceptType(int modifiers, char[] packageName, char[] simpleTypeName, char[][] enclosingTypeNames, String path) {
+					if (simpleTypeName.length==0) {
+						return; //anonymous
+					}
+					StringBuilder fqName = new StringBuilder();
+					if (packageName.length>0) {
+						fqName.append(packageName);
+						fqName.append('.');
+					}
+					for (char[] enclosing : enclosingTypeNames) {
+						fqName.append(enclosing);
+						fqName.append('$');
+					}
+					fqName.append(simpleTypeName);
+					boolean isAbstract = Flags.isInterface(modifiers) || Flags.isAbstract(modifiers);
+					//Types from jars have a path like '/path/to/foo.jar|org/foo/Bar.class'. Only workspace sources are
+					// tracked individually.
+					String source = path.contains(IJavaSearchScope.JAR_FILE_ENTRY_SEPARATOR) ? null : path;
+					data.add(new TypeInfo(fqName.toString(), isAbstract), source);
+				}
+			},
+			IJavaSearchConstants.WAIT_UNTIL_READY_TO_SEARCH, monitor
+		);
+		return data;
+	}
+
+	/**
+	 * Discard the current contents and rebuild the index in the background. Queries will
+	 * return null until the new index is ready.
+	 */
+	private void rebuild() {
+		data = null;
+		buildJob.cancel();
+		buildJob.schedule();
+	}
+
+	private void update(ICompilationUnit cu) {
+		Data data = this.data;
+		if (data==null) {
+			if (buildJob.getState()!=Job.NONE) {
+				//The build may already have passed over this cu, so must start again to be sure it is seen.
+				rebuild();
+			}
+			return;
+		}
+		String source = cu.getPath().toString();
+		synchronized (data) {
+			List<String> old = data.typesBySource.remove(source);
+			if (old!=null) {
+				for (String name : old) {
+					data.types.remove(name);
+				}
+			}
+			try {
+				if (cu.exists()) {
+					for (IType type : cu.getAllTypes()) {
+						boolean isAbstract = type.isInterface() || Flags.isAbstract(type.getFlags());
+						data.add(new TypeInfo(type.getFullyQualifiedName(), isAbstract), source);
+					}
+				}
+			} catch (Exception e) {
+				Log.log(e);
+			}
+		}
+	}
+
+	public boolean isReady() {
+		return data!=null;
+	}
+
+	/**
+	 * Wait for the index to be built (or rebuilt) in the background.
+	 */
+	public void join() throws InterruptedException {
+		buildJob.join();
+	}
+
+	/**
+	 * Search the index for types (and optionally packages) whose names match a given query.
+	 * <p>
+	 * The matching mimics the 'wildcard' patterns that {@link JdtSearchingValueProvider} creates for
+	 * {@link SearchEngine}, followed by the same fuzzy filtering. So the
+	 * results are the same as those produced by a real search.
+	 * <p>
+	 * The returned flux is lazy. Types whose name starts with the query are produced first, and elements
+	 * are only resolved for the hints that actually get requested downstream. Scanning the index and resolving
+	 * elements happens on a background thread rather than the subscriber's (which may be the UI thread during
+	 * content assist), so a subscriber that stops waiting after a timeout gets the hints found so far.
+	 *
+	 * @return Matching hints, or null if the index is not yet ready.
+	 */
+	public Flux<StsValueHint> query(String query, boolean includePackages, boolean concreteOnly) {
+		Data data = this.data;
+		if (data==null) {
+			return null;
+		}
+		int lastDot = query.lastIndexOf('.');
+		String simpleNamePattern = query.substring(lastDot+1);
+		String qualificationPattern = lastDot<0 ? null : query.substring(0, lastDot);
+		String prefixEnd = query + Character.MAX_VALUE;
+
+		Flux<TypeInfo> types = Flux.concat(
+				Flux.fromIterable(data.types.subMap(query, true, prefixEnd, false).values()),
+				Flux.fromIterable(data.types.headMap(query, false).values()),
+				Flux.fromIterable(data.types.tailMap(prefixEnd, true).values())
+		)
+		.filter((type) -> !(concreteOnly && type.isAbstract))
+		.filter((type) ->
+				isSubsequence(simpleNamePattern, type.getSimpleName()) &&
+				(qualificationPattern==null || isSubsequence(qualificationPattern, type.getQualification()))
+		);
+		Flux<StsValueHint> hints = types
+				.filter((type) -> 0!=FuzzyMatcher.matchScore(query, type.fqName))
+				.map((type) -> typeHint(type.fqName));
+		if (includePackages) {
+			hints = hints.concatWith(Flux.fromIterable(data.packages)
+				.filter((pkg) -> isSubsequence(query, pkg))
+				.filter((pkg) -> 0!=FuzzyMatcher.matchScore(query, pkg))
+				.map(this::packageHint)
+			);
+		}
+		return hints.subscribeOn(Schedulers.elastic());
+	}
+
+	private StsValueHint typeHint(String fqName) {
+		try {
+			IType type = project.findType(fqName.replace('$', '.'));
+			if (type!=null) {
+				return StsValueHint.create(fqName, type);
+			}
+		} catch (Exception e) {
+			Log.log(e);
+		}
+		return StsValueHint.create(fqName);
+	}
+
+	private StsValueHint packageHint(String name) {
+		try {
+			for (IPackageFragmentRoot root : project.getPackageFragmentRoots()) {
+				IPackageFragment pkg = root.getPackageFragment(name);
+				if (pkg.exists()) {
+					return StsValueHint.create(name, pkg);
+				}
+			}
+		} catch (Exception e) {
+			Log.log(e);
+		}
+		return StsValueHint.create(name);
+	}
+
+	/**
+	 * Case-insensitive check whether the characters of a pattern occur, in order, in a name. This
+	 * is equivalent to matching the name against a JDT pattern like "*p*a*t*t*e*r*n*".
+	 */
+	static boolean isSubsequence(String pattern, String name) {
+		int pos = 0;
+		for (int i = 0; i < pattern.length(); i++) {
+			char c = Character.toLowerCase(pattern.charAt(i));
+			while (pos<name.length() && Character.toLowerCase(name.charAt(pos))!=c) {
+				pos++;
+			}
+			if (pos==name.length()) {
+				return false;
+			}
+			pos++;
+		}
+		return true;
+	}
+}
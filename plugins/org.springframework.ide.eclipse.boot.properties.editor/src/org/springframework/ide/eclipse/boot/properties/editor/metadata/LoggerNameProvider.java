@@ -13,9 +13,12 @@ package org.springframework.ide.eclipse.boot.properties.editor.metadata;
 import java.util.Map;
 import java.util.function.Function;
 
+import org.eclipse.jdt.core.IJavaProject;
 import org.eclipse.jdt.core.search.SearchPattern;
 import org.springframework.ide.eclipse.boot.properties.editor.metadata.ValueProviderRegistry.ValueProviderStrategy;
 
+import reactor.core.publisher.Flux;
+
 /**
  * Provides the algorithm for 'logger-name' valueProvider.
  * <p>
@@ -37,4 +40,13 @@ public class LoggerNameProvider extends JdtSearchingValueProvider {
 		);
 	}
 
+	@Override
+	protected Flux<StsValueHint> getIndexedValues(IJavaProject javaProject, String query) {
+		JavaTypeIndex index = JavaTypeIndex.forProject(javaProject);
+		if (index!=null) {
+			return index.query(query, true, false);
+		}
+		return null;
+	}
+
 }
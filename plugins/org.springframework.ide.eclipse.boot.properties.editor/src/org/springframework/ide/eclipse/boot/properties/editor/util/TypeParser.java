@@ -12,6 +12,8 @@ package org.springframework.ide.eclipse.boot.properties.editor.util;
 
 import java.util.ArrayList;
 import java.util.StringTokenizer;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.springsource.ide.eclipse.commons.core.util.StringUtil;
 
@@ -24,6 +26,13 @@ public class TypeParser {
 
 	private static final String DELIM = "<>,";
 
+	/**
+	 * Interned results of parsing type strings. The set of type strings
+	 * in spring boot metadata is finite and {@link Type} objects are
+	 * immutable, so it is safe to share parse results between all callers.
+	 */
+	private static final ConcurrentMap<String, Type> PARSED = new ConcurrentHashMap<>();
+
 	/**
 	 * Wrapper around StringTokenizer that manages a single lookahead token.
 	 * So it can implement 'peekToken()' method.
@@ -73,7 +82,15 @@ public class TypeParser {
 
 	public static Type parse(String str) {
 		if (StringUtil.hasText(str)) {
-			return new TypeParser(str).parseType();
+			Type type = PARSED.get(str);
+			if (type==null) {
+				type = new TypeParser(str).parseType();
+				Type existing = PARSED.putIfAbsent(str, type);
+				if (existing!=null) {
+					type = existing;
+				}
+			}
+			return type;
 		}
 		return null;
 	}
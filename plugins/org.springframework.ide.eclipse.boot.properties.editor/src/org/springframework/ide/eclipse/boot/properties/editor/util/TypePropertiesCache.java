@@ -0,0 +1,161 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Pivotal, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Pivotal, Inc. - initial API and implementation
+ *******************************************************************************/
+package org.springframework.ide.eclipse.boot.properties.editor.util;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import org.eclipse.jdt.core.ElementChangedEvent;
+import org.eclipse.jdt.core.IElementChangedListener;
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IJavaElementDelta;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.IType;
+import org.eclipse.jdt.core.JavaCore;
+import org.springframework.ide.eclipse.boot.properties.editor.util.TypeUtil.BeanPropertyNameMode;
+import org.springframework.ide.eclipse.boot.properties.editor.util.TypeUtil.EnumCaseMode;
+
+/**
+ * Per-project cache of JDT type lookups and property descriptors computed by {@link TypeUtil}.
+ * <p>
+ * Resolving a type or scanning its getters goes to JDT, which is expensive when done
+ * for every property on every reconcile or completion request. The cached results for
+ * a project are discarded whenever a java element change event touches that project or
+ * any project it depends on.
+ */
+public class TypePropertiesCache {
+
+	private static final Map<IJavaProject, TypePropertiesCache> CACHES = new ConcurrentHashMap<>();
+
+	static {
+		JavaCore.addElementChangedListener(new InvalidationListener(), ElementChangedEvent.POST_CHANGE);
+	}
+
+	private static class InvalidationListener implements IElementChangedListener {
+
+		@Override
+		public void elementChanged(ElementChangedEvent event) {
+			visit(event.getDelta());
+		}
+
+		private void visit(IJavaElementDelta delta) {
+			IJavaElement el = delta.getElement();
+			switch (el.getElementType()) {
+			case IJavaElement.JAVA_MODEL:
+				for (IJavaElementDelta c : delta.getAffectedChildren()) {
+					visit(c);
+				}
+				break;
+			case IJavaElement.JAVA_PROJECT:
+				invalidate((IJavaProject) el);
+				break;
+			default:
+				break;
+			}
+		}
+	}
+
+	private static class PropertiesKey {
+		private final Type type;
+		private final EnumCaseMode enumMode;
+		private final BeanPropertyNameMode beanMode;
+
+		PropertiesKey(Type type, EnumCaseMode enumMode, BeanPropertyNameMode beanMode) {
+			this.type = type;
+			this.enumMode = enumMode;
+			this.beanMode = beanMode;
+		}
+
+		@Override
+		public int hashCode() {
+			final int prime = 31;
+			int result = 1;
+			result = prime * result + ((beanMode == null) ? 0 : beanMode.hashCode());
+			result = prime * result + ((enumMode == null) ? 0 : enumMode.hashCode());
+			result = prime * result + ((type == null) ? 0 : type.hashCode());
+			return result;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj)
+				return true;
+			if (obj == null)
+				return false;
+			if (getClass() != obj.getClass())
+				return false;
+			PropertiesKey other = (PropertiesKey) obj;
+			return beanMode == other.beanMode
+				&& enumMode == other.enumMode
+				&& (type == null ? other.type == null : type.equals(other.type));
+		}
+	}
+
+	private final Map<String, Optional<IType>> types = new ConcurrentHashMap<>();
+	private final Map<PropertiesKey, Optional<List<TypedProperty>>> properties = new ConcurrentHashMap<>();
+
+	private TypePropertiesCache() {
+	}
+
+	/**
+	 * @return The cache for given project, or null if the project is null (which only happens
+	 * in some unit testing contexts).
+	 */
+	public static TypePropertiesCache forProject(IJavaProject jp) {
+		if (jp==null) {
+			return null;
+		}
+		return CACHES.computeIfAbsent(jp, (p) -> new TypePropertiesCache());
+	}
+
+	/**
+	 * Discard cached data for a given project as well as any project that depends on it.
+	 */
+	public static void invalidate(IJavaProject changed) {
+		CACHES.remove(changed);
+		String name = changed.getElementName();
+		for (IJavaProject jp : CACHES.keySet()) {
+			try {
+				if (!jp.exists() || Arrays.asList(jp.getRequiredProjectNames()).contains(name)) {
+					CACHES.remove(jp);
+				}
+			} catch (Exception e) {
+				//Can't determine dependencies... so be safe and drop it.
+				CACHES.remove(jp);
+			}
+		}
+	}
+
+	public IType findType(String typeName, Supplier<IType> finder) {
+		Optional<IType> found = types.get(typeName);
+		if (found==null) {
+			found = Optional.ofNullable(finder.get());
+			types.put(typeName, found);
+		}
+		return found.orElse(null);
+	}
+
+	public List<TypedProperty> getProperties(Type type, EnumCaseMode enumMode, BeanPropertyNameMode beanMode, Supplier<List<TypedProperty>> computer) {
+		PropertiesKey key = new PropertiesKey(type, enumMode, beanMode);
+		Optional<List<TypedProperty>> found = properties.get(key);
+		if (found==null) {
+			List<TypedProperty> computed = computer.get();
+			found = Optional.ofNullable(computed==null ? null : Collections.unmodifiableList(computed));
+			properties.put(key, found);
+		}
+		return found.orElse(null);
+	}
+}
@@ -556,6 +556,14 @@ public class TypeUtil {
 	}
 
 	private IType findType(String typeName) {
+		TypePropertiesCache cache = TypePropertiesCache.forProject(javaProject);
+		if (cache!=null) {
+			return cache.findType(typeName, () -> findTypeUncached(typeName));
+		}
+		return findTypeUncached(typeName);
+	}
+
+	private IType findTypeUncached(String typeName) {
 		try {
 			if (javaProject!=null) {
 				return javaProject.findType(typeName);
@@ -629,6 +637,14 @@ public class TypeUtil {
 		if (type==null) {
 			return null;
 		}
+		TypePropertiesCache cache = TypePropertiesCache.forProject(javaProject);
+		if (cache!=null) {
+			return cache.getProperties(type, enumMode, beanMode, () -> computeProperties(type, enumMode, beanMode));
+		}
+		return computeProperties(type, enumMode, beanMode);
+	}
+
+	private List<TypedProperty> computeProperties(Type type, EnumCaseMode enumMode, BeanPropertyNameMode beanMode) {
 		if (!isDotable(type)) {
 			//If dot navigation is not valid then really this is just like saying the type has no properties.
 			return Collections.emptyList();
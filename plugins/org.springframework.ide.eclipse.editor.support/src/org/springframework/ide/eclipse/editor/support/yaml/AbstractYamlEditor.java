@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2015, 2016 Pivotal, Inc.
+ * Copyright (c) 2015, 2017 Pivotal, Inc.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -12,6 +12,9 @@ package org.springframework.ide.eclipse.editor.support.yaml;
 
 import org.dadacoalition.yedit.editor.YEdit;
 import org.eclipse.core.resources.IFile;
+import org.eclipse.jface.text.source.ISourceViewer;
+import org.eclipse.jface.text.source.SourceViewerConfiguration;
+import org.eclipse.swt.widgets.Composite;
 import org.eclipse.ui.IEditorInput;
 
 import com.google.common.collect.ImmutableSet;
@@ -37,4 +40,24 @@ public abstract class AbstractYamlEditor extends YEdit {
 		}
 		return false;
 	}
+
+	@Override
+	public void createPartControl(Composite parent) {
+		super.createPartControl(parent);
+		SourceViewerConfiguration conf = getSourceViewerConfiguration();
+		ISourceViewer viewer = getSourceViewer();
+		if (conf instanceof AbstractYamlSourceViewerConfiguration && viewer!=null) {
+			((AbstractYamlSourceViewerConfiguration) conf).install(viewer);
+		}
+	}
+
+	@Override
+	public void dispose() {
+		SourceViewerConfiguration conf = getSourceViewerConfiguration();
+		ISourceViewer viewer = getSourceViewer();
+		if (conf instanceof AbstractYamlSourceViewerConfiguration && viewer!=null) {
+			((AbstractYamlSourceViewerConfiguration) conf).uninstall(viewer);
+		}
+		super.dispose();
+	}
 }
@@ -221,6 +221,20 @@ public abstract class AbstractYamlSourceViewerConfiguration extends YEditSourceV
 		);
 	}
 
+	/**
+	 * To be called after the viewer has been configured with this configuration.
+	 */
+	public void install(ISourceViewer viewer) {
+		getStructureProvider().install(viewer);
+	}
+
+	/**
+	 * To be called before the viewer is unconfigured.
+	 */
+	public void uninstall(ISourceViewer viewer) {
+		getStructureProvider().uninstall(viewer);
+	}
+
 	protected abstract String getPluginId();
 	protected abstract IPreferenceStore getPreferencesStore();
 	protected abstract YamlStructureProvider getStructureProvider();
@@ -0,0 +1,188 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Pivotal, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Pivotal, Inc. - initial API and implementation
+ *******************************************************************************/
+package org.springframework.ide.eclipse.editor.support.yaml.ast;
+
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.ide.eclipse.editor.support.util.IRequestor;
+import org.springframework.ide.eclipse.editor.support.yaml.ast.NodeRef.Kind;
+import org.springframework.ide.eclipse.editor.support.yaml.ast.NodeRef.RootRef;
+import org.springframework.ide.eclipse.editor.support.yaml.ast.NodeRef.SeqRef;
+import org.springframework.ide.eclipse.editor.support.yaml.ast.NodeRef.TupleKeyRef;
+import org.springframework.ide.eclipse.editor.support.yaml.ast.NodeRef.TupleValueRef;
+import org.yaml.snakeyaml.nodes.MappingNode;
+import org.yaml.snakeyaml.nodes.Node;
+import org.yaml.snakeyaml.nodes.NodeTuple;
+import org.yaml.snakeyaml.nodes.SequenceNode;
+
+/**
+ * Flattened representation of the nodes in a {@link YamlFileAST}, sorted by start offset
+ * (i.e. in pre-order), with links from each node to its parent. Finding the smallest node
+ * that contains a given offset is a binary search followed by a walk up the parent links.
+ * <p>
+ * The index is built once per AST. Queries don't allocate anything, other than the
+ * {@link NodeRef}s that are passed to a requestor for the nodes on the found path.
+ */
+class NodeOffsetIndex {
+
+	private static final Kind[] KINDS = Kind.values();
+
+	private int size = 0;
+	private int[] starts;
+	private int[] ends;
+	private int[] parents;
+	private Node[] nodes;
+
+	/**
+	 * For each node, the node that contains it (null for root nodes) and its
+	 * position inside of that container. Used to create {@link NodeRef}s.
+	 */
+	private Node[] containers;
+	private int[] positions;
+	private byte[] kinds;
+
+	/**
+	 * Guards against visiting the same node more than once, which may happen
+	 * when the yaml uses aliases.
+	 */
+	private Map<Node, Boolean> visited = new IdentityHashMap<>();
+
+	NodeOffsetIndex(List<Node> roots) {
+		int capacity = 16;
+		starts = new int[capacity];
+		ends = new int[capacity];
+		parents = new int[capacity];
+		nodes = new Node[capacity];
+		containers = new Node[capacity];
+		positions = new int[capacity];
+		kinds = new byte[capacity];
+		for (int i = 0; i < roots.size(); i++) {
+			add(-1, roots.get(i), null, i, Kind.ROOT);
+		}
+		visited = null;
+	}
+
+	private void add(int parent, Node node, Node container, int position, Kind kind) {
+		if (node==null || visited.put(node, Boolean.TRUE)!=null) {
+			return;
+		}
+		int start = NodeUtil.getStart(node);
+		int end = NodeUtil.getEnd(node);
+		if (parent>=0 && (start<starts[parent] || end>ends[parent])) {
+			//Not properly nested inside its parent (e.g. an alias referring to a node elsewhere in the
+			// document). Since it can't contain any offset that its parent doesn't also contain it
+			// would never be found anyway.
+			return;
+		}
+		if (size==starts.length) {
+			grow();
+		}
+		int me = size++;
+		starts[me] = start;
+		ends[me] = end;
+		parents[me] = parent;
+		nodes[me] = node;
+		containers[me] = container;
+		positions[me] = position;
+		kinds[me] = (byte) kind.ordinal();
+		switch (node.getNodeId()) {
+		case sequence:
+			List<Node> items = ((SequenceNode)node).getValue();
+			for (int i = 0; i < items.size(); i++) {
+				add(me, items.get(i), node, i, Kind.SEQ);
+			}
+			break;
+		case mapping:
+			List<NodeTuple> entries = ((MappingNode)node).getValue();
+			for (int i = 0; i < entries.size(); i++) {
+				NodeTuple entry = entries.get(i);
+				add(me, entry.getKeyNode(), node, i, Kind.KEY);
+				add(me, entry.getValueNode(), node, i, Kind.VAL);
+			}
+			break;
+		default:
+			break;
+		}
+	}
+
+	private void grow() {
+		int capacity = starts.length * 2;
+		starts = Arrays.copyOf(starts, capacity);
+		ends = Arrays.copyOf(ends, capacity);
+		parents = Arrays.copyOf(parents, capacity);
+		nodes = Arrays.copyOf(nodes, capacity);
+		containers = Arrays.copyOf(containers, capacity);
+		positions = Arrays.copyOf(positions, capacity);
+		kinds = Arrays.copyOf(kinds, capacity);
+	}
+
+	/**
+	 * @return The position in the index of the smallest node containing offset, or -1 if
+	 * no node contains it.
+	 */
+	private int find(int offset) {
+		//Find last node that starts at or before offset.
+		int lo = 0;
+		int hi = size - 1;
+		int found = -1;
+		while (lo<=hi) {
+			int mid = (lo + hi) >>> 1;
+			if (starts[mid]<=offset) {
+				found = mid;
+				lo = mid + 1;
+			} else {
+				hi = mid - 1;
+			}
+		}
+		//Because nodes are nested, the smallest node containing offset is either that node or one of its ancestors.
+		while (found>=0 && !(starts[found]<=offset && offset<ends[found])) {
+			found = parents[found];
+		}
+		return found;
+	}
+
+	public Node findNode(int offset) {
+		int found = find(offset);
+		return found>=0 ? nodes[found] : null;
+	}
+
+	public void findPath(YamlFileAST ast, int offset, IRequestor<NodeRef<?>> pathRequestor) {
+		int found = find(offset);
+		if (found>=0) {
+			acceptPath(ast, found, pathRequestor);
+		}
+	}
+
+	private void acceptPath(YamlFileAST ast, int node, IRequestor<NodeRef<?>> pathRequestor) {
+		int parent = parents[node];
+		if (parent>=0) {
+			acceptPath(ast, parent, pathRequestor);
+		}
+		pathRequestor.accept(createRef(ast, node));
+	}
+
+	private NodeRef<?> createRef(YamlFileAST ast, int node) {
+		int position = positions[node];
+		switch (KINDS[kinds[node]]) {
+		case ROOT:
+			return new RootRef(ast, position);
+		case SEQ:
+			return new SeqRef((SequenceNode) containers[node], position);
+		case KEY:
+			return new TupleKeyRef((MappingNode) containers[node], position);
+		default:
+			return new TupleValueRef((MappingNode) containers[node], position);
+		}
+	}
+}
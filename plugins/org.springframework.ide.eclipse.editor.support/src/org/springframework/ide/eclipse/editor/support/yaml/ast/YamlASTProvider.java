@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2015, 2016 Pivotal, Inc.
+ * Copyright (c) 2015, 2017 Pivotal, Inc.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -12,17 +12,15 @@ package org.springframework.ide.eclipse.editor.support.yaml.ast;
 
 import java.io.StringReader;
 
-import org.eclipse.core.runtime.IProgressMonitor;
-import org.eclipse.core.runtime.IStatus;
-import org.eclipse.core.runtime.Status;
-import org.eclipse.core.runtime.jobs.Job;
-import org.eclipse.jface.text.DocumentEvent;
 import org.eclipse.jface.text.IDocument;
-import org.eclipse.jface.text.IDocumentListener;
+import org.eclipse.jface.text.IDocumentExtension4;
 import org.yaml.snakeyaml.Yaml;
 
 /**
  * Responsible for providing a AST for a document containing yml formatted text.
+ * <p>
+ * The last computed AST is versioned by the document's modification stamp and
+ * shared by anyone asking for the AST of the same version of the document.
  *
  * @author Kris De Volder
  */
@@ -36,25 +34,9 @@ public class YamlASTProvider {
 	private IDocument cachedFor = null;
 
 	/**
-	 * For cache invalidation
+	 * Modification stamp of the document at the time the cached AST got parsed.
 	 */
-	private IDocumentListener listener = new IDocumentListener() {
-
-		public void documentChanged(final DocumentEvent event) {
-			Job job = new Job("Clear YamlASTProvider Cache") {
-				protected IStatus run(IProgressMonitor monitor) {
-					changed(event.getDocument());
-					return Status.OK_STATUS;
-				}
-			};
-			job.setPriority(Job.INTERACTIVE);
-			job.setSystem(true);
-			job.schedule();
-		}
-		public void documentAboutToBeChanged(DocumentEvent event) {
-			//Don't care.
-		}
-	};
+	private long cachedStamp = IDocumentExtension4.UNKNOWN_MODIFICATION_STAMP;
 
 	private Yaml yaml;
 
@@ -62,26 +44,26 @@ public class YamlASTProvider {
 		this.yaml = yaml;
 	}
 
-	private synchronized void changed(IDocument doc) {
-		if (doc==cachedFor) {
-			doc.removeDocumentListener(listener);
-			cachedFor = null;
-			cached = null;
-		}
-	}
-
 	public synchronized YamlFileAST getAST(IDocument doc) {
-		if (doc==cachedFor) {
+		long stamp = getModificationStamp(doc);
+		if (doc==cachedFor && stamp==cachedStamp && stamp!=IDocumentExtension4.UNKNOWN_MODIFICATION_STAMP) {
 			return cached;
-		} else {
-			if (cachedFor!=null) {
-				cachedFor.removeDocumentListener(listener);
-			}
-			doc.addDocumentListener(listener);
-			cached = new YamlFileAST(doc, yaml.composeAll(new StringReader(doc.get())));
+		}
+		YamlFileAST ast = new YamlFileAST(doc, yaml.composeAll(new StringReader(doc.get())));
+		if (stamp==getModificationStamp(doc)) {
+			//Only cache it if document didn't change while we were parsing it.
+			cached = ast;
 			cachedFor = doc;
+			cachedStamp = stamp;
+		}
+		return ast;
+	}
+
+	private static long getModificationStamp(IDocument doc) {
+		if (doc instanceof IDocumentExtension4) {
+			return ((IDocumentExtension4) doc).getModificationStamp();
 		}
-		return cached;
+		return IDocumentExtension4.UNKNOWN_MODIFICATION_STAMP;
 	}
 
 }
@@ -10,8 +10,6 @@
  *******************************************************************************/
 package org.springframework.ide.eclipse.editor.support.yaml.ast;
 
-import static org.springframework.ide.eclipse.editor.support.yaml.ast.NodeUtil.contains;
-
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -20,7 +18,6 @@ import org.eclipse.jface.text.IDocument;
 import org.springframework.ide.eclipse.editor.support.util.Collector;
 import org.springframework.ide.eclipse.editor.support.util.IRequestor;
 import org.springframework.ide.eclipse.editor.support.util.RememberLast;
-import org.springframework.ide.eclipse.editor.support.yaml.ast.NodeRef.RootRef;
 import org.springframework.ide.eclipse.editor.support.yaml.ast.NodeRef.SeqRef;
 import org.springframework.ide.eclipse.editor.support.yaml.ast.NodeRef.TupleKeyRef;
 import org.springframework.ide.eclipse.editor.support.yaml.ast.NodeRef.TupleValueRef;
@@ -39,6 +36,11 @@ public class YamlFileAST {
 	private static final List<NodeRef<?>> NO_CHILDREN = Collections.emptyList();
 	private List<Node> nodes;
 
+	/**
+	 * Lazily built index used to find nodes by offset.
+	 */
+	private NodeOffsetIndex index;
+
 	public YamlFileAST(IDocument doc, Iterable<Node> iter) {
 		this.doc = doc;
 		nodes = new ArrayList<>();
@@ -60,37 +62,14 @@ public class YamlFileAST {
 	 * the requestor will not be called at all.
 	 */
 	public void findPath(int offset, IRequestor<NodeRef<?>> pathRequestor) {
-		for (int i = 0; i < nodes.size(); i++) {
-			Node node = nodes.get(i);
-			if (contains(node, offset)) {
-				pathRequestor.accept(new RootRef(this, i) );
-				findPath(node, offset, pathRequestor);
-				return;
-			}
-		}
+		getIndex().findPath(this, offset, pathRequestor);
 	}
 
-	/**
-	 * Find smallest node that is a child of 'n' that contains 'offset'. Each visited
-	 * node containing the offset, from the down to the found node are
-	 * passed to the pathRequestor.
-	 */
-	private void findPath(Node n, int offset, IRequestor<NodeRef<?>> pathRequestor) {
-		//TODO: avoid lots of garbage production by not using 'getChildren'
-		// but inling getChildren (i.e a switch-case that visits
-		// the children without putting them into temporary collections.)
-		// By doing this it should be possible to avoid creaing lots of temporary
-		// array lists and NodeRef objects and only create NodeRef objects for
-		// the nodes we actually care about (i.e. the ones on the path).
-		List<NodeRef<?>> children = getChildren(n);
-		for (int i = 0; i < children.size(); i++) {
-			NodeRef<?> c = children.get(i);
-			if (contains(c.get(), offset)) {
-				pathRequestor.accept(c);
-				findPath(c.get(), offset, pathRequestor);
-				return;
-			}
+	private synchronized NodeOffsetIndex getIndex() {
+		if (index==null) {
+			index = new NodeOffsetIndex(nodes);
 		}
+		return index;
 	}
 
 	public static List<NodeRef<?>> getChildren(Node n) {
@@ -139,19 +118,16 @@ public class YamlFileAST {
 	}
 
 	public Node findNode(int offset) {
-		NodeRef<?> ref = findNodeRef(offset);
-		if (ref!=null) {
-			return ref.get();
-		}
-		return null;
+		return getIndex().findNode(offset);
 	}
 
 	public Node get(int index) {
 		return nodes.get(index);
 	}
 
-	public void put(int index, Node value) {
+	public synchronized void put(int index, Node value) {
 		nodes.set(index, value);
+		this.index = null;
 	}
 
 	public IDocument getDocument() {
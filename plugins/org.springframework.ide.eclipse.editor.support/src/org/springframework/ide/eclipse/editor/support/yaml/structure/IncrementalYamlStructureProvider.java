@@ -0,0 +1,227 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Pivotal, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Pivotal, Inc. - initial API and implementation
+ *******************************************************************************/
+package org.springframework.ide.eclipse.editor.support.yaml.structure;
+
+import java.lang.ref.WeakReference;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import org.eclipse.jface.text.DocumentEvent;
+import org.eclipse.jface.text.IDocument;
+import org.eclipse.jface.text.IDocumentExtension4;
+import org.eclipse.jface.text.IDocumentListener;
+import org.eclipse.jface.text.ITextInputListener;
+import org.eclipse.jface.text.ITextViewer;
+import org.springframework.ide.eclipse.editor.support.yaml.YamlDocument;
+import org.springframework.ide.eclipse.editor.support.yaml.path.KeyAliases;
+import org.springframework.ide.eclipse.editor.support.yaml.structure.YamlStructureParser.SRootNode;
+
+/**
+ * A {@link YamlStructureProvider} that keeps the last computed structure for each document
+ * it is asked about. The structure is shared by everyone asking for the same version of the
+ * document (as determined by its modification stamp). When the document is edited, only
+ * the affected part of the document is parsed again (see {@link YamlStructureParser#reparse}).
+ */
+public class IncrementalYamlStructureProvider extends YamlStructureProvider {
+
+	/**
+	 * Structure of a single document, and the edits made to the document since it
+	 * was computed.
+	 */
+	private class DocumentState implements IDocumentListener {
+
+		private SRootNode root = null;
+		private long stamp = IDocumentExtension4.UNKNOWN_MODIFICATION_STAMP;
+
+		/**
+		 * Modification stamp of the document after the last change we were notified about.
+		 */
+		private long notifiedStamp = IDocumentExtension4.UNKNOWN_MODIFICATION_STAMP;
+
+		private boolean damaged = false;
+		private int damageStart;
+		private int damageEnd;
+		private int delta;
+
+		DocumentState(IDocument doc) {
+			this.notifiedStamp = getModificationStamp(doc);
+		}
+
+		@Override
+		public synchronized void documentChanged(DocumentEvent event) {
+			notifiedStamp = getModificationStamp(event.getDocument());
+			int offset = event.getOffset();
+			int removed = event.getLength();
+			int inserted = event.getText()==null ? 0 : event.getText().length();
+			if (!damaged) {
+				damaged = true;
+				damageStart = offset;
+				damageEnd = offset + inserted;
+				delta = inserted - removed;
+			} else {
+				//Both the existing damage and the event are expressed in terms of the document just before
+				// this event. Shift the existing damage end so that it is expressed relative to the changed document.
+				int end;
+				if (damageEnd < offset) {
+					end = damageEnd;
+				} else if (damageEnd <= offset + removed) {
+					end = offset + inserted;
+				} else {
+					end = damageEnd + inserted - removed;
+				}
+				damageStart = Math.min(damageStart, offset);
+				damageEnd = Math.max(end, offset + inserted);
+				delta += inserted - removed;
+			}
+		}
+
+		@Override
+		public void documentAboutToBeChanged(DocumentEvent event) {
+			//Don't care
+		}
+
+		SRootNode getStructure(YamlDocument doc) throws Exception {
+			long current = getModificationStamp(doc.getDocument());
+			SRootNode base;
+			int start, end, shift;
+			synchronized (this) {
+				if (root!=null && stamp==current) {
+					return root;
+				}
+				base = root;
+				start = damageStart;
+				end = damageEnd;
+				shift = delta;
+				if (!damaged || current!=notifiedStamp) {
+					//Either no edits were tracked or the document changed and we haven't been told
+					// what changed yet. Either way the old structure is of no use.
+					base = null;
+				}
+			}
+			YamlStructureParser parser = new YamlStructureParser(doc, keyAliases);
+			SRootNode parsed = base==null ? parser.parse() : parser.reparse(base, start, end, shift);
+			synchronized (this) {
+				if (current==getModificationStamp(doc.getDocument()) && current==notifiedStamp && root==base) {
+					root = parsed;
+					stamp = current;
+					damaged = false;
+				}
+			}
+			return parsed;
+		}
+	}
+
+	private final KeyAliases keyAliases;
+
+	/**
+	 * The documents are only weakly referenced. The state for each document is kept alive by the
+	 * document itself, which holds on to it as a listener until the document is {@link #disconnect}ed.
+	 */
+	private final Map<IDocument, WeakReference<DocumentState>> states = new WeakHashMap<>();
+
+	public IncrementalYamlStructureProvider(KeyAliases keyAliases) {
+		this.keyAliases = keyAliases;
+	}
+
+	@Override
+	public SRootNode getStructure(YamlDocument doc) throws Exception {
+		IDocument document = doc.getDocument();
+		if (getModificationStamp(document)==IDocumentExtension4.UNKNOWN_MODIFICATION_STAMP) {
+			return new YamlStructureParser(doc, keyAliases).parse();
+		}
+		return getState(document).getStructure(doc);
+	}
+
+	private synchronized DocumentState getState(IDocument document) {
+		WeakReference<DocumentState> ref = states.get(document);
+		DocumentState state = ref==null ? null : ref.get();
+		if (state==null) {
+			state = new DocumentState(document);
+			document.addDocumentListener(state);
+			states.put(document, new WeakReference<>(state));
+		}
+		return state;
+	}
+
+	/**
+	 * Stops tracking the given document and discards its structure.
+	 */
+	public synchronized void disconnect(IDocument document) {
+		WeakReference<DocumentState> ref = states.remove(document);
+		DocumentState state = ref==null ? null : ref.get();
+		if (state!=null) {
+			document.removeDocumentListener(state);
+		}
+	}
+
+	/**
+	 * Disconnects the documents shown by a viewer, when they are replaced in the viewer or when
+	 * the provider is uninstalled from the viewer.
+	 */
+	private class ViewerInputListener implements ITextInputListener {
+
+		private IDocument document;
+
+		ViewerInputListener(IDocument document) {
+			this.document = document;
+		}
+
+		@Override
+		public synchronized void inputDocumentAboutToBeChanged(IDocument oldInput, IDocument newInput) {
+			if (oldInput!=null) {
+				disconnect(oldInput);
+			}
+		}
+
+		@Override
+		public synchronized void inputDocumentChanged(IDocument oldInput, IDocument newInput) {
+			document = newInput;
+		}
+
+		synchronized void disconnectCurrent() {
+			if (document!=null) {
+				disconnect(document);
+				document = null;
+			}
+		}
+	}
+
+	private final Map<ITextViewer, ViewerInputListener> viewers = new WeakHashMap<>();
+
+	@Override
+	public synchronized void install(ITextViewer viewer) {
+		if (!viewers.containsKey(viewer)) {
+			ViewerInputListener listener = new ViewerInputListener(viewer.getDocument());
+			viewer.addTextInputListener(listener);
+			viewers.put(viewer, listener);
+		}
+	}
+
+	@Override
+	public void uninstall(ITextViewer viewer) {
+		ViewerInputListener listener;
+		synchronized (this) {
+			listener = viewers.remove(viewer);
+		}
+		if (listener!=null) {
+			viewer.removeTextInputListener(listener);
+			listener.disconnectCurrent();
+		}
+	}
+
+	private static long getModificationStamp(IDocument doc) {
+		if (doc instanceof IDocumentExtension4) {
+			return ((IDocumentExtension4) doc).getModificationStamp();
+		}
+		return IDocumentExtension4.UNKNOWN_MODIFICATION_STAMP;
+	}
+
+}
@@ -185,6 +185,20 @@ public class YamlStructureParser {
 			return null; //means EOF
 		}
 
+		/**
+		 * Position the reader so that the next call to 'read' returns the given line.
+		 */
+		public void seek(int line) {
+			nextLine = line;
+		}
+
+		/**
+		 * @return The line number of the line returned by the last call to 'read'.
+		 */
+		public int getLastLineNumber() {
+			return nextLine - 1;
+		}
+
 		public YamlDocument getDocument() {
 			return doc;
 		}
@@ -568,6 +582,164 @@ public class YamlStructureParser {
 		return root;
 	}
 
+	/**
+	 * Compute the structure of the document by updating a structure tree that was parsed
+	 * from an earlier version of the same document.
+	 * <p>
+	 * A line at indentation 0 that starts a simple key or a new document is parsed the same
+	 * way regardless of anything that precedes it (other than which document it belongs to).
+	 * So only the lines from the closest such line before the damaged region, up to the
+	 * first such line after it, need to be parsed again. Nodes outside of that range are
+	 * copied from the old tree, with their offsets shifted as needed. The old tree is not
+	 * modified, so it remains safe to use by anyone still holding on to it.
+	 *
+	 * @param old Structure parsed from the document before it was edited.
+	 * @param damageStart Start of the edited region, as an offset in the current document.
+	 * @param damageEnd End of the edited region, as an offset in the current document.
+	 * @param delta The difference in document length caused by the edits.
+	 */
+	public SRootNode reparse(SRootNode old, int damageStart, int damageEnd, int delta) throws Exception {
+		YamlDocument doc = input.getDocument();
+		int docLength = doc.getDocument().getLength();
+		int firstLine = findBoundaryLineBefore(doc.getLineOfOffset(Math.min(damageStart, docLength)));
+		if (firstLine<=0) {
+			return parse();
+		}
+		int restart = doc.getLineOffset(firstLine);
+		SRootNode root = new SRootNode(doc);
+		for (SNode oldDoc : old.getChildren()) {
+			if (oldDoc.getStart()>=restart && ((SDocNode)oldDoc).getIndex()>0) {
+				break;
+			}
+			SDocNode newDoc = new SDocNode(root, oldDoc.getStart(), oldDoc.getNodeEnd());
+			copyChildren((SChildBearingNode)oldDoc, newDoc, 0, restart);
+		}
+		SChildBearingNode parent = (SChildBearingNode) root.getLastChild();
+		int lastDamagedLine = doc.getLineOfOffset(Math.min(damageEnd, docLength));
+		Map<Integer, SNode> oldTopLevel = null;
+		input.seek(firstLine);
+		YamlLine line;
+		while (null!=(line=input.read())) {
+			int indent = line.getIndent();
+			if (indent==-1) {
+				createRawNode(parent, line);
+			} else {
+				if (input.getLastLineNumber()>lastDamagedLine && isBoundary(line)) {
+					if (oldTopLevel==null) {
+						oldTopLevel = topLevelNodes(old);
+					}
+					SNode resync = oldTopLevel.get(line.getStart()-delta);
+					if (resync!=null && (resync.getNodeType()==SNodeType.DOC)==line.matches(DOCUMENT_SEPERATOR)) {
+						copySuffix(resync, root, delta);
+						return root;
+					}
+				}
+				parent = dropTo(parent, indent);
+				parent = parseLine(parent, line, true);
+			}
+		}
+		return root;
+	}
+
+	private boolean isBoundary(YamlLine line) throws Exception {
+		return line.getIndent()==0 && (line.matches(DOCUMENT_SEPERATOR) || line.matches(SIMPLE_KEY_LINE));
+	}
+
+	/**
+	 * Find closest line, at or before a given line, from which parsing can be restarted
+	 * without knowing anything about the preceding lines other than the current document.
+	 * @return The line number or -1 if there is no such line.
+	 */
+	private int findBoundaryLineBefore(int line) throws Exception {
+		YamlDocument doc = input.getDocument();
+		while (line>=0) {
+			if (doc.getLineIndentation(line)==0 && isBoundary(YamlLine.atLineNumber(doc, line))) {
+				return line;
+			}
+			line--;
+		}
+		return -1;
+	}
+
+	/**
+	 * Index the nodes in a tree where parsing can resynchronize by their start offset.
+	 * These are the explicitly started documents and the keys directly inside of them.
+	 */
+	private static Map<Integer, SNode> topLevelNodes(SRootNode root) {
+		Map<Integer, SNode> index = new HashMap<>();
+		for (SNode doc : root.getChildren()) {
+			if (((SDocNode)doc).getIndex()>0) {
+				index.put(doc.getStart(), doc);
+			}
+			for (SNode c : ((SDocNode)doc).getChildren()) {
+				if (c.getNodeType()==SNodeType.KEY && c.getIndent()==0) {
+					index.put(c.getStart(), c);
+				}
+			}
+		}
+		return index;
+	}
+
+	/**
+	 * Copy a node from an old tree, together with all the nodes that follow it, to the end of a new tree.
+	 */
+	private void copySuffix(SNode from, SRootNode root, int delta) throws Exception {
+		SRootNode oldRoot = from.getRoot();
+		int nextDoc;
+		if (from.getNodeType()==SNodeType.DOC) {
+			nextDoc = ((SDocNode)from).getIndex();
+		} else {
+			SDocNode oldDoc = from.getDocNode();
+			SChildBearingNode parent = (SChildBearingNode) root.getLastChild();
+			boolean copying = false;
+			for (SNode c : oldDoc.getChildren()) {
+				copying = copying || c==from;
+				if (copying) {
+					copy(c, parent, delta, Integer.MAX_VALUE);
+				}
+			}
+			nextDoc = oldDoc.getIndex()+1;
+		}
+		List<SNode> oldDocs = oldRoot.getChildren();
+		for (int i = nextDoc; i < oldDocs.size(); i++) {
+			SDocNode oldDoc = (SDocNode) oldDocs.get(i);
+			SDocNode newDoc = new SDocNode(root, oldDoc.getStart()+delta, oldDoc.getNodeEnd()+delta);
+			copyChildren(oldDoc, newDoc, delta, Integer.MAX_VALUE);
+		}
+	}
+
+	/**
+	 * Copy children of a node from an old tree, skipping any that start at or after a given limit.
+	 */
+	private void copyChildren(SChildBearingNode from, SChildBearingNode to, int delta, int limit) throws Exception {
+		for (SNode c : from.getChildren()) {
+			if (c.getStart()>=limit) {
+				return;
+			}
+			copy(c, to, delta, limit);
+		}
+	}
+
+	private void copy(SNode node, SChildBearingNode parent, int delta, int limit) throws Exception {
+		YamlDocument doc = input.getDocument();
+		int start = node.getStart()+delta;
+		int end = node.getNodeEnd()+delta;
+		switch (node.getNodeType()) {
+		case KEY:
+			SKeyNode key = (SKeyNode) node;
+			copyChildren(key, new SKeyNode(parent, doc, key.getIndent(), start, end, key.getColonOffset()+delta), delta, limit);
+			break;
+		case SEQ:
+			copyChildren((SSeqNode)node, new SSeqNode(parent, doc, node.getIndent(), start, end), delta, limit);
+			break;
+		case RAW:
+			new SRawNode(parent, doc, node.getIndent(), start, end);
+			break;
+		default:
+			throw new IllegalStateException("Unexpected node type: "+node.getNodeType());
+		}
+	}
+
 	protected SChildBearingNode parseLine(SChildBearingNode parent, YamlLine line, boolean createRawNode) throws Exception {
 		if (line.matches(DOCUMENT_SEPERATOR)) {
 			parent = createDocNode(parent.getRoot(), line);
@@ -664,6 +836,11 @@ public class YamlStructureParser {
 			this.colonOffset = relativeColonOffset + start;
 		}
 
+		private SKeyNode(SChildBearingNode parent, YamlDocument doc, int indent, int start, int end, int colonOffset) throws Exception {
+			super(parent, doc, indent, start, end);
+			this.colonOffset = colonOffset;
+		}
+
 		@Override
 		public SNodeType getNodeType() {
 			return SNodeType.KEY;
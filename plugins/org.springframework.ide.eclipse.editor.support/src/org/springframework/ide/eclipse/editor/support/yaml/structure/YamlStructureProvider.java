@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2015, 2016 Pivotal, Inc.
+ * Copyright (c) 2015, 2017 Pivotal, Inc.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -10,6 +10,7 @@
  *******************************************************************************/
 package org.springframework.ide.eclipse.editor.support.yaml.structure;
 
+import org.eclipse.jface.text.ITextViewer;
 import org.springframework.ide.eclipse.editor.support.yaml.YamlDocument;
 import org.springframework.ide.eclipse.editor.support.yaml.path.KeyAliases;
 import org.springframework.ide.eclipse.editor.support.yaml.structure.YamlStructureParser.SRootNode;
@@ -21,6 +22,21 @@ public abstract class YamlStructureProvider {
 
 	public abstract SRootNode getStructure(YamlDocument doc) throws Exception;
 
+	/**
+	 * Called after a viewer has been configured to use this provider, so that the provider can release
+	 * anything it keeps for the viewer's documents once the viewer is done with them. Does nothing
+	 * by default.
+	 */
+	public void install(ITextViewer viewer) {
+	}
+
+	/**
+	 * Counterpart of {@link #install(ITextViewer)}, called when the viewer is unconfigured. Does nothing
+	 * by default.
+	 */
+	public void uninstall(ITextViewer viewer) {
+	}
+
 	public static final YamlStructureProvider withAliases(final KeyAliases keyAliases) {
 		//TODO: its kind of fishy that we need this method. This is injecting some behavior
 		// related to 'alias aware' traversing of the parse tree. But this behavior probably
@@ -31,17 +47,9 @@ public abstract class YamlStructureProvider {
 		//
 		// For now, however it was the easiest way to make the parser reusable without
 		// breaking Application.yml support.
-		return new YamlStructureProvider() {
-			public SRootNode getStructure(YamlDocument doc) throws Exception {
-				return new YamlStructureParser(doc, keyAliases).parse();
-			}
-		};
+		return new IncrementalYamlStructureProvider(keyAliases);
 	}
 
-	public static final YamlStructureProvider DEFAULT = new YamlStructureProvider() {
-		public SRootNode getStructure(YamlDocument doc) throws Exception {
-			return new YamlStructureParser(doc, KeyAliases.NONE).parse();
-		}
-	};
+	public static final YamlStructureProvider DEFAULT = new IncrementalYamlStructureProvider(KeyAliases.NONE);
 
 }
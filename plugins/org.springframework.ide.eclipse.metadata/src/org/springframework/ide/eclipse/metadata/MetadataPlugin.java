@@ -1,5 +1,5 @@
 /*******************************************************************************
- *  Copyright (c) 2012 VMware, Inc.
+ *  Copyright (c) 2012 - 2017 VMware, Inc.
  *  All rights reserved. This program and the accompanying materials
  *  are made available under the terms of the Eclipse Public License v1.0
  *  which accompanies this distribution, and is available at
@@ -13,6 +13,7 @@ package org.springframework.ide.eclipse.metadata;
 import org.eclipse.jface.resource.ImageRegistry;
 import org.eclipse.ui.plugin.AbstractUIPlugin;
 import org.osgi.framework.BundleContext;
+import org.springframework.ide.eclipse.metadata.ui.RequestMappingIndex;
 
 /**
  * The bundle activator for the metadata plugin
@@ -28,6 +29,9 @@ public class MetadataPlugin extends AbstractUIPlugin {
 	/** The shared instance */
 	private static MetadataPlugin plugin;
 	
+	/** The index of the request mappings shown in the request mappings view */
+	private RequestMappingIndex requestMappingIndex;
+	
 	/**
 	 * Starts the bundle.
 	 */
@@ -48,6 +52,12 @@ public class MetadataPlugin extends AbstractUIPlugin {
 	 * Stops the bundle.
 	 */
 	public void stop(BundleContext context) throws Exception {
+		synchronized (this) {
+			if (requestMappingIndex != null) {
+				requestMappingIndex.dispose();
+				requestMappingIndex = null;
+			}
+		}
 		plugin = null;
 		super.stop(context);
 	}
@@ -59,4 +69,14 @@ public class MetadataPlugin extends AbstractUIPlugin {
 		return plugin;
 	}
 
+	/**
+	 * Returns the shared {@link RequestMappingIndex}.
+	 */
+	public synchronized RequestMappingIndex getRequestMappingIndex() {
+		if (requestMappingIndex == null) {
+			requestMappingIndex = new RequestMappingIndex();
+		}
+		return requestMappingIndex;
+	}
+
 }
@@ -0,0 +1,168 @@
+/*******************************************************************************
+ *  Copyright (c) 2017 GoPivotal, Inc.
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  Contributors:
+ *      GoPivotal, Inc. - initial API and implementation
+ *******************************************************************************/
+package org.springframework.ide.eclipse.metadata.ui;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.ide.eclipse.beans.core.internal.model.AbstractBeansModelCache;
+import org.springframework.ide.eclipse.beans.core.internal.model.BeansModelUtils;
+import org.springframework.ide.eclipse.beans.core.metadata.BeansMetadataPlugin;
+import org.springframework.ide.eclipse.beans.core.metadata.model.IBeanMetadata;
+import org.springframework.ide.eclipse.beans.core.metadata.model.IMethodMetadata;
+import org.springframework.ide.eclipse.beans.core.model.IBean;
+import org.springframework.ide.eclipse.beans.core.model.IBeansConfig;
+import org.springframework.ide.eclipse.core.model.ModelChangeEvent;
+import org.springframework.ide.eclipse.metadata.core.RequestMappingAnnotationMetadata;
+import org.springframework.ide.eclipse.metadata.core.RequestMappingMethodAnnotationMetadata;
+
+/**
+ * Index of the request mappings of every {@link IBeansConfig}, as shown by the
+ * {@link RequestMappingView}. Every entry keeps the URL pattern, request
+ * method and handler method of a mapping, so the view doesn't need to compute
+ * them again for sorting or painting.
+ * <p>
+ * The mappings of a config are only looked at again after the beans model
+ * reported a change of its project. Even then only the beans whose meta data
+ * has been replaced by the meta data builder get new entries; all other
+ * entries are reused. The mappings of removed projects and configs are dropped.
+ * @since 3.9.4
+ */
+public class RequestMappingIndex extends AbstractBeansModelCache {
+
+	private final ConcurrentHashMap<String, ConfigMappings> configs = new ConcurrentHashMap<String, ConfigMappings>();
+
+	private final RequestMappingViewLabelProvider labelProvider = new RequestMappingViewLabelProvider();
+
+	/**
+	 * Returns the request mappings of the given config. The same list is
+	 * returned for as long as the mappings don't change.
+	 */
+	public List<RequestMappingMethodToClassMap> getMappings(IBeansConfig config) {
+		startListening();
+		ConfigMappings mappings = configs.get(config.getElementID());
+		if (mappings == null) {
+			mappings = new ConfigMappings(getProjectName(config));
+			ConfigMappings existing = configs.putIfAbsent(config.getElementID(), mappings);
+			if (existing != null) {
+				mappings = existing;
+			}
+		}
+		synchronized (mappings) {
+			if (mappings.dirty) {
+				// Reset first, so that a change during the update is not lost
+				mappings.dirty = false;
+				update(config, mappings);
+			}
+			return mappings.rows;
+		}
+	}
+
+	private void update(IBeansConfig config, ConfigMappings mappings) {
+		Map<String, BeanMappings> beans = new HashMap<String, BeanMappings>();
+		List<RequestMappingMethodToClassMap> rows = new ArrayList<RequestMappingMethodToClassMap>();
+		boolean changed = false;
+		for (IBean bean : BeansModelUtils.getBeans(config)) {
+			Set<IBeanMetadata> metadata = BeansMetadataPlugin.getMetadataModel().getBeanMetadata(bean);
+			BeanMappings beanMappings = mappings.beans.get(bean.getElementID());
+
+			// The meta data model only replaces the meta data of beans that have changed
+			if (beanMappings == null || beanMappings.metadata != metadata) {
+				beanMappings = new BeanMappings(metadata, createRows(metadata));
+				changed = true;
+			}
+			beans.put(bean.getElementID(), beanMappings);
+			rows.addAll(beanMappings.rows);
+		}
+		if (changed || beans.size() != mappings.beans.size() || rows.size() != mappings.rows.size()) {
+			mappings.beans = beans;
+			mappings.rows = Collections.unmodifiableList(rows);
+		}
+	}
+
+	private List<RequestMappingMethodToClassMap> createRows(Set<IBeanMetadata> metadataSet) {
+		List<RequestMappingMethodToClassMap> rows = new ArrayList<RequestMappingMethodToClassMap>();
+		for (IBeanMetadata metadata : metadataSet) {
+			if (metadata instanceof RequestMappingAnnotationMetadata) {
+				RequestMappingAnnotationMetadata annotation = (RequestMappingAnnotationMetadata) metadata;
+				for (IMethodMetadata method : annotation.getMethodMetaData()) {
+					if (method instanceof RequestMappingMethodAnnotationMetadata) {
+						RequestMappingMethodToClassMap row = new RequestMappingMethodToClassMap(
+								(RequestMappingMethodAnnotationMetadata) method, annotation);
+
+						// Compute the column texts once instead of on every sort or paint
+						labelProvider.getColumnText(row, RequestMappingView.COLUMN_URL);
+						labelProvider.getColumnText(row, RequestMappingView.COLUMN_REQUEST_METHOD);
+						labelProvider.getColumnText(row, RequestMappingView.COLUMN_HANDLER_METHOD);
+						rows.add(row);
+					}
+				}
+			}
+		}
+		return rows;
+	}
+
+	@Override
+	protected void projectChanged(String projectName, ModelChangeEvent.Type type) {
+		for (Map.Entry<String, ConfigMappings> entry : configs.entrySet()) {
+			ConfigMappings mappings = entry.getValue();
+			if (projectName == null || projectName.equals(mappings.projectName)) {
+				if (type == ModelChangeEvent.Type.REMOVED) {
+					configs.remove(entry.getKey(), mappings);
+				}
+				else {
+					mappings.dirty = true;
+				}
+			}
+		}
+	}
+
+	public void dispose() {
+		stopListening();
+		configs.clear();
+		labelProvider.dispose();
+	}
+
+	private static class ConfigMappings {
+
+		private final String projectName;
+
+		private volatile boolean dirty = true;
+
+		/** Mappings per bean element id */
+		private Map<String, BeanMappings> beans = Collections.emptyMap();
+
+		private List<RequestMappingMethodToClassMap> rows = Collections.emptyList();
+
+		public ConfigMappings(String projectName) {
+			this.projectName = projectName;
+		}
+	}
+
+	private static class BeanMappings {
+
+		/** The meta data the rows have been created from */
+		private final Set<IBeanMetadata> metadata;
+
+		private final List<RequestMappingMethodToClassMap> rows;
+
+		public BeanMappings(Set<IBeanMetadata> metadata, List<RequestMappingMethodToClassMap> rows) {
+			this.metadata = metadata;
+			this.rows = rows;
+		}
+	}
+
+}
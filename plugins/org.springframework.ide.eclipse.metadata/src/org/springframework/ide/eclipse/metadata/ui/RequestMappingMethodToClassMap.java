@@ -1,5 +1,5 @@
 /*******************************************************************************
- *  Copyright (c) 2012 VMware, Inc.
+ *  Copyright (c) 2012 - 2017 VMware, Inc.
  *  All rights reserved. This program and the accompanying materials
  *  are made available under the terms of the Eclipse Public License v1.0
  *  which accompanies this distribution, and is available at
@@ -26,6 +26,9 @@ public class RequestMappingMethodToClassMap {
 
 	private RequestMappingMethodAnnotationMetadata methodMetadata;
 
+	/** Column texts computed by the label provider, per column index */
+	private final String[] columnTexts = new String[3];
+
 	public RequestMappingMethodToClassMap(
 			RequestMappingMethodAnnotationMetadata methodMetadata,
 			RequestMappingAnnotationMetadata classMetadata) {
@@ -63,6 +66,18 @@ public class RequestMappingMethodToClassMap {
 		return methodMetadata;
 	}
 
+	/**
+	 * Returns the cached text of the given column, or <code>null</code> if it
+	 * hasn't been computed yet.
+	 */
+	public String getColumnText(int columnIndex) {
+		return columnTexts[columnIndex];
+	}
+
+	public void setColumnText(int columnIndex, String text) {
+		columnTexts[columnIndex] = text;
+	}
+
 	@Override
 	public int hashCode() {
 		final int prime = 31;
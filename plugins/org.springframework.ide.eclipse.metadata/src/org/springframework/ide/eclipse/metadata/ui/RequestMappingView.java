@@ -1,5 +1,5 @@
 /*******************************************************************************
- *  Copyright (c) 2012 - 2013 GoPivotal, Inc.
+ *  Copyright (c) 2012 - 2017 GoPivotal, Inc.
  *  All rights reserved. This program and the accompanying materials
  *  are made available under the terms of the Eclipse Public License v1.0
  *  which accompanies this distribution, and is available at
@@ -12,7 +12,10 @@ package org.springframework.ide.eclipse.metadata.ui;
 
 import java.io.IOException;
 import java.io.Reader;
-import java.util.HashSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
 
@@ -79,9 +82,6 @@ import org.eclipse.ui.part.ViewPart;
 import org.eclipse.ui.progress.IWorkbenchSiteProgressService;
 import org.springframework.ide.eclipse.beans.core.BeansCorePlugin;
 import org.springframework.ide.eclipse.beans.core.internal.model.BeansModelUtils;
-import org.springframework.ide.eclipse.beans.core.metadata.BeansMetadataPlugin;
-import org.springframework.ide.eclipse.beans.core.metadata.model.IBeanMetadata;
-import org.springframework.ide.eclipse.beans.core.model.IBean;
 import org.springframework.ide.eclipse.beans.core.model.IBeansConfig;
 import org.springframework.ide.eclipse.beans.core.model.IBeansConfigSet;
 import org.springframework.ide.eclipse.beans.core.model.IBeansModelElement;
@@ -128,7 +128,11 @@ public class RequestMappingView extends ViewPart implements ISelectionListener,
 
 	private static final String EMPTY_MAPPINGS = Messages.RequestMappingView_DESCRIPTION_EMPTY_REQUESTMAPPINGS;
 
-	private Set<RequestMappingAnnotationMetadata> annotations;
+	/** The mappings of the configs of the current input, as returned by the {@link RequestMappingIndex} */
+	private List<List<RequestMappingMethodToClassMap>> mappings;
+
+	/** The sorted rows of the table */
+	private RequestMappingMethodToClassMap[] rows;
 
 	private BaseSelectionListenerAction breakpointAction;
 
@@ -163,7 +167,8 @@ public class RequestMappingView extends ViewPart implements ISelectionListener,
 	private RequestMappingViewSorter viewSorter;
 
 	public RequestMappingView() {
-		annotations = new HashSet<RequestMappingAnnotationMetadata>();
+		mappings = new ArrayList<List<RequestMappingMethodToClassMap>>();
+		rows = new RequestMappingMethodToClassMap[0];
 		prefStore = MetadataPlugin.getDefault().getPreferenceStore();
 		resourceListener = new ResourceChangeListener();
 		ResourcesPlugin.getWorkspace().addResourceChangeListener(
@@ -280,19 +285,11 @@ public class RequestMappingView extends ViewPart implements ISelectionListener,
 		prefStore.setValue(PREF_ORIENTATION, orientation);
 	}
 
-	private void addAnnotationsForConfig(
-			Set<RequestMappingAnnotationMetadata> newAnnotations,
+	private void addMappingsForConfig(
+			List<List<RequestMappingMethodToClassMap>> newMappings,
 			IBeansConfig config) {
-		for (IBean bean : BeansModelUtils.getBeans(config)) {
-			Set<IBeanMetadata> metadataSet = BeansMetadataPlugin
-					.getMetadataModel().getBeanMetadata(bean);
-			for (IBeanMetadata metadata : metadataSet) {
-				if (metadata instanceof RequestMappingAnnotationMetadata) {
-					newAnnotations
-							.add((RequestMappingAnnotationMetadata) metadata);
-				}
-			}
-		}
+		newMappings.add(MetadataPlugin.getDefault().getRequestMappingIndex()
+				.getMappings(config));
 	}
 
 	private void createActions() {
@@ -353,7 +350,7 @@ public class RequestMappingView extends ViewPart implements ISelectionListener,
 						table.setSortColumn(column.getColumn());
 						viewSorter.setSortColumn(columnId);
 					}
-					mainViewer.refresh();
+					sortRows();
 				}
 			});
 		}
@@ -366,13 +363,13 @@ public class RequestMappingView extends ViewPart implements ISelectionListener,
 
 	private void createRequestMappingViewer(Composite parent) {
 		mainViewer = new TableViewer(parent, SWT.SINGLE | SWT.H_SCROLL
-				| SWT.V_SCROLL | SWT.BORDER | SWT.FULL_SELECTION);
+				| SWT.V_SCROLL | SWT.BORDER | SWT.FULL_SELECTION | SWT.VIRTUAL);
 		labelProvider = new RequestMappingViewLabelProvider();
 		viewSorter = new RequestMappingViewSorter(labelProvider);
 		createRequestMappingColumns();
+		mainViewer.setUseHashlookup(true);
 		mainViewer.setContentProvider(new RequestMappingViewContentProvider());
 		mainViewer.setLabelProvider(labelProvider);
-		mainViewer.setSorter(viewSorter);
 		mainViewer.addSelectionChangedListener(this);
 		mainViewer.addDoubleClickListener(new IDoubleClickListener() {
 			public void doubleClick(DoubleClickEvent event) {
@@ -583,18 +580,18 @@ public class RequestMappingView extends ViewPart implements ISelectionListener,
 	}
 
 	private void internalSetInput() {
-		final Set<RequestMappingAnnotationMetadata> newAnnotations = new HashSet<RequestMappingAnnotationMetadata>();
+		final List<List<RequestMappingMethodToClassMap>> newMappings = new ArrayList<List<RequestMappingMethodToClassMap>>();
 		String contentDescription = getContentDescription();
 		if (element == null) {
 			contentDescription = EMPTY_MAPPINGS;
 		} else if (element instanceof IBeansConfig) {
-			addAnnotationsForConfig(newAnnotations, (IBeansConfig) element);
+			addMappingsForConfig(newMappings, (IBeansConfig) element);
 			contentDescription = Messages.RequestMappingView_PREFIX_CONFIG_FILE
 					+ ((IBeansConfig) element).getElementResource()
 							.getFullPath().toString();
 		} else if (element instanceof IBeansConfigSet) {
 			for (IBeansConfig config : ((IBeansConfigSet) element).getConfigs()) {
-				addAnnotationsForConfig(newAnnotations, config);
+				addMappingsForConfig(newMappings, config);
 			}
 			IModelElement parent = ((IBeansConfigSet) element)
 					.getElementParent();
@@ -602,7 +599,7 @@ public class RequestMappingView extends ViewPart implements ISelectionListener,
 					+ parent.getElementName() + "/" + element.getElementName(); //$NON-NLS-1$
 		} else if (element instanceof IBeansProject) {
 			for (IBeansConfig config : ((IBeansProject) element).getConfigs()) {
-				addAnnotationsForConfig(newAnnotations, config);
+				addMappingsForConfig(newMappings, config);
 			}
 			contentDescription = Messages.RequestMappingView_PREFIX_PROJECT
 					+ ((IBeansProject) element).getElementName();
@@ -612,14 +609,51 @@ public class RequestMappingView extends ViewPart implements ISelectionListener,
 		PlatformUI.getWorkbench().getDisplay().asyncExec(new Runnable() {
 			public void run() {
 				setContentDescription(newContentDescription);
-				if (!newAnnotations.equals(annotations)) {
-					annotations = newAnnotations;
-					mainViewer.setInput(annotations);
+				if (!isSameMappings(newMappings, mappings)) {
+					mappings = newMappings;
+					Set<RequestMappingMethodToClassMap> newRows = new LinkedHashSet<RequestMappingMethodToClassMap>();
+					for (List<RequestMappingMethodToClassMap> configMappings : newMappings) {
+						newRows.addAll(configMappings);
+					}
+					rows = newRows.toArray(new RequestMappingMethodToClassMap[newRows.size()]);
+					sortRows();
 				}
 			}
 		});
 	}
 
+	/**
+	 * The {@link RequestMappingIndex} returns the same list for a config as
+	 * long as its mappings are unchanged.
+	 */
+	private boolean isSameMappings(
+			List<List<RequestMappingMethodToClassMap>> newMappings,
+			List<List<RequestMappingMethodToClassMap>> oldMappings) {
+		if (newMappings.size() != oldMappings.size()) {
+			return false;
+		}
+		for (int i = 0; i < newMappings.size(); i++) {
+			if (newMappings.get(i) != oldMappings.get(i)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Sorts the rows according to the current sort column and direction and
+	 * hands them to the table, which only materializes the visible ones.
+	 */
+	private void sortRows() {
+		Arrays.sort(rows, new Comparator<RequestMappingMethodToClassMap>() {
+			public int compare(RequestMappingMethodToClassMap o1,
+					RequestMappingMethodToClassMap o2) {
+				return viewSorter.compare(mainViewer, o1, o2);
+			}
+		});
+		mainViewer.setInput(rows.clone());
+	}
+
 	private void setJavadocInput(ISelection selection) {
 		if (selection instanceof IStructuredSelection) {
 			IStructuredSelection structuredSelection = (IStructuredSelection) selection;
@@ -1,5 +1,5 @@
 /*******************************************************************************
- *  Copyright (c) 2012 VMware, Inc.
+ *  Copyright (c) 2012 - 2017 VMware, Inc.
  *  All rights reserved. This program and the accompanying materials
  *  are made available under the terms of the Eclipse Public License v1.0
  *  which accompanies this distribution, and is available at
@@ -10,49 +10,46 @@
  *******************************************************************************/
 package org.springframework.ide.eclipse.metadata.ui;
 
-import java.util.HashSet;
-import java.util.Set;
-
-import org.eclipse.jface.viewers.IStructuredContentProvider;
+import org.eclipse.jface.viewers.ILazyContentProvider;
+import org.eclipse.jface.viewers.TableViewer;
 import org.eclipse.jface.viewers.Viewer;
-import org.springframework.ide.eclipse.beans.core.metadata.model.IMethodMetadata;
-import org.springframework.ide.eclipse.metadata.core.RequestMappingAnnotationMetadata;
-import org.springframework.ide.eclipse.metadata.core.RequestMappingMethodAnnotationMetadata;
 
 
 /**
+ * Lazy content provider of the {@link RequestMappingView}. The input is the
+ * already sorted array of {@link RequestMappingMethodToClassMap}s; the table
+ * only asks for the rows that become visible.
  * @author Leo Dos Santos
  * @author Christian Dupuis
  */
 public class RequestMappingViewContentProvider implements
-		IStructuredContentProvider {
-
-	@SuppressWarnings("unchecked")
-	public Object[] getElements(Object inputElement) {
-		Set elements = new HashSet();
-		Set<RequestMappingAnnotationMetadata> annotations = (Set<RequestMappingAnnotationMetadata>) inputElement;
-		for (RequestMappingAnnotationMetadata annotation : annotations) {
-			// elements.add(annotation);
-			Set<IMethodMetadata> methods = annotation.getMethodMetaData();
-			for (IMethodMetadata method : methods) {
-				if (method instanceof RequestMappingMethodAnnotationMetadata) {
-					elements.add(new RequestMappingMethodToClassMap(
-							(RequestMappingMethodAnnotationMetadata) method,
-							annotation));
-				}
-			}
+		ILazyContentProvider {
+
+	private static final Object[] NO_ELEMENTS = new Object[0];
+
+	private TableViewer viewer;
+
+	private Object[] elements = NO_ELEMENTS;
+
+	public void updateElement(int index) {
+		if (viewer != null && index < elements.length) {
+			viewer.replace(elements[index], index);
 		}
-		return elements.toArray();
 	}
 
 	public void dispose() {
-		// TODO Auto-generated method stub
-
+		viewer = null;
+		elements = NO_ELEMENTS;
 	}
 
 	public void inputChanged(Viewer viewer, Object oldInput, Object newInput) {
-		// TODO Auto-generated method stub
-
+		this.viewer = (TableViewer) viewer;
+		if (newInput instanceof Object[]) {
+			elements = (Object[]) newInput;
+		} else {
+			elements = NO_ELEMENTS;
+		}
+		this.viewer.setItemCount(elements.length);
 	}
 
 }
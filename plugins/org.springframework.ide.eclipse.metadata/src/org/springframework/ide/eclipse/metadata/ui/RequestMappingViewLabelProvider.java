@@ -1,5 +1,5 @@
 /*******************************************************************************
- *  Copyright (c) 2012 VMware, Inc.
+ *  Copyright (c) 2012 - 2017 VMware, Inc.
  *  All rights reserved. This program and the accompanying materials
  *  are made available under the terms of the Eclipse Public License v1.0
  *  which accompanies this distribution, and is available at
@@ -63,19 +63,32 @@ public class RequestMappingViewLabelProvider extends LabelProvider implements
 			}
 		}
 		if (element instanceof RequestMappingMethodToClassMap) {
-			if (columnIndex == RequestMappingView.COLUMN_URL) {
-				return getMethodUrl((RequestMappingMethodToClassMap) element);
-			}
-			if (columnIndex == RequestMappingView.COLUMN_REQUEST_METHOD) {
-				return getRequestMethod((RequestMappingMethodToClassMap) element);
-			}
-			if (columnIndex == RequestMappingView.COLUMN_HANDLER_METHOD) {
-				return getHandlerMethod((RequestMappingMethodToClassMap) element);
+			RequestMappingMethodToClassMap map = (RequestMappingMethodToClassMap) element;
+			if (columnIndex == RequestMappingView.COLUMN_URL
+					|| columnIndex == RequestMappingView.COLUMN_REQUEST_METHOD
+					|| columnIndex == RequestMappingView.COLUMN_HANDLER_METHOD) {
+				String text = map.getColumnText(columnIndex);
+				if (text == null) {
+					text = computeColumnText(map, columnIndex);
+					map.setColumnText(columnIndex, text);
+				}
+				return text;
 			}
 		}
 		return ""; //$NON-NLS-1$
 	}
 
+	private String computeColumnText(RequestMappingMethodToClassMap map,
+			int columnIndex) {
+		if (columnIndex == RequestMappingView.COLUMN_URL) {
+			return getMethodUrl(map);
+		}
+		if (columnIndex == RequestMappingView.COLUMN_REQUEST_METHOD) {
+			return getRequestMethod(map);
+		}
+		return getHandlerMethod(map);
+	}
+
 	@SuppressWarnings("unchecked")
 	private String getClassUrl(RequestMappingAnnotationMetadata annotation) {
 		Object value = annotation.getValue();